@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# Runs the k6 load test (threading.js) against the backend twice, once on Tomcat's platform thread pool
+# and once in virtual-thread mode, and prints throughput, latency and memory side by side.
+#
+# Requirements: Java 21+ on the PATH (virtual threads), k6, curl, and a packaged jar (mvn package -DskipTests).
+# The backend runs with the inmemory profile and a simulated storage latency, so request threads spend
+# their time blocked the way they do on Firestore round trips.
+#
+#   LATENCY_MS=20 VUS=400 DURATION=60s loadtest/compare-threading.sh
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+JAR=$(ls target/backend-*.jar | grep -v original | head -n 1)
+LATENCY_MS=${LATENCY_MS:-20}
+VUS=${VUS:-400}
+DURATION=${DURATION:-60s}
+HEAP=${HEAP:-512m}
+PORT=8081
+MANAGEMENT_PORT=8082
+RESULTS=target/loadtest
+mkdir -p "$RESULTS"
+
+metric() {
+    # Sums every series of a Prometheus metric, e.g. metric jvm_memory_used_bytes 'area="heap"'
+    curl -s "http://localhost:$MANAGEMENT_PORT/actuator/prometheus" \
+        | grep "^$1{" | grep "${2:-}" | awk '{ sum += $NF } END { printf "%.0f", sum }' # Label values may contain spaces
+}
+
+run_mode() {
+    local mode=$1 virtual=$2
+    echo "=== $mode threads ==="
+    java -Xmx"$HEAP" -jar "$JAR" \
+        --spring.profiles.active=inmemory \
+        --barter.inmemory.latency-ms="$LATENCY_MS" \
+        --spring.threads.virtual.enabled="$virtual" \
+        --logging.level.root=WARN > "$RESULTS/$mode.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null || true" EXIT
+
+    until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health" > /dev/null; do
+        sleep 1
+    done
+
+    k6 run --quiet -e BASE_URL="http://localhost:$PORT" -e VUS="$VUS" -e DURATION="$DURATION" \
+        --summary-export "$RESULTS/$mode-summary.json" loadtest/threading.js
+
+    # Sampled at the end of the run, while the server still holds its threads
+    echo "$mode $(grep VmRSS /proc/$pid/status | awk '{ print $2 }') \
+$(metric jvm_memory_used_bytes 'area="heap"') $(metric jvm_memory_used_bytes 'area="nonheap"') \
+$(metric jvm_threads_live_threads) $(metric jvm_threads_peak_threads)" >> "$RESULTS/memory.txt"
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+rm -f "$RESULTS/memory.txt"
+run_mode platform false
+run_mode virtual true
+
+printf '\n%-9s %10s %10s %10s %10s %12s %10s %10s %8s\n' \
+    mode "req/s" "p50 ms" "p95 ms" "p99 ms" "RSS MiB" "heap MiB" "nonheap" "threads"
+while read -r mode rss heap nonheap threads peak; do
+    summary="$RESULTS/$mode-summary.json"
+    rate=$(grep -o '"http_reqs":{[^}]*' "$summary" | grep -o '"rate":[0-9.]*' | cut -d: -f2)
+    durations=$(grep -o '"http_req_duration":{[^}]*' "$summary")
+    p50=$(echo "$durations" | grep -o '"p(50)":[0-9.]*' | cut -d: -f2)
+    p95=$(echo "$durations" | grep -o '"p(95)":[0-9.]*' | cut -d: -f2)
+    p99=$(echo "$durations" | grep -o '"p(99)":[0-9.]*' | cut -d: -f2)
+    printf '%-9s %10.0f %10.1f %10.1f %10.1f %12.0f %10.0f %10.0f %8s\n' \
+        "$mode" "$rate" "$p50" "$p95" "$p99" "$((rss / 1024))" "$((heap / 1048576))" "$((nonheap / 1048576))" "$threads/$peak"
+done < "$RESULTS/memory.txt"
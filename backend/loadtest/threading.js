@@ -0,0 +1,79 @@
+// k6 load test for the platform vs virtual thread comparison (see compare-threading.sh).
+//
+// Seeds a few users with posts and chats through the API, then has every virtual user loop over the
+// post listing, a user's chat list and a chat's latest messages. Expects the backend to run with the
+// inmemory profile, which accepts "dev:<uid>" bearer tokens.
+//
+//   k6 run -e BASE_URL=http://localhost:8081 -e VUS=400 -e DURATION=60s loadtest/threading.js
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const USERS = parseInt(__ENV.USERS || '20', 10);
+const POSTS_PER_USER = parseInt(__ENV.POSTS_PER_USER || '10', 10);
+const MESSAGES_PER_CHAT = parseInt(__ENV.MESSAGES_PER_CHAT || '30', 10);
+
+export const options = {
+    scenarios: {
+        browse: {
+            executor: 'constant-vus',
+            vus: parseInt(__ENV.VUS || '400', 10),
+            duration: __ENV.DURATION || '60s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+function auth(uid) {
+    return { Authorization: `Bearer dev:${uid}` };
+}
+
+function uidFor(index) {
+    return `loadtest-user-${index}`;
+}
+
+export function setup() {
+    const chats = [];
+    for (let i = 0; i < USERS; i++) {
+        const uid = uidFor(i);
+        http.post(`${BASE_URL}/api/users`, {
+            user: http.file(JSON.stringify({ firebaseUid: uid, displayName: `Load Test ${i}` }), 'user.json', 'application/json'),
+        }, { headers: auth(uid) });
+
+        for (let p = 0; p < POSTS_PER_USER; p++) {
+            const post = { title: `Lesson ${i}-${p}`, description: 'Guitar lessons in exchange for cooking', tags: ['music'] };
+            http.post(`${BASE_URL}/api/posts`, {
+                post: http.file(JSON.stringify(post), 'post.json', 'application/json'),
+            }, { headers: auth(uid) });
+        }
+
+        const partner = uidFor((i + 1) % USERS);
+        const created = http.post(`${BASE_URL}/api/chats`, JSON.stringify({ participants: [uid, partner], type: 'direct' }),
+            { headers: Object.assign({ 'Content-Type': 'application/json' }, auth(uid)) });
+        if (created.status === 201) {
+            const chatId = created.json('id');
+            for (let m = 0; m < MESSAGES_PER_CHAT; m++) {
+                http.post(`${BASE_URL}/api/chats/${chatId}/messages`, JSON.stringify({ senderId: uid, text: `Message ${m}` }),
+                    { headers: Object.assign({ 'Content-Type': 'application/json' }, auth(uid)) });
+            }
+            chats.push({ chatId, uid });
+        }
+    }
+    return { chats };
+}
+
+export default function (data) {
+    const chat = data.chats[(__VU + __ITER) % data.chats.length];
+    const headers = auth(chat.uid);
+
+    const posts = http.get(`${BASE_URL}/api/posts?size=20`, { headers, tags: { name: '/api/posts' } });
+    check(posts, { 'posts 200': (r) => r.status === 200 });
+
+    const chats = http.get(`${BASE_URL}/api/chats/user/${chat.uid}`, { headers, tags: { name: '/api/chats/user/{userId}' } });
+    check(chats, { 'chats 200': (r) => r.status === 200 });
+
+    const messages = http.get(`${BASE_URL}/api/chats/${chat.chatId}/messages?limit=20`,
+        { headers, tags: { name: '/api/chats/{chatId}/messages' } });
+    check(messages, { 'messages 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,118 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.PostQuery;
+import com.barter.backend.repository.PostRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-only PostRepository over a pre-built, newest-first list. It stands in for the query result
+ * Firestore has already returned, so the listing benchmarks measure only the service's in-memory stages.
+ * Unlike the real repositories it hands out the catalogue's own instances rather than copies.
+ */
+final class CatalogPostRepository implements PostRepository {
+
+    private final List<BarterPost> catalog;
+
+    CatalogPostRepository(List<BarterPost> catalog) {
+        this.catalog = catalog;
+    }
+
+    @Override
+    public Optional<BarterPost> findById(String id) {
+        return catalog.stream().filter(post -> post.getId().equals(id)).findFirst();
+    }
+
+    @Override
+    public BarterPost insert(BarterPost post) {
+        throw new UnsupportedOperationException("The benchmark catalogue is read-only.");
+    }
+
+    @Override
+    public int backfillTimestampMillis() {
+        return 0;
+    }
+
+    @Override
+    public void save(BarterPost post) {
+        throw new UnsupportedOperationException("The benchmark catalogue is read-only.");
+    }
+
+    @Override
+    public void updateFields(String id, Map<String, Object> fields) {
+        throw new UnsupportedOperationException("The benchmark catalogue is read-only.");
+    }
+
+    @Override
+    public boolean updateFieldsIf(String id, String field, Object expected, Map<String, Object> fields) {
+        throw new UnsupportedOperationException("The benchmark catalogue is read-only.");
+    }
+
+    @Override
+    public void delete(String id) {
+        throw new UnsupportedOperationException("The benchmark catalogue is read-only.");
+    }
+
+    @Override
+    public List<BarterPost> findByGeohashPrefixes(PostQuery query, Collection<String> geohashPrefixes) {
+        List<BarterPost> found = new ArrayList<>();
+        for (BarterPost post : catalog) {
+            if (post.getGeohash() != null && geohashPrefixes.stream().anyMatch(post.getGeohash()::startsWith)) {
+                found.add(post);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public int updateAuthorSnapshot(String userFirebaseUid, UserSummary author) {
+        throw new UnsupportedOperationException("The benchmark catalogue is read-only.");
+    }
+
+    @Override
+    public List<BarterPost> findAll(PostQuery query) {
+        return findPage(query, null, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<BarterPost> findPage(PostQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        List<BarterPost> page = new ArrayList<>(Math.min(limit, 64));
+        boolean started = afterCreatedAtMillis == null;
+        for (BarterPost post : catalog) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (!started) {
+                // Catalogue createdAt values are unique, so the ID tie-break is not needed here.
+                started = post.getCreatedAtMillis() < afterCreatedAtMillis;
+                if (!started) {
+                    continue;
+                }
+            }
+            if (matches(post, query)) {
+                page.add(post);
+            }
+        }
+        return page;
+    }
+
+    private static boolean matches(BarterPost post, PostQuery query) {
+        if (query.getStatus() != null && !query.getStatus().equals(post.getStatus())) {
+            return false;
+        }
+        if (query.getUploaderId() != null && !query.getUploaderId().equals(post.getUserFirebaseUid())) {
+            return false;
+        }
+        if (query.getLocation() != null && !query.getLocation().equals(post.getLocation())) {
+            return false;
+        }
+        return query.getTags() == null
+                || (post.getTags() != null && post.getTags().stream().anyMatch(query.getTags()::contains));
+    }
+}
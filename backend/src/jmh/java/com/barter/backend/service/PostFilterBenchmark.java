@@ -0,0 +1,118 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.BarterPost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Each in-memory stage of the listing path, run over the whole catalogue:
+ * search-term match, tag filter, availability date filter (linear and through the interval index)
+ * and offset pagination, plus all of them chained the way getFilteredPosts applies them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class PostFilterBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int catalogSize;
+
+    private List<BarterPost> catalog;
+    private List<BarterPost> filtered;
+    private PostAvailabilityIndex availabilityIndex;
+    private final String lowerCaseSearchTerm = "guitar";
+    private final List<String> skillCategories = List.of("Music", "Tutoring");
+    private final LocalDate filterDate = SyntheticCatalog.FIRST_AVAILABLE_DAY.plusMonths(8);
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.posts(catalogSize, SyntheticCatalog.userCountFor(catalogSize), 42L);
+        filtered = filterAll();
+        availabilityIndex = new PostAvailabilityIndex();
+        availabilityIndex.rebuild(catalog);
+    }
+
+    @Benchmark
+    public int searchTermMatch() {
+        int matches = 0;
+        for (BarterPost post : catalog) {
+            if (PostFilters.matchesSearchTerm(post, lowerCaseSearchTerm)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int tagFilter() {
+        int matches = 0;
+        for (BarterPost post : catalog) {
+            if (post.getTags() != null && post.getTags().stream().anyMatch(skillCategories::contains)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int availabilityFilter() {
+        int matches = 0;
+        for (BarterPost post : catalog) {
+            if (PostFilters.isAvailableOn(post, filterDate)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The same date filter answered by the interval tree, including copying out the matching posts.
+     */
+    @Benchmark
+    public int availabilityIndexLookup() {
+        return availabilityIndex.findAvailableOn(filterDate).size();
+    }
+
+    /**
+     * Copies out the last full page of the filtered result, the worst case for offset pagination.
+     */
+    @Benchmark
+    public List<BarterPost> lastPage() {
+        int start = Math.max(0, (filtered.size() / PAGE_SIZE - 1) * PAGE_SIZE);
+        return new ArrayList<>(filtered.subList(start, Math.min(start + PAGE_SIZE, filtered.size())));
+    }
+
+    @Benchmark
+    public List<BarterPost> filterAndFirstPage() {
+        List<BarterPost> matching = filterAll();
+        return new ArrayList<>(matching.subList(0, Math.min(PAGE_SIZE, matching.size())));
+    }
+
+    private List<BarterPost> filterAll() {
+        return catalog.stream()
+                .filter(post -> post.getTags() != null && post.getTags().stream().anyMatch(skillCategories::contains))
+                .filter(post -> PostFilters.matchesSearchTerm(post, lowerCaseSearchTerm))
+                .filter(post -> PostFilters.isAvailableOn(post, filterDate))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,114 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.repository.memory.InMemoryUserProfileRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getFilteredPosts end to end over a catalogue already returned by the repository, through both the
+ * repository-scan path (indexes not ready) and the search/availability index paths, plus the author-enrichment join.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class PostListingBenchmark {
+
+    private static final String SEARCH_TERM = "guitar";
+    private static final List<String> SKILL_CATEGORIES = List.of("Music", "Tutoring");
+    private static final String AVAILABILITY_FILTER = SyntheticCatalog.FIRST_AVAILABLE_DAY.plusMonths(8).toString();
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int catalogSize;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    /**
+     * 300 keeps author summaries cached across invocations; 0 expires them at once, so every join reads the repository.
+     */
+    @Param({"300", "0"})
+    public long userCacheTtlSeconds;
+
+    private BarterPostService scanningService;
+    private BarterPostService indexedService;
+    private List<BarterPost> page;
+
+    @Setup
+    public void setUp() {
+        int userCount = SyntheticCatalog.userCountFor(catalogSize);
+        List<BarterPost> catalog = SyntheticCatalog.posts(catalogSize, userCount, 42L);
+
+        InMemoryUserProfileRepository userProfileRepository = new InMemoryUserProfileRepository("");
+        for (UserProfile user : SyntheticCatalog.users(userCount)) {
+            userProfileRepository.save(user);
+        }
+        UserSummaryCache userSummaryCache = new UserSummaryCache(userProfileRepository, 10_000, userCacheTtlSeconds);
+        CatalogPostRepository postRepository = new CatalogPostRepository(catalog);
+
+        // Never built, so search and date queries fall back to scanning the repository result.
+        scanningService = new BarterPostService(postRepository, null, new PostSearchIndex(), new PostAvailabilityIndex(),
+                userSummaryCache, false, 25, 200);
+
+        List<BarterPost> openPosts = catalog.stream().filter(post -> "open".equals(post.getStatus())).toList();
+        PostSearchIndex searchIndex = new PostSearchIndex();
+        searchIndex.rebuild(openPosts);
+        PostAvailabilityIndex availabilityIndex = new PostAvailabilityIndex();
+        availabilityIndex.rebuild(openPosts);
+        indexedService = new BarterPostService(postRepository, null, searchIndex, availabilityIndex, userSummaryCache, false, 25, 200);
+
+        page = catalog.subList(0, Math.min(pageSize, catalog.size()));
+    }
+
+    @Benchmark
+    public List<BarterPost> scanWithAllFilters() {
+        return scanningService.getFilteredPosts(null, SEARCH_TERM, SKILL_CATEGORIES, null, null, null, null,
+                AVAILABILITY_FILTER, null, "open", 0, pageSize);
+    }
+
+    @Benchmark
+    public List<BarterPost> scanTagsOnly() {
+        return scanningService.getFilteredPosts(null, null, SKILL_CATEGORIES, null, null, null, null,
+                null, null, "open", 0, pageSize);
+    }
+
+    @Benchmark
+    public List<BarterPost> indexedSearchWithAllFilters() {
+        return indexedService.getFilteredPosts(null, SEARCH_TERM, SKILL_CATEGORIES, null, null, null, null,
+                AVAILABILITY_FILTER, null, "open", 0, pageSize);
+    }
+
+    @Benchmark
+    public List<BarterPost> scanAvailabilityOnly() {
+        return scanningService.getFilteredPosts(null, null, null, null, null, null, null,
+                AVAILABILITY_FILTER, null, "open", 0, pageSize);
+    }
+
+    @Benchmark
+    public List<BarterPost> indexedAvailabilityOnly() {
+        return indexedService.getFilteredPosts(null, null, null, null, null, null, null,
+                AVAILABILITY_FILTER, null, "open", 0, pageSize);
+    }
+
+    @Benchmark
+    public List<BarterPost> enrichPage() {
+        scanningService.enrichWithAuthorProfiles(page);
+        return page;
+    }
+}
@@ -0,0 +1,130 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.AvailabilityRange;
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.model.UserProfile;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic data for the listing benchmarks.
+ *
+ * Posts are returned newest first, like the repositories list them. Field shapes follow what the frontend
+ * writes: ISO_DATE_TIME createdAt, ISO instant availability bounds, one to four skill-category tags.
+ */
+final class SyntheticCatalog {
+
+    static final List<String> SKILL_CATEGORIES = List.of(
+            "Tutoring", "Music", "Cooking", "Gardening", "Carpentry", "Plumbing", "Electrical", "Painting",
+            "Photography", "Web Development", "Graphic Design", "Writing", "Translation", "Childcare", "Pet Care",
+            "Cleaning", "Moving", "Bike Repair", "Car Repair", "Sewing", "Knitting", "Fitness", "Yoga",
+            "Language Exchange", "Tax Help", "Baking", "Furniture", "Electronics", "Books", "Clothing");
+
+    static final LocalDate FIRST_AVAILABLE_DAY = LocalDate.of(2025, 1, 1);
+
+    private static final List<String> LOCATIONS = List.of(
+            "Singapore", "Kuala Lumpur", "Jakarta", "Bangkok", "Manila", "Ho Chi Minh City", "Hanoi", "Penang");
+
+    private static final String[] WORDS = {
+            "guitar", "lessons", "fresh", "homemade", "bread", "vintage", "bicycle", "repair", "garden", "tools",
+            "weekend", "help", "python", "tutoring", "portrait", "photos", "sourdough", "starter", "oak", "table",
+            "spanish", "conversation", "piano", "moving", "boxes", "laptop", "setup", "yoga", "mat", "sewing",
+            "machine", "knitted", "scarf", "dog", "walking", "plumbing", "fix", "ceiling", "fan", "paint"};
+
+    private static final LocalDateTime NEWEST_POST = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * Roughly twenty posts per author, with at least a hundred authors.
+     */
+    static int userCountFor(int postCount) {
+        return Math.max(100, postCount / 20);
+    }
+
+    static String uid(int userIndex) {
+        return "user-" + userIndex;
+    }
+
+    static List<BarterPost> posts(int count, int userCount, long seed) {
+        Random random = new Random(seed);
+        List<BarterPost> posts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BarterPost post = new BarterPost();
+            post.setId(String.format("post-%08d", i));
+            post.setUserFirebaseUid(uid(random.nextInt(userCount)));
+            post.setTitle(capitalize(words(random, 3)));
+            post.setDescription(capitalize(words(random, 14)) + ".");
+            post.setPreferredExchange(words(random, 3));
+            post.setType(random.nextBoolean() ? "offer" : "request");
+            post.setTags(tags(random));
+            post.setLocation(LOCATIONS.get(random.nextInt(LOCATIONS.size())));
+            post.setAvailability(availability(random));
+            post.setStatus(random.nextInt(10) == 0 ? "closed" : "open");
+            post.setCreatedAt(NEWEST_POST.minusMinutes(i).format(DateTimeFormatter.ISO_DATE_TIME));
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    static List<UserProfile> users(int count) {
+        List<UserProfile> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserProfile user = new UserProfile();
+            user.setFirebaseUid(uid(i));
+            user.setDisplayName("User " + i);
+            user.setLocation(LOCATIONS.get(i % LOCATIONS.size()));
+            user.setProfileImageUrl("https://res.cloudinary.com/demo/image/upload/" + uid(i) + ".jpg");
+            user.initDefaults();
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private static List<String> tags(Random random) {
+        int count = 1 + random.nextInt(4);
+        List<String> tags = new ArrayList<>(count);
+        while (tags.size() < count) {
+            String tag = SKILL_CATEGORIES.get(random.nextInt(SKILL_CATEGORIES.size()));
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    private static List<AvailabilityRange> availability(Random random) {
+        int count = random.nextInt(3); // Some posts have no availability at all
+        List<AvailabilityRange> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate start = FIRST_AVAILABLE_DAY.plusDays(random.nextInt(540));
+            LocalDate end = start.plusDays(1 + random.nextInt(60));
+            ranges.add(new AvailabilityRange(
+                    start.atStartOfDay(ZoneOffset.UTC).toInstant().toString(),
+                    end.atStartOfDay(ZoneOffset.UTC).toInstant().toString()));
+        }
+        return ranges;
+    }
+}
@@ -1,16 +1,21 @@
 package com.barter.backend.config;
 
 import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.firestore.Firestore;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
+import com.google.firebase.cloud.FirestoreClient;
 import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.Base64;
 
 @Configuration
+@Profile("!inmemory") // The in-memory profile runs without Firebase credentials
 public class FirebaseInitializer {
 
     @PostConstruct
@@ -37,4 +42,12 @@ public class FirebaseInitializer {
             throw new RuntimeException("Failed to initialize Firebase", e);
         }
     }
+
+    /**
+     * Shared Firestore client used by the Firestore repositories.
+     */
+    @Bean
+    public Firestore firestore() {
+        return FirestoreClient.getFirestore();
+    }
 }
@@ -1,6 +1,8 @@
 package com.barter.backend.config;
 
 import com.barter.backend.security.FirebaseAuthFilter;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.*;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -30,9 +32,16 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 // Configure authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (e.g. completing an SSE chat stream) were already authorized
+                        // on the original request; the Firebase filter does not run again for them.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints for Barter Posts (GET only)
                         .requestMatchers(HttpMethod.GET, "/api/posts", "/api/posts/**").permitAll()
 
+                        // Radius search over profiles; matched before the public "/api/users/{id}" rule
+                        .requestMatchers(HttpMethod.GET, "/api/users/nearby").authenticated()
+
                         // Public endpoints for User Profiles (GET only)
                         .requestMatchers(HttpMethod.GET, "/api/users/{id}").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/users").permitAll()
@@ -43,6 +52,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/reviews/written").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/reviews/post/{barterPostId}").permitAll()
 
+                        // Metrics scraping; only reachable on the management port (management.server.port)
+                        .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
+
                         // Keep your existing public paths
                         .requestMatchers("/api/public/**", "/api/auth/**").permitAll()
 
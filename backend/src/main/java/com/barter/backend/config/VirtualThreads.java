@@ -0,0 +1,24 @@
+package com.barter.backend.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in virtual-thread execution mode, switched on with {@code spring.threads.virtual.enabled=true}.
+ *
+ * Spring Boot then runs Tomcat request handling on virtual threads; the services use this class to move
+ * their blocking I/O pools (Cloudinary uploads, chat stream senders) onto virtual threads as well.
+ * CPU-bound pools such as image resizing stay on platform threads.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * An executor that starts a new virtual thread for every task, named with the given prefix and a counter.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadNamePrefix, 0).factory());
+    }
+}
@@ -5,6 +5,7 @@ import com.barter.backend.exception.ResourceNotFoundException;
 import com.barter.backend.exception.UnauthorizedAccessException;
 import com.barter.backend.model.BarterPost;
 import com.barter.backend.service.BarterPostService;
+import com.barter.backend.service.ServiceFutures;
 import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
@@ -16,12 +17,14 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/posts")
 public class BarterPostController {
 
     private static final Logger logger = LoggerFactory.getLogger(BarterPostController.class);
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final BarterPostService postService;
 
@@ -30,68 +33,110 @@ public class BarterPostController {
     }
 
     @GetMapping
-    public ResponseEntity<List<BarterPost>> getPosts(
+    public CompletableFuture<ResponseEntity<?>> getPosts(
             @RequestParam(value = "uploaderId", required = false) String uploaderId,
             @RequestParam(value = "searchTerm", required = false) String searchTerm,
             @RequestParam(value = "skillCategory", required = false) List<String> skillCategories, // Maps to 'tags'
             @RequestParam(value = "location", required = false) String location,
-            @RequestParam(value = "radius", required = false) Double radius, // Placeholder
+            @RequestParam(value = "radius", required = false) Double radius, // Kilometres around latitude/longitude
+            @RequestParam(value = "latitude", required = false) Double latitude, // With longitude: nearest first
+            @RequestParam(value = "longitude", required = false) Double longitude,
             @RequestParam(value = "availability", required = false) String availability, // e.g., "2024-07-03"
             @RequestParam(value = "urgency", required = false) String urgency, // Placeholder for future use
             @RequestParam(value = "status", required = false, defaultValue = "open") String status,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "startAfter", required = false) String startAfter, // Opaque cursor from X-Next-Cursor
             HttpServletRequest request
     ) {
         try {
+            // The first page and any cursor-driven page use keyset pagination, which only reads
+            // as many documents as the page needs. Offset paging is kept for clients jumping to page N.
+            if (startAfter != null || page == 0) {
+                logger.info("Received request for filtered posts. Cursor: {}, Size: {}", startAfter, size);
+                return postService.getFilteredPostsPageAsync(
+                        uploaderId,
+                        searchTerm,
+                        skillCategories,
+                        location,
+                        latitude,
+                        longitude,
+                        radius,
+                        availability,
+                        status,
+                        startAfter,
+                        size
+                ).<ResponseEntity<?>>thenApply(postPage -> {
+                    logger.info("Fetched {} posts for cursor page with filters.", postPage.getPosts().size());
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (postPage.getNextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, postPage.getNextCursor());
+                    }
+                    return response.body(postPage.getPosts());
+                }).exceptionally(error -> getPostsError(ServiceFutures.unwrap(error)));
+            }
+
             logger.info("Received request for filtered posts. Page: {}, Size: {}", page, size);
-            List<BarterPost> posts = postService.getFilteredPosts(
+            return postService.getFilteredPostsAsync(
                     uploaderId,
                     searchTerm,
                     skillCategories,
                     location,
                     radius,
+                    latitude,
+                    longitude,
                     availability,
                     urgency, // This will be passed, but its effect depends on BarterPost schema
                     status,
                     page,
                     size
-            );
-
-            logger.info("Fetched {} posts for page {} with filters.", posts.size(), page);
-            return ResponseEntity.ok(posts);
+            ).<ResponseEntity<?>>thenApply(posts -> {
+                logger.info("Fetched {} posts for page {} with filters.", posts.size(), page);
+                return ResponseEntity.ok(posts);
+            }).exceptionally(error -> getPostsError(ServiceFutures.unwrap(error)));
         } catch (Exception e) {
-            logger.error("Error fetching posts: {}", e.getMessage(), e);
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            return CompletableFuture.completedFuture(getPostsError(e));
         }
     }
 
+    private ResponseEntity<?> getPostsError(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            logger.warn("Bad request for filtered posts: {}", e.getMessage());
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        logger.error("Error fetching posts: {}", e.getMessage(), e);
+        return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     // --- Existing methods (getPostById, createPost, updatePost, deletePost) remain unchanged ---
     @GetMapping("/{id}")
-    public ResponseEntity<?> getPostById(
+    public CompletableFuture<ResponseEntity<?>> getPostById(
             @PathVariable String id,
             HttpServletRequest request
     ) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to access post {} without Firebase token.", id);
-            return new ResponseEntity<>("Authentication required: Firebase token not found.", HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>("Authentication required: Firebase token not found.", HttpStatus.UNAUTHORIZED));
         }
 
-        try {
-            BarterPost post = postService.getPostByIdForEdit(id, token.getUid());
+        return postService.getPostByIdForEditAsync(id, token.getUid()).<ResponseEntity<?>>thenApply(post -> {
             logger.info("Fetched post with ID: {} for user {}.", id, token.getUid());
             return ResponseEntity.ok(post);
-        } catch (ResourceNotFoundException e) {
-            logger.warn("Post not found for ID: {}", id);
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
-        } catch (UnauthorizedAccessException e) {
-            logger.warn("Unauthorized attempt by user {} to access post {}: {}", token.getUid(), id, e.getMessage());
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.FORBIDDEN);
-        } catch (Exception e) {
+        }).exceptionally(error -> {
+            Throwable e = ServiceFutures.unwrap(error);
+            if (e instanceof ResourceNotFoundException) {
+                logger.warn("Post not found for ID: {}", id);
+                return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+            }
+            if (e instanceof UnauthorizedAccessException) {
+                logger.warn("Unauthorized attempt by user {} to access post {}: {}", token.getUid(), id, e.getMessage());
+                return new ResponseEntity<>(e.getMessage(), HttpStatus.FORBIDDEN);
+            }
             logger.error("Error fetching post {} for user {}: {}", id, token.getUid(), e.getMessage(), e);
             return new ResponseEntity<>("Error fetching post: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        });
     }
 
 
@@ -122,7 +167,7 @@ public class BarterPostController {
     }
 
     @PutMapping(value = "/{id}", consumes = {"multipart/form-data", "application/json"})
-    public ResponseEntity<?> updatePost(
+    public CompletableFuture<ResponseEntity<?>> updatePost(
             @PathVariable String id,
             @RequestPart("post") BarterPost updatedPost,
             @RequestPart(value = "image", required = false) MultipartFile newImage,
@@ -131,29 +176,40 @@ public class BarterPostController {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to update post {} without Firebase token.", id);
-            return new ResponseEntity<>("Authentication required: Firebase token not found.", HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(
+                    new ResponseEntity<>("Authentication required: Firebase token not found.", HttpStatus.UNAUTHORIZED));
         }
 
         try {
-            BarterPost result = postService.updatePost(id, updatedPost, newImage, token.getUid());
-            logger.info("Updated post with ID: {} by user {}", id, token.getUid());
-            return ResponseEntity.ok(result);
-        } catch (ResourceNotFoundException e) {
+            // The request stays open until the future completes, so the image is uploaded once ownership is checked.
+            return postService.updatePostAsync(id, updatedPost, newImage, token.getUid()).<ResponseEntity<?>>thenApply(result -> {
+                logger.info("Updated post with ID: {} by user {}", id, token.getUid());
+                return ResponseEntity.ok(result);
+            }).exceptionally(error -> updatePostError(id, token.getUid(), ServiceFutures.unwrap(error)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(updatePostError(id, token.getUid(), e));
+        }
+    }
+
+    private ResponseEntity<?> updatePostError(String id, String uid, Throwable e) {
+        if (e instanceof ResourceNotFoundException) {
             logger.warn("Post not found for update: {}", id);
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
-        } catch (UnauthorizedAccessException e) {
+        }
+        if (e instanceof UnauthorizedAccessException) {
             logger.warn("Unauthorized attempt to update post {}: {}", id, e.getMessage());
             return new ResponseEntity<>(e.getMessage(), HttpStatus.FORBIDDEN);
-        } catch (IllegalArgumentException e) {
+        }
+        if (e instanceof IllegalArgumentException) {
             logger.warn("Bad request for post update {}: {}", id, e.getMessage());
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
-        } catch (IOException e) {
+        }
+        if (e instanceof IOException) {
             logger.error("Image handling error during post update {}: {}", id, e.getMessage(), e);
             return new ResponseEntity<>("Image handling error: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-        } catch (Exception e) {
-            logger.error("Error updating post {} for user {}: {}", id, token.getUid(), e.getMessage(), e);
-            return new ResponseEntity<>("Error updating post: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
+        logger.error("Error updating post {} for user {}: {}", id, uid, e.getMessage(), e);
+        return new ResponseEntity<>("Error updating post: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
     @DeleteMapping("/{id}")
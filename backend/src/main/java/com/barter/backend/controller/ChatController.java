@@ -3,28 +3,38 @@ package com.barter.backend.controller;
 import com.barter.backend.model.ChatConversation;
 import com.barter.backend.model.ChatMessage;
 import com.barter.backend.service.ChatService;
+import com.barter.backend.service.ChatStreamHub;
+import com.barter.backend.service.ServiceFutures;
 import com.barter.backend.exception.ResourceNotFoundException;
 import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/chats")
 public class ChatController {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
+    static final String BEFORE_CURSOR_HEADER = "X-Before-Cursor";
+    static final String AFTER_CURSOR_HEADER = "X-After-Cursor";
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ChatService chatService;
+    private final ChatStreamHub chatStreamHub;
 
-    public ChatController(ChatService chatService) {
+    public ChatController(ChatService chatService, ChatStreamHub chatStreamHub) {
         this.chatService = chatService;
+        this.chatStreamHub = chatStreamHub;
     }
 
     /**
@@ -75,30 +85,30 @@ public class ChatController {
      * Requires authentication. The authenticated user must be a participant of the chat.
      */
     @GetMapping("/{chatId}")
-    public ResponseEntity<?> getChatById(@PathVariable String chatId, HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<?>> getChatById(@PathVariable String chatId, HttpServletRequest request) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to get chat {} without Firebase token.", chatId);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Firebase token missing.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Firebase token missing."));
         }
 
-        try {
-            return chatService.getChatById(chatId)
-                    .map(chat -> {
-                        if (!chat.getParticipants().contains(token.getUid())) {
-                            logger.warn("User {} attempted to access chat {} they are not a participant of.", token.getUid(), chatId);
-                            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to view this chat.");
-                        }
-                        return ResponseEntity.ok(chat);
-                    })
-                    .orElseGet(() -> {
-                        logger.warn("Chat not found with ID: {}", chatId);
-                        return ResponseEntity.notFound().build();
-                    });
-        } catch (Exception e) {
+        return chatService.getChatByIdAsync(chatId).<ResponseEntity<?>>thenApply(found -> found
+                .<ResponseEntity<?>>map(chat -> {
+                    if (!chat.getParticipants().contains(token.getUid())) {
+                        logger.warn("User {} attempted to access chat {} they are not a participant of.", token.getUid(), chatId);
+                        return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to view this chat.");
+                    }
+                    return ResponseEntity.ok(chat);
+                })
+                .orElseGet(() -> {
+                    logger.warn("Chat not found with ID: {}", chatId);
+                    return ResponseEntity.notFound().build();
+                })
+        ).exceptionally(error -> {
+            Throwable e = ServiceFutures.unwrap(error);
             logger.error("Error getting chat {}: {}", chatId, e.getMessage(), e);
             return ResponseEntity.internalServerError().body("Error retrieving chat: " + e.getMessage());
-        }
+        });
     }
 
     /**
@@ -125,6 +135,71 @@ public class ChatController {
         }
     }
 
+    /**
+     * Retrieves one page of the authenticated user's chat list, most recently updated first.
+     * Each entry carries the counterpart's display data (direct chats) or the chat name (group chats), a
+     * snippet of the last message and the number of unread messages. The cursor for the next page is sent
+     * in the X-Next-Cursor header and passed back as startAfter.
+     */
+    @GetMapping("/inbox")
+    public CompletableFuture<ResponseEntity<?>> getInbox(
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "startAfter", required = false) String startAfter,
+            HttpServletRequest request) {
+        FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
+        if (token == null) {
+            logger.warn("Attempted to get chat inbox without Firebase token.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Firebase token missing."));
+        }
+
+        try {
+            return chatService.getInboxAsync(token.getUid(), startAfter, Math.min(size, MAX_PAGE_SIZE))
+                    .<ResponseEntity<?>>thenApply(page -> {
+                        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                        if (page.getNextCursor() != null) {
+                            response.header(BarterPostController.NEXT_CURSOR_HEADER, page.getNextCursor());
+                        }
+                        return response.body(page.getEntries());
+                    }).exceptionally(error -> getInboxError(token.getUid(), ServiceFutures.unwrap(error)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(getInboxError(token.getUid(), e));
+        }
+    }
+
+    private ResponseEntity<?> getInboxError(String uid, Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            logger.warn("Bad request for chat inbox of user {}: {}", uid, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        logger.error("Error getting chat inbox of user {}: {}", uid, e.getMessage(), e);
+        return ResponseEntity.internalServerError().body("Error retrieving chats: " + e.getMessage());
+    }
+
+    /**
+     * Marks a chat as read for the authenticated user, resetting its unread count in their chat list.
+     * Requires authentication. The authenticated user must be a participant of the chat.
+     */
+    @PostMapping("/{chatId}/read")
+    public ResponseEntity<?> markChatRead(@PathVariable String chatId, HttpServletRequest request) {
+        FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
+        if (token == null) {
+            logger.warn("Attempted to mark chat {} as read without Firebase token.", chatId);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Firebase token missing.");
+        }
+
+        try {
+            if (!chatService.isParticipant(chatId, token.getUid())) {
+                logger.warn("User {} attempted to mark chat {} as read without being a participant.", token.getUid(), chatId);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to access this chat.");
+            }
+            chatService.markChatRead(chatId, token.getUid());
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            logger.error("Error marking chat {} as read: {}", chatId, e.getMessage(), e);
+            return ResponseEntity.internalServerError().body("Error marking chat as read: " + e.getMessage());
+        }
+    }
+
     /**
      * Adds a message to a chat conversation.
      * Requires authentication. The authenticated user must be a participant of the chat and the sender.
@@ -149,8 +224,7 @@ public class ChatController {
 
         try {
             // Validate if the user is a participant of the chat before allowing message
-            Optional<ChatConversation> chatOpt = chatService.getChatById(chatId);
-            if (chatOpt.isEmpty() || !chatOpt.get().getParticipants().contains(token.getUid())) {
+            if (!chatService.isParticipant(chatId, token.getUid())) {
                 logger.warn("User {} attempted to send message to chat {} they are not a participant of.", token.getUid(), chatId);
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to send messages to this chat.");
             }
@@ -170,33 +244,86 @@ public class ChatController {
     }
 
     /**
-     * Retrieves all messages for a specific chat conversation.
+     * Retrieves messages for a specific chat conversation.
+     * Without paging parameters all messages are returned. With limit, before or after, only a window is
+     * returned and the cursors for older and newer messages are sent in the X-Before-Cursor and
+     * X-After-Cursor headers.
      * Requires authentication. The authenticated user must be a participant of the chat.
      */
     @GetMapping("/{chatId}/messages")
-    public ResponseEntity<?> getMessagesForChat(@PathVariable String chatId, HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<?>> getMessagesForChat(
+            @PathVariable String chatId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "before", required = false) String before, // Opaque cursor from X-Before-Cursor
+            @RequestParam(value = "after", required = false) String after, // Opaque cursor from X-After-Cursor
+            HttpServletRequest request) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to get messages for chat {} without Firebase token.", chatId);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Firebase token missing.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Firebase token missing."));
         }
 
-        try {
-            // Validate if the user is a participant of the chat before allowing message retrieval
-            Optional<ChatConversation> chatOpt = chatService.getChatById(chatId);
-            if (chatOpt.isEmpty() || !chatOpt.get().getParticipants().contains(token.getUid())) {
+        // Validate if the user is a participant of the chat before allowing message retrieval
+        return chatService.isParticipantAsync(chatId, token.getUid()).thenCompose(participant -> {
+            if (!participant) {
                 logger.warn("User {} attempted to retrieve messages from chat {} they are not a participant of.", token.getUid(), chatId);
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to view messages in this chat.");
+                return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                        ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to view messages in this chat."));
             }
 
-            List<ChatMessage> messages = chatService.getMessagesForChat(chatId);
-            return ResponseEntity.ok(messages);
-        } catch (ResourceNotFoundException e) {
+            if (limit != null || before != null || after != null) {
+                return chatService.getMessageWindowAsync(chatId, limit, before, after).<ResponseEntity<?>>thenApply(window -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (window.getBeforeCursor() != null) {
+                        response.header(BEFORE_CURSOR_HEADER, window.getBeforeCursor());
+                    }
+                    if (window.getAfterCursor() != null) {
+                        response.header(AFTER_CURSOR_HEADER, window.getAfterCursor());
+                    }
+                    return response.body(window.getMessages());
+                });
+            }
+
+            return chatService.getMessagesForChatAsync(chatId).<ResponseEntity<?>>thenApply(ResponseEntity::ok);
+        }).exceptionally(error -> getMessagesError(chatId, ServiceFutures.unwrap(error)));
+    }
+
+    private ResponseEntity<?> getMessagesError(String chatId, Throwable e) {
+        if (e instanceof ResourceNotFoundException) {
             logger.warn("Chat not found for message retrieval: {}", chatId);
             return ResponseEntity.notFound().build();
+        }
+        if (e instanceof IllegalArgumentException) {
+            logger.warn("Bad request for messages of chat {}: {}", chatId, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        logger.error("Error retrieving messages for chat {}: {}", chatId, e.getMessage(), e);
+        return ResponseEntity.internalServerError().body("Error retrieving messages: " + e.getMessage());
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of new messages in a chat, replacing message polling.
+     * Each event is named "message", carries a ChatMessage as JSON and uses the message cursor as its ID,
+     * so after a reconnect the client can catch up with GET /{chatId}/messages?after=&lt;last event id&gt;.
+     * Requires authentication. The authenticated user must be a participant of the chat.
+     */
+    @GetMapping(value = "/{chatId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamMessages(@PathVariable String chatId, HttpServletRequest request) {
+        FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
+        if (token == null) {
+            logger.warn("Attempted to stream messages for chat {} without Firebase token.", chatId);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            if (!chatService.isParticipant(chatId, token.getUid())) {
+                logger.warn("User {} attempted to stream messages from chat {} they are not a participant of.", token.getUid(), chatId);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            return ResponseEntity.ok(chatStreamHub.subscribe(chatId, token.getUid()));
         } catch (Exception e) {
-            logger.error("Error retrieving messages for chat {}: {}", chatId, e.getMessage(), e);
-            return ResponseEntity.internalServerError().body("Error retrieving messages: " + e.getMessage());
+            logger.error("Error opening message stream for chat {}: {}", chatId, e.getMessage(), e);
+            return ResponseEntity.internalServerError().build();
         }
     }
 
@@ -206,32 +333,32 @@ public class ChatController {
      * For simplicity, this example requires the authenticated user to be one of the participants.
      */
     @DeleteMapping("/{chatId}")
-    public ResponseEntity<?> deleteChat(@PathVariable String chatId, HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<?>> deleteChat(@PathVariable String chatId, HttpServletRequest request) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to delete chat {} without Firebase token.", chatId);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Firebase token missing.");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Firebase token missing."));
         }
 
-        try {
-            Optional<ChatConversation> chatOpt = chatService.getChatById(chatId);
+        return chatService.getChatByIdAsync(chatId).thenCompose(chatOpt -> {
             if (chatOpt.isEmpty()) {
                 logger.warn("Attempted to delete non-existent chat with ID: {}", chatId);
-                return ResponseEntity.notFound().build();
+                return CompletableFuture.<ResponseEntity<?>>completedFuture(ResponseEntity.notFound().build());
             }
 
             ChatConversation chat = chatOpt.get();
             // Only allow deletion if the requesting user is a participant (or add admin check)
             if (!chat.getParticipants().contains(token.getUid())) {
                 logger.warn("User {} attempted to delete chat {} they are not a participant of.", token.getUid(), chatId);
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to delete this chat.");
+                return CompletableFuture.<ResponseEntity<?>>completedFuture(
+                        ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to delete this chat."));
             }
 
-            chatService.deleteChat(chatId);
-            return ResponseEntity.noContent().build();
-        } catch (Exception e) {
+            return chatService.deleteChatAsync(chatId).<ResponseEntity<?>>thenApply(deleted -> ResponseEntity.noContent().build());
+        }).exceptionally(error -> {
+            Throwable e = ServiceFutures.unwrap(error);
             logger.error("Error deleting chat {}: {}", chatId, e.getMessage(), e);
             return ResponseEntity.internalServerError().body("Error deleting chat: " + e.getMessage());
-        }
+        });
     }
 }
@@ -18,7 +18,7 @@ public class ImageController {
     @PostMapping("/upload")
     public ResponseEntity<String> upload(@RequestParam("file") MultipartFile file) {
         try {
-            String imageUrl = imageUploadService.uploadImage(file);
+            String imageUrl = imageUploadService.uploadImage(file).getUrl();
             return ResponseEntity.ok(imageUrl);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Upload failed: " + e.getMessage());
@@ -1,7 +1,9 @@
 package com.barter.backend.controller;
 
 import com.barter.backend.model.Review;
+import com.barter.backend.model.ReviewPage;
 import com.barter.backend.service.ReviewService;
+import com.barter.backend.service.ServiceFutures;
 import com.barter.backend.exception.ResourceNotFoundException;
 import com.barter.backend.exception.UnauthorizedAccessException;
 import com.google.firebase.auth.FirebaseToken;
@@ -13,14 +15,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Collections; // Import for emptyList
-import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/reviews")
 public class ReviewController {
 
     private static final Logger logger = LoggerFactory.getLogger(ReviewController.class);
+    private static final String DEFAULT_PAGE_SIZE = "20";
+    private static final int MAX_PAGE_SIZE = 100;
     private final ReviewService reviewService;
 
     public ReviewController(ReviewService reviewService) {
@@ -28,110 +32,165 @@ public class ReviewController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Review>> getAllReviews(HttpServletRequest request) { // Added HttpServletRequest for token check
+    public CompletableFuture<ResponseEntity<?>> getAllReviews(
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "startAfter", required = false) String startAfter, // Opaque cursor from X-Next-Cursor
+            HttpServletRequest request
+    ) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to get all reviews without Firebase token.");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList()); // Return empty list on unauthorized
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList())); // Return empty list on unauthorized
         }
-        logger.info("Received request to get all reviews by user {}", token.getUid());
+        logger.info("Received request to get all reviews by user {}. Cursor: {}, Size: {}", token.getUid(), startAfter, size);
         try {
-            List<Review> reviews = reviewService.getAllReviews();
-            logger.info("Fetched {} reviews.", reviews.size());
-            return ResponseEntity.ok(reviews);
-        } catch (Exception e) {
-            logger.error("Error fetching all reviews: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
+            return reviewService.getReviewsPageAsync(startAfter, pageSize(size))
+                    .<ResponseEntity<?>>thenApply(page -> pageResponse(page, "all reviews"))
+                    .exceptionally(error -> pageError(ServiceFutures.unwrap(error), "all reviews"));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(pageError(e, "all reviews"));
         }
     }
 
     // NEW ENDPOINT: Matches frontend's /api/reviews/toUser/{firebaseUid}
     // This is the one your ListingDetailPage.tsx is calling
     @GetMapping("/toUser/{firebaseUid}")
-    public ResponseEntity<List<Review>> getReviewsToUserByPath( // Renamed method to avoid conflict
-                                                                @PathVariable String firebaseUid,
-                                                                HttpServletRequest request
+    public CompletableFuture<ResponseEntity<?>> getReviewsToUserByPath( // Renamed method to avoid conflict
+                                                                        @PathVariable String firebaseUid,
+                                                                        @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                                        @RequestParam(value = "startAfter", required = false) String startAfter,
+                                                                        HttpServletRequest request
     ) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to get reviews for user {} without Firebase token (path variable).", firebaseUid);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList()));
         }
 
         logger.info("Fetching reviews for user (toUser) with Firebase UID: {} by requesting user {}", firebaseUid, token.getUid());
-        try {
-            List<Review> reviews = reviewService.getReviewsToUser(firebaseUid);
-            logger.info("Fetched {} reviews for user {}.", reviews.size(), firebaseUid);
-            return ResponseEntity.ok(reviews);
-        } catch (Exception e) {
-            logger.error("Error fetching reviews for user {}: {}", firebaseUid, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
-        }
+        return getReviewsToUser(firebaseUid, startAfter, size);
     }
 
     // Existing endpoint, updated @RequestParam name and added HttpServletRequest
     @GetMapping("/received")
-    public ResponseEntity<List<Review>> getReviewsReceived(
+    public CompletableFuture<ResponseEntity<?>> getReviewsReceived(
             @RequestParam("toUserId") String toUserFirebaseUid, // Matches frontend's param name
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "startAfter", required = false) String startAfter,
             HttpServletRequest request
     ) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to get received reviews for user {} without Firebase token (query param).", toUserFirebaseUid);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList()));
         }
         logger.info("Received request to get reviews received by user: {} by requesting user {}", toUserFirebaseUid, token.getUid());
-        try {
-            List<Review> reviews = reviewService.getReviewsToUser(toUserFirebaseUid); // Call the same service method
-            logger.info("Fetched {} reviews received by user {}.", reviews.size(), toUserFirebaseUid);
-            return ResponseEntity.ok(reviews);
-        } catch (Exception e) {
-            logger.error("Error fetching reviews received by user {}: {}", toUserFirebaseUid, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
-        }
+        return getReviewsToUser(toUserFirebaseUid, startAfter, size); // Same listing as /toUser/{firebaseUid}
     }
 
     // Existing endpoint, updated @RequestParam name and added HttpServletRequest
     @GetMapping("/written")
-    public ResponseEntity<List<Review>> getReviewsWrittenByUser(
+    public CompletableFuture<ResponseEntity<?>> getReviewsWrittenByUser(
             @RequestParam("fromUserId") String fromUserFirebaseUid, // Matches frontend's param name
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "startAfter", required = false) String startAfter,
             HttpServletRequest request
     ) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to get written reviews by user {} without Firebase token.", fromUserFirebaseUid);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList()));
         }
         logger.info("Received request to get reviews written by user: {} by requesting user {}", fromUserFirebaseUid, token.getUid());
+        String description = "reviews written by user " + fromUserFirebaseUid;
         try {
-            List<Review> reviews = reviewService.getReviewsWrittenByUser(fromUserFirebaseUid);
-            logger.info("Fetched {} reviews written by user {}.", reviews.size(), fromUserFirebaseUid);
-            return ResponseEntity.ok(reviews);
-        } catch (Exception e) {
-            logger.error("Error fetching reviews written by user {}: {}", fromUserFirebaseUid, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
+            return reviewService.getReviewsWrittenByUserAsync(fromUserFirebaseUid, startAfter, pageSize(size))
+                    .<ResponseEntity<?>>thenApply(page -> pageResponse(page, description))
+                    .exceptionally(error -> pageError(ServiceFutures.unwrap(error), description));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(pageError(e, description));
         }
     }
 
     @GetMapping("/post/{barterPostId}")
-    public ResponseEntity<List<Review>> getReviewsForBarterPost(
+    public CompletableFuture<ResponseEntity<?>> getReviewsForBarterPost(
             @PathVariable String barterPostId,
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "startAfter", required = false) String startAfter,
             HttpServletRequest request
     ) {
         FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
         if (token == null) {
             logger.warn("Attempted to get reviews for post {} without Firebase token.", barterPostId);
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Collections.emptyList()));
         }
         logger.info("Received request to get reviews for barter post: {} by requesting user {}", barterPostId, token.getUid());
+        String description = "reviews for barter post " + barterPostId;
         try {
-            List<Review> reviews = reviewService.getReviewsForBarterPost(barterPostId);
-            logger.info("Fetched {} reviews for barter post {}.", reviews.size(), barterPostId);
-            return ResponseEntity.ok(reviews);
-        } catch (Exception e) {
-            logger.error("Error fetching reviews for barter post {}: {}", barterPostId, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
+            return reviewService.getReviewsForBarterPostAsync(barterPostId, startAfter, pageSize(size))
+                    .<ResponseEntity<?>>thenApply(page -> pageResponse(page, description))
+                    .exceptionally(error -> pageError(ServiceFutures.unwrap(error), description));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(pageError(e, description));
+        }
+    }
+
+    /**
+     * Review count, average rating and star histogram of a user, for reputation badges. Unlike the listings
+     * it reads one profile document however many reviews the user has.
+     */
+    @GetMapping("/summary/{firebaseUid}")
+    public CompletableFuture<ResponseEntity<?>> getRatingSummary(@PathVariable String firebaseUid, HttpServletRequest request) {
+        FirebaseToken token = (FirebaseToken) request.getAttribute("firebaseToken");
+        if (token == null) {
+            logger.warn("Attempted to get rating summary for user {} without Firebase token.", firebaseUid);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        logger.info("Received request for rating summary of user {} by requesting user {}", firebaseUid, token.getUid());
+        return reviewService.getRatingSummaryAsync(firebaseUid).<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(error -> {
+                    Throwable e = ServiceFutures.unwrap(error);
+                    if (e instanceof ResourceNotFoundException) {
+                        logger.warn("Rating summary requested for unknown user {}.", firebaseUid);
+                        return ResponseEntity.notFound().build();
+                    }
+                    logger.error("Error fetching rating summary for user {}: {}", firebaseUid, e.getMessage(), e);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                });
+    }
+
+    private CompletableFuture<ResponseEntity<?>> getReviewsToUser(String toUserFirebaseUid, String startAfter, int size) {
+        String description = "reviews for user " + toUserFirebaseUid;
+        try {
+            return reviewService.getReviewsToUserAsync(toUserFirebaseUid, startAfter, pageSize(size))
+                    .<ResponseEntity<?>>thenApply(page -> pageResponse(page, description))
+                    .exceptionally(error -> pageError(ServiceFutures.unwrap(error), description));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(pageError(e, description));
+        }
+    }
+
+    private static int pageSize(int requested) {
+        return Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    // The page's reviews as the body, and the cursor for the next page (if any) in the X-Next-Cursor header
+    private ResponseEntity<?> pageResponse(ReviewPage page, String description) {
+        logger.info("Fetched {} {}.", page.getReviews().size(), description);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(BarterPostController.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getReviews());
+    }
+
+    private ResponseEntity<?> pageError(Throwable e, String description) {
+        if (e instanceof IllegalArgumentException) {
+            logger.warn("Bad request for {}: {}", description, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+        logger.error("Error fetching {}: {}", description, e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Collections.emptyList());
     }
 
     @PostMapping
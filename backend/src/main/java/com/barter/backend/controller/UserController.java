@@ -1,6 +1,7 @@
 package com.barter.backend.controller;
 
 import com.barter.backend.model.UserProfile;
+import com.barter.backend.service.ServiceFutures;
 import com.barter.backend.service.UserProfileService;
 import com.barter.backend.exception.ResourceNotFoundException;
 import com.barter.backend.exception.UnauthorizedAccessException; // Keep if used elsewhere
@@ -15,12 +16,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    private static final int MAX_PAGE_SIZE = 100;
 
     private final UserProfileService userService;
 
@@ -28,30 +31,86 @@ public class UserController {
         this.userService = userService;
     }
 
+    /**
+     * Lists users a page at a time as lightweight list items. The cursor for the next page is returned in the
+     * X-Next-Cursor header and passed back as startAfter.
+     */
     @GetMapping
-    public List<UserProfile> getAllUsers() {
-        logger.info("Received request to get all user profiles.");
-        List<UserProfile> users = userService.getAllUsers();
-        logger.info("Fetched {} user profiles.", users.size());
-        return users;
+    public CompletableFuture<ResponseEntity<?>> getUsers(
+            @RequestParam(value = "location", required = false) String location,
+            @RequestParam(value = "skillsOffered", required = false) List<String> skillsOffered,
+            @RequestParam(value = "needs", required = false) List<String> needs,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "startAfter", required = false) String startAfter // Opaque cursor from X-Next-Cursor
+    ) {
+        logger.info("Received request for user profiles. location={}, skillsOffered={}, needs={}, cursor={}, size={}",
+                location, skillsOffered, needs, startAfter, size);
+        try {
+            return userService.getUsersPageAsync(location, skillsOffered, needs, startAfter, Math.min(size, MAX_PAGE_SIZE))
+                    .<ResponseEntity<?>>thenApply(userPage -> {
+                        logger.info("Fetched {} user profiles.", userPage.getUsers().size());
+                        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                        if (userPage.getNextCursor() != null) {
+                            response.header(BarterPostController.NEXT_CURSOR_HEADER, userPage.getNextCursor());
+                        }
+                        return response.body(userPage.getUsers());
+                    }).exceptionally(error -> getUsersError(ServiceFutures.unwrap(error)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(getUsersError(e));
+        }
+    }
+
+    private ResponseEntity<?> getUsersError(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            logger.warn("Bad request for user profiles: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        logger.error("Error fetching user profiles: {}", e.getMessage(), e);
+        return ResponseEntity.internalServerError().build();
+    }
+
+    /**
+     * Profiles within {@code radius} km of the given point, nearest first, as list items with their distance
+     * rather than their coordinates. Requires a signed-in user (see SecurityConfig).
+     */
+    @GetMapping("/nearby")
+    public CompletableFuture<ResponseEntity<?>> getUsersNearby(
+            @RequestParam("latitude") Double latitude,
+            @RequestParam("longitude") Double longitude,
+            @RequestParam(value = "radius", required = false) Double radius // Kilometres
+    ) {
+        logger.info("Received request for user profiles near ({}, {}) within {} km.", latitude, longitude, radius);
+        try {
+            return userService.findUsersNearAsync(latitude, longitude, radius).<ResponseEntity<?>>thenApply(users -> {
+                logger.info("Fetched {} nearby user profiles.", users.size());
+                return ResponseEntity.ok(users);
+            }).exceptionally(error -> getUsersError(ServiceFutures.unwrap(error)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(getUsersError(e));
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<UserProfile> getUser(@PathVariable String id) {
+    public CompletableFuture<ResponseEntity<UserProfile>> getUser(@PathVariable String id, HttpServletRequest request) {
         // This endpoint can be used for public viewing of a user profile
         // No authentication required if public profiles are allowed
         logger.info("Received request to get user profile by ID: {}", id);
+        // Only the owner sees their exact coordinates; set by FirebaseAuthFilter when a token was sent
+        boolean owner = id.equals(request.getAttribute("firebaseUid"));
         // --- FIX START ---
         // Changed from userService.getId(id) to userService.getUserProfileByFirebaseUid(id)
-        return userService.getUserProfileByFirebaseUid(id)
+        return userService.getUserProfileByFirebaseUidAsync(id).thenApply(user -> user
                 .map(userProfile -> {
+                    if (!owner) {
+                        userProfile.coarsenLocation();
+                    }
                     logger.info("Fetched user profile for ID: {}", id);
                     return ResponseEntity.ok(userProfile);
                 })
                 .orElseGet(() -> { // Use orElseGet for lazy evaluation of notFound().build()
                     logger.warn("User profile not found for ID: {}", id);
                     return ResponseEntity.notFound().build();
-                });
+                }));
         // --- FIX END ---
     }
 
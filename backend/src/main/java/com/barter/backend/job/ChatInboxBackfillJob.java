@@ -0,0 +1,38 @@
+package com.barter.backend.job;
+
+import com.barter.backend.service.ChatService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off build/repair of every user's chat inbox entries from the conversations they take part in.
+ * Unread counters are kept; entries of conversations created before inboxes existed start at 0.
+ *
+ * Disabled by default. Start the application once with {@code barter.jobs.inbox-backfill.enabled=true}
+ * after deploying the inbox projection, so chats created before it show up in the chat list.
+ */
+@Component
+@ConditionalOnProperty(name = "barter.jobs.inbox-backfill.enabled", havingValue = "true")
+public class ChatInboxBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatInboxBackfillJob.class);
+
+    private final ChatService chatService;
+
+    public ChatInboxBackfillJob(ChatService chatService) {
+        this.chatService = chatService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        logger.info("Starting chat inbox backfill.");
+        long start = System.currentTimeMillis();
+        int written = chatService.rebuildAllInboxes();
+        logger.info("Chat inbox backfill finished: {} inbox entries written in {} ms.",
+                written, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,37 @@
+package com.barter.backend.job;
+
+import com.barter.backend.service.ReviewService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off backfill/repair of the reviewCount, totalRatingSum and rating fields on every user profile.
+ *
+ * Disabled by default. Start the application once with {@code barter.jobs.rating-backfill.enabled=true}
+ * after deploying the incremental rating aggregates, or whenever the aggregates need to be repaired.
+ */
+@Component
+@ConditionalOnProperty(name = "barter.jobs.rating-backfill.enabled", havingValue = "true")
+public class RatingAggregateBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingAggregateBackfillJob.class);
+
+    private final ReviewService reviewService;
+
+    public RatingAggregateBackfillJob(ReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        logger.info("Starting rating aggregate backfill.");
+        long start = System.currentTimeMillis();
+        int updated = reviewService.rebuildAllRatingAggregates();
+        logger.info("Rating aggregate backfill finished: {} profiles updated in {} ms.",
+                updated, System.currentTimeMillis() - start);
+    }
+}
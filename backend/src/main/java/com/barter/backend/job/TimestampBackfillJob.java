@@ -0,0 +1,57 @@
+package com.barter.backend.job;
+
+import com.barter.backend.repository.ChatRepository;
+import com.barter.backend.repository.PostRepository;
+import com.barter.backend.repository.ReviewRepository;
+import com.barter.backend.repository.UserProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off backfill of the epoch-millis timestamp fields (createdAtMillis, updatedAtMillis) on documents
+ * written before they existed. It runs in batches next to normal traffic.
+ *
+ * Disabled by default. Start one instance with {@code barter.jobs.timestamp-backfill.enabled=true} after
+ * deploying the millis fields; once it reports success, switch every instance to
+ * {@code barter.timestamps.query-by-millis=true} so listings sort and page on the millis fields in Firestore.
+ */
+@Component
+@ConditionalOnProperty(name = "barter.jobs.timestamp-backfill.enabled", havingValue = "true")
+public class TimestampBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimestampBackfillJob.class);
+
+    private final PostRepository postRepository;
+    private final ReviewRepository reviewRepository;
+    private final ChatRepository chatRepository;
+    private final UserProfileRepository userProfileRepository;
+
+    public TimestampBackfillJob(PostRepository postRepository, ReviewRepository reviewRepository,
+                                ChatRepository chatRepository, UserProfileRepository userProfileRepository) {
+        this.postRepository = postRepository;
+        this.reviewRepository = reviewRepository;
+        this.chatRepository = chatRepository;
+        this.userProfileRepository = userProfileRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        logger.info("Starting timestamp backfill.");
+        long start = System.currentTimeMillis();
+        try {
+            int posts = postRepository.backfillTimestampMillis();
+            int reviews = reviewRepository.backfillTimestampMillis();
+            int chats = chatRepository.backfillTimestampMillis();
+            int profiles = userProfileRepository.backfillTimestampMillis();
+            logger.info("Timestamp backfill finished in {} ms: {} posts, {} reviews, {} chats and messages, {} profiles updated.",
+                    System.currentTimeMillis() - start, posts, reviews, chats, profiles);
+        } catch (RuntimeException e) {
+            // Documents already updated keep their fields; running the job again continues from there.
+            logger.error("Timestamp backfill failed after {} ms: {}", System.currentTimeMillis() - start, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.barter.backend.metrics;
+
+import com.barter.backend.security.VerifiedTokenCache;
+import com.barter.backend.service.UserSummaryCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the hit/miss statistics of the user summary and verified-token caches under Micrometer's
+ * standard {@code cache.*} names, plus the Firebase token verification time measured on cache misses.
+ * A miss in either cache is what turns into a Firestore read or a Firebase verification.
+ */
+@Component
+public class CacheMetricsBinder implements MeterBinder {
+
+    private final UserSummaryCache userSummaryCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public CacheMetricsBinder(UserSummaryCache userSummaryCache, VerifiedTokenCache verifiedTokenCache) {
+        this.userSummaryCache = userSummaryCache;
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "userSummaries", userSummaryCache, UserSummaryCache::stats, UserSummaryCache::estimatedSize);
+        bindCache(registry, "verifiedTokens", verifiedTokenCache, VerifiedTokenCache::stats, VerifiedTokenCache::estimatedSize);
+
+        FunctionTimer.builder("barter.auth.token.verifications", verifiedTokenCache,
+                        VerifiedTokenCache::verificationCount,
+                        VerifiedTokenCache::totalVerificationNanos, TimeUnit.NANOSECONDS)
+                .description("Firebase ID token verifications (token cache misses)")
+                .register(registry);
+        Gauge.builder("barter.auth.token.verifications.max", verifiedTokenCache,
+                        cache -> TimeUnit.NANOSECONDS.toMillis(cache.maxVerificationNanos()))
+                .description("Slowest Firebase ID token verification since startup")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    // Meters only hold their state object weakly, so they are bound to the cache beans themselves.
+    private static <T> void bindCache(MeterRegistry registry, String name, T cache,
+                                      Function<T, CacheStats> stats, ToDoubleFunction<T> size) {
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).hitCount())
+                .tag("cache", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, c -> stats.apply(c).missCount())
+                .tag("cache", name).tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, c -> stats.apply(c).evictionCount())
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", cache, size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
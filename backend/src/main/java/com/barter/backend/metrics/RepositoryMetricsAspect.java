@@ -0,0 +1,123 @@
+package com.barter.backend.metrics;
+
+import com.barter.backend.repository.ChatRepository;
+import com.barter.backend.repository.PostRepository;
+import com.barter.backend.repository.ReviewRepository;
+import com.barter.backend.repository.UserProfileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every call into the repository layer, which is where all Firestore reads and writes happen.
+ *
+ * Calls are recorded in the {@code barter.repository.calls} timer tagged with the Firestore collection,
+ * the repository method and the outcome. Documents returned by a call are added to the
+ * {@code barter.repository.documents.read} counter and to the current request's total
+ * (see {@link RequestDocumentReads}). Calls returning a future are recorded when the future completes.
+ * Reads made inside transactions, e.g. the profile read while updating
+ * rating aggregates, are not visible from here and are not counted.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private static final Map<Class<?>, String> COLLECTIONS = Map.of(
+            PostRepository.class, "barterPosts",
+            UserProfileRepository.class, "user_profiles",
+            ReviewRepository.class, "reviews",
+            ChatRepository.class, "chats");
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Methods declared on the repository interfaces, whichever backend implements them
+    @Around("execution(* com.barter.backend.repository.*Repository.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String collection = collectionOf(joinPoint.getTarget().getClass());
+        String operation = joinPoint.getSignature().getName();
+        LongAdder requestTotal = RequestDocumentReads.current(); // Captured now; async results complete elsewhere
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stop(sample, collection, operation, "error");
+            throw e;
+        }
+        if (result instanceof CompletionStage<?> pending) {
+            // *Async methods: record when the call actually finishes, not when the future is handed out
+            pending.whenComplete((value, error) -> {
+                if (error == null) {
+                    countDocuments(collection, operation, value, requestTotal);
+                }
+                stop(sample, collection, operation, error == null ? "success" : "error");
+            });
+            return result;
+        }
+        countDocuments(collection, operation, result, requestTotal);
+        stop(sample, collection, operation, "success");
+        return result;
+    }
+
+    private void countDocuments(String collection, String operation, Object result, LongAdder requestTotal) {
+        long documents = documentCount(result);
+        if (documents > 0) {
+            Counter.builder("barter.repository.documents.read")
+                    .description("Documents returned by repository calls")
+                    .tag("collection", collection)
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .increment(documents);
+            if (requestTotal != null) {
+                requestTotal.add(documents);
+            }
+        }
+    }
+
+    private void stop(Timer.Sample sample, String collection, String operation, String outcome) {
+        sample.stop(Timer.builder("barter.repository.calls")
+                .description("Latency of repository (Firestore) calls")
+                .tag("collection", collection)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String collectionOf(Class<?> repositoryClass) {
+        for (Map.Entry<Class<?>, String> entry : COLLECTIONS.entrySet()) {
+            if (entry.getKey().isAssignableFrom(repositoryClass)) {
+                return entry.getValue();
+            }
+        }
+        return "unknown";
+    }
+
+    private static long documentCount(Object result) {
+        if (result instanceof Collection<?> documents) {
+            return documents.size();
+        }
+        if (result instanceof Map<?, ?> documents) {
+            return documents.size();
+        }
+        if (result instanceof Optional<?> document) {
+            return document.isPresent() ? 1 : 0;
+        }
+        return 0; // Writes, counts and subscriptions
+    }
+}
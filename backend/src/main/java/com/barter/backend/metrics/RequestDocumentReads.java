@@ -0,0 +1,94 @@
+package com.barter.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how many documents each HTTP request read from the repositories, as the
+ * {@code barter.request.documents.read} distribution tagged with the method and URI template.
+ *
+ * Reads are attributed to the request whose thread issued the repository call, including async calls
+ * completing later. Calls issued from inside a future's continuation run on a Firestore client thread and
+ * are only counted when the chain happens to continue on the request thread, so totals for async
+ * endpoints are a lower bound. Work handed to other threads (async image patches, chat stream listeners)
+ * is not attributed to the request.
+ */
+@Component
+public class RequestDocumentReads extends OncePerRequestFilter {
+
+    private static final ThreadLocal<LongAdder> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestDocumentReads(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * The running total of the request being handled on this thread, or null outside a request.
+     */
+    static LongAdder current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        LongAdder total = new LongAdder();
+        CURRENT.set(total);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CURRENT.remove();
+            if (request.isAsyncStarted()) {
+                // The handler returned a future; record once the response has actually been produced.
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, total);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, total);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, LongAdder total) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("barter.request.documents.read")
+                .description("Documents read from the repositories per HTTP request")
+                .baseUnit("documents")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(total.sum());
+    }
+}
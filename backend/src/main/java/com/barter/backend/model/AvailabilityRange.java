@@ -14,6 +14,10 @@ public class AvailabilityRange {
 
     private String start;
     private String end;
+    // Materialized from start/end when the post is written, so date filters compare numbers instead of parsing
+    private Long startEpochDay;
+    private Long endEpochDay;
+    private boolean epochDaysResolved; // Not stored: set once the epoch days have been computed or found unparseable
 
     public AvailabilityRange() {}
 
@@ -26,6 +30,33 @@ public class AvailabilityRange {
     public void setStart(String start) { this.start = start; }
     public String getEnd() { return end; }
     public void setEnd(String end) { this.end = end; }
+    public Long getStartEpochDay() { return startEpochDay; }
+    public void setStartEpochDay(Long startEpochDay) { this.startEpochDay = startEpochDay; }
+    public Long getEndEpochDay() { return endEpochDay; }
+    public void setEndEpochDay(Long endEpochDay) { this.endEpochDay = endEpochDay; }
+
+    /**
+     * Computes startEpochDay/endEpochDay (UTC days) from the start/end strings. Called when the post is written.
+     */
+    public void materializeEpochDays() {
+        LocalDate startDate = parseStartDateForFiltering();
+        LocalDate endDate = parseEndDateForFiltering();
+        startEpochDay = startDate == null ? null : startDate.toEpochDay();
+        endEpochDay = endDate == null ? null : endDate.toEpochDay();
+        epochDaysResolved = true;
+    }
+
+    /**
+     * Whether the range shares at least one day with [fromEpochDay, toEpochDay].
+     * Ranges stored before the epoch-day fields existed are parsed on first use, once.
+     */
+    public boolean overlaps(long fromEpochDay, long toEpochDay) {
+        if (!epochDaysResolved && (startEpochDay == null || endEpochDay == null)) {
+            materializeEpochDays();
+        }
+        return startEpochDay != null && endEpochDay != null
+                && startEpochDay <= toEpochDay && endEpochDay >= fromEpochDay;
+    }
 
     // RENAME OR MAKE PRIVATE TO AVOID GETTER CONVENTION
     // You would then call this like range.parseStartDateForFiltering() instead of range.getParsedStartDate()
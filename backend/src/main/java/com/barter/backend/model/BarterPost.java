@@ -1,12 +1,13 @@
 package com.barter.backend.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class BarterPost {
 
+    public static final String IMAGE_PENDING = "pending";
+    public static final String IMAGE_FAILED = "failed";
+
     private String id;
     private String userFirebaseUid;
     private String title;
@@ -15,10 +16,17 @@ public class BarterPost {
     private List<String> tags;
     private String preferredExchange;
     private String imageUrl;
+    private String thumbnailUrl; // Small variant of imageUrl for listing cards
+    // IMAGE_PENDING while the image sent with a new post is still uploading, IMAGE_FAILED if that upload failed
+    private String imageStatus;
     private String location;
+    private Double latitude;
+    private Double longitude;
+    private String geohash; // Derived from latitude/longitude on write; radius searches query its prefixes
     private List<AvailabilityRange> availability;
     private String status;
     private String createdAt; // 🔁 Changed from LocalDateTime
+    private Long createdAtMillis;
     private String displayName;
     private String profileImageUrl;
 
@@ -48,13 +56,37 @@ public class BarterPost {
 
     public void initDefaults() {
         if (this.createdAt == null) {
-            this.createdAt = LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME);
+            this.createdAtMillis = System.currentTimeMillis();
+            this.createdAt = Timestamps.format(this.createdAtMillis);
         }
         if (this.status == null || this.status.isEmpty()) {
             this.status = "open";
         }
     }
 
+    /**
+     * Derives geohash from latitude/longitude; call before the post is stored.
+     *
+     * @throws IllegalArgumentException if only one coordinate is set or either is out of range.
+     */
+    public void materializeGeohash() {
+        this.geohash = Geohash.ofCoordinates(this.latitude, this.longitude);
+    }
+
+    /**
+     * Pre-computes the epoch-day bounds of every availability range; call before the post is stored.
+     */
+    public void materializeAvailability() {
+        if (this.availability == null) {
+            return;
+        }
+        for (AvailabilityRange range : this.availability) {
+            if (range != null) {
+                range.materializeEpochDays();
+            }
+        }
+    }
+
     // --- Getters and Setters ---
 
     public String getId() {
@@ -129,6 +161,30 @@ public class BarterPost {
         this.location = location;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
     public List<AvailabilityRange> getAvailability() {
         return availability;
     }
@@ -153,6 +209,21 @@ public class BarterPost {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Epoch millis of createdAt, the value listings sort on. Derived from createdAt for documents
+     * stored before this field existed.
+     */
+    public Long getCreatedAtMillis() {
+        if (createdAtMillis == null) {
+            createdAtMillis = Timestamps.parseMillis(createdAt);
+        }
+        return createdAtMillis;
+    }
+
+    public void setCreatedAtMillis(Long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+    }
+
     public String getDisplayName(){
         return displayName;
     }
@@ -161,6 +232,22 @@ public class BarterPost {
         this.displayName = displayName;
     }
 
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getImageStatus() {
+        return imageStatus;
+    }
+
+    public void setImageStatus(String imageStatus) {
+        this.imageStatus = imageStatus;
+    }
+
     public String getProfileImageUrl(){
         return profileImageUrl;
     }
@@ -1,7 +1,5 @@
 package com.barter.backend.model;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map; // Although not directly used for fields, often included with Map types
 
@@ -13,6 +11,9 @@ public class ChatConversation {
     private String name; // Name for group chats, or derived for direct messages
     private String createdAt;
     private String updatedAt;
+    // Epoch millis of createdAt and updatedAt, for sorting
+    private Long createdAtMillis;
+    private Long updatedAtMillis;
 
     // Nested object for the last message in the conversation
     // This helps display chat list previews without fetching all messages
@@ -36,10 +37,12 @@ public class ChatConversation {
     // Manual initialization for default values
     public void initDefaults() {
         if (this.createdAt == null || this.createdAt.isEmpty()) {
-            this.createdAt = LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME);
+            this.createdAtMillis = System.currentTimeMillis();
+            this.createdAt = Timestamps.format(this.createdAtMillis);
         }
         if (this.updatedAt == null || this.updatedAt.isEmpty()) {
             this.updatedAt = this.createdAt; // Initially, updated time is same as created time
+            this.updatedAtMillis = getCreatedAtMillis();
         }
     }
 
@@ -93,6 +96,30 @@ public class ChatConversation {
         this.updatedAt = updatedAt;
     }
 
+    // The millis getters derive the value from the string for chats stored before the fields existed
+
+    public Long getCreatedAtMillis() {
+        if (createdAtMillis == null) {
+            createdAtMillis = Timestamps.parseMillis(createdAt);
+        }
+        return createdAtMillis;
+    }
+
+    public void setCreatedAtMillis(Long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public Long getUpdatedAtMillis() {
+        if (updatedAtMillis == null) {
+            updatedAtMillis = Timestamps.parseMillis(updatedAt);
+        }
+        return updatedAtMillis;
+    }
+
+    public void setUpdatedAtMillis(Long updatedAtMillis) {
+        this.updatedAtMillis = updatedAtMillis;
+    }
+
     public LastMessage getLastMessage() {
         return lastMessage;
     }
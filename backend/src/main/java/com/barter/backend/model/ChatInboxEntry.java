@@ -0,0 +1,140 @@
+package com.barter.backend.model;
+
+/**
+ * One row of a user's chat list: a per-user copy of what the list shows about a conversation, so the list
+ * is a single query over the user's own inbox without reading the conversations or the other participants'
+ * profiles. The entry's ID is the chat ID.
+ *
+ * The counterpart fields describe the other participant of a direct chat and are null for group chats,
+ * which show their name instead. unreadCount counts messages from others since the owner last sent a
+ * message or marked the chat as read.
+ */
+public class ChatInboxEntry {
+
+    /** Longest lastMessage text kept on an entry; the full text stays on the message itself. */
+    public static final int SNIPPET_LENGTH = 120;
+
+    private String chatId;
+    private String ownerUid; // Firebase UID of the user whose inbox this is
+    private String type; // "direct" or "group", as on the conversation
+    private String name; // Group chat name
+    private String counterpartUid;
+    private String counterpartDisplayName;
+    private String counterpartProfileImageUrl;
+    private ChatConversation.LastMessage lastMessage; // Text shortened to SNIPPET_LENGTH
+    private long unreadCount;
+    private String updatedAt;
+    private Long updatedAtMillis; // Epoch millis of updatedAt, for sorting
+
+    public ChatInboxEntry() {
+    }
+
+    /**
+     * The lastMessage of a conversation as stored on inbox entries, with its text cut to {@link #SNIPPET_LENGTH}.
+     */
+    public static ChatConversation.LastMessage snippetOf(ChatConversation.LastMessage lastMessage) {
+        if (lastMessage == null) {
+            return null;
+        }
+        String text = lastMessage.getText();
+        if (text != null && text.length() > SNIPPET_LENGTH) {
+            int end = SNIPPET_LENGTH;
+            if (Character.isHighSurrogate(text.charAt(end - 1))) {
+                end--; // Don't split a surrogate pair
+            }
+            text = text.substring(0, end);
+        }
+        return new ChatConversation.LastMessage(lastMessage.getSenderId(), text, lastMessage.getCreatedAt());
+    }
+
+    public String getChatId() {
+        return chatId;
+    }
+
+    public void setChatId(String chatId) {
+        this.chatId = chatId;
+    }
+
+    public String getOwnerUid() {
+        return ownerUid;
+    }
+
+    public void setOwnerUid(String ownerUid) {
+        this.ownerUid = ownerUid;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCounterpartUid() {
+        return counterpartUid;
+    }
+
+    public void setCounterpartUid(String counterpartUid) {
+        this.counterpartUid = counterpartUid;
+    }
+
+    public String getCounterpartDisplayName() {
+        return counterpartDisplayName;
+    }
+
+    public void setCounterpartDisplayName(String counterpartDisplayName) {
+        this.counterpartDisplayName = counterpartDisplayName;
+    }
+
+    public String getCounterpartProfileImageUrl() {
+        return counterpartProfileImageUrl;
+    }
+
+    public void setCounterpartProfileImageUrl(String counterpartProfileImageUrl) {
+        this.counterpartProfileImageUrl = counterpartProfileImageUrl;
+    }
+
+    public ChatConversation.LastMessage getLastMessage() {
+        return lastMessage;
+    }
+
+    public void setLastMessage(ChatConversation.LastMessage lastMessage) {
+        this.lastMessage = lastMessage;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getUpdatedAtMillis() {
+        if (updatedAtMillis == null) {
+            updatedAtMillis = Timestamps.parseMillis(updatedAt);
+        }
+        return updatedAtMillis;
+    }
+
+    public void setUpdatedAtMillis(Long updatedAtMillis) {
+        this.updatedAtMillis = updatedAtMillis;
+    }
+}
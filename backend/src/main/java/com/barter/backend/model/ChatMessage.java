@@ -1,14 +1,12 @@
 package com.barter.backend.model;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
 public class ChatMessage {
     private String id; // Firestore document ID for the message
     private String chatId; // ID of the parent chat conversation (useful for context, though Firestore subcollection handles hierarchy)
     private String senderId; // Firebase UID of the sender
     private String text;
-    private String createdAt; // ISO_DATE_TIME string for consistent sorting
+    private String createdAt; // ISO-8601 UTC string, for display
+    private Long createdAtMillis; // Epoch millis of createdAt, for sorting
     private String senderDisplayName; // Populated from UserProfile for display
     private String senderProfileImageUrl; // Populated from UserProfile for display
 
@@ -30,7 +28,8 @@ public class ChatMessage {
     // Manual initialization for default values
     public void initDefaults() {
         if (this.createdAt == null || this.createdAt.isEmpty()) {
-            this.createdAt = LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME);
+            this.createdAtMillis = System.currentTimeMillis();
+            this.createdAt = Timestamps.format(this.createdAtMillis);
         }
     }
 
@@ -76,6 +75,21 @@ public class ChatMessage {
         this.createdAt = createdAt;
     }
 
+    /**
+     * Epoch millis of createdAt, the value message history is ordered by. Derived from createdAt for documents
+     * stored before this field existed.
+     */
+    public Long getCreatedAtMillis() {
+        if (createdAtMillis == null) {
+            createdAtMillis = Timestamps.parseMillis(createdAt);
+        }
+        return createdAtMillis;
+    }
+
+    public void setCreatedAtMillis(Long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+    }
+
     public String getSenderDisplayName() {
         return senderDisplayName;
     }
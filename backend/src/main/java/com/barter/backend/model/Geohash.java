@@ -0,0 +1,166 @@
+package com.barter.backend.model;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Geohash encoding and the cell arithmetic behind radius searches.
+ *
+ * A geohash names a latitude/longitude cell; every extra character splits the cell into 32, and all points
+ * inside a cell share its hash as a prefix. Stored at {@link #STORED_PRECISION} characters (a few metres),
+ * the hash lets a range query on the prefix of a coarser cell return every document inside it. A circle is
+ * covered by the few cells returned from {@link #coveringCells}; the matches are then checked with
+ * {@link #distanceKm}, since the cells always cover more ground than the circle itself.
+ */
+public final class Geohash {
+
+    /** Characters stored on documents: cells of about 5 x 5 metres. */
+    public static final int STORED_PRECISION = 9;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double EARTH_RADIUS_KM = 6371.0088; // Mean radius
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+    // Upper bound on prefix queries per search; precision drops until the circle fits in this many cells
+    private static final int MAX_COVERING_CELLS = 16;
+
+    private Geohash() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the coordinates are out of range.
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        requireValid(latitude, longitude);
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lonBit = true; // Bits alternate, longitude first
+        int bits = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (lonBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            lonBit = !lonBit;
+            if (++bits == 5) {
+                hash.append(BASE32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * The stored geohash for an optional pair of coordinates, as written by the models.
+     *
+     * @return The geohash at {@link #STORED_PRECISION}, or null if neither coordinate is set.
+     * @throws IllegalArgumentException if only one coordinate is set or either is out of range.
+     */
+    public static String ofCoordinates(Double latitude, Double longitude) {
+        if (latitude == null && longitude == null) {
+            return null;
+        }
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together.");
+        }
+        return encode(latitude, longitude, STORED_PRECISION);
+    }
+
+    /**
+     * The geohash prefixes of the cells overlapping the bounding box of a circle, at the finest precision
+     * for which at most {@value #MAX_COVERING_CELLS} cells are needed. Cells never overlap each other, so
+     * querying each prefix returns every point of the circle exactly once.
+     *
+     * @throws IllegalArgumentException if the coordinates are out of range or the radius is not positive.
+     */
+    public static Set<String> coveringCells(double latitude, double longitude, double radiusKm) {
+        requireValid(latitude, longitude);
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("Radius must be a positive number of kilometres.");
+        }
+        double latDelta = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double minLat = Math.max(-90, latitude - latDelta);
+        double maxLat = Math.min(90, latitude + latDelta);
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lonDelta = cosLat < 1e-9 ? 360 : radiusKm / (KM_PER_DEGREE_LATITUDE * cosLat);
+
+        int precision = STORED_PRECISION;
+        while (precision > 1 && cellCount(precision, minLat, maxLat, lonDelta) > MAX_COVERING_CELLS) {
+            precision--;
+        }
+
+        int lonBits = (5 * precision + 1) / 2;
+        int latBits = (5 * precision) / 2;
+        double cellHeight = 180.0 / (1L << latBits);
+        double cellWidth = 360.0 / (1L << lonBits);
+        long columnsTotal = 1L << lonBits;
+
+        long firstRow = row(minLat, cellHeight, latBits);
+        long lastRow = row(maxLat, cellHeight, latBits);
+        long firstColumn = (long) Math.floor((longitude - lonDelta + 180) / cellWidth);
+        long columns = Math.min(columnsTotal, (long) Math.floor((longitude + lonDelta + 180) / cellWidth) - firstColumn + 1);
+
+        Set<String> cells = new TreeSet<>();
+        for (long row = firstRow; row <= lastRow; row++) {
+            double cellLat = -90 + (row + 0.5) * cellHeight;
+            for (long offset = 0; offset < columns; offset++) {
+                long column = Math.floorMod(firstColumn + offset, columnsTotal); // Wraps across the antimeridian
+                cells.add(encode(cellLat, -180 + (column + 0.5) * cellWidth, precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Great-circle distance between two points (haversine formula).
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Checks that a latitude/longitude pair is usable.
+     *
+     * @throws IllegalArgumentException if either value is out of range or not a number.
+     */
+    public static void requireValid(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Coordinates out of range: latitude must be within [-90, 90] and longitude within [-180, 180].");
+        }
+    }
+
+    private static long cellCount(int precision, double minLat, double maxLat, double lonDelta) {
+        int lonBits = (5 * precision + 1) / 2;
+        int latBits = (5 * precision) / 2;
+        double cellHeight = 180.0 / (1L << latBits);
+        double cellWidth = 360.0 / (1L << lonBits);
+        long rows = row(maxLat, cellHeight, latBits) - row(minLat, cellHeight, latBits) + 1;
+        long columns = Math.min(1L << lonBits, (long) Math.ceil(2 * lonDelta / cellWidth) + 1);
+        return rows * columns;
+    }
+
+    private static long row(double latitude, double cellHeight, int latBits) {
+        // The top edge (90) belongs to the last row
+        return Math.min((1L << latBits) - 1, (long) Math.floor((latitude + 90) / cellHeight));
+    }
+}
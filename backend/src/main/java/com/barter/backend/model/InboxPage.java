@@ -0,0 +1,37 @@
+package com.barter.backend.model;
+
+import java.util.List;
+
+/**
+ * One page of a user's chat list, most recently updated first, plus the opaque cursor for the page after it.
+ * nextCursor is null when there are no more conversations.
+ */
+public class InboxPage {
+
+    private List<ChatInboxEntry> entries;
+    private String nextCursor;
+
+    public InboxPage() {
+    }
+
+    public InboxPage(List<ChatInboxEntry> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ChatInboxEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<ChatInboxEntry> entries) {
+        this.entries = entries;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
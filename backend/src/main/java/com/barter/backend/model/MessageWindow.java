@@ -0,0 +1,48 @@
+package com.barter.backend.model;
+
+import java.util.List;
+
+/**
+ * A contiguous window of chat messages in chronological order plus the cursors around it.
+ * beforeCursor is null when there are no older messages to load; afterCursor identifies the newest
+ * message the client has seen and is passed back to poll for newer messages only.
+ */
+public class MessageWindow {
+
+    private List<ChatMessage> messages;
+    private String beforeCursor;
+    private String afterCursor;
+
+    public MessageWindow() {
+    }
+
+    public MessageWindow(List<ChatMessage> messages, String beforeCursor, String afterCursor) {
+        this.messages = messages;
+        this.beforeCursor = beforeCursor;
+        this.afterCursor = afterCursor;
+    }
+
+    public List<ChatMessage> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<ChatMessage> messages) {
+        this.messages = messages;
+    }
+
+    public String getBeforeCursor() {
+        return beforeCursor;
+    }
+
+    public void setBeforeCursor(String beforeCursor) {
+        this.beforeCursor = beforeCursor;
+    }
+
+    public String getAfterCursor() {
+        return afterCursor;
+    }
+
+    public void setAfterCursor(String afterCursor) {
+        this.afterCursor = afterCursor;
+    }
+}
@@ -0,0 +1,27 @@
+package com.barter.backend.model;
+
+/**
+ * A user list item found by a radius search, with its distance from the search centre instead of the
+ * profile's coordinates. The distance is rounded up to whole kilometres so results can't pin a user down.
+ */
+public class NearbyUser extends UserListItem {
+
+    private double distanceKm;
+
+    public NearbyUser() {
+    }
+
+    public NearbyUser(UserProfile profile, double distanceKm) {
+        super(profile.getFirebaseUid(), profile.getDisplayName(), profile.getLocation(), profile.getProfileImageUrl(),
+                profile.getThumbnailUrl(), profile.getRating(), profile.getReviewCount());
+        this.distanceKm = Math.max(1, Math.ceil(distanceKm));
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
@@ -0,0 +1,37 @@
+package com.barter.backend.model;
+
+import java.util.List;
+
+/**
+ * One page of barter posts plus the opaque cursor for the page after it.
+ * nextCursor is null when there are no more matching posts.
+ */
+public class PostPage {
+
+    private List<BarterPost> posts;
+    private String nextCursor;
+
+    public PostPage() {
+    }
+
+    public PostPage(List<BarterPost> posts, String nextCursor) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BarterPost> getPosts() {
+        return posts;
+    }
+
+    public void setPosts(List<BarterPost> posts) {
+        this.posts = posts;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
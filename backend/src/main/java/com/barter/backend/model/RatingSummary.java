@@ -0,0 +1,74 @@
+package com.barter.backend.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A user's reputation at a glance: how many reviews they received, the average rating and how many
+ * reviews gave each number of stars. Built from the aggregates on the user's profile, not from the reviews.
+ */
+public class RatingSummary {
+
+    public static final int MIN_STARS = 1;
+    public static final int MAX_STARS = 5;
+
+    private String firebaseUid;
+    private long reviewCount;
+    private double averageRating;
+    private Map<String, Long> histogram; // Reviews per star rating, keyed "1" to "5"
+
+    public RatingSummary() {
+    }
+
+    public RatingSummary(String firebaseUid, long reviewCount, double averageRating, Map<String, Long> histogram) {
+        this.firebaseUid = firebaseUid;
+        this.reviewCount = reviewCount;
+        this.averageRating = averageRating;
+        this.histogram = histogram;
+    }
+
+    /**
+     * A histogram with every star rating present, in ascending order, counting zero where the given one
+     * (which may be null or come from storage with missing keys) has no entry.
+     */
+    public static Map<String, Long> completeHistogram(Map<String, ? extends Number> counts) {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int stars = MIN_STARS; stars <= MAX_STARS; stars++) {
+            Number count = counts == null ? null : counts.get(String.valueOf(stars));
+            histogram.put(String.valueOf(stars), count == null ? 0L : count.longValue());
+        }
+        return histogram;
+    }
+
+    public String getFirebaseUid() {
+        return firebaseUid;
+    }
+
+    public void setFirebaseUid(String firebaseUid) {
+        this.firebaseUid = firebaseUid;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public Map<String, Long> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(Map<String, Long> histogram) {
+        this.histogram = histogram;
+    }
+}
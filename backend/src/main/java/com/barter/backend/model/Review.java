@@ -2,9 +2,6 @@ package com.barter.backend.model;
 
 import com.google.cloud.firestore.annotation.DocumentId;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
 public class Review {
 
     @DocumentId
@@ -13,7 +10,8 @@ public class Review {
     private String comment;
     private String toUserFirebaseUid; // The Firebase UID of the user who received the review
     private String fromUserFirebaseUid; // The Firebase UID of the user who wrote the review
-    private String createdAt; // ISO_DATE_TIME string
+    private String createdAt; // ISO-8601 UTC string
+    private Long createdAtMillis; // Epoch millis of createdAt, for sorting
     private String barterPostId; // Optional: ID of the barter post this review is related to
 
     // Nested class to represent the user who wrote the review for display purposes
@@ -44,7 +42,8 @@ public class Review {
     // Method to initialize default values, like createdAt
     public void initDefaults() {
         if (this.createdAt == null || this.createdAt.isEmpty()) {
-            this.createdAt = LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME);
+            this.createdAtMillis = System.currentTimeMillis();
+            this.createdAt = Timestamps.format(this.createdAtMillis);
         }
     }
 
@@ -61,6 +60,14 @@ public class Review {
     public void setFromUserFirebaseUid(String fromUserFirebaseUid) { this.fromUserFirebaseUid = fromUserFirebaseUid; } // Corrected: was fromUserId
     public String getCreatedAt() { return createdAt; }
     public void setCreatedAt(String createdAt) { this.createdAt = createdAt; }
+    // Derived from createdAt for reviews stored before createdAtMillis existed
+    public Long getCreatedAtMillis() {
+        if (createdAtMillis == null) {
+            createdAtMillis = Timestamps.parseMillis(createdAt);
+        }
+        return createdAtMillis;
+    }
+    public void setCreatedAtMillis(Long createdAtMillis) { this.createdAtMillis = createdAtMillis; }
     public String getBarterPostId() { return barterPostId; }
     public void setBarterPostId(String barterPostId) { this.barterPostId = barterPostId; }
 
@@ -0,0 +1,37 @@
+package com.barter.backend.model;
+
+import java.util.List;
+
+/**
+ * One page of reviews plus the opaque cursor for the page after it.
+ * nextCursor is null when there are no more matching reviews.
+ */
+public class ReviewPage {
+
+    private List<Review> reviews;
+    private String nextCursor;
+
+    public ReviewPage() {
+    }
+
+    public ReviewPage(List<Review> reviews, String nextCursor) {
+        this.reviews = reviews;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Review> getReviews() {
+        return reviews;
+    }
+
+    public void setReviews(List<Review> reviews) {
+        this.reviews = reviews;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,56 @@
+package com.barter.backend.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Conversions between the ISO timestamp strings shown to clients and the epoch-millis fields that
+ * queries sort on ({@code createdAtMillis}, {@code updatedAtMillis}).
+ *
+ * Documents written before the millis fields existed only have the string, usually a zone-less
+ * {@code LocalDateTime} in the server's time zone with a variable number of fractional digits.
+ * {@link #parseMillis} reads those too, so they can be ordered correctly until they are backfilled.
+ */
+public final class Timestamps {
+
+    // Fixed width and always UTC, so new strings also sort chronologically as text
+    private static final DateTimeFormatter ISO_MILLIS =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+
+    private Timestamps() {
+    }
+
+    /**
+     * Formats an epoch-millis value as an ISO-8601 UTC string, e.g. {@code 2024-07-03T09:15:00.000Z}.
+     */
+    public static String format(long epochMillis) {
+        return ISO_MILLIS.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    /**
+     * Parses an ISO-8601 timestamp with or without a zone offset; zone-less values are read in the
+     * server's default time zone, the zone they were written in.
+     *
+     * @return The epoch millis, or null if the value is null or not a timestamp.
+     */
+    public static Long parseMillis(String isoTimestamp) {
+        if (isoTimestamp == null || isoTimestamp.isEmpty()) {
+            return null;
+        }
+        try {
+            TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(isoTimestamp, OffsetDateTime::from, LocalDateTime::from);
+            if (parsed instanceof OffsetDateTime offsetDateTime) {
+                return offsetDateTime.toInstant().toEpochMilli();
+            }
+            return ((LocalDateTime) parsed).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.barter.backend.model;
+
+/**
+ * The fields of a user profile shown in user lists. Loaded through a field mask, so lists never
+ * carry bios, email addresses or the skill arrays of every user.
+ */
+public class UserListItem {
+
+    private String firebaseUid;
+    private String displayName;
+    private String location;
+    private String profileImageUrl;
+    private String thumbnailUrl;
+    private Double rating;
+    private Long reviewCount;
+
+    public UserListItem() {
+    }
+
+    public UserListItem(String firebaseUid, String displayName, String location, String profileImageUrl,
+                        String thumbnailUrl, Double rating, Long reviewCount) {
+        this.firebaseUid = firebaseUid;
+        this.displayName = displayName;
+        this.location = location;
+        this.profileImageUrl = profileImageUrl;
+        this.thumbnailUrl = thumbnailUrl;
+        this.rating = rating;
+        this.reviewCount = reviewCount;
+    }
+
+    public String getFirebaseUid() {
+        return firebaseUid;
+    }
+
+    public void setFirebaseUid(String firebaseUid) {
+        this.firebaseUid = firebaseUid;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getProfileImageUrl() {
+        return profileImageUrl;
+    }
+
+    public void setProfileImageUrl(String profileImageUrl) {
+        this.profileImageUrl = profileImageUrl;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public Double getRating() {
+        return rating;
+    }
+
+    public void setRating(Double rating) {
+        this.rating = rating;
+    }
+
+    public Long getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(Long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+}
@@ -0,0 +1,37 @@
+package com.barter.backend.model;
+
+import java.util.List;
+
+/**
+ * One page of user list items plus the opaque cursor for the page after it.
+ * nextCursor is null when there are no more matching users.
+ */
+public class UserPage {
+
+    private List<UserListItem> users;
+    private String nextCursor;
+
+    public UserPage() {
+    }
+
+    public UserPage(List<UserListItem> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<UserListItem> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserListItem> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -4,40 +4,83 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserProfile {
 
+    private static final double PUBLIC_COORDINATE_SCALE = 100; // Two decimal places, about a kilometre
+    private static final int PUBLIC_GEOHASH_PRECISION = 6; // Cells of about a kilometre
+
     private String id; // Firestore doc ID (set manually if needed)
 
     private String firebaseUid;
     private String displayName;
     private String email;
     private String location;
+    private Double latitude;
+    private Double longitude;
+    private String geohash; // Derived from latitude/longitude on write, like BarterPost's
     private String bio;
     private List<String> skillsOffered;
     private List<String> needs;
     private Double rating;
+    private Long reviewCount; // Running aggregates maintained by ReviewService
+    private Long totalRatingSum;
+    private Map<String, Long> ratingHistogram; // Reviews received per star rating, keyed "1" to "5"
     private String createdAt;
+    private Long createdAtMillis; // Epoch millis of createdAt
     private String profileImageUrl;
+    private String thumbnailUrl; // Small variant of profileImageUrl
 
     // Manual initialization logic (called by service code, NOT with @PrePersist)
     public void initDefaults() {
         if (this.createdAt == null) {
-            this.createdAt = java.time.LocalDateTime.now().toString();
+            this.createdAtMillis = System.currentTimeMillis();
+            this.createdAt = Timestamps.format(this.createdAtMillis);
         }
         if (this.rating == null) {
             this.rating = 0.0;
         }
+        if (this.reviewCount == null) {
+            this.reviewCount = 0L;
+        }
+        if (this.totalRatingSum == null) {
+            this.totalRatingSum = 0L;
+        }
         if (this.bio == null) {
             this.bio = "";
         }
     }
 
+    /**
+     * Rounds latitude/longitude and shortens geohash to about a kilometre; call before showing the profile
+     * to anyone but its owner.
+     */
+    public void coarsenLocation() {
+        if (this.latitude != null) {
+            this.latitude = Math.round(this.latitude * PUBLIC_COORDINATE_SCALE) / PUBLIC_COORDINATE_SCALE;
+        }
+        if (this.longitude != null) {
+            this.longitude = Math.round(this.longitude * PUBLIC_COORDINATE_SCALE) / PUBLIC_COORDINATE_SCALE;
+        }
+        if (this.geohash != null && this.geohash.length() > PUBLIC_GEOHASH_PRECISION) {
+            this.geohash = this.geohash.substring(0, PUBLIC_GEOHASH_PRECISION);
+        }
+    }
+
+    /**
+     * Derives geohash from latitude/longitude; call before the profile is stored.
+     *
+     * @throws IllegalArgumentException if only one coordinate is set or either is out of range.
+     */
+    public void materializeGeohash() {
+        this.geohash = Geohash.ofCoordinates(this.latitude, this.longitude);
+    }
+
     // --- Manual Getters and Setters as requested ---
     public String getFirebaseUid() {
         return this.firebaseUid;
@@ -79,6 +122,30 @@ public class UserProfile {
         this.location = location;
     }
 
+    public Double getLatitude() {
+        return this.latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return this.longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getGeohash() {
+        return this.geohash;
+    }
+
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
     public String getBio() {
         return this.bio;
     }
@@ -111,6 +178,22 @@ public class UserProfile {
         this.rating = rating;
     }
 
+    public Long getReviewCount() {
+        return this.reviewCount;
+    }
+
+    public void setReviewCount(Long reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+
+    public Long getTotalRatingSum() {
+        return this.totalRatingSum;
+    }
+
+    public void setTotalRatingSum(Long totalRatingSum) {
+        this.totalRatingSum = totalRatingSum;
+    }
+
     public String getCreatedAt() {
         return this.createdAt;
     }
@@ -119,6 +202,18 @@ public class UserProfile {
         this.createdAt = createdAt;
     }
 
+    // Derived from createdAt for profiles stored before createdAtMillis existed
+    public Long getCreatedAtMillis() {
+        if (this.createdAtMillis == null) {
+            this.createdAtMillis = Timestamps.parseMillis(this.createdAt);
+        }
+        return this.createdAtMillis;
+    }
+
+    public void setCreatedAtMillis(Long createdAtMillis) {
+        this.createdAtMillis = createdAtMillis;
+    }
+
     public String getProfileImageUrl() {
         return profileImageUrl;
     }
@@ -126,4 +221,12 @@ public class UserProfile {
     public void setProfileImageUrl(String imageUrl) {
         this.profileImageUrl = imageUrl;
     }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
 }
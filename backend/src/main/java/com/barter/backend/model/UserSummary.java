@@ -0,0 +1,45 @@
+package com.barter.backend.model;
+
+/**
+ * The small slice of a user profile that other documents display next to content
+ * (post authors, reviewers, message senders).
+ */
+public class UserSummary {
+
+    public static final String UNKNOWN_DISPLAY_NAME = "Unknown User";
+
+    private final String firebaseUid;
+    private final String displayName;
+    private final String profileImageUrl;
+    private final boolean found;
+
+    public UserSummary(String firebaseUid, String displayName, String profileImageUrl, boolean found) {
+        this.firebaseUid = firebaseUid;
+        this.displayName = displayName;
+        this.profileImageUrl = profileImageUrl;
+        this.found = found;
+    }
+
+    /**
+     * Placeholder for a UID that has no user profile document.
+     */
+    public static UserSummary unknown(String firebaseUid) {
+        return new UserSummary(firebaseUid, UNKNOWN_DISPLAY_NAME, null, false);
+    }
+
+    public String getFirebaseUid() {
+        return firebaseUid;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getProfileImageUrl() {
+        return profileImageUrl;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+}
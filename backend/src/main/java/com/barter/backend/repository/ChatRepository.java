@@ -0,0 +1,157 @@
+package com.barter.backend.repository;
+
+import com.barter.backend.model.ChatConversation;
+import com.barter.backend.model.ChatInboxEntry;
+import com.barter.backend.model.ChatMessage;
+import com.barter.backend.model.UserSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for chat conversations and their messages.
+ * All methods throw RuntimeException if the backing store fails.
+ * The *Async variants complete exceptionally instead, as described on {@link PostRepository}.
+ */
+public interface ChatRepository {
+
+    Optional<ChatConversation> findById(String chatId);
+
+    /**
+     * Creates or overwrites a conversation together with its participants' inbox entries, atomically.
+     * A conversation without an ID gets a generated one, which is also set as the chatId of the entries.
+     * The entries are written as by {@link #saveInboxEntries}.
+     */
+    ChatConversation save(ChatConversation chat, List<ChatInboxEntry> inboxEntries);
+
+    /**
+     * Conversations the user participates in, most recently updated first (by updatedAtMillis).
+     */
+    List<ChatConversation> findByParticipant(String firebaseUid);
+
+    /**
+     * Stores a message under a generated ID (set on the message) and records it as the conversation's
+     * lastMessage with the given updatedAt (and the matching updatedAtMillis), atomically. In the same write
+     * the inbox entry of every participant gets the lastMessage snippet and updatedAt; the sender's
+     * unreadCount is reset and everyone else's is incremented. A participant without an entry gets one
+     * holding only those fields, which a rebuild through {@link #saveInboxEntries} completes.
+     *
+     * @param participants Firebase UIDs of the conversation's participants, including the sender.
+     * @throws com.barter.backend.exception.ResourceNotFoundException if the conversation does not exist;
+     * nothing is stored then.
+     */
+    ChatMessage appendMessage(String chatId, ChatMessage message, ChatConversation.LastMessage lastMessage, String updatedAt,
+                              Collection<String> participants);
+
+    /**
+     * Up to {@code limit} entries of a user's inbox ordered by (updatedAtMillis, chat ID), newest first,
+     * starting after the given position.
+     *
+     * @param afterUpdatedAtMillis updatedAtMillis of the last entry already read, or null to start from the newest.
+     * @param afterChatId chat ID of the last entry already read; required when afterUpdatedAtMillis is given.
+     */
+    List<ChatInboxEntry> findInbox(String ownerUid, Long afterUpdatedAtMillis, String afterChatId, int limit);
+
+    /**
+     * Writes inbox entries (each identified by its ownerUid and chatId), replacing every field except
+     * unreadCount: existing entries keep their count and new ones start at 0. Used to create the entries of
+     * a new conversation and to rebuild those of conversations created before inboxes existed.
+     */
+    void saveInboxEntries(List<ChatInboxEntry> entries);
+
+    /**
+     * Resets the unreadCount of a user's inbox entry for a chat. Does nothing if there is no such entry.
+     */
+    void markInboxRead(String ownerUid, String chatId);
+
+    /**
+     * Writes a user's display data (counterpartDisplayName, counterpartProfileImageUrl) onto the inbox
+     * entries that show them as the counterpart, i.e. the other participant's entry of each of their
+     * direct chats. Entries that are missing or already up to date are not written.
+     *
+     * @return The number of entries updated.
+     */
+    int updateInboxCounterpart(String counterpartUid, UserSummary counterpart);
+
+    /**
+     * Every message of a conversation, oldest first.
+     */
+    List<ChatMessage> findMessages(String chatId);
+
+    /**
+     * Up to {@code limit} messages ordered by (createdAtMillis, ID), starting after the given position.
+     *
+     * @param newestFirst true to walk from the newest message backwards.
+     * @param afterCreatedAtMillis createdAtMillis of the last message already read in this direction, or null to start at the end.
+     * @param afterId ID of the last message already read; required when afterCreatedAtMillis is given.
+     */
+    List<ChatMessage> findMessages(String chatId, boolean newestFirst, Long afterCreatedAtMillis, String afterId, int limit);
+
+    /**
+     * Writes the sender's display data (senderDisplayName, senderProfileImageUrl) onto their messages among
+     * the newest {@code recentMessagesPerChat} messages of every conversation they participate in.
+     * Older messages keep the data they were sent with.
+     *
+     * @return The number of messages updated.
+     */
+    int updateSenderSnapshot(String senderId, UserSummary sender, int recentMessagesPerChat);
+
+    /**
+     * Writes createdAtMillis and updatedAtMillis on conversations, and createdAtMillis on messages, stored
+     * before those fields existed. Safe to run while the application is serving traffic, and to run again.
+     *
+     * @return The number of conversations and messages updated.
+     */
+    int backfillTimestampMillis();
+
+    /**
+     * Deletes all messages of a conversation, then the conversation itself together with its participants'
+     * inbox entries. If deleting the messages fails, the conversation is kept (with whatever messages remain)
+     * so the deletion can be retried.
+     *
+     * @return The number of messages deleted.
+     */
+    long delete(String chatId);
+
+    /**
+     * Registers a listener for messages added to a conversation from now on.
+     * Messages that already exist are not delivered.
+     */
+    MessageSubscription subscribe(String chatId, MessageListener listener);
+
+    default CompletableFuture<Optional<ChatConversation>> findByIdAsync(String chatId) {
+        return CompletableFuture.supplyAsync(() -> findById(chatId), Runnable::run);
+    }
+
+    default CompletableFuture<List<ChatInboxEntry>> findInboxAsync(String ownerUid, Long afterUpdatedAtMillis, String afterChatId, int limit) {
+        return CompletableFuture.supplyAsync(() -> findInbox(ownerUid, afterUpdatedAtMillis, afterChatId, limit), Runnable::run);
+    }
+
+    default CompletableFuture<List<ChatMessage>> findMessagesAsync(String chatId) {
+        return CompletableFuture.supplyAsync(() -> findMessages(chatId), Runnable::run);
+    }
+
+    default CompletableFuture<List<ChatMessage>> findMessagesAsync(String chatId, boolean newestFirst, Long afterCreatedAtMillis,
+                                                                   String afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> findMessages(chatId, newestFirst, afterCreatedAtMillis, afterId, limit), Runnable::run);
+    }
+
+    default CompletableFuture<Long> deleteAsync(String chatId) {
+        return CompletableFuture.supplyAsync(() -> delete(chatId), Runnable::run);
+    }
+
+    interface MessageListener {
+        void onMessage(ChatMessage message);
+
+        /**
+         * The subscription has failed and will deliver no more messages.
+         */
+        void onError(Exception error);
+    }
+
+    interface MessageSubscription {
+        void cancel();
+    }
+}
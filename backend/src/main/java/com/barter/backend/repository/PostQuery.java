@@ -0,0 +1,43 @@
+package com.barter.backend.repository;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Indexable filters for listing barter posts. Every non-null criterion must match;
+ * {@code tags} matches posts carrying at least one of the given tags, however many are given.
+ */
+public final class PostQuery {
+
+    private final String status;
+    private final String uploaderId;
+    private final String location;
+    private final List<String> tags;
+
+    public PostQuery(String status, String uploaderId, String location, List<String> tags) {
+        this.status = status;
+        this.uploaderId = uploaderId;
+        this.location = location;
+        this.tags = tags == null || tags.isEmpty() ? null : List.copyOf(new LinkedHashSet<>(tags)); // Duplicates dropped
+    }
+
+    public static PostQuery byStatus(String status) {
+        return new PostQuery(status, null, null, null);
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getUploaderId() {
+        return uploaderId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+}
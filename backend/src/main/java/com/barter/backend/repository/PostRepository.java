@@ -0,0 +1,106 @@
+package com.barter.backend.repository;
+
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.model.UserSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for barter posts.
+ *
+ * Listing methods order posts newest first by (createdAtMillis, ID). Returned posts are detached copies;
+ * changes to them are only stored through {@link #save} or {@link #updateFields}.
+ * All methods throw RuntimeException if the backing store fails.
+ *
+ * The *Async variants complete exceptionally with that RuntimeException instead of throwing. Their defaults
+ * run the blocking method on the calling thread; backends doing network I/O override them so no thread waits.
+ */
+public interface PostRepository {
+
+    Optional<BarterPost> findById(String id);
+
+    /**
+     * Stores a new post under a generated ID, which is set on the given post.
+     */
+    BarterPost insert(BarterPost post);
+
+    /**
+     * Overwrites the stored post with the same ID.
+     */
+    void save(BarterPost post);
+
+    /**
+     * Updates only the given top-level fields of an existing post.
+     */
+    void updateFields(String id, Map<String, Object> fields);
+
+    /**
+     * Updates the given top-level fields of a post only if its {@code field} currently equals {@code expected},
+     * checked and written atomically.
+     *
+     * @return false, with nothing written, if the post does not exist or the field holds another value.
+     */
+    boolean updateFieldsIf(String id, String field, Object expected, Map<String, Object> fields);
+
+    void delete(String id);
+
+    /**
+     * All posts matching the query, newest first.
+     */
+    List<BarterPost> findAll(PostQuery query);
+
+    /**
+     * Up to {@code limit} posts matching the query, newest first, starting after the given position.
+     *
+     * @param afterCreatedAtMillis createdAtMillis of the last post already read, or null to start from the newest post.
+     * @param afterId ID of the last post already read; required when afterCreatedAtMillis is given.
+     */
+    List<BarterPost> findPage(PostQuery query, Long afterCreatedAtMillis, String afterId, int limit);
+
+    /**
+     * All posts matching the query whose geohash starts with one of the given prefixes, in no particular order.
+     * Posts stored without coordinates are never returned. The prefixes must not overlap (none may be a prefix
+     * of another), as with the cells from {@link com.barter.backend.model.Geohash#coveringCells}.
+     */
+    List<BarterPost> findByGeohashPrefixes(PostQuery query, Collection<String> geohashPrefixes);
+
+    /**
+     * Writes the author's display data (displayName, profileImageUrl) onto every post they uploaded.
+     * Posts that already carry it are left untouched.
+     *
+     * @return The number of posts updated.
+     */
+    int updateAuthorSnapshot(String userFirebaseUid, UserSummary author);
+
+    /**
+     * Writes createdAtMillis on posts stored before the field existed, derived from their createdAt string.
+     * Safe to run while the application is serving traffic, and to run again after a failure.
+     *
+     * @return The number of posts updated.
+     */
+    int backfillTimestampMillis();
+
+    default CompletableFuture<Optional<BarterPost>> findByIdAsync(String id) {
+        return CompletableFuture.supplyAsync(() -> findById(id), Runnable::run);
+    }
+
+    default CompletableFuture<Void> saveAsync(BarterPost post) {
+        return CompletableFuture.runAsync(() -> save(post), Runnable::run);
+    }
+
+    default CompletableFuture<List<BarterPost>> findAllAsync(PostQuery query) {
+        return CompletableFuture.supplyAsync(() -> findAll(query), Runnable::run);
+    }
+
+    default CompletableFuture<List<BarterPost>> findByGeohashPrefixesAsync(PostQuery query, Collection<String> geohashPrefixes) {
+        return CompletableFuture.supplyAsync(() -> findByGeohashPrefixes(query, geohashPrefixes), Runnable::run);
+    }
+
+    default CompletableFuture<List<BarterPost>> findPageAsync(PostQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> findPage(query, afterCreatedAtMillis, afterId, limit), Runnable::run);
+    }
+}
@@ -0,0 +1,45 @@
+package com.barter.backend.repository;
+
+/**
+ * Filters for listing reviews. Every non-null criterion must match; with none, all reviews are listed.
+ */
+public final class ReviewQuery {
+
+    private final String toUserFirebaseUid;
+    private final String fromUserFirebaseUid;
+    private final String barterPostId;
+
+    public ReviewQuery(String toUserFirebaseUid, String fromUserFirebaseUid, String barterPostId) {
+        this.toUserFirebaseUid = toUserFirebaseUid;
+        this.fromUserFirebaseUid = fromUserFirebaseUid;
+        this.barterPostId = barterPostId;
+    }
+
+    public static ReviewQuery all() {
+        return new ReviewQuery(null, null, null);
+    }
+
+    public static ReviewQuery toUser(String toUserFirebaseUid) {
+        return new ReviewQuery(toUserFirebaseUid, null, null);
+    }
+
+    public static ReviewQuery writtenBy(String fromUserFirebaseUid) {
+        return new ReviewQuery(null, fromUserFirebaseUid, null);
+    }
+
+    public static ReviewQuery forBarterPost(String barterPostId) {
+        return new ReviewQuery(null, null, barterPostId);
+    }
+
+    public String getToUserFirebaseUid() {
+        return toUserFirebaseUid;
+    }
+
+    public String getFromUserFirebaseUid() {
+        return fromUserFirebaseUid;
+    }
+
+    public String getBarterPostId() {
+        return barterPostId;
+    }
+}
@@ -0,0 +1,106 @@
+package com.barter.backend.repository;
+
+import com.barter.backend.model.RatingSummary;
+import com.barter.backend.model.Review;
+import com.barter.backend.model.UserSummary;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for reviews and the rating aggregates (reviewCount, totalRatingSum, rating, ratingHistogram) they
+ * maintain on the recipient's user profile. Review writes and the matching aggregate update are applied atomically.
+ *
+ * Listing methods order reviews newest first by createdAtMillis. All methods throw RuntimeException if the backing store fails.
+ * The *Async variants complete exceptionally instead, as described on {@link PostRepository}.
+ */
+public interface ReviewRepository {
+
+    Optional<Review> findById(String id);
+
+    /**
+     * Up to {@code limit} reviews matching the query, newest first, starting after the given position.
+     *
+     * @param afterCreatedAtMillis createdAtMillis of the last review already read, or null to start from the newest review.
+     * @param afterId ID of the last review already read; required when afterCreatedAtMillis is given.
+     */
+    List<Review> findPage(ReviewQuery query, Long afterCreatedAtMillis, String afterId, int limit);
+
+    /**
+     * The rating summary of a user, read from the aggregates on their profile. Profiles whose aggregates
+     * predate the histogram are summarized by counting their reviews per star rating.
+     *
+     * @return empty if the user has no profile.
+     */
+    Optional<RatingSummary> findRatingSummary(String userFirebaseUid);
+
+    /**
+     * Stores a new review under a generated ID (set on the given review) and adds its rating to the
+     * recipient's aggregates. If the recipient has no profile the review is still stored.
+     */
+    Review insert(Review review);
+
+    /**
+     * Deletes a review and removes its rating from the recipient's aggregates.
+     *
+     * @return false if the review no longer exists (e.g. it was deleted concurrently).
+     */
+    boolean delete(String id);
+
+    /**
+     * Recomputes a user's aggregates from every review they have received.
+     *
+     * @return false if the user has no profile.
+     */
+    boolean rebuildAggregate(String userFirebaseUid);
+
+    /**
+     * Writes the reviewer's display name into the fromUser snapshot of every review they wrote.
+     * Reviews that already carry it are left untouched.
+     *
+     * @return The number of reviews updated.
+     */
+    int updateReviewerSnapshot(String fromUserFirebaseUid, UserSummary reviewer);
+
+    /**
+     * Writes createdAtMillis on reviews stored before the field existed, as described on
+     * {@link PostRepository#backfillTimestampMillis()}.
+     *
+     * @return The number of reviews updated.
+     */
+    int backfillTimestampMillis();
+
+    default CompletableFuture<List<Review>> findPageAsync(ReviewQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> findPage(query, afterCreatedAtMillis, afterId, limit), Runnable::run);
+    }
+
+    default CompletableFuture<Optional<RatingSummary>> findRatingSummaryAsync(String userFirebaseUid) {
+        return CompletableFuture.supplyAsync(() -> findRatingSummary(userFirebaseUid), Runnable::run);
+    }
+
+    /**
+     * The histogram after adding {@code delta} reviews with the given rating; ratings outside
+     * {@link RatingSummary#MIN_STARS}..{@link RatingSummary#MAX_STARS} are not counted in it.
+     */
+    static Map<String, Long> adjustHistogram(Map<String, Long> histogram, int rating, long delta) {
+        Map<String, Long> adjusted = RatingSummary.completeHistogram(histogram);
+        if (rating >= RatingSummary.MIN_STARS && rating <= RatingSummary.MAX_STARS) {
+            adjusted.merge(String.valueOf(rating), delta, (count, change) -> Math.max(0, count + change));
+        }
+        return adjusted;
+    }
+
+    /**
+     * Average rating rounded to two decimals, or 0 without reviews.
+     */
+    static double averageRating(long reviewCount, long totalRatingSum) {
+        if (reviewCount <= 0) {
+            return 0.0;
+        }
+        return BigDecimal.valueOf(totalRatingSum).divide(BigDecimal.valueOf(reviewCount), 2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
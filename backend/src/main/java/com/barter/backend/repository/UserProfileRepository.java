@@ -0,0 +1,93 @@
+package com.barter.backend.repository;
+
+import com.barter.backend.exception.ResourceNotFoundException;
+import com.barter.backend.model.UserListItem;
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.model.UserSummary;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage for user profiles, keyed by Firebase UID.
+ * All methods throw RuntimeException if the backing store fails.
+ * The *Async variants complete exceptionally instead, as described on {@link PostRepository}.
+ */
+public interface UserProfileRepository {
+
+    List<UserProfile> findAll();
+
+    /**
+     * Up to {@code limit} list items for the profiles matching the query, in Firebase UID order, starting after
+     * the given UID. Only the list item fields are read from storage.
+     *
+     * @param afterFirebaseUid UID of the last profile already read, or null to start from the first.
+     */
+    List<UserListItem> findPage(UserQuery query, String afterFirebaseUid, int limit);
+
+    /**
+     * Firebase UIDs of every stored profile.
+     */
+    List<String> findAllIds();
+
+    Optional<UserProfile> findById(String firebaseUid);
+
+    /**
+     * Display data for many users at once.
+     *
+     * @return An entry for every requested UID; UIDs without a profile map to {@link UserSummary#unknown(String)}.
+     */
+    Map<String, UserSummary> findSummaries(Collection<? extends String> firebaseUids);
+
+    /**
+     * Profiles whose geohash starts with one of the given non-overlapping prefixes, in no particular order;
+     * see {@link PostRepository#findByGeohashPrefixes}.
+     */
+    List<UserProfile> findByGeohashPrefixes(Collection<String> geohashPrefixes);
+
+    /**
+     * Creates or overwrites the profile stored under its firebaseUid.
+     */
+    void save(UserProfile profile);
+
+    /**
+     * Writes only the named fields of the profile, leaving all other stored fields untouched.
+     */
+    void saveFields(UserProfile profile, List<String> fields);
+
+    /**
+     * Updates only the given top-level fields of an existing profile.
+     *
+     * @throws ResourceNotFoundException if the profile does not exist.
+     */
+    void updateFields(String firebaseUid, Map<String, Object> fields) throws ResourceNotFoundException;
+
+    void delete(String firebaseUid);
+
+    /**
+     * Writes createdAtMillis on profiles stored before the field existed, as described on
+     * {@link PostRepository#backfillTimestampMillis()}.
+     *
+     * @return The number of profiles updated.
+     */
+    int backfillTimestampMillis();
+
+    default CompletableFuture<List<UserListItem>> findPageAsync(UserQuery query, String afterFirebaseUid, int limit) {
+        return CompletableFuture.supplyAsync(() -> findPage(query, afterFirebaseUid, limit), Runnable::run);
+    }
+
+    default CompletableFuture<Optional<UserProfile>> findByIdAsync(String firebaseUid) {
+        return CompletableFuture.supplyAsync(() -> findById(firebaseUid), Runnable::run);
+    }
+
+    default CompletableFuture<List<UserProfile>> findByGeohashPrefixesAsync(Collection<String> geohashPrefixes) {
+        return CompletableFuture.supplyAsync(() -> findByGeohashPrefixes(geohashPrefixes), Runnable::run);
+    }
+
+    default CompletableFuture<Map<String, UserSummary>> findSummariesAsync(Collection<? extends String> firebaseUids) {
+        return CompletableFuture.supplyAsync(() -> findSummaries(firebaseUids), Runnable::run);
+    }
+}
@@ -0,0 +1,54 @@
+package com.barter.backend.repository;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Filters for listing user profiles. Every non-null criterion must match; {@code skillsOffered} and
+ * {@code needs} match profiles listing at least one of the given values.
+ */
+public final class UserQuery {
+
+    // Firestore takes one array-contains-any filter per query, with at most this many values
+    public static final int MAX_ARRAY_VALUES = 10;
+
+    private final String location;
+    private final List<String> skillsOffered;
+    private final List<String> needs;
+
+    /**
+     * @throws IllegalArgumentException if both array filters are given, or one has more than
+     * {@link #MAX_ARRAY_VALUES} distinct values.
+     */
+    public UserQuery(String location, List<String> skillsOffered, List<String> needs) {
+        this.location = location == null || location.isEmpty() ? null : location;
+        this.skillsOffered = distinct(skillsOffered, "skillsOffered");
+        this.needs = distinct(needs, "needs");
+        if (this.skillsOffered != null && this.needs != null) {
+            throw new IllegalArgumentException("Filter users by skillsOffered or by needs, not both.");
+        }
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public List<String> getSkillsOffered() {
+        return skillsOffered;
+    }
+
+    public List<String> getNeeds() {
+        return needs;
+    }
+
+    private static List<String> distinct(List<String> values, String field) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        List<String> distinct = List.copyOf(new LinkedHashSet<>(values));
+        if (distinct.size() > MAX_ARRAY_VALUES) {
+            throw new IllegalArgumentException("At most " + MAX_ARRAY_VALUES + " " + field + " values can be filtered on.");
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,45 @@
+package com.barter.backend.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the same field update to many documents with as few round trips as Firestore allows.
+ */
+final class FirestoreBatches {
+
+    // Firestore rejects a batch with more writes than this
+    static final int MAX_WRITES_PER_BATCH = 500;
+
+    private FirestoreBatches() {
+    }
+
+    /**
+     * Updates the given fields on every document, in WriteBatches of at most {@link #MAX_WRITES_PER_BATCH}
+     * writes committed in parallel. Each batch is atomic on its own; a failure can leave earlier or
+     * concurrent batches applied, so callers must be safe to retry.
+     *
+     * @throws RuntimeException if any batch fails to commit.
+     */
+    static void updateAll(Firestore firestore, List<DocumentReference> documents, Map<String, Object> fields) {
+        List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>();
+        for (int start = 0; start < documents.size(); start += MAX_WRITES_PER_BATCH) {
+            WriteBatch batch = firestore.batch();
+            for (DocumentReference document : documents.subList(start, Math.min(start + MAX_WRITES_PER_BATCH, documents.size()))) {
+                batch.update(document, fields);
+            }
+            commits.add(batch.commit());
+        }
+        if (!commits.isEmpty()) {
+            FirestoreFutures.await(FirestoreFutures.toCompletableFuture(ApiFutures.allAsList(commits)));
+        }
+    }
+}
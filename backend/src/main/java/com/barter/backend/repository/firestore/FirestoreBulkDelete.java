@@ -0,0 +1,101 @@
+package com.barter.backend.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes every document matched by a query, e.g. the messages of a chat or the documents of an account
+ * being purged, without loading them all at once.
+ *
+ * Document IDs are read a page of {@link #PAGE_SIZE} at a time (no fields are fetched) and each page is
+ * deleted through a BulkWriter, which sends the deletes in small parallel batches, throttles them to what
+ * Firestore accepts and retries transient failures with backoff. A page is fully written before the next is
+ * read, bounding the deletes in flight. Each page re-runs the query from the start, so documents added while
+ * the deletion runs are deleted too.
+ */
+final class FirestoreBulkDelete {
+
+    static final int PAGE_SIZE = FirestoreBatches.MAX_WRITES_PER_BATCH;
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreBulkDelete.class);
+
+    private FirestoreBulkDelete() {
+    }
+
+    /**
+     * Deletes every document the query matches and returns once all of them are gone.
+     *
+     * @param description What is being deleted, for the progress log, e.g. "messages of chat 123".
+     * @return The number of documents deleted.
+     * @throws RuntimeException if a delete still fails after the BulkWriter's retries. Documents deleted
+     * before the failure stay deleted; running the deletion again picks up the rest.
+     */
+    static long deleteAll(Firestore firestore, Query documents, String description) {
+        return FirestoreFutures.await(deleteAllAsync(firestore, documents, description));
+    }
+
+    /**
+     * Async variant of {@link #deleteAll}: each page is read once the previous one is written, without a
+     * thread waiting in between. Completes exceptionally with the RuntimeException deleteAll would throw.
+     */
+    static CompletableFuture<Long> deleteAllAsync(Firestore firestore, Query documents, String description) {
+        Query page = documents
+                .select(FieldPath.documentId())
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+        AtomicLong deleted = new AtomicLong();
+        BulkWriter writer = firestore.bulkWriter();
+        return deletePages(writer, page, description, deleted)
+                .whenComplete((count, error) -> close(writer))
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger,
+                            "Failed to delete " + description + " (" + deleted.get() + " deleted)", e);
+                });
+    }
+
+    private static CompletableFuture<Long> deletePages(BulkWriter writer, Query page, String description, AtomicLong deleted) {
+        return FirestoreFutures.toCompletableFuture(page.get()).thenCompose(snapshot -> {
+            List<QueryDocumentSnapshot> docs = snapshot.getDocuments();
+            if (docs.isEmpty()) {
+                return CompletableFuture.completedFuture(deleted.get());
+            }
+            List<ApiFuture<WriteResult>> deletes = new ArrayList<>(docs.size());
+            for (QueryDocumentSnapshot doc : docs) {
+                deletes.add(writer.delete(doc.getReference()));
+            }
+            writer.flush();
+            // Fails with the first delete that ran out of retries
+            return FirestoreFutures.toCompletableFuture(ApiFutures.allAsList(deletes)).thenCompose(results -> {
+                long total = deleted.addAndGet(docs.size());
+                logger.info("Deleted {} {} so far.", total, description);
+                if (docs.size() < PAGE_SIZE) {
+                    return CompletableFuture.completedFuture(total);
+                }
+                return deletePages(writer, page, description, deleted);
+            });
+        });
+    }
+
+    private static void close(BulkWriter writer) {
+        try {
+            writer.close(); // Nothing is pending here: every page was awaited or has failed
+        } catch (InterruptedException | ExecutionException e) {
+            logger.warn("Error closing BulkWriter: {}", e.getMessage());
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.barter.backend.repository.firestore;
+
+import com.barter.backend.exception.ResourceNotFoundException;
+import com.barter.backend.model.ChatConversation;
+import com.barter.backend.model.ChatInboxEntry;
+import com.barter.backend.model.ChatMessage;
+import com.barter.backend.model.Timestamps;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.ChatRepository;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore-backed chats. Conversations live in "chats" and their messages in a "messages" subcollection.
+ * Each user's chat list is kept in "inboxes/{uid}/entries", one document per conversation keyed by chat ID,
+ * so listing it is a single query served by the automatic updatedAtMillis index.
+ */
+@Repository
+@Profile("!inmemory")
+public class FirestoreChatRepository implements ChatRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreChatRepository.class);
+    private static final String CHATS_COLLECTION_NAME = "chats";
+    private static final String MESSAGES_SUBCOLLECTION_NAME = "messages";
+    private static final String INBOXES_COLLECTION_NAME = "inboxes";
+    private static final String INBOX_ENTRIES_SUBCOLLECTION_NAME = "entries";
+    // A listener only needs to see the tail of the chat; new messages always enter this window.
+    private static final int LISTENER_WINDOW = 20;
+
+    private final Firestore firestore;
+    private final boolean queryByMillis; // See FirestoreTimestamps
+
+    public FirestoreChatRepository(Firestore firestore,
+                                   @Value("${barter.timestamps.query-by-millis:false}") boolean queryByMillis) {
+        this.firestore = firestore;
+        this.queryByMillis = queryByMillis;
+    }
+
+    @Override
+    public Optional<ChatConversation> findById(String chatId) {
+        return FirestoreFutures.await(findByIdAsync(chatId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<ChatConversation>> findByIdAsync(String chatId) {
+        return FirestoreFutures.toCompletableFuture(firestore.collection(CHATS_COLLECTION_NAME).document(chatId).get())
+                .thenApply(doc -> {
+                    if (!doc.exists()) {
+                        return Optional.<ChatConversation>empty();
+                    }
+                    ChatConversation chat = doc.toObject(ChatConversation.class);
+                    if (chat != null) {
+                        chat.setId(doc.getId());
+                    }
+                    return Optional.ofNullable(chat);
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to retrieve chat by ID: " + chatId, e);
+                });
+    }
+
+    @Override
+    public ChatConversation save(ChatConversation chat, List<ChatInboxEntry> inboxEntries) {
+        DocumentReference docRef = chat.getId() != null
+                ? firestore.collection(CHATS_COLLECTION_NAME).document(chat.getId())
+                : firestore.collection(CHATS_COLLECTION_NAME).document(); // Let Firestore generate the ID
+        WriteBatch batch = firestore.batch();
+        batch.set(docRef, chat);
+        for (ChatInboxEntry entry : inboxEntries) {
+            entry.setChatId(docRef.getId());
+            batch.set(inboxEntry(entry.getOwnerUid(), entry.getChatId()), inboxFields(entry), SetOptions.merge());
+        }
+        try {
+            batch.commit().get(); // Blocks until write completes
+            chat.setId(docRef.getId());
+            return chat;
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error creating chat conversation: {}", e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to create chat conversation.", e);
+        }
+    }
+
+    @Override
+    public List<ChatConversation> findByParticipant(String firebaseUid) {
+        List<ChatConversation> chats = new ArrayList<>();
+        try {
+            List<QueryDocumentSnapshot> documents = firestore.collection(CHATS_COLLECTION_NAME)
+                    .whereArrayContains("participants", firebaseUid)
+                    .orderBy(FirestoreTimestamps.orderField("updatedAt", queryByMillis), Query.Direction.DESCENDING) // Sort by most recent message
+                    .get().get().getDocuments();
+            for (DocumentSnapshot doc : documents) {
+                try {
+                    ChatConversation chat = doc.toObject(ChatConversation.class);
+                    if (chat != null) {
+                        chat.setId(doc.getId());
+                        chats.add(chat);
+                    }
+                } catch (Exception e) {
+                    logger.error("Error mapping document {} to ChatConversation: {}", doc.getId(), e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error retrieving chats for user {}: {}", firebaseUid, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to retrieve chats for user: " + firebaseUid, e);
+        }
+        return chats;
+    }
+
+    @Override
+    public ChatMessage appendMessage(String chatId, ChatMessage message, ChatConversation.LastMessage lastMessage, String updatedAt,
+                                     Collection<String> participants) {
+        DocumentReference chatDocRef = firestore.collection(CHATS_COLLECTION_NAME).document(chatId);
+        DocumentReference messageDocRef = chatDocRef.collection(MESSAGES_SUBCOLLECTION_NAME).document(); // ID generated locally
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("lastMessage", lastMessage);
+        updates.put("updatedAt", updatedAt);
+        updates.put("updatedAtMillis", Timestamps.parseMillis(updatedAt));
+
+        // One commit: the message, the conversation's lastMessage and the inbox entries are written together or not at all
+        WriteBatch batch = firestore.batch();
+        batch.create(messageDocRef, message);
+        batch.update(chatDocRef, updates); // Fails the batch if the conversation does not exist
+        ChatConversation.LastMessage snippet = ChatInboxEntry.snippetOf(lastMessage);
+        for (String participant : participants) {
+            Map<String, Object> inboxUpdates = new HashMap<>();
+            inboxUpdates.put("chatId", chatId);
+            inboxUpdates.put("ownerUid", participant);
+            inboxUpdates.put("lastMessage", snippet);
+            inboxUpdates.put("updatedAt", updatedAt);
+            inboxUpdates.put("updatedAtMillis", updates.get("updatedAtMillis"));
+            inboxUpdates.put("unreadCount", participant.equals(message.getSenderId()) ? 0L : FieldValue.increment(1));
+            batch.set(inboxEntry(participant, chatId), inboxUpdates, SetOptions.merge());
+        }
+        try {
+            batch.commit().get(); // Blocks until the batch commits
+            message.setId(messageDocRef.getId()); // Set the ID on the returned message object
+            message.setChatId(chatId);
+            return message;
+        } catch (ExecutionException e) {
+            if (FirestoreFutures.isNotFound(e.getCause())) {
+                throw new ResourceNotFoundException("Chat conversation not found with ID: " + chatId);
+            }
+            logger.error("Error adding message to chat {}: {}", chatId, e.getMessage(), e);
+            throw new RuntimeException("Failed to add message to chat.", e);
+        } catch (InterruptedException e) {
+            logger.error("Error adding message to chat {}: {}", chatId, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to add message to chat.", e);
+        }
+    }
+
+    @Override
+    public List<ChatInboxEntry> findInbox(String ownerUid, Long afterUpdatedAtMillis, String afterChatId, int limit) {
+        return FirestoreFutures.await(findInboxAsync(ownerUid, afterUpdatedAtMillis, afterChatId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<ChatInboxEntry>> findInboxAsync(String ownerUid, Long afterUpdatedAtMillis, String afterChatId,
+                                                                  int limit) {
+        Query query = inbox(ownerUid)
+                .orderBy("updatedAtMillis", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                .limit(limit);
+        if (afterUpdatedAtMillis != null) {
+            query = query.startAfter(afterUpdatedAtMillis, afterChatId);
+        }
+        return FirestoreFutures.toCompletableFuture(query.get())
+                .thenApply(snapshot -> {
+                    List<ChatInboxEntry> entries = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        try {
+                            ChatInboxEntry entry = doc.toObject(ChatInboxEntry.class);
+                            if (entry != null) {
+                                entry.setChatId(doc.getId());
+                                entries.add(entry);
+                            }
+                        } catch (Exception e) {
+                            logger.error("Error mapping inbox entry {} of user {}: {}", doc.getId(), ownerUid, e.getMessage(), e);
+                        }
+                    }
+                    return entries;
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to retrieve inbox of user: " + ownerUid, e);
+                });
+    }
+
+    @Override
+    public void saveInboxEntries(List<ChatInboxEntry> entries) {
+        List<ApiFuture<List<WriteResult>>> commits = new ArrayList<>();
+        for (int start = 0; start < entries.size(); start += FirestoreBatches.MAX_WRITES_PER_BATCH) {
+            WriteBatch batch = firestore.batch();
+            for (ChatInboxEntry entry : entries.subList(start, Math.min(start + FirestoreBatches.MAX_WRITES_PER_BATCH, entries.size()))) {
+                batch.set(inboxEntry(entry.getOwnerUid(), entry.getChatId()), inboxFields(entry), SetOptions.merge());
+            }
+            commits.add(batch.commit());
+        }
+        if (!commits.isEmpty()) {
+            FirestoreFutures.await(FirestoreFutures.toCompletableFuture(ApiFutures.allAsList(commits)));
+        }
+    }
+
+    @Override
+    public void markInboxRead(String ownerUid, String chatId) {
+        try {
+            inboxEntry(ownerUid, chatId).update("unreadCount", 0L).get();
+        } catch (ExecutionException e) {
+            if (FirestoreFutures.isNotFound(e.getCause())) {
+                return; // No entry yet: nothing is unread
+            }
+            logger.error("Error marking chat {} as read for user {}: {}", chatId, ownerUid, e.getMessage(), e);
+            throw new RuntimeException("Failed to mark chat as read: " + chatId, e);
+        } catch (InterruptedException e) {
+            logger.error("Error marking chat {} as read for user {}: {}", chatId, ownerUid, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to mark chat as read: " + chatId, e);
+        }
+    }
+
+    @Override
+    public int updateInboxCounterpart(String counterpartUid, UserSummary counterpart) {
+        List<DocumentReference> candidates = new ArrayList<>();
+        for (ChatConversation chat : findByParticipant(counterpartUid)) {
+            if (!"direct".equals(chat.getType()) || chat.getParticipants() == null) {
+                continue; // Group entries show the chat name, not a counterpart
+            }
+            for (String participant : chat.getParticipants()) {
+                if (!counterpartUid.equals(participant)) {
+                    candidates.add(inboxEntry(participant, chat.getId()));
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        List<DocumentReference> stale = new ArrayList<>();
+        try {
+            // One round trip for all entries, reading only the compared fields
+            List<DocumentSnapshot> docs = firestore.getAll(candidates.toArray(new DocumentReference[0]),
+                    FieldMask.of("counterpartDisplayName", "counterpartProfileImageUrl")).get();
+            for (DocumentSnapshot doc : docs) {
+                if (doc.exists()
+                        && (!Objects.equals(doc.getString("counterpartDisplayName"), counterpart.getDisplayName())
+                        || !Objects.equals(doc.getString("counterpartProfileImageUrl"), counterpart.getProfileImageUrl()))) {
+                    stale.add(doc.getReference());
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error reading inbox entries showing user {}: {}", counterpartUid, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to refresh inbox entries showing user: " + counterpartUid, e);
+        }
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("counterpartDisplayName", counterpart.getDisplayName());
+        fields.put("counterpartProfileImageUrl", counterpart.getProfileImageUrl());
+        FirestoreBatches.updateAll(firestore, stale, fields);
+        return stale.size();
+    }
+
+    @Override
+    public List<ChatMessage> findMessages(String chatId) {
+        return FirestoreFutures.await(findMessagesAsync(chatId));
+    }
+
+    @Override
+    public CompletableFuture<List<ChatMessage>> findMessagesAsync(String chatId) {
+        return runMessageQueryAsync(chatId, messages(chatId).orderBy(createdAtField(), Query.Direction.ASCENDING));
+    }
+
+    @Override
+    public List<ChatMessage> findMessages(String chatId, boolean newestFirst, Long afterCreatedAtMillis, String afterId, int limit) {
+        return FirestoreFutures.await(findMessagesAsync(chatId, newestFirst, afterCreatedAtMillis, afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<ChatMessage>> findMessagesAsync(String chatId, boolean newestFirst, Long afterCreatedAtMillis,
+                                                                  String afterId, int limit) {
+        Query.Direction direction = newestFirst ? Query.Direction.DESCENDING : Query.Direction.ASCENDING;
+        Query query = messages(chatId)
+                .orderBy(createdAtField(), direction)
+                .orderBy(FieldPath.documentId(), direction)
+                .limit(limit);
+        if (afterCreatedAtMillis == null) {
+            return runMessageQueryAsync(chatId, query);
+        }
+        return FirestoreTimestamps.startAfterAsync(query, messages(chatId), queryByMillis, afterCreatedAtMillis, afterId)
+                .thenCompose(positioned -> runMessageQueryAsync(chatId, positioned));
+    }
+
+    @Override
+    public int updateSenderSnapshot(String senderId, UserSummary sender, int recentMessagesPerChat) {
+        List<ChatConversation> chats = findByParticipant(senderId);
+        // The tails of all chats are read in parallel; filtering by sender in memory needs no composite index.
+        List<ApiFuture<QuerySnapshot>> tails = new ArrayList<>();
+        for (ChatConversation chat : chats) {
+            tails.add(messages(chat.getId())
+                    .orderBy(createdAtField(), Query.Direction.DESCENDING)
+                    .limit(recentMessagesPerChat)
+                    .get());
+        }
+
+        List<DocumentReference> stale = new ArrayList<>();
+        try {
+            for (QuerySnapshot tail : ApiFutures.allAsList(tails).get()) {
+                for (DocumentSnapshot doc : tail.getDocuments()) {
+                    if (senderId.equals(doc.getString("senderId"))
+                            && (!Objects.equals(doc.getString("senderDisplayName"), sender.getDisplayName())
+                            || !Objects.equals(doc.getString("senderProfileImageUrl"), sender.getProfileImageUrl()))) {
+                        stale.add(doc.getReference());
+                    }
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error reading recent messages of user {} for sender refresh: {}", senderId, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to refresh sender data on messages of user: " + senderId, e);
+        }
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("senderDisplayName", sender.getDisplayName());
+        fields.put("senderProfileImageUrl", sender.getProfileImageUrl());
+        FirestoreBatches.updateAll(firestore, stale, fields);
+        return stale.size();
+    }
+
+    @Override
+    public int backfillTimestampMillis() {
+        int chats = FirestoreTimestamps.backfillMillis(firestore, firestore.collection(CHATS_COLLECTION_NAME),
+                "createdAt", "updatedAt");
+        int messages = FirestoreTimestamps.backfillMillis(firestore, firestore.collectionGroup(MESSAGES_SUBCOLLECTION_NAME),
+                "createdAt");
+        return chats + messages;
+    }
+
+    @Override
+    public long delete(String chatId) {
+        return FirestoreFutures.await(deleteAsync(chatId));
+    }
+
+    @Override
+    public CompletableFuture<Long> deleteAsync(String chatId) {
+        DocumentReference chatDocRef = firestore.collection(CHATS_COLLECTION_NAME).document(chatId);
+        return findByIdAsync(chatId).thenCompose(chat -> {
+            List<String> participants = chat.map(ChatConversation::getParticipants).orElse(null);
+            // First, delete all messages in the subcollection; fails before the conversation is touched if any remain
+            return FirestoreBulkDelete.deleteAllAsync(firestore, chatDocRef.collection(MESSAGES_SUBCOLLECTION_NAME),
+                    "messages of chat " + chatId).thenCompose(deleted -> {
+                // Then, delete the chat conversation document itself and the participants' inbox entries
+                WriteBatch batch = firestore.batch();
+                batch.delete(chatDocRef);
+                if (participants != null) {
+                    for (String participant : participants) {
+                        batch.delete(inboxEntry(participant, chatId));
+                    }
+                }
+                return FirestoreFutures.toCompletableFuture(batch.commit())
+                        .thenApply(results -> deleted)
+                        .exceptionally(e -> {
+                            throw FirestoreFutures.failure(logger, "Failed to delete chat: " + chatId, e);
+                        });
+            });
+        });
+    }
+
+    /**
+     * Listens to the tail of the chat. The first snapshot is the existing tail, which clients load through the
+     * message history endpoints, so only documents added after it are delivered.
+     */
+    @Override
+    public MessageSubscription subscribe(String chatId, MessageListener listener) {
+        Query tail = messages(chatId)
+                .orderBy(createdAtField(), Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                .limit(LISTENER_WINDOW);
+        // Firestore invokes the callback serially, so this needs no synchronisation.
+        boolean[] initialSnapshotSeen = {false};
+        ListenerRegistration registration = tail.addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                logger.error("Firestore listener for chat {} failed: {}", chatId, error.getMessage(), error);
+                listener.onError(error);
+                return;
+            }
+            if (snapshot == null) {
+                return;
+            }
+            if (!initialSnapshotSeen[0]) {
+                initialSnapshotSeen[0] = true;
+                return;
+            }
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                if (change.getType() != DocumentChange.Type.ADDED) {
+                    continue;
+                }
+                ChatMessage message = mapMessage(chatId, change.getDocument());
+                if (message != null) {
+                    listener.onMessage(message);
+                }
+            }
+        });
+        logger.info("Opened Firestore listener for chat {}.", chatId);
+        return registration::remove;
+    }
+
+    private String createdAtField() {
+        return FirestoreTimestamps.orderField("createdAt", queryByMillis);
+    }
+
+    private CollectionReference inbox(String ownerUid) {
+        return firestore.collection(INBOXES_COLLECTION_NAME).document(ownerUid).collection(INBOX_ENTRIES_SUBCOLLECTION_NAME);
+    }
+
+    private DocumentReference inboxEntry(String ownerUid, String chatId) {
+        return inbox(ownerUid).document(chatId);
+    }
+
+    /**
+     * Every field of an entry except unreadCount, which is incremented by zero: that keeps the count of an
+     * existing entry and starts a new one at 0.
+     */
+    private static Map<String, Object> inboxFields(ChatInboxEntry entry) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("chatId", entry.getChatId());
+        fields.put("ownerUid", entry.getOwnerUid());
+        fields.put("type", entry.getType());
+        fields.put("name", entry.getName());
+        fields.put("counterpartUid", entry.getCounterpartUid());
+        fields.put("counterpartDisplayName", entry.getCounterpartDisplayName());
+        fields.put("counterpartProfileImageUrl", entry.getCounterpartProfileImageUrl());
+        fields.put("lastMessage", entry.getLastMessage());
+        fields.put("updatedAt", entry.getUpdatedAt());
+        fields.put("updatedAtMillis", entry.getUpdatedAtMillis());
+        fields.put("unreadCount", FieldValue.increment(0));
+        return fields;
+    }
+
+    private CollectionReference messages(String chatId) {
+        return firestore.collection(CHATS_COLLECTION_NAME).document(chatId).collection(MESSAGES_SUBCOLLECTION_NAME);
+    }
+
+    private CompletableFuture<List<ChatMessage>> runMessageQueryAsync(String chatId, Query query) {
+        return FirestoreFutures.toCompletableFuture(query.get())
+                .thenApply(snapshot -> {
+                    List<ChatMessage> messages = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        ChatMessage message = mapMessage(chatId, doc);
+                        if (message != null) {
+                            messages.add(message);
+                        }
+                    }
+                    return messages;
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to retrieve messages for chat: " + chatId, e);
+                });
+    }
+
+    private ChatMessage mapMessage(String chatId, DocumentSnapshot doc) {
+        try {
+            ChatMessage message = doc.toObject(ChatMessage.class);
+            if (message != null) {
+                message.setId(doc.getId());
+                message.setChatId(chatId); // Ensure chat ID is set on message object
+            }
+            return message;
+        } catch (Exception e) {
+            logger.error("Error mapping document {} to ChatMessage for chat {}: {}", doc.getId(), chatId, e.getMessage(), e);
+            return null;
+        }
+    }
+}
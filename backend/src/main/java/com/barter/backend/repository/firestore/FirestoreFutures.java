@@ -0,0 +1,84 @@
+package com.barter.backend.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.Status;
+import org.slf4j.Logger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bridges Firestore's {@link ApiFuture}s to {@link CompletableFuture}s for the async repository methods,
+ * and back to blocking calls for the synchronous ones.
+ *
+ * Continuations run on the Firestore client thread that completed the RPC, so they must stay short and
+ * non-blocking; anything heavier should be chained with an explicit executor.
+ */
+final class FirestoreFutures {
+
+    private FirestoreFutures() {
+    }
+
+    static <T> CompletableFuture<T> toCompletableFuture(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                future.completeExceptionally(error);
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    /**
+     * Logs a failed Firestore call and returns the exception to throw from an {@code exceptionally} stage,
+     * so the caller's future completes with a RuntimeException carrying the given message.
+     */
+    static CompletionException failure(Logger logger, String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        logger.error("{}: {}", message, cause.getMessage(), cause);
+        return new CompletionException(new RuntimeException(message, cause));
+    }
+
+    /**
+     * Whether a failed call was rejected because a document it required does not exist, e.g. an update
+     * of a deleted document.
+     */
+    static boolean isNotFound(Throwable error) {
+        if (error instanceof ApiException apiException) {
+            return apiException.getStatusCode().getCode() == StatusCode.Code.NOT_FOUND;
+        }
+        return error instanceof FirestoreException firestoreException
+                && firestoreException.getStatus() != null
+                && firestoreException.getStatus().getCode() == Status.Code.NOT_FOUND;
+    }
+
+    /**
+     * Waits for an async repository call, rethrowing its RuntimeException as the synchronous methods do.
+     */
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Firestore.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Firestore call failed.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.barter.backend.repository.firestore;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Geohash prefix queries for radius searches: one range query on the stored "geohash" field per covering
+ * cell, all sent in parallel. Combined with equality filters each needs a composite index
+ * (e.g. status + geohash for posts).
+ */
+final class FirestoreGeohash {
+
+    static final String FIELD = "geohash";
+    // Sorts after every geohash character, so [prefix, prefix + PREFIX_END] holds every hash starting with prefix
+    private static final String PREFIX_END = "\uf8ff";
+
+    private FirestoreGeohash() {
+    }
+
+    /**
+     * Runs the base query once per prefix, restricted to geohashes starting with it, and returns all
+     * matching documents. Documents without a geohash are never matched.
+     */
+    static CompletableFuture<List<QueryDocumentSnapshot>> findByPrefixesAsync(Query base, Collection<String> prefixes) {
+        List<ApiFuture<QuerySnapshot>> queries = new ArrayList<>(prefixes.size());
+        for (String prefix : prefixes) {
+            queries.add(base.orderBy(FIELD).startAt(prefix).endAt(prefix + PREFIX_END).get());
+        }
+        return FirestoreFutures.toCompletableFuture(ApiFutures.allAsList(queries))
+                .thenApply(snapshots -> {
+                    List<QueryDocumentSnapshot> documents = new ArrayList<>();
+                    for (QuerySnapshot snapshot : snapshots) {
+                        documents.addAll(snapshot.getDocuments());
+                    }
+                    return documents;
+                });
+    }
+}
@@ -0,0 +1,358 @@
+package com.barter.backend.repository.firestore;
+
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.PostQuery;
+import com.barter.backend.repository.PostRepository;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+@Repository
+@Profile("!inmemory")
+public class FirestorePostRepository implements PostRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestorePostRepository.class);
+    private static final String COLLECTION_NAME = "barterPosts";
+    // Firestore accepts at most this many values in one array-contains-any filter
+    static final int MAX_TAGS_PER_QUERY = 10;
+
+    private final Firestore firestore;
+    private final boolean queryByMillis; // See FirestoreTimestamps
+
+    public FirestorePostRepository(Firestore firestore,
+                                   @Value("${barter.timestamps.query-by-millis:false}") boolean queryByMillis) {
+        this.firestore = firestore;
+        this.queryByMillis = queryByMillis;
+    }
+
+    @Override
+    public Optional<BarterPost> findById(String id) {
+        return FirestoreFutures.await(findByIdAsync(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<BarterPost>> findByIdAsync(String id) {
+        return FirestoreFutures.toCompletableFuture(firestore.collection(COLLECTION_NAME).document(id).get())
+                .thenApply(doc -> doc.exists() ? Optional.ofNullable(mapPost(doc)) : Optional.<BarterPost>empty())
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to retrieve post by ID: " + id, e);
+                });
+    }
+
+    @Override
+    public BarterPost insert(BarterPost post) {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
+        post.setId(docRef.getId());
+        try {
+            docRef.set(post).get();
+            return post;
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error creating post for user {}: {}", post.getUserFirebaseUid(), e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to create post.", e);
+        }
+    }
+
+    @Override
+    public void save(BarterPost post) {
+        FirestoreFutures.await(saveAsync(post));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(BarterPost post) {
+        return FirestoreFutures.toCompletableFuture(firestore.collection(COLLECTION_NAME).document(post.getId()).set(post))
+                .<Void>thenApply(writeResult -> null)
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to update post: " + post.getId(), e);
+                });
+    }
+
+    @Override
+    public void updateFields(String id, Map<String, Object> fields) {
+        try {
+            firestore.collection(COLLECTION_NAME).document(id).update(fields).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error updating fields {} of post {}: {}", fields.keySet(), id, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to update post: " + id, e);
+        }
+    }
+
+    @Override
+    public boolean updateFieldsIf(String id, String field, Object expected, Map<String, Object> fields) {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
+        try {
+            return firestore.runTransaction(transaction -> {
+                // Read inside the transaction so a concurrent write of the field aborts and retries it.
+                DocumentSnapshot current = transaction.get(docRef).get();
+                if (!current.exists() || !Objects.equals(current.get(field), expected)) {
+                    return false;
+                }
+                transaction.update(docRef, fields);
+                return true;
+            }).get(); // Blocks until the transaction commits
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error conditionally updating fields {} of post {}: {}", fields.keySet(), id, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to update post: " + id, e);
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        try {
+            firestore.collection(COLLECTION_NAME).document(id).delete().get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error deleting post {}: {}", id, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to delete post: " + id, e);
+        }
+    }
+
+    @Override
+    public int updateAuthorSnapshot(String userFirebaseUid, UserSummary author) {
+        List<DocumentReference> stale = new ArrayList<>();
+        try {
+            // Only the snapshot fields are fetched, to skip posts that are already up to date
+            for (DocumentSnapshot doc : firestore.collection(COLLECTION_NAME)
+                    .whereEqualTo("userFirebaseUid", userFirebaseUid)
+                    .select("displayName", "profileImageUrl")
+                    .get().get().getDocuments()) {
+                if (!Objects.equals(doc.getString("displayName"), author.getDisplayName())
+                        || !Objects.equals(doc.getString("profileImageUrl"), author.getProfileImageUrl())) {
+                    stale.add(doc.getReference());
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error reading posts of user {} for author refresh: {}", userFirebaseUid, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to refresh author data on posts of user: " + userFirebaseUid, e);
+        }
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("displayName", author.getDisplayName());
+        fields.put("profileImageUrl", author.getProfileImageUrl());
+        FirestoreBatches.updateAll(firestore, stale, fields);
+        return stale.size();
+    }
+
+    @Override
+    public int backfillTimestampMillis() {
+        return FirestoreTimestamps.backfillMillis(firestore, firestore.collection(COLLECTION_NAME), "createdAt");
+    }
+
+    @Override
+    public List<BarterPost> findAll(PostQuery query) {
+        return FirestoreFutures.await(findAllAsync(query));
+    }
+
+    @Override
+    public CompletableFuture<List<BarterPost>> findAllAsync(PostQuery query) {
+        List<Query> queries = new ArrayList<>();
+        for (Query tagQuery : buildQueries(query)) {
+            queries.add(tagQuery
+                    .orderBy(createdAtField(), Query.Direction.DESCENDING)
+                    .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING));
+        }
+        return runMergedAsync(queries, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<BarterPost> findPage(PostQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        return FirestoreFutures.await(findPageAsync(query, afterCreatedAtMillis, afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<BarterPost>> findPageAsync(PostQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        // Each tag query's first `limit` posts after the cursor include every post of the merged first `limit`
+        List<Query> pageQueries = new ArrayList<>();
+        for (Query tagQuery : buildQueries(query)) {
+            pageQueries.add(tagQuery
+                    .orderBy(createdAtField(), Query.Direction.DESCENDING)
+                    .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                    .limit(limit));
+        }
+        if (afterCreatedAtMillis == null) {
+            return runMergedAsync(pageQueries, limit);
+        }
+        return FirestoreTimestamps.startAfterAllAsync(pageQueries, firestore.collection(COLLECTION_NAME), queryByMillis,
+                        afterCreatedAtMillis, afterId)
+                .thenCompose(positioned -> runMergedAsync(positioned, limit));
+    }
+
+    @Override
+    public List<BarterPost> findByGeohashPrefixes(PostQuery query, Collection<String> geohashPrefixes) {
+        return FirestoreFutures.await(findByGeohashPrefixesAsync(query, geohashPrefixes));
+    }
+
+    @Override
+    public CompletableFuture<List<BarterPost>> findByGeohashPrefixesAsync(PostQuery query, Collection<String> geohashPrefixes) {
+        // One query per cell is enough; with more tags than one query takes, they are checked on the (nearby) results
+        List<Query> tagQueries = buildQueries(query);
+        boolean filterTagsHere = tagQueries.size() > 1;
+        Query base = filterTagsHere ? buildEqualityQuery(query) : tagQueries.get(0);
+        return FirestoreGeohash.findByPrefixesAsync(base, geohashPrefixes)
+                .thenApply(docs -> {
+                    List<BarterPost> posts = new ArrayList<>(docs.size());
+                    for (DocumentSnapshot doc : docs) {
+                        BarterPost post = mapPost(doc);
+                        if (post != null && (!filterTagsHere || hasAnyTag(post, query.getTags()))) {
+                            posts.add(post);
+                        }
+                    }
+                    return posts;
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to retrieve posts by geohash", e);
+                });
+    }
+
+    private String createdAtField() {
+        return FirestoreTimestamps.orderField("createdAt", queryByMillis);
+    }
+
+    /**
+     * The Firestore queries whose union is the post query: a single query, or one per slice of at most
+     * {@link #MAX_TAGS_PER_QUERY} tags when more are requested.
+     */
+    private List<Query> buildQueries(PostQuery postQuery) {
+        Query base = buildEqualityQuery(postQuery);
+        List<String> tags = postQuery.getTags();
+        if (tags == null) {
+            return List.of(base);
+        }
+        List<Query> queries = new ArrayList<>();
+        for (int start = 0; start < tags.size(); start += MAX_TAGS_PER_QUERY) {
+            queries.add(base.whereArrayContainsAny("tags", tags.subList(start, Math.min(start + MAX_TAGS_PER_QUERY, tags.size()))));
+        }
+        return queries;
+    }
+
+    private Query buildEqualityQuery(PostQuery postQuery) {
+        Query query = firestore.collection(COLLECTION_NAME);
+        if (postQuery.getStatus() != null) {
+            query = query.whereEqualTo("status", postQuery.getStatus());
+        }
+        if (postQuery.getUploaderId() != null) {
+            query = query.whereEqualTo("userFirebaseUid", postQuery.getUploaderId());
+        }
+        if (postQuery.getLocation() != null) {
+            query = query.whereEqualTo("location", postQuery.getLocation());
+        }
+        return query;
+    }
+
+    private static boolean hasAnyTag(BarterPost post, List<String> tags) {
+        return post.getTags() != null && post.getTags().stream().anyMatch(tags::contains);
+    }
+
+    /**
+     * Runs the queries in parallel and merges their newest-first results into one newest-first list of at
+     * most {@code limit} posts, each post once (a post with several of the tags is returned by several queries).
+     */
+    private CompletableFuture<List<BarterPost>> runMergedAsync(List<Query> queries, int limit) {
+        if (queries.size() == 1) {
+            return runQueryAsync(queries.get(0));
+        }
+        List<CompletableFuture<List<BarterPost>>> results = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            results.add(runQueryAsync(query));
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> {
+                    List<List<BarterPost>> sorted = new ArrayList<>(results.size());
+                    for (CompletableFuture<List<BarterPost>> result : results) {
+                        sorted.add(result.join());
+                    }
+                    return mergeNewestFirst(sorted, limit);
+                });
+    }
+
+    /**
+     * K-way merge of lists already in query order, skipping posts seen in an earlier list.
+     */
+    private List<BarterPost> mergeNewestFirst(List<List<BarterPost>> sorted, int limit) {
+        Comparator<BarterPost> order = queryOrder();
+        // Each head is {list index, position in that list}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> order.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        Set<String> seen = new HashSet<>();
+        List<BarterPost> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            BarterPost post = sorted.get(head[0]).get(head[1]);
+            if (seen.add(post.getId())) {
+                merged.add(post);
+            }
+            if (head[1] + 1 < sorted.get(head[0]).size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    // The order Firestore returns: the timestamp field being ordered on, descending, then document ID descending
+    private Comparator<BarterPost> queryOrder() {
+        Comparator<BarterPost> byTimestamp = queryByMillis
+                ? Comparator.comparing(BarterPost::getCreatedAtMillis, Comparator.nullsLast(Comparator.reverseOrder()))
+                : Comparator.comparing(BarterPost::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+        return byTimestamp.thenComparing(BarterPost::getId, Comparator.reverseOrder());
+    }
+
+    private CompletableFuture<List<BarterPost>> runQueryAsync(Query query) {
+        return FirestoreFutures.toCompletableFuture(query.get())
+                .thenApply(snapshot -> {
+                    List<BarterPost> posts = new ArrayList<>();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        BarterPost post = mapPost(doc);
+                        if (post != null) {
+                            posts.add(post);
+                        }
+                    }
+                    return posts;
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to retrieve filtered posts", e);
+                });
+    }
+
+    private BarterPost mapPost(DocumentSnapshot doc) {
+        try {
+            BarterPost post = doc.toObject(BarterPost.class);
+            if (post != null) {
+                post.setId(doc.getId());
+            }
+            return post;
+        } catch (Exception e) {
+            logger.error("Error mapping document {} to BarterPost: {}", doc.getId(), e.getMessage(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.barter.backend.repository.firestore;
+
+import com.barter.backend.model.RatingSummary;
+import com.barter.backend.model.Review;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.ReviewQuery;
+import com.barter.backend.repository.ReviewRepository;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore-backed reviews. Rating aggregates live on the recipient's user_profiles document and are
+ * updated in the same transaction as the review write, so they never drift from the reviews collection.
+ */
+@Repository
+@Profile("!inmemory")
+public class FirestoreReviewRepository implements ReviewRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreReviewRepository.class);
+    private static final String REVIEWS_COLLECTION_NAME = "reviews";
+    private static final String USER_PROFILES_COLLECTION = "user_profiles";
+    private static final String HISTOGRAM_FIELD = "ratingHistogram";
+
+    private final Firestore firestore;
+    private final boolean queryByMillis; // See FirestoreTimestamps
+
+    public FirestoreReviewRepository(Firestore firestore,
+                                     @Value("${barter.timestamps.query-by-millis:false}") boolean queryByMillis) {
+        this.firestore = firestore;
+        this.queryByMillis = queryByMillis;
+    }
+
+    @Override
+    public Optional<Review> findById(String id) {
+        try {
+            DocumentSnapshot doc = firestore.collection(REVIEWS_COLLECTION_NAME).document(id).get().get();
+            return doc.exists() ? Optional.ofNullable(mapReview(doc)) : Optional.empty();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error retrieving review by ID {}: {}", id, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to retrieve review by ID: " + id, e);
+        }
+    }
+
+    @Override
+    public List<Review> findPage(ReviewQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        return FirestoreFutures.await(findPageAsync(query, afterCreatedAtMillis, afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Review>> findPageAsync(ReviewQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        Query page = newestFirst(query).limit(limit);
+        if (afterCreatedAtMillis == null) {
+            return runQueryAsync(page, "review page");
+        }
+        return FirestoreTimestamps.startAfterAsync(page, firestore.collection(REVIEWS_COLLECTION_NAME), queryByMillis,
+                        afterCreatedAtMillis, afterId)
+                .thenCompose(positioned -> runQueryAsync(positioned, "review page"));
+    }
+
+    @Override
+    public Optional<RatingSummary> findRatingSummary(String userFirebaseUid) {
+        return FirestoreFutures.await(findRatingSummaryAsync(userFirebaseUid));
+    }
+
+    @Override
+    public CompletableFuture<Optional<RatingSummary>> findRatingSummaryAsync(String userFirebaseUid) {
+        DocumentReference profileRef = firestore.collection(USER_PROFILES_COLLECTION).document(userFirebaseUid);
+        return FirestoreFutures.toCompletableFuture(profileRef.get(FieldMask.of("reviewCount", "totalRatingSum", HISTOGRAM_FIELD)))
+                .thenCompose(profile -> {
+                    if (!profile.exists()) {
+                        return CompletableFuture.completedFuture(Optional.<RatingSummary>empty());
+                    }
+                    Map<String, Long> histogram = readHistogram(profile);
+                    Long count = profile.getLong("reviewCount");
+                    Long sum = profile.getLong("totalRatingSum");
+                    if (histogram != null && count != null && sum != null) {
+                        return CompletableFuture.completedFuture(Optional.of(
+                                new RatingSummary(userFirebaseUid, count, ReviewRepository.averageRating(count, sum), histogram)));
+                    }
+                    return countPerStarAsync(userFirebaseUid).thenApply(Optional::of);
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to retrieve rating summary for user " + userFirebaseUid, e);
+                });
+    }
+
+    @Override
+    public Review insert(Review review) {
+        // Let Firestore generate a document ID automatically
+        DocumentReference docRef = firestore.collection(REVIEWS_COLLECTION_NAME).document();
+        review.setId(docRef.getId()); // Set Firestore generated ID to the POJO's ID field
+
+        DocumentReference profileRef = firestore.collection(USER_PROFILES_COLLECTION).document(review.getToUserFirebaseUid());
+        try {
+            firestore.runTransaction(transaction -> {
+                DocumentSnapshot profile = transaction.get(profileRef).get();
+                RatingAggregate aggregate = readRatingAggregate(transaction, profile);
+                transaction.create(docRef, review); // Write the POJO to Firestore
+                if (aggregate != null) {
+                    writeRatingAggregate(transaction, profileRef, aggregate.count + 1, aggregate.sum + review.getRating(),
+                            ReviewRepository.adjustHistogram(aggregate.histogram, review.getRating(), 1));
+                }
+                return null;
+            }).get(); // Blocks until the transaction commits
+            return review;
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error creating review from {} to {}: {}", review.getFromUserFirebaseUid(), review.getToUserFirebaseUid(), e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to create review.", e);
+        }
+    }
+
+    @Override
+    public boolean delete(String id) {
+        DocumentReference docRef = firestore.collection(REVIEWS_COLLECTION_NAME).document(id);
+        try {
+            return firestore.runTransaction(transaction -> {
+                // Read inside the transaction so a concurrent delete is not counted twice.
+                DocumentSnapshot current = transaction.get(docRef).get();
+                if (!current.exists()) {
+                    return false;
+                }
+                String toUserFirebaseUid = current.getString("toUserFirebaseUid");
+                if (toUserFirebaseUid == null) {
+                    transaction.delete(docRef);
+                    return true;
+                }
+                DocumentReference profileRef = firestore.collection(USER_PROFILES_COLLECTION).document(toUserFirebaseUid);
+                DocumentSnapshot profile = transaction.get(profileRef).get();
+                RatingAggregate aggregate = readRatingAggregate(transaction, profile);
+                transaction.delete(docRef);
+                if (aggregate != null) {
+                    long rating = Optional.ofNullable(current.getLong("rating")).orElse(0L);
+                    writeRatingAggregate(transaction, profileRef,
+                            Math.max(0, aggregate.count - 1), Math.max(0, aggregate.sum - rating),
+                            ReviewRepository.adjustHistogram(aggregate.histogram, (int) rating, -1));
+                }
+                return true;
+            }).get(); // Blocks until the transaction commits
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error deleting review {}: {}", id, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to delete review: " + id, e);
+        }
+    }
+
+    @Override
+    public boolean rebuildAggregate(String userFirebaseUid) {
+        DocumentReference profileRef = firestore.collection(USER_PROFILES_COLLECTION).document(userFirebaseUid);
+        try {
+            return firestore.runTransaction(transaction -> {
+                DocumentSnapshot profile = transaction.get(profileRef).get();
+                if (!profile.exists()) {
+                    return false;
+                }
+                RatingAggregate aggregate = countReviews(transaction, userFirebaseUid);
+                writeRatingAggregate(transaction, profileRef, aggregate.count, aggregate.sum, aggregate.histogram);
+                return true;
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error rebuilding rating aggregate for user {}: {}", userFirebaseUid, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to rebuild rating for user: " + userFirebaseUid, e);
+        }
+    }
+
+    @Override
+    public int updateReviewerSnapshot(String fromUserFirebaseUid, UserSummary reviewer) {
+        List<DocumentReference> stale = new ArrayList<>();
+        try {
+            for (DocumentSnapshot doc : firestore.collection(REVIEWS_COLLECTION_NAME)
+                    .whereEqualTo("fromUserFirebaseUid", fromUserFirebaseUid)
+                    .select("fromUser")
+                    .get().get().getDocuments()) {
+                if (!Objects.equals(doc.getString("fromUser.displayName"), reviewer.getDisplayName())) {
+                    stale.add(doc.getReference());
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error reading reviews by user {} for reviewer refresh: {}", fromUserFirebaseUid, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to refresh reviewer data on reviews by user: " + fromUserFirebaseUid, e);
+        }
+
+        Map<String, Object> fromUser = new HashMap<>();
+        fromUser.put("firebaseUid", fromUserFirebaseUid);
+        fromUser.put("displayName", reviewer.getDisplayName());
+        FirestoreBatches.updateAll(firestore, stale, Map.of("fromUser", fromUser));
+        return stale.size();
+    }
+
+    @Override
+    public int backfillTimestampMillis() {
+        return FirestoreTimestamps.backfillMillis(firestore, firestore.collection(REVIEWS_COLLECTION_NAME), "createdAt");
+    }
+
+    private Query newestFirst(ReviewQuery reviewQuery) {
+        Query query = firestore.collection(REVIEWS_COLLECTION_NAME);
+        if (reviewQuery.getToUserFirebaseUid() != null) {
+            query = query.whereEqualTo("toUserFirebaseUid", reviewQuery.getToUserFirebaseUid());
+        }
+        if (reviewQuery.getFromUserFirebaseUid() != null) {
+            query = query.whereEqualTo("fromUserFirebaseUid", reviewQuery.getFromUserFirebaseUid());
+        }
+        if (reviewQuery.getBarterPostId() != null) {
+            query = query.whereEqualTo("barterPostId", reviewQuery.getBarterPostId());
+        }
+        return query
+                .orderBy(FirestoreTimestamps.orderField("createdAt", queryByMillis), Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+    }
+
+    /**
+     * Summarizes a user's reviews with one count aggregation per star rating, run in parallel. Each reads
+     * one index entry per 1000 reviews counted rather than the reviews themselves.
+     */
+    private CompletableFuture<RatingSummary> countPerStarAsync(String userFirebaseUid) {
+        Query received = firestore.collection(REVIEWS_COLLECTION_NAME).whereEqualTo("toUserFirebaseUid", userFirebaseUid);
+        List<ApiFuture<AggregateQuerySnapshot>> counts = new ArrayList<>();
+        for (int stars = RatingSummary.MIN_STARS; stars <= RatingSummary.MAX_STARS; stars++) {
+            counts.add(received.whereEqualTo("rating", stars).count().get());
+        }
+        return FirestoreFutures.toCompletableFuture(ApiFutures.allAsList(counts))
+                .thenApply(snapshots -> {
+                    Map<String, Long> histogram = new HashMap<>();
+                    long count = 0;
+                    long sum = 0;
+                    for (int i = 0; i < snapshots.size(); i++) {
+                        int stars = RatingSummary.MIN_STARS + i;
+                        long reviews = snapshots.get(i).getCount();
+                        histogram.put(String.valueOf(stars), reviews);
+                        count += reviews;
+                        sum += reviews * stars;
+                    }
+                    return new RatingSummary(userFirebaseUid, count, ReviewRepository.averageRating(count, sum),
+                            RatingSummary.completeHistogram(histogram));
+                });
+    }
+
+    private CompletableFuture<List<Review>> runQueryAsync(Query query, String description) {
+        return FirestoreFutures.toCompletableFuture(query.get())
+                .thenApply(snapshot -> {
+                    List<Review> reviews = new ArrayList<>();
+                    for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+                        Review review = mapReview(doc);
+                        if (review != null) {
+                            reviews.add(review);
+                        }
+                    }
+                    return reviews;
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to retrieve " + description, e);
+                });
+    }
+
+    private Review mapReview(DocumentSnapshot doc) {
+        try {
+            Review review = doc.toObject(Review.class);
+            if (review != null) {
+                review.setId(doc.getId());
+            }
+            return review;
+        } catch (Exception e) {
+            logger.error("Error mapping document {} to Review: {}", doc.getId(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the running aggregates from a profile snapshot taken inside a transaction.
+     * Profiles written before the aggregates (or the histogram) existed are seeded by counting their reviews once.
+     *
+     * @return The current aggregate, or null if the profile does not exist (the review is still written).
+     */
+    private RatingAggregate readRatingAggregate(Transaction transaction, DocumentSnapshot profile)
+            throws InterruptedException, ExecutionException {
+        if (!profile.exists()) {
+            logger.warn("User profile {} not found; review written without updating rating.", profile.getId());
+            return null;
+        }
+        Long count = profile.getLong("reviewCount");
+        Long sum = profile.getLong("totalRatingSum");
+        Map<String, Long> histogram = readHistogram(profile);
+        if (count == null || sum == null || histogram == null) {
+            logger.info("Seeding rating aggregate for user {} from existing reviews.", profile.getId());
+            return countReviews(transaction, profile.getId());
+        }
+        return new RatingAggregate(count, sum, histogram);
+    }
+
+    private RatingAggregate countReviews(Transaction transaction, String userFirebaseUid)
+            throws InterruptedException, ExecutionException {
+        Query query = firestore.collection(REVIEWS_COLLECTION_NAME)
+                .whereEqualTo("toUserFirebaseUid", userFirebaseUid)
+                .select("rating");
+        long count = 0;
+        long sum = 0;
+        Map<String, Long> histogram = RatingSummary.completeHistogram(null);
+        for (QueryDocumentSnapshot doc : transaction.get(query).get().getDocuments()) {
+            long rating = Optional.ofNullable(doc.getLong("rating")).orElse(0L);
+            count++;
+            sum += rating;
+            histogram = ReviewRepository.adjustHistogram(histogram, (int) rating, 1);
+        }
+        return new RatingAggregate(count, sum, histogram);
+    }
+
+    private void writeRatingAggregate(Transaction transaction, DocumentReference profileRef, long count, long sum,
+                                      Map<String, Long> histogram) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("reviewCount", count);
+        updates.put("totalRatingSum", sum);
+        updates.put("rating", ReviewRepository.averageRating(count, sum));
+        updates.put(HISTOGRAM_FIELD, histogram);
+        transaction.update(profileRef, updates);
+    }
+
+    /**
+     * The stored per-star histogram of a profile, or null if it was written before the histogram existed.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> readHistogram(DocumentSnapshot profile) {
+        Object stored = profile.get(HISTOGRAM_FIELD);
+        return stored instanceof Map ? RatingSummary.completeHistogram((Map<String, ? extends Number>) stored) : null;
+    }
+
+    private static final class RatingAggregate {
+        private final long count;
+        private final long sum;
+        private final Map<String, Long> histogram;
+
+        private RatingAggregate(long count, long sum, Map<String, Long> histogram) {
+            this.count = count;
+            this.sum = sum;
+            this.histogram = histogram;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.barter.backend.repository.firestore;
+
+import com.barter.backend.model.Timestamps;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ordering on the epoch-millis timestamp fields (createdAtMillis, updatedAtMillis) while they are rolled out,
+ * and the backfill that adds them to existing documents.
+ *
+ * Firestore leaves documents without the orderBy field out of a query's results, so until the backfill has
+ * run the repositories keep ordering on the legacy ISO strings. Once it has finished, set
+ * {@code barter.timestamps.query-by-millis=true} to order (and resume cursors) on the millis fields. In both
+ * modes new documents get both fields, and the models derive the millis of legacy documents on read.
+ */
+final class FirestoreTimestamps {
+
+    static final String MILLIS_SUFFIX = "Millis";
+
+    private FirestoreTimestamps() {
+    }
+
+    /**
+     * The field to order on for a timestamp, e.g. "createdAt" or "createdAtMillis".
+     */
+    static String orderField(String timestampField, boolean queryByMillis) {
+        return queryByMillis ? timestampField + MILLIS_SUFFIX : timestampField;
+    }
+
+    /**
+     * Positions a query ordered by (timestamp field, document ID) right after a cursor document.
+     *
+     * Ordering on millis, the cursor values are used directly. Ordering on the legacy string, the cursor
+     * document is read so the query can start after its stored values; if it has since been deleted, the
+     * query starts after the cursor time formatted as a string, which orders correctly against new documents.
+     */
+    static CompletableFuture<Query> startAfterAsync(Query query, CollectionReference collection, boolean queryByMillis,
+                                                    long afterMillis, String afterId) {
+        return startAfterAllAsync(List.of(query), collection, queryByMillis, afterMillis, afterId)
+                .thenApply(queries -> queries.get(0));
+    }
+
+    /**
+     * {@link #startAfterAsync} for several queries over the same collection, reading the cursor document once.
+     */
+    static CompletableFuture<List<Query>> startAfterAllAsync(List<Query> queries, CollectionReference collection,
+                                                             boolean queryByMillis, long afterMillis, String afterId) {
+        if (queryByMillis) {
+            List<Query> positioned = new ArrayList<>(queries.size());
+            for (Query query : queries) {
+                positioned.add(query.startAfter(afterMillis, afterId));
+            }
+            return CompletableFuture.completedFuture(positioned);
+        }
+        return FirestoreFutures.toCompletableFuture(collection.document(afterId).get())
+                .thenApply(cursorDoc -> {
+                    List<Query> positioned = new ArrayList<>(queries.size());
+                    for (Query query : queries) {
+                        positioned.add(cursorDoc.exists()
+                                ? query.startAfter(cursorDoc)
+                                : query.startAfter(Timestamps.format(afterMillis), afterId));
+                    }
+                    return positioned;
+                });
+    }
+
+    /**
+     * Writes the millis field of each given timestamp field (e.g. createdAtMillis for createdAt) on every
+     * document of the query that lacks it, reading and writing at most {@link FirestoreBatches#MAX_WRITES_PER_BATCH}
+     * documents per round trip. Only the timestamp fields are fetched.
+     *
+     * Documents are visited in ID order and each page is committed as one WriteBatch before the next is read,
+     * so the job runs alongside live traffic without holding much in memory. Documents written concurrently
+     * already carry the millis fields and are skipped; re-running after a failure picks up where it stopped.
+     *
+     * @return The number of documents updated.
+     */
+    static int backfillMillis(Firestore firestore, Query documents, String... timestampFields) {
+        List<String> selected = new ArrayList<>();
+        for (String field : timestampFields) {
+            selected.add(field);
+            selected.add(field + MILLIS_SUFFIX);
+        }
+        Query page = documents
+                .select(selected.toArray(new String[0]))
+                .orderBy(FieldPath.documentId())
+                .limit(FirestoreBatches.MAX_WRITES_PER_BATCH);
+
+        int updated = 0;
+        QueryDocumentSnapshot last = null;
+        while (true) {
+            List<QueryDocumentSnapshot> docs = FirestoreFutures.await(FirestoreFutures.toCompletableFuture(
+                    (last == null ? page : page.startAfter(last)).get())).getDocuments();
+            WriteBatch batch = firestore.batch();
+            int writes = 0;
+            for (QueryDocumentSnapshot doc : docs) {
+                Map<String, Object> fields = missingMillis(doc, timestampFields);
+                if (!fields.isEmpty()) {
+                    batch.update(doc.getReference(), fields);
+                    writes++;
+                }
+            }
+            if (writes > 0) {
+                FirestoreFutures.await(FirestoreFutures.toCompletableFuture(batch.commit()));
+                updated += writes;
+            }
+            if (docs.size() < FirestoreBatches.MAX_WRITES_PER_BATCH) {
+                return updated;
+            }
+            last = docs.get(docs.size() - 1);
+        }
+    }
+
+    private static Map<String, Object> missingMillis(QueryDocumentSnapshot doc, String... timestampFields) {
+        Map<String, Object> fields = new HashMap<>();
+        for (String field : timestampFields) {
+            if (doc.get(field + MILLIS_SUFFIX) != null || !(doc.get(field) instanceof String value)) {
+                continue;
+            }
+            Long millis = Timestamps.parseMillis(value);
+            if (millis != null) {
+                fields.put(field + MILLIS_SUFFIX, millis);
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,278 @@
+package com.barter.backend.repository.firestore;
+
+import com.barter.backend.exception.ResourceNotFoundException;
+import com.barter.backend.model.UserListItem;
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.UserProfileRepository;
+import com.barter.backend.repository.UserQuery;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldMask;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Firestore-backed user profiles.
+ *
+ * Summaries for many UIDs are loaded with batched getAll() calls: UIDs are split into chunks of a
+ * configurable size, all chunks are requested in parallel, and a field mask limits each returned document
+ * to displayName and profileImageUrl, so enriching a large result set costs a handful of RPCs.
+ * The async lookups compose Firestore's futures directly and never block a thread while waiting.
+ */
+@Repository
+@Profile("!inmemory")
+public class FirestoreUserProfileRepository implements UserProfileRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirestoreUserProfileRepository.class);
+    private static final String COLLECTION_NAME = "user_profiles";
+    private static final FieldMask SUMMARY_FIELDS = FieldMask.of("displayName", "profileImageUrl");
+    private static final String[] LIST_ITEM_FIELDS =
+            {"displayName", "location", "profileImageUrl", "thumbnailUrl", "rating", "reviewCount"};
+
+    private final Firestore firestore;
+    private final int batchSize;
+
+    public FirestoreUserProfileRepository(Firestore firestore, @Value("${barter.user-cache.batch-size:100}") int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("barter.user-cache.batch-size must be positive.");
+        }
+        this.firestore = firestore;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<UserProfile> findAll() {
+        List<UserProfile> users = new ArrayList<>();
+        try {
+            for (QueryDocumentSnapshot doc : firestore.collection(COLLECTION_NAME).get().get().getDocuments()) {
+                UserProfile user = doc.toObject(UserProfile.class);
+                if (user != null) {
+                    user.setId(doc.getId());
+                    users.add(user);
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Failed to fetch user profiles: {}", e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to fetch users", e);
+        }
+        return users;
+    }
+
+    @Override
+    public List<UserListItem> findPage(UserQuery query, String afterFirebaseUid, int limit) {
+        return FirestoreFutures.await(findPageAsync(query, afterFirebaseUid, limit));
+    }
+
+    /**
+     * Ordered by document ID, so paging needs no composite index beyond those of the filters themselves,
+     * and profiles stored without optional fields are still listed.
+     */
+    @Override
+    public CompletableFuture<List<UserListItem>> findPageAsync(UserQuery query, String afterFirebaseUid, int limit) {
+        Query page = firestore.collection(COLLECTION_NAME).select(LIST_ITEM_FIELDS);
+        if (query.getLocation() != null) {
+            page = page.whereEqualTo("location", query.getLocation());
+        }
+        if (query.getSkillsOffered() != null) {
+            page = page.whereArrayContainsAny("skillsOffered", query.getSkillsOffered());
+        }
+        if (query.getNeeds() != null) {
+            page = page.whereArrayContainsAny("needs", query.getNeeds());
+        }
+        page = page.orderBy(FieldPath.documentId()).limit(limit);
+        if (afterFirebaseUid != null) {
+            page = page.startAfter(afterFirebaseUid);
+        }
+        return FirestoreFutures.toCompletableFuture(page.get())
+                .thenApply(snapshot -> {
+                    List<UserListItem> users = new ArrayList<>(snapshot.size());
+                    for (QueryDocumentSnapshot doc : snapshot.getDocuments()) {
+                        users.add(new UserListItem(doc.getId(), doc.getString("displayName"), doc.getString("location"),
+                                doc.getString("profileImageUrl"), doc.getString("thumbnailUrl"),
+                                doc.getDouble("rating"), doc.getLong("reviewCount")));
+                    }
+                    return users;
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to fetch a page of user profiles", e);
+                });
+    }
+
+    @Override
+    public List<String> findAllIds() {
+        List<String> ids = new ArrayList<>();
+        for (DocumentReference profileRef : firestore.collection(COLLECTION_NAME).listDocuments()) {
+            ids.add(profileRef.getId());
+        }
+        return ids;
+    }
+
+    @Override
+    public Optional<UserProfile> findById(String firebaseUid) {
+        return FirestoreFutures.await(findByIdAsync(firebaseUid));
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserProfile>> findByIdAsync(String firebaseUid) {
+        return FirestoreFutures.toCompletableFuture(firestore.collection(COLLECTION_NAME).document(firebaseUid).get())
+                .thenApply(doc -> {
+                    if (!doc.exists()) {
+                        return Optional.<UserProfile>empty();
+                    }
+                    UserProfile user = doc.toObject(UserProfile.class);
+                    if (user != null) {
+                        user.setId(doc.getId()); // Document ID is the Firebase UID
+                    }
+                    return Optional.ofNullable(user);
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to fetch user by Firebase UID " + firebaseUid, e);
+                });
+    }
+
+    @Override
+    public List<UserProfile> findByGeohashPrefixes(Collection<String> geohashPrefixes) {
+        return FirestoreFutures.await(findByGeohashPrefixesAsync(geohashPrefixes));
+    }
+
+    @Override
+    public CompletableFuture<List<UserProfile>> findByGeohashPrefixesAsync(Collection<String> geohashPrefixes) {
+        return FirestoreGeohash.findByPrefixesAsync(firestore.collection(COLLECTION_NAME), geohashPrefixes)
+                .thenApply(docs -> {
+                    List<UserProfile> users = new ArrayList<>(docs.size());
+                    for (QueryDocumentSnapshot doc : docs) {
+                        UserProfile user = doc.toObject(UserProfile.class);
+                        if (user != null) {
+                            user.setId(doc.getId());
+                            users.add(user);
+                        }
+                    }
+                    return users;
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to fetch user profiles by geohash", e);
+                });
+    }
+
+    @Override
+    public Map<String, UserSummary> findSummaries(Collection<? extends String> firebaseUids) {
+        return FirestoreFutures.await(findSummariesAsync(firebaseUids));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, UserSummary>> findSummariesAsync(Collection<? extends String> firebaseUids) {
+        if (firebaseUids.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+
+        // Issue every chunk at once and complete when the last one arrives.
+        List<ApiFuture<List<DocumentSnapshot>>> batchFutures = new ArrayList<>();
+        List<DocumentReference> chunk = new ArrayList<>(Math.min(batchSize, firebaseUids.size()));
+        for (String uid : firebaseUids) {
+            chunk.add(firestore.collection(COLLECTION_NAME).document(uid));
+            if (chunk.size() == batchSize) {
+                batchFutures.add(firestore.getAll(chunk.toArray(new DocumentReference[0]), SUMMARY_FIELDS));
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            batchFutures.add(firestore.getAll(chunk.toArray(new DocumentReference[0]), SUMMARY_FIELDS));
+        }
+
+        return FirestoreFutures.toCompletableFuture(ApiFutures.allAsList(batchFutures))
+                .thenApply(batches -> {
+                    Map<String, UserSummary> summaries = new HashMap<>();
+                    for (List<DocumentSnapshot> batch : batches) {
+                        for (DocumentSnapshot snapshot : batch) {
+                            if (snapshot.exists()) {
+                                summaries.put(snapshot.getId(), new UserSummary(snapshot.getId(),
+                                        snapshot.getString("displayName"), snapshot.getString("profileImageUrl"), true));
+                            } else {
+                                logger.warn("User profile not found for UID: {}.", snapshot.getId());
+                                summaries.put(snapshot.getId(), UserSummary.unknown(snapshot.getId()));
+                            }
+                        }
+                    }
+                    logger.debug("Batch-loaded {} user summaries in {} getAll() call(s).", summaries.size(), batchFutures.size());
+                    return summaries;
+                })
+                .exceptionally(e -> {
+                    throw FirestoreFutures.failure(logger, "Failed to fetch " + firebaseUids.size() + " user profiles", e);
+                });
+    }
+
+    @Override
+    public void save(UserProfile profile) {
+        try {
+            firestore.collection(COLLECTION_NAME).document(profile.getFirebaseUid()).set(profile).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Failed to create user profile in Firestore for UID {}: {}", profile.getFirebaseUid(), e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to create user profile in Firestore", e);
+        }
+    }
+
+    @Override
+    public void saveFields(UserProfile profile, List<String> fields) {
+        try {
+            firestore.collection(COLLECTION_NAME).document(profile.getFirebaseUid())
+                    .set(profile, SetOptions.mergeFields(fields)).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error updating user profile {}: {}", profile.getFirebaseUid(), e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to update user profile: " + profile.getFirebaseUid(), e);
+        }
+    }
+
+    @Override
+    public void updateFields(String firebaseUid, Map<String, Object> fields) throws ResourceNotFoundException {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(firebaseUid);
+        try {
+            if (!docRef.get().get().exists()) {
+                throw new ResourceNotFoundException("User profile not found for UID: " + firebaseUid);
+            }
+            docRef.update(fields).get(); // Use update for partial updates
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error updating user profile fields for UID {}: {}", firebaseUid, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to update user profile fields.", e);
+        }
+    }
+
+    @Override
+    public int backfillTimestampMillis() {
+        return FirestoreTimestamps.backfillMillis(firestore, firestore.collection(COLLECTION_NAME), "createdAt");
+    }
+
+    @Override
+    public void delete(String firebaseUid) {
+        try {
+            firestore.collection(COLLECTION_NAME).document(firebaseUid).delete().get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Error deleting user profile {}: {}", firebaseUid, e.getMessage(), e);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to delete user profile: " + firebaseUid, e);
+        }
+    }
+}
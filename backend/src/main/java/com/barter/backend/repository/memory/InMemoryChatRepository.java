@@ -0,0 +1,410 @@
+package com.barter.backend.repository.memory;
+
+import com.barter.backend.exception.ResourceNotFoundException;
+import com.barter.backend.model.ChatConversation;
+import com.barter.backend.model.ChatInboxEntry;
+import com.barter.backend.model.ChatMessage;
+import com.barter.backend.model.Timestamps;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.ChatRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * In-process chat storage. Each conversation's messages are kept in a sorted (createdAtMillis, ID) map so history
+ * windows are a seek plus a short walk, and participants are indexed to their conversations. Each user's inbox
+ * entries are kept sorted newest first in the same way.
+ * Listeners are notified synchronously from {@link #appendMessage} once the message is stored.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryChatRepository implements ChatRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryChatRepository.class);
+    private static final Comparator<MessageKey> OLDEST_FIRST = Comparator
+            .comparingLong((MessageKey key) -> key.createdAtMillis)
+            .thenComparing(key -> key.id);
+    private static final Comparator<InboxKey> NEWEST_FIRST = Comparator
+            .comparingLong((InboxKey key) -> key.updatedAtMillis)
+            .thenComparing(key -> key.chatId)
+            .reversed();
+    private static final Comparator<ChatConversation> RECENTLY_UPDATED_FIRST = Comparator
+            .comparing(ChatConversation::getUpdatedAtMillis, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final Map<String, ChatConversation> chats = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<MessageKey, ChatMessage>> messages = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byParticipant = new ConcurrentHashMap<>();
+    private final Map<String, Inbox> inboxes = new ConcurrentHashMap<>();
+    private final Map<String, Set<MessageListener>> listeners = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final Path snapshotFile;
+
+    public InMemoryChatRepository(@Value("${barter.inmemory.snapshot-dir:}") String snapshotDir) {
+        this.snapshotFile = InMemoryDocuments.snapshotFile(snapshotDir, "chats");
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        ChatSnapshot stored = InMemoryDocuments.readSnapshot(snapshotFile, new TypeReference<ChatSnapshot>() {});
+        if (stored == null) {
+            return;
+        }
+        stored.chats.forEach(this::putChat);
+        stored.inbox.forEach(entry -> inboxOf(entry.getOwnerUid()).put(entry));
+        stored.messages.forEach((chatId, chatMessages) -> chatMessages.forEach(message -> messagesOf(chatId).put(MessageKey.of(message), message)));
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        ChatSnapshot snapshot = new ChatSnapshot();
+        snapshot.chats = new ArrayList<>(chats.values());
+        inboxes.values().forEach(inbox -> snapshot.inbox.addAll(inbox.byChat.values()));
+        messages.forEach((chatId, chatMessages) -> snapshot.messages.put(chatId, new ArrayList<>(chatMessages.values())));
+        InMemoryDocuments.writeSnapshot(snapshotFile, snapshot);
+    }
+
+    @Override
+    public Optional<ChatConversation> findById(String chatId) {
+        return Optional.ofNullable(InMemoryDocuments.copy(chats.get(chatId)));
+    }
+
+    @Override
+    public ChatConversation save(ChatConversation chat, List<ChatInboxEntry> inboxEntries) {
+        if (chat.getId() == null) {
+            chat.setId(InMemoryDocuments.newId());
+        }
+        synchronized (writeLock) {
+            putChat(InMemoryDocuments.copy(chat));
+            for (ChatInboxEntry entry : inboxEntries) {
+                entry.setChatId(chat.getId());
+                mergeInboxEntry(entry);
+            }
+        }
+        return chat;
+    }
+
+    @Override
+    public List<ChatConversation> findByParticipant(String firebaseUid) {
+        List<ChatConversation> result = new ArrayList<>();
+        for (String chatId : byParticipant.getOrDefault(firebaseUid, Set.of())) {
+            ChatConversation chat = chats.get(chatId);
+            if (chat != null) {
+                result.add(InMemoryDocuments.copy(chat));
+            }
+        }
+        result.sort(RECENTLY_UPDATED_FIRST);
+        return result;
+    }
+
+    @Override
+    public ChatMessage appendMessage(String chatId, ChatMessage message, ChatConversation.LastMessage lastMessage, String updatedAt,
+                                     Collection<String> participants) {
+        message.setId(InMemoryDocuments.newId());
+        message.setChatId(chatId);
+        synchronized (writeLock) {
+            ChatConversation chat = chats.get(chatId);
+            if (chat == null) {
+                throw new ResourceNotFoundException("Chat conversation not found with ID: " + chatId);
+            }
+            ChatMessage stored = InMemoryDocuments.copy(message);
+            messagesOf(chatId).put(MessageKey.of(stored), stored);
+
+            ChatConversation updated = InMemoryDocuments.copy(chat);
+            updated.setLastMessage(lastMessage);
+            updated.setUpdatedAt(updatedAt);
+            updated.setUpdatedAtMillis(Timestamps.parseMillis(updatedAt));
+            chats.put(chatId, updated);
+
+            for (String participant : participants) {
+                Inbox inbox = inboxOf(participant);
+                ChatInboxEntry existing = inbox.byChat.get(chatId);
+                ChatInboxEntry entry = existing != null ? InMemoryDocuments.copy(existing) : new ChatInboxEntry();
+                entry.setChatId(chatId);
+                entry.setOwnerUid(participant);
+                entry.setLastMessage(ChatInboxEntry.snippetOf(lastMessage));
+                entry.setUpdatedAt(updatedAt);
+                entry.setUpdatedAtMillis(updated.getUpdatedAtMillis());
+                entry.setUnreadCount(participant.equals(message.getSenderId()) ? 0 : entry.getUnreadCount() + 1);
+                inbox.put(entry);
+            }
+        }
+        for (MessageListener listener : listeners.getOrDefault(chatId, Set.of())) {
+            try {
+                listener.onMessage(InMemoryDocuments.copy(message));
+            } catch (RuntimeException e) {
+                logger.error("Chat listener for chat {} failed: {}", chatId, e.getMessage(), e);
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public List<ChatInboxEntry> findInbox(String ownerUid, Long afterUpdatedAtMillis, String afterChatId, int limit) {
+        Inbox inbox = inboxes.get(ownerUid);
+        if (inbox == null) {
+            return new ArrayList<>();
+        }
+        NavigableMap<InboxKey, ChatInboxEntry> window = inbox.byRecency;
+        if (afterUpdatedAtMillis != null) {
+            window = window.tailMap(new InboxKey(afterUpdatedAtMillis, afterChatId == null ? "" : afterChatId), false);
+        }
+        List<ChatInboxEntry> result = new ArrayList<>();
+        for (ChatInboxEntry entry : window.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(InMemoryDocuments.copy(entry));
+        }
+        return result;
+    }
+
+    @Override
+    public void saveInboxEntries(List<ChatInboxEntry> entries) {
+        synchronized (writeLock) {
+            entries.forEach(this::mergeInboxEntry);
+        }
+    }
+
+    @Override
+    public void markInboxRead(String ownerUid, String chatId) {
+        synchronized (writeLock) {
+            Inbox inbox = inboxes.get(ownerUid);
+            ChatInboxEntry existing = inbox == null ? null : inbox.byChat.get(chatId);
+            if (existing != null && existing.getUnreadCount() != 0) {
+                ChatInboxEntry entry = InMemoryDocuments.copy(existing);
+                entry.setUnreadCount(0);
+                inbox.put(entry);
+            }
+        }
+    }
+
+    @Override
+    public int updateInboxCounterpart(String counterpartUid, UserSummary counterpart) {
+        int updated = 0;
+        synchronized (writeLock) {
+            for (String chatId : byParticipant.getOrDefault(counterpartUid, Set.of())) {
+                ChatConversation chat = chats.get(chatId);
+                if (chat == null || !"direct".equals(chat.getType()) || chat.getParticipants() == null) {
+                    continue;
+                }
+                for (String participant : chat.getParticipants()) {
+                    Inbox inbox = counterpartUid.equals(participant) ? null : inboxes.get(participant);
+                    ChatInboxEntry existing = inbox == null ? null : inbox.byChat.get(chatId);
+                    if (existing != null
+                            && (!Objects.equals(existing.getCounterpartDisplayName(), counterpart.getDisplayName())
+                            || !Objects.equals(existing.getCounterpartProfileImageUrl(), counterpart.getProfileImageUrl()))) {
+                        ChatInboxEntry entry = InMemoryDocuments.copy(existing);
+                        entry.setCounterpartDisplayName(counterpart.getDisplayName());
+                        entry.setCounterpartProfileImageUrl(counterpart.getProfileImageUrl());
+                        inbox.put(entry);
+                        updated++;
+                    }
+                }
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public List<ChatMessage> findMessages(String chatId) {
+        return copiesOf(messagesOf(chatId).values(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<ChatMessage> findMessages(String chatId, boolean newestFirst, Long afterCreatedAtMillis, String afterId, int limit) {
+        NavigableMap<MessageKey, ChatMessage> window = messagesOf(chatId);
+        if (newestFirst) {
+            window = window.descendingMap();
+        }
+        if (afterCreatedAtMillis != null) {
+            window = window.tailMap(new MessageKey(afterCreatedAtMillis, afterId == null ? "" : afterId), false);
+        }
+        return copiesOf(window.values(), limit);
+    }
+
+    @Override
+    public int updateSenderSnapshot(String senderId, UserSummary sender, int recentMessagesPerChat) {
+        int updated = 0;
+        synchronized (writeLock) {
+            for (String chatId : byParticipant.getOrDefault(senderId, Set.of())) {
+                NavigableMap<MessageKey, ChatMessage> chatMessages = messagesOf(chatId);
+                for (ChatMessage message : copiesOf(chatMessages.descendingMap().values(), recentMessagesPerChat)) {
+                    if (senderId.equals(message.getSenderId())
+                            && (!Objects.equals(message.getSenderDisplayName(), sender.getDisplayName())
+                            || !Objects.equals(message.getSenderProfileImageUrl(), sender.getProfileImageUrl()))) {
+                        message.setSenderDisplayName(sender.getDisplayName());
+                        message.setSenderProfileImageUrl(sender.getProfileImageUrl());
+                        chatMessages.put(MessageKey.of(message), message); // Already a detached copy
+                        updated++;
+                    }
+                }
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Nothing to backfill: documents are stored as copies made through the model getters, which derive the
+     * millis fields of legacy documents (including those loaded from a snapshot file).
+     */
+    @Override
+    public int backfillTimestampMillis() {
+        return 0;
+    }
+
+    @Override
+    public long delete(String chatId) {
+        synchronized (writeLock) {
+            NavigableMap<MessageKey, ChatMessage> removedMessages = messages.remove(chatId);
+            ChatConversation removed = chats.remove(chatId);
+            if (removed != null && removed.getParticipants() != null) {
+                for (String participant : removed.getParticipants()) {
+                    Set<String> chatIds = byParticipant.get(participant);
+                    if (chatIds != null) {
+                        chatIds.remove(chatId);
+                    }
+                    Inbox inbox = inboxes.get(participant);
+                    if (inbox != null) {
+                        inbox.remove(chatId);
+                    }
+                }
+            }
+            return removedMessages == null ? 0 : removedMessages.size();
+        }
+    }
+
+    @Override
+    public MessageSubscription subscribe(String chatId, MessageListener listener) {
+        listeners.computeIfAbsent(chatId, id -> new CopyOnWriteArraySet<>()).add(listener);
+        return () -> listeners.computeIfPresent(chatId, (id, registered) -> {
+            registered.remove(listener);
+            return registered.isEmpty() ? null : registered;
+        });
+    }
+
+    private void putChat(ChatConversation chat) {
+        synchronized (writeLock) {
+            chats.put(chat.getId(), chat);
+            if (chat.getParticipants() != null) {
+                for (String participant : chat.getParticipants()) {
+                    byParticipant.computeIfAbsent(participant, uid -> ConcurrentHashMap.newKeySet()).add(chat.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores a copy of the entry, keeping the unreadCount of an existing one. Callers hold the write lock.
+     */
+    private void mergeInboxEntry(ChatInboxEntry entry) {
+        Inbox inbox = inboxOf(entry.getOwnerUid());
+        ChatInboxEntry stored = InMemoryDocuments.copy(entry);
+        ChatInboxEntry existing = inbox.byChat.get(entry.getChatId());
+        stored.setUnreadCount(existing == null ? 0 : existing.getUnreadCount());
+        inbox.put(stored);
+    }
+
+    private Inbox inboxOf(String ownerUid) {
+        return inboxes.computeIfAbsent(ownerUid, uid -> new Inbox());
+    }
+
+    private NavigableMap<MessageKey, ChatMessage> messagesOf(String chatId) {
+        return messages.computeIfAbsent(chatId, id -> new ConcurrentSkipListMap<>(OLDEST_FIRST));
+    }
+
+    private static List<ChatMessage> copiesOf(Iterable<ChatMessage> source, int limit) {
+        List<ChatMessage> result = new ArrayList<>();
+        for (ChatMessage message : source) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(InMemoryDocuments.copy(message));
+        }
+        return result;
+    }
+
+    private static final class MessageKey {
+        private final long createdAtMillis;
+        private final String id;
+
+        private MessageKey(long createdAtMillis, String id) {
+            this.createdAtMillis = createdAtMillis;
+            this.id = id;
+        }
+
+        private static MessageKey of(ChatMessage message) {
+            // Messages without a readable createdAt sort as the oldest
+            Long createdAtMillis = message.getCreatedAtMillis();
+            return new MessageKey(createdAtMillis == null ? 0L : createdAtMillis, message.getId());
+        }
+    }
+
+    /**
+     * One user's inbox entries by chat ID, plus the same entries ordered newest first. Entries without an
+     * updatedAtMillis are left out of the ordering, as Firestore leaves documents without the ordered field
+     * out of the inbox query. Modified only under the write lock.
+     */
+    private static final class Inbox {
+        private final Map<String, ChatInboxEntry> byChat = new ConcurrentHashMap<>();
+        private final NavigableMap<InboxKey, ChatInboxEntry> byRecency = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+
+        private void put(ChatInboxEntry entry) {
+            remove(entry.getChatId());
+            byChat.put(entry.getChatId(), entry);
+            if (entry.getUpdatedAtMillis() != null) {
+                byRecency.put(InboxKey.of(entry), entry);
+            }
+        }
+
+        private void remove(String chatId) {
+            ChatInboxEntry previous = byChat.remove(chatId);
+            if (previous != null && previous.getUpdatedAtMillis() != null) {
+                byRecency.remove(InboxKey.of(previous));
+            }
+        }
+    }
+
+    private static final class InboxKey {
+        private final long updatedAtMillis;
+        private final String chatId;
+
+        private InboxKey(long updatedAtMillis, String chatId) {
+            this.updatedAtMillis = updatedAtMillis;
+            this.chatId = chatId;
+        }
+
+        private static InboxKey of(ChatInboxEntry entry) {
+            return new InboxKey(entry.getUpdatedAtMillis(), entry.getChatId());
+        }
+    }
+
+    /**
+     * On-disk form of the chat store.
+     */
+    static final class ChatSnapshot {
+        public List<ChatConversation> chats = new ArrayList<>();
+        public Map<String, List<ChatMessage>> messages = new HashMap<>();
+        public List<ChatInboxEntry> inbox = new ArrayList<>();
+    }
+}
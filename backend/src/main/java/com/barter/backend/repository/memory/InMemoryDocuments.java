@@ -0,0 +1,121 @@
+package com.barter.backend.repository.memory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Document helpers shared by the in-memory repositories: detached copies, Firestore-style partial
+ * updates and JSON snapshots on disk.
+ *
+ * Stored objects are never handed out; callers always get a copy, so a caller mutating a returned
+ * model cannot change the store behind the repository's back (matching Firestore's semantics).
+ */
+final class InMemoryDocuments {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryDocuments.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private InMemoryDocuments() {
+    }
+
+    /**
+     * Deep copy of a model object.
+     */
+    static <T> T copy(T document) {
+        if (document == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Class<T> type = (Class<T>) document.getClass();
+        return MAPPER.convertValue(document, type);
+    }
+
+    /**
+     * Copy of the document with the given top-level fields overwritten, like a Firestore update().
+     */
+    static <T> T withFields(T document, Map<String, Object> fields) {
+        try {
+            return MAPPER.updateValue(copy(document), fields);
+        } catch (JsonMappingException e) {
+            throw new IllegalArgumentException("Invalid field update: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * The named top-level fields of a document, as they would be written by a Firestore mergeFields set().
+     */
+    static Map<String, Object> fieldsOf(Object document, Iterable<String> fieldNames) {
+        Map<String, Object> all = MAPPER.convertValue(document, new TypeReference<Map<String, Object>>() {});
+        Map<String, Object> selected = new HashMap<>();
+        for (String field : fieldNames) {
+            selected.put(field, all.get(field));
+        }
+        return selected;
+    }
+
+    /**
+     * Random 20-character document ID, the same shape as Firestore's auto IDs.
+     */
+    static String newId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 20);
+    }
+
+    /**
+     * The snapshot file for a repository, or null if snapshots are disabled (blank directory).
+     */
+    static Path snapshotFile(String snapshotDir, String name) {
+        if (snapshotDir == null || snapshotDir.isBlank()) {
+            return null;
+        }
+        return Path.of(snapshotDir, name + ".json");
+    }
+
+    /**
+     * Reads a snapshot, or returns null if there is none yet.
+     */
+    static <T> T readSnapshot(Path file, TypeReference<T> type) {
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try {
+            T value = MAPPER.readValue(file.toFile(), type);
+            logger.info("Loaded in-memory snapshot {}.", file);
+            return value;
+        } catch (IOException e) {
+            logger.error("Failed to read in-memory snapshot {}: {}", file, e.getMessage(), e);
+            throw new RuntimeException("Failed to read snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Writes a snapshot atomically: a reader (or a crash mid-write) never sees a partial file.
+     */
+    static void writeSnapshot(Path file, Object value) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            MAPPER.writeValue(temp.toFile(), value);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote in-memory snapshot {}.", file);
+        } catch (IOException e) {
+            logger.error("Failed to write in-memory snapshot {}: {}", file, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.barter.backend.repository.memory;
+
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.PostQuery;
+import com.barter.backend.repository.PostRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-process post storage for local runs, load tests and benchmarks.
+ *
+ * Posts are held in a hash map by ID plus sorted (createdAtMillis, ID) indexes over all posts, per status and per
+ * uploader, so a page is read by seeking into the narrowest index and walking it, the same way Firestore
+ * serves a keyset query. A (geohash, ID) index serves geohash prefix queries as range scans. Reads are lock-free; writes are serialised so the indexes never disagree.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryPostRepository implements PostRepository {
+
+    // Newest first, ties broken by ID descending: the order of Firestore's (createdAtMillis desc, __name__ desc).
+    private static final Comparator<PostKey> NEWEST_FIRST = Comparator
+            .comparingLong((PostKey key) -> key.createdAtMillis).reversed()
+            .thenComparing(key -> key.id, Comparator.reverseOrder());
+
+    private final Map<String, BarterPost> posts = new ConcurrentHashMap<>();
+    private final NavigableSet<PostKey> allPosts = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+    private final Map<String, NavigableSet<PostKey>> byStatus = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<PostKey>> byUploader = new ConcurrentHashMap<>();
+    private final NavigableSet<GeoKey> byGeohash = new ConcurrentSkipListSet<>(GeoKey.ORDER);
+    private final Object writeLock = new Object();
+    private final Path snapshotFile;
+
+    public InMemoryPostRepository(@Value("${barter.inmemory.snapshot-dir:}") String snapshotDir) {
+        this.snapshotFile = InMemoryDocuments.snapshotFile(snapshotDir, "posts");
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        List<BarterPost> stored = InMemoryDocuments.readSnapshot(snapshotFile, new TypeReference<List<BarterPost>>() {});
+        if (stored != null) {
+            stored.forEach(this::put);
+        }
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        InMemoryDocuments.writeSnapshot(snapshotFile, new ArrayList<>(posts.values()));
+    }
+
+    @Override
+    public Optional<BarterPost> findById(String id) {
+        return Optional.ofNullable(InMemoryDocuments.copy(posts.get(id)));
+    }
+
+    @Override
+    public BarterPost insert(BarterPost post) {
+        post.setId(InMemoryDocuments.newId());
+        put(InMemoryDocuments.copy(post));
+        return post;
+    }
+
+    @Override
+    public void save(BarterPost post) {
+        put(InMemoryDocuments.copy(post));
+    }
+
+    @Override
+    public void updateFields(String id, Map<String, Object> fields) {
+        synchronized (writeLock) {
+            BarterPost existing = posts.get(id);
+            if (existing == null) {
+                throw new RuntimeException("Failed to update post: " + id + " does not exist.");
+            }
+            put(InMemoryDocuments.withFields(existing, fields));
+        }
+    }
+
+    @Override
+    public boolean updateFieldsIf(String id, String field, Object expected, Map<String, Object> fields) {
+        synchronized (writeLock) {
+            BarterPost existing = posts.get(id);
+            if (existing == null || !Objects.equals(InMemoryDocuments.fieldsOf(existing, List.of(field)).get(field), expected)) {
+                return false;
+            }
+            put(InMemoryDocuments.withFields(existing, fields));
+            return true;
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        synchronized (writeLock) {
+            BarterPost removed = posts.remove(id);
+            if (removed != null) {
+                unindex(removed);
+            }
+        }
+    }
+
+    /**
+     * Nothing to backfill: posts are stored as copies made through the getters, which derive createdAtMillis.
+     */
+    @Override
+    public int backfillTimestampMillis() {
+        return 0;
+    }
+
+    @Override
+    public int updateAuthorSnapshot(String userFirebaseUid, UserSummary author) {
+        int updated = 0;
+        synchronized (writeLock) {
+            // Copied first: re-putting a post removes and re-adds its key in the index being walked
+            for (PostKey key : new ArrayList<>(byUploader.getOrDefault(userFirebaseUid, Collections.emptyNavigableSet()))) {
+                BarterPost post = posts.get(key.id);
+                if (post != null && (!Objects.equals(post.getDisplayName(), author.getDisplayName())
+                        || !Objects.equals(post.getProfileImageUrl(), author.getProfileImageUrl()))) {
+                    BarterPost refreshed = InMemoryDocuments.copy(post);
+                    refreshed.setDisplayName(author.getDisplayName());
+                    refreshed.setProfileImageUrl(author.getProfileImageUrl());
+                    put(refreshed);
+                    updated++;
+                }
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public List<BarterPost> findAll(PostQuery query) {
+        return findPage(query, null, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<BarterPost> findPage(PostQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        NavigableSet<PostKey> index = indexFor(query);
+        if (afterCreatedAtMillis != null) {
+            index = index.tailSet(new PostKey(afterCreatedAtMillis, afterId == null ? "" : afterId), false);
+        }
+        List<BarterPost> page = new ArrayList<>(Math.min(limit, 64));
+        for (PostKey key : index) {
+            if (page.size() >= limit) {
+                break;
+            }
+            BarterPost post = posts.get(key.id);
+            if (post != null && matches(post, query)) {
+                page.add(InMemoryDocuments.copy(post));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<BarterPost> findByGeohashPrefixes(PostQuery query, Collection<String> geohashPrefixes) {
+        List<BarterPost> found = new ArrayList<>();
+        for (String prefix : geohashPrefixes) {
+            // Every geohash starting with the prefix sorts between prefix and prefix + MAX_VALUE
+            for (GeoKey key : byGeohash.subSet(new GeoKey(prefix, ""), true, new GeoKey(prefix + Character.MAX_VALUE, ""), false)) {
+                BarterPost post = posts.get(key.id);
+                if (post != null && matches(post, query)) {
+                    found.add(InMemoryDocuments.copy(post));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Number of stored posts.
+     */
+    public int size() {
+        return posts.size();
+    }
+
+    private void put(BarterPost post) {
+        synchronized (writeLock) {
+            BarterPost previous = posts.put(post.getId(), post);
+            if (previous != null) {
+                unindex(previous);
+            }
+            PostKey key = PostKey.of(post);
+            allPosts.add(key);
+            if (post.getStatus() != null) {
+                byStatus.computeIfAbsent(post.getStatus(), status -> new ConcurrentSkipListSet<>(NEWEST_FIRST)).add(key);
+            }
+            if (post.getUserFirebaseUid() != null) {
+                byUploader.computeIfAbsent(post.getUserFirebaseUid(), uid -> new ConcurrentSkipListSet<>(NEWEST_FIRST)).add(key);
+            }
+            if (post.getGeohash() != null) {
+                byGeohash.add(new GeoKey(post.getGeohash(), post.getId()));
+            }
+        }
+    }
+
+    private void unindex(BarterPost post) {
+        PostKey key = PostKey.of(post);
+        allPosts.remove(key);
+        if (post.getStatus() != null) {
+            removeFrom(byStatus, post.getStatus(), key);
+        }
+        if (post.getUserFirebaseUid() != null) {
+            removeFrom(byUploader, post.getUserFirebaseUid(), key);
+        }
+        if (post.getGeohash() != null) {
+            byGeohash.remove(new GeoKey(post.getGeohash(), post.getId()));
+        }
+    }
+
+    private static void removeFrom(Map<String, NavigableSet<PostKey>> index, String value, PostKey key) {
+        NavigableSet<PostKey> keys = index.get(value);
+        if (keys != null) {
+            keys.remove(key);
+        }
+    }
+
+    // Uploader indexes are the most selective, then status; the remaining criteria are checked per post.
+    private NavigableSet<PostKey> indexFor(PostQuery query) {
+        if (query.getUploaderId() != null) {
+            return byUploader.getOrDefault(query.getUploaderId(), new ConcurrentSkipListSet<>(NEWEST_FIRST));
+        }
+        if (query.getStatus() != null) {
+            return byStatus.getOrDefault(query.getStatus(), new ConcurrentSkipListSet<>(NEWEST_FIRST));
+        }
+        return allPosts;
+    }
+
+    private static boolean matches(BarterPost post, PostQuery query) {
+        if (query.getStatus() != null && !query.getStatus().equals(post.getStatus())) {
+            return false;
+        }
+        if (query.getUploaderId() != null && !query.getUploaderId().equals(post.getUserFirebaseUid())) {
+            return false;
+        }
+        if (query.getLocation() != null && !query.getLocation().equals(post.getLocation())) {
+            return false;
+        }
+        if (query.getTags() != null) {
+            if (post.getTags() == null) {
+                return false;
+            }
+            for (String tag : query.getTags()) {
+                if (post.getTags().contains(tag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static final class GeoKey {
+        private static final Comparator<GeoKey> ORDER = Comparator
+                .comparing((GeoKey key) -> key.geohash)
+                .thenComparing(key -> key.id);
+
+        private final String geohash;
+        private final String id;
+
+        private GeoKey(String geohash, String id) {
+            this.geohash = geohash;
+            this.id = id;
+        }
+    }
+
+    private static final class PostKey {
+        private final long createdAtMillis;
+        private final String id;
+
+        private PostKey(long createdAtMillis, String id) {
+            this.createdAtMillis = createdAtMillis;
+            this.id = id;
+        }
+
+        private static PostKey of(BarterPost post) {
+            // Posts without a readable createdAt sort as the oldest
+            Long createdAtMillis = post.getCreatedAtMillis();
+            return new PostKey(createdAtMillis == null ? 0L : createdAtMillis, post.getId());
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.barter.backend.repository.memory;
+
+import com.barter.backend.model.RatingSummary;
+import com.barter.backend.model.Review;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.repository.ReviewQuery;
+import com.barter.backend.repository.ReviewRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-process review storage with newest-first per-recipient, per-author and per-post indexes, so a page
+ * of reviews is read without sorting every review that matches.
+ *
+ * Review writes and the matching update of the recipient's aggregates on {@link InMemoryUserProfileRepository}
+ * happen under one lock, which plays the role of the Firestore transaction.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryReviewRepository implements ReviewRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryReviewRepository.class);
+    // Newest first, ties broken by ID descending: the order of Firestore's (createdAtMillis desc, __name__ desc).
+    private static final Comparator<ReviewKey> NEWEST_FIRST = Comparator
+            .comparingLong((ReviewKey key) -> key.createdAtMillis).reversed()
+            .thenComparing(key -> key.id, Comparator.reverseOrder());
+
+    private final InMemoryUserProfileRepository userProfileRepository;
+    private final Map<String, Review> reviews = new ConcurrentHashMap<>();
+    private final NavigableSet<ReviewKey> allReviews = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+    private final Map<String, NavigableSet<ReviewKey>> byRecipient = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<ReviewKey>> byAuthor = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<ReviewKey>> byBarterPost = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final Path snapshotFile;
+
+    public InMemoryReviewRepository(
+            InMemoryUserProfileRepository userProfileRepository,
+            @Value("${barter.inmemory.snapshot-dir:}") String snapshotDir
+    ) {
+        this.userProfileRepository = userProfileRepository;
+        this.snapshotFile = InMemoryDocuments.snapshotFile(snapshotDir, "reviews");
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        List<Review> stored = InMemoryDocuments.readSnapshot(snapshotFile, new TypeReference<List<Review>>() {});
+        if (stored != null) {
+            stored.forEach(this::put);
+        }
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        InMemoryDocuments.writeSnapshot(snapshotFile, new ArrayList<>(reviews.values()));
+    }
+
+    @Override
+    public Optional<Review> findById(String id) {
+        return Optional.ofNullable(InMemoryDocuments.copy(reviews.get(id)));
+    }
+
+    @Override
+    public List<Review> findPage(ReviewQuery query, Long afterCreatedAtMillis, String afterId, int limit) {
+        NavigableSet<ReviewKey> index = indexFor(query);
+        if (afterCreatedAtMillis != null) {
+            index = index.tailSet(new ReviewKey(afterCreatedAtMillis, afterId == null ? "" : afterId), false);
+        }
+        List<Review> page = new ArrayList<>(Math.min(limit, 64));
+        for (ReviewKey key : index) {
+            if (page.size() >= limit) {
+                break;
+            }
+            Review review = reviews.get(key.id);
+            if (review != null && matches(review, query)) {
+                page.add(InMemoryDocuments.copy(review));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Optional<RatingSummary> findRatingSummary(String userFirebaseUid) {
+        Optional<UserProfile> profile = userProfileRepository.findById(userFirebaseUid);
+        if (profile.isEmpty()) {
+            return Optional.empty();
+        }
+        Long count = profile.get().getReviewCount();
+        Long sum = profile.get().getTotalRatingSum();
+        Map<String, Long> histogram = profile.get().getRatingHistogram();
+        RatingAggregate aggregate = count == null || sum == null || histogram == null
+                ? countReviews(userFirebaseUid)
+                : new RatingAggregate(count, sum, RatingSummary.completeHistogram(histogram));
+        return Optional.of(new RatingSummary(userFirebaseUid, aggregate.count,
+                ReviewRepository.averageRating(aggregate.count, aggregate.sum), aggregate.histogram));
+    }
+
+    @Override
+    public Review insert(Review review) {
+        review.setId(InMemoryDocuments.newId());
+        synchronized (writeLock) {
+            RatingAggregate aggregate = readAggregate(review.getToUserFirebaseUid());
+            put(InMemoryDocuments.copy(review));
+            if (aggregate != null) {
+                writeAggregate(review.getToUserFirebaseUid(), aggregate.count + 1, aggregate.sum + review.getRating(),
+                        ReviewRepository.adjustHistogram(aggregate.histogram, review.getRating(), 1));
+            }
+        }
+        return review;
+    }
+
+    @Override
+    public boolean delete(String id) {
+        synchronized (writeLock) {
+            Review existing = reviews.get(id);
+            if (existing == null) {
+                return false;
+            }
+            RatingAggregate aggregate = existing.getToUserFirebaseUid() == null ? null : readAggregate(existing.getToUserFirebaseUid());
+            reviews.remove(id);
+            unindex(existing);
+            if (aggregate != null) {
+                writeAggregate(existing.getToUserFirebaseUid(),
+                        Math.max(0, aggregate.count - 1), Math.max(0, aggregate.sum - existing.getRating()),
+                        ReviewRepository.adjustHistogram(aggregate.histogram, existing.getRating(), -1));
+            }
+            return true;
+        }
+    }
+
+    // Stored copies already carry createdAtMillis, see InMemoryChatRepository.backfillTimestampMillis()
+    @Override
+    public int backfillTimestampMillis() {
+        return 0;
+    }
+
+    @Override
+    public boolean rebuildAggregate(String userFirebaseUid) {
+        synchronized (writeLock) {
+            if (userProfileRepository.findById(userFirebaseUid).isEmpty()) {
+                return false;
+            }
+            RatingAggregate aggregate = countReviews(userFirebaseUid);
+            writeAggregate(userFirebaseUid, aggregate.count, aggregate.sum, aggregate.histogram);
+            return true;
+        }
+    }
+
+    @Override
+    public int updateReviewerSnapshot(String fromUserFirebaseUid, UserSummary reviewer) {
+        int updated = 0;
+        synchronized (writeLock) {
+            for (ReviewKey key : byAuthor.getOrDefault(fromUserFirebaseUid, Collections.emptyNavigableSet())) {
+                String id = key.id;
+                Review review = reviews.get(id);
+                if (review != null && (review.getFromUser() == null
+                        || !Objects.equals(review.getFromUser().getDisplayName(), reviewer.getDisplayName()))) {
+                    Review refreshed = InMemoryDocuments.copy(review);
+                    refreshed.setFromUser(new Review.ReviewUser(fromUserFirebaseUid, reviewer.getDisplayName()));
+                    reviews.put(id, refreshed); // Indexed fields are unchanged
+                    updated++;
+                }
+            }
+        }
+        return updated;
+    }
+
+    private void put(Review review) {
+        reviews.put(review.getId(), review);
+        ReviewKey key = ReviewKey.of(review);
+        allReviews.add(key);
+        addTo(byRecipient, review.getToUserFirebaseUid(), key);
+        addTo(byAuthor, review.getFromUserFirebaseUid(), key);
+        addTo(byBarterPost, review.getBarterPostId(), key);
+    }
+
+    private void unindex(Review review) {
+        ReviewKey key = ReviewKey.of(review);
+        allReviews.remove(key);
+        removeFrom(byRecipient, review.getToUserFirebaseUid(), key);
+        removeFrom(byAuthor, review.getFromUserFirebaseUid(), key);
+        removeFrom(byBarterPost, review.getBarterPostId(), key);
+    }
+
+    // Recipient, author and post indexes are each exact; the remaining criteria are checked per review.
+    private NavigableSet<ReviewKey> indexFor(ReviewQuery query) {
+        if (query.getToUserFirebaseUid() != null) {
+            return byRecipient.getOrDefault(query.getToUserFirebaseUid(), Collections.emptyNavigableSet());
+        }
+        if (query.getFromUserFirebaseUid() != null) {
+            return byAuthor.getOrDefault(query.getFromUserFirebaseUid(), Collections.emptyNavigableSet());
+        }
+        if (query.getBarterPostId() != null) {
+            return byBarterPost.getOrDefault(query.getBarterPostId(), Collections.emptyNavigableSet());
+        }
+        return allReviews;
+    }
+
+    private static boolean matches(Review review, ReviewQuery query) {
+        return (query.getToUserFirebaseUid() == null || query.getToUserFirebaseUid().equals(review.getToUserFirebaseUid()))
+                && (query.getFromUserFirebaseUid() == null || query.getFromUserFirebaseUid().equals(review.getFromUserFirebaseUid()))
+                && (query.getBarterPostId() == null || query.getBarterPostId().equals(review.getBarterPostId()));
+    }
+
+    /**
+     * The aggregates of a profile, seeded from its reviews if the counters or the histogram are missing,
+     * or null if the profile does not exist.
+     */
+    private RatingAggregate readAggregate(String userFirebaseUid) {
+        Optional<UserProfile> profile = userProfileRepository.findById(userFirebaseUid);
+        if (profile.isEmpty()) {
+            logger.warn("User profile {} not found; review written without updating rating.", userFirebaseUid);
+            return null;
+        }
+        Long count = profile.get().getReviewCount();
+        Long sum = profile.get().getTotalRatingSum();
+        Map<String, Long> histogram = profile.get().getRatingHistogram();
+        if (count == null || sum == null || histogram == null) {
+            return countReviews(userFirebaseUid);
+        }
+        return new RatingAggregate(count, sum, RatingSummary.completeHistogram(histogram));
+    }
+
+    private RatingAggregate countReviews(String userFirebaseUid) {
+        long count = 0;
+        long sum = 0;
+        Map<String, Long> histogram = RatingSummary.completeHistogram(null);
+        for (ReviewKey key : byRecipient.getOrDefault(userFirebaseUid, Collections.emptyNavigableSet())) {
+            Review review = reviews.get(key.id);
+            if (review != null) {
+                count++;
+                sum += review.getRating();
+                histogram = ReviewRepository.adjustHistogram(histogram, review.getRating(), 1);
+            }
+        }
+        return new RatingAggregate(count, sum, histogram);
+    }
+
+    private void writeAggregate(String userFirebaseUid, long count, long sum, Map<String, Long> histogram) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("reviewCount", count);
+        updates.put("totalRatingSum", sum);
+        updates.put("rating", ReviewRepository.averageRating(count, sum));
+        updates.put("ratingHistogram", histogram);
+        userProfileRepository.updateFields(userFirebaseUid, updates);
+    }
+
+    private static void addTo(Map<String, NavigableSet<ReviewKey>> index, String value, ReviewKey key) {
+        if (value != null) {
+            index.computeIfAbsent(value, ignored -> new ConcurrentSkipListSet<>(NEWEST_FIRST)).add(key);
+        }
+    }
+
+    private static void removeFrom(Map<String, NavigableSet<ReviewKey>> index, String value, ReviewKey key) {
+        if (value != null) {
+            NavigableSet<ReviewKey> keys = index.get(value);
+            if (keys != null) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    private static final class RatingAggregate {
+        private final long count;
+        private final long sum;
+        private final Map<String, Long> histogram;
+
+        private RatingAggregate(long count, long sum, Map<String, Long> histogram) {
+            this.count = count;
+            this.sum = sum;
+            this.histogram = histogram;
+        }
+    }
+
+    private static final class ReviewKey {
+        private final long createdAtMillis;
+        private final String id;
+
+        private ReviewKey(long createdAtMillis, String id) {
+            this.createdAtMillis = createdAtMillis;
+            this.id = id;
+        }
+
+        private static ReviewKey of(Review review) {
+            // Reviews without a readable createdAt sort as the oldest
+            Long createdAtMillis = review.getCreatedAtMillis();
+            return new ReviewKey(createdAtMillis == null ? 0L : createdAtMillis, review.getId());
+        }
+    }
+}
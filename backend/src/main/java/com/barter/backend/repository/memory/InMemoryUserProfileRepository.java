@@ -0,0 +1,161 @@
+package com.barter.backend.repository.memory;
+
+import com.barter.backend.exception.ResourceNotFoundException;
+import com.barter.backend.model.UserListItem;
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.UserProfileRepository;
+import com.barter.backend.repository.UserQuery;
+import com.fasterxml.jackson.core.type.TypeReference;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-process user profile storage. Each write replaces the stored profile with an updated copy through an
+ * atomic per-key compute, so concurrent partial updates of the same profile never lose each other's fields.
+ * Profiles are kept sorted by UID, so a page is read by seeking to the cursor and walking forward.
+ */
+@Repository
+@Profile("inmemory")
+public class InMemoryUserProfileRepository implements UserProfileRepository {
+
+    private final ConcurrentNavigableMap<String, UserProfile> profiles = new ConcurrentSkipListMap<>();
+    private final Path snapshotFile;
+
+    public InMemoryUserProfileRepository(@Value("${barter.inmemory.snapshot-dir:}") String snapshotDir) {
+        this.snapshotFile = InMemoryDocuments.snapshotFile(snapshotDir, "user_profiles");
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        List<UserProfile> stored = InMemoryDocuments.readSnapshot(snapshotFile, new TypeReference<List<UserProfile>>() {});
+        if (stored != null) {
+            stored.forEach(profile -> profiles.put(profile.getFirebaseUid(), profile));
+        }
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        InMemoryDocuments.writeSnapshot(snapshotFile, new ArrayList<>(profiles.values()));
+    }
+
+    @Override
+    public List<UserProfile> findAll() {
+        List<UserProfile> users = new ArrayList<>(profiles.size());
+        for (UserProfile profile : profiles.values()) {
+            users.add(InMemoryDocuments.copy(profile));
+        }
+        return users;
+    }
+
+    @Override
+    public List<UserListItem> findPage(UserQuery query, String afterFirebaseUid, int limit) {
+        List<UserListItem> page = new ArrayList<>(Math.min(limit, 64));
+        for (UserProfile profile : (afterFirebaseUid == null ? profiles : profiles.tailMap(afterFirebaseUid, false)).values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (matches(profile, query)) {
+                page.add(new UserListItem(profile.getFirebaseUid(), profile.getDisplayName(), profile.getLocation(),
+                        profile.getProfileImageUrl(), profile.getThumbnailUrl(), profile.getRating(), profile.getReviewCount()));
+            }
+        }
+        return page;
+    }
+
+    private static boolean matches(UserProfile profile, UserQuery query) {
+        if (query.getLocation() != null && !query.getLocation().equals(profile.getLocation())) {
+            return false;
+        }
+        if (query.getSkillsOffered() != null && !containsAny(profile.getSkillsOffered(), query.getSkillsOffered())) {
+            return false;
+        }
+        return query.getNeeds() == null || containsAny(profile.getNeeds(), query.getNeeds());
+    }
+
+    private static boolean containsAny(List<String> values, List<String> wanted) {
+        return values != null && values.stream().anyMatch(wanted::contains);
+    }
+
+    @Override
+    public List<String> findAllIds() {
+        return new ArrayList<>(profiles.keySet());
+    }
+
+    @Override
+    public Optional<UserProfile> findById(String firebaseUid) {
+        return Optional.ofNullable(InMemoryDocuments.copy(profiles.get(firebaseUid)));
+    }
+
+    // A scan is fine at local-run sizes; the post repository keeps a sorted geohash index instead
+    @Override
+    public List<UserProfile> findByGeohashPrefixes(Collection<String> geohashPrefixes) {
+        List<UserProfile> users = new ArrayList<>();
+        for (UserProfile profile : profiles.values()) {
+            String geohash = profile.getGeohash();
+            if (geohash != null && geohashPrefixes.stream().anyMatch(geohash::startsWith)) {
+                users.add(InMemoryDocuments.copy(profile));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public Map<String, UserSummary> findSummaries(Collection<? extends String> firebaseUids) {
+        Map<String, UserSummary> summaries = new HashMap<>();
+        for (String uid : firebaseUids) {
+            UserProfile profile = profiles.get(uid);
+            summaries.put(uid, profile == null
+                    ? UserSummary.unknown(uid)
+                    : new UserSummary(uid, profile.getDisplayName(), profile.getProfileImageUrl(), true));
+        }
+        return summaries;
+    }
+
+    @Override
+    public void save(UserProfile profile) {
+        UserProfile stored = InMemoryDocuments.copy(profile);
+        stored.setId(profile.getFirebaseUid()); // The document ID is the Firebase UID
+        profiles.put(profile.getFirebaseUid(), stored);
+    }
+
+    @Override
+    public void saveFields(UserProfile profile, List<String> fields) {
+        Map<String, Object> values = InMemoryDocuments.fieldsOf(profile, fields);
+        profiles.compute(profile.getFirebaseUid(), (uid, existing) -> existing == null
+                ? InMemoryDocuments.withFields(new UserProfile(), values)
+                : InMemoryDocuments.withFields(existing, values));
+    }
+
+    @Override
+    public void updateFields(String firebaseUid, Map<String, Object> fields) throws ResourceNotFoundException {
+        UserProfile updated = profiles.computeIfPresent(firebaseUid, (uid, existing) -> InMemoryDocuments.withFields(existing, fields));
+        if (updated == null) {
+            throw new ResourceNotFoundException("User profile not found for UID: " + firebaseUid);
+        }
+    }
+
+    @Override
+    public void delete(String firebaseUid) {
+        profiles.remove(firebaseUid);
+    }
+
+    // Stored copies already carry createdAtMillis, see InMemoryChatRepository.backfillTimestampMillis()
+    @Override
+    public int backfillTimestampMillis() {
+        return 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.barter.backend.repository.memory;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes every in-memory repository call block for a fixed time, standing in for a Firestore round trip.
+ *
+ * Without it the in-memory backend answers in microseconds and a load test only measures CPU, which hides
+ * how the server behaves when request threads wait on the network (the platform versus virtual thread
+ * comparison in {@code backend/loadtest}). The sleep happens outside the repositories' write locks.
+ */
+@Aspect
+@Component
+@Profile("inmemory")
+@ConditionalOnExpression("${barter.inmemory.latency-ms:0} > 0")
+public class SimulatedLatencyAspect {
+
+    private final long latencyMillis;
+
+    public SimulatedLatencyAspect(@Value("${barter.inmemory.latency-ms:0}") long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Around("execution(* com.barter.backend.repository.memory.InMemory*Repository.*(..))"
+            + " && !execution(void com.barter.backend.repository.memory.InMemory*Repository.*Snapshot())")
+    public Object delay(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during simulated storage latency.", e);
+        }
+        return joinPoint.proceed();
+    }
+}
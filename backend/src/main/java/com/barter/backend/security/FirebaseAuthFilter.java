@@ -1,11 +1,12 @@
 package com.barter.backend.security;
 
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component; // <--- ADD THIS IMPORT
@@ -17,9 +18,14 @@ import java.util.Collections;
 @Component // <--- ADD THIS ANNOTATION
 public class FirebaseAuthFilter extends OncePerRequestFilter {
 
-    // If FirebaseAuth or any other dependency needs to be injected into this filter,
-    // you would add a constructor here and declare them as final fields,
-    // and Spring would inject them. For now, FirebaseAuth.getInstance() is fine.
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseAuthFilter.class);
+
+    // Verified tokens are cached until their exp claim so repeat requests skip signature verification.
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public FirebaseAuthFilter(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,7 +39,7 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
             String idToken = authHeader.replace("Bearer ", "");
 
             try {
-                FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
+                FirebaseToken decodedToken = verifiedTokenCache.verify(idToken);
                 String uid = decodedToken.getUid();
 
                 UsernamePasswordAuthenticationToken authentication =
@@ -45,7 +51,7 @@ public class FirebaseAuthFilter extends OncePerRequestFilter {
                 request.setAttribute("firebaseToken", decodedToken); // Add this line
             } catch (Exception e) {
                 // Log the exception for debugging in production
-                System.err.println("Firebase token validation failed: " + e.getMessage());
+                logger.warn("Firebase token validation failed: {}", e.getMessage());
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
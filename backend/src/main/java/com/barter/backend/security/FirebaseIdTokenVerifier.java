@@ -0,0 +1,20 @@
+package com.barter.backend.security;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies ID tokens with Firebase Authentication (signature, issuer, audience and expiry).
+ */
+@Component
+@Profile("!inmemory")
+public class FirebaseIdTokenVerifier implements IdTokenVerifier {
+
+    @Override
+    public FirebaseToken verify(String idToken) throws FirebaseAuthException {
+        return FirebaseAuth.getInstance().verifyIdToken(idToken);
+    }
+}
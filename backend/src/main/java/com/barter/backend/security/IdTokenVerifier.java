@@ -0,0 +1,17 @@
+package com.barter.backend.security;
+
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+
+/**
+ * Verifies a raw ID token from the Authorization header. Results are cached by {@link VerifiedTokenCache}.
+ */
+public interface IdTokenVerifier {
+
+    /**
+     * @param idToken The raw ID token.
+     * @return The decoded token; its exp claim bounds how long it may be cached.
+     * @throws FirebaseAuthException if the token is invalid or expired.
+     */
+    FirebaseToken verify(String idToken) throws FirebaseAuthException;
+}
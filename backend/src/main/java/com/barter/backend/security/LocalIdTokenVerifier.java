@@ -0,0 +1,61 @@
+package com.barter.backend.security;
+
+import com.google.firebase.ErrorCode;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verifier for the in-memory profile, where there is no Firebase project to verify against.
+ *
+ * Accepts bearer tokens of the form {@code dev:<uid>} and signs the caller in as that UID, so the backend
+ * can be exercised locally and by load tests without real credentials. Never enable this profile in production.
+ */
+@Component
+@Profile("inmemory")
+public class LocalIdTokenVerifier implements IdTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalIdTokenVerifier.class);
+    private static final String TOKEN_PREFIX = "dev:";
+    private static final long TOKEN_LIFETIME_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    private final Constructor<FirebaseToken> tokenConstructor;
+
+    public LocalIdTokenVerifier() {
+        try {
+            // FirebaseToken has no public constructor; controllers read the decoded token from the request.
+            tokenConstructor = FirebaseToken.class.getDeclaredConstructor(Map.class);
+            tokenConstructor.setAccessible(true);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("Cannot create local Firebase tokens.", e);
+        }
+        logger.warn("Local ID token verification is active: any 'dev:<uid>' bearer token is accepted.");
+    }
+
+    @Override
+    public FirebaseToken verify(String idToken) throws FirebaseAuthException {
+        if (idToken == null || !idToken.startsWith(TOKEN_PREFIX) || idToken.length() == TOKEN_PREFIX.length()) {
+            throw new FirebaseAuthException(ErrorCode.INVALID_ARGUMENT,
+                    "Local tokens must have the form 'dev:<uid>'.", null, null, AuthErrorCode.INVALID_ID_TOKEN);
+        }
+        String uid = idToken.substring(TOKEN_PREFIX.length());
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        try {
+            return tokenConstructor.newInstance(Map.of(
+                    "sub", uid,
+                    "user_id", uid,
+                    "iat", now,
+                    "exp", now + TOKEN_LIFETIME_SECONDS));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create local Firebase token.", e);
+        }
+    }
+}
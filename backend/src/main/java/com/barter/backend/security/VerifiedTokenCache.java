@@ -0,0 +1,149 @@
+package com.barter.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of successfully verified Firebase ID tokens.
+ *
+ * Entries are keyed by the SHA-256 of the raw token (the token itself is never stored as a key) and expire
+ * at the token's own exp claim, so a cached token is never accepted for longer than Firebase would accept it.
+ * Failed verifications are not cached. Hit rate and verification latency are recorded for monitoring.
+ * Misses are verified by the active {@link IdTokenVerifier}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private final IdTokenVerifier verifier;
+    private final Cache<String, FirebaseToken> cache;
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
+    private final LongAccumulator maxVerificationNanos = new LongAccumulator(Math::max, 0);
+    private final LongSupplier clockMillis;
+
+    @Autowired
+    public VerifiedTokenCache(IdTokenVerifier verifier, @Value("${barter.auth.token-cache.max-size:10000}") long maxSize) {
+        this(verifier, maxSize, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clockMillis Wall clock that exp claims are compared with; also drives the cache's own
+     *                    expiry, so both agree on when a token has expired.
+     */
+    VerifiedTokenCache(IdTokenVerifier verifier, long maxSize, LongSupplier clockMillis) {
+        this.verifier = verifier;
+        this.clockMillis = clockMillis;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clockMillis.getAsLong()))
+                .expireAfter(new Expiry<String, FirebaseToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, FirebaseToken token, long currentTime) {
+                        return nanosUntilExpiry(token);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, FirebaseToken token, long currentTime, long currentDuration) {
+                        return nanosUntilExpiry(token);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, FirebaseToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the decoded token, verifying it only if it is not cached.
+     *
+     * @param idToken The raw ID token from the Authorization header.
+     * @return The verified token.
+     * @throws FirebaseAuthException if the token is invalid or expired.
+     */
+    public FirebaseToken verify(String idToken) throws FirebaseAuthException {
+        String key = hash(idToken);
+        FirebaseToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        try {
+            FirebaseToken token = verifier.verify(idToken);
+            if (nanosUntilExpiry(token) > 0) {
+                cache.put(key, token);
+            }
+            return token;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            verifications.increment();
+            verificationNanos.add(elapsed);
+            maxVerificationNanos.accumulate(elapsed);
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Number of tokens sent to Firebase for verification (cache misses), successful or not.
+     */
+    public long verificationCount() {
+        return verifications.sum();
+    }
+
+    public long totalVerificationNanos() {
+        return verificationNanos.sum();
+    }
+
+    public long maxVerificationNanos() {
+        return maxVerificationNanos.get();
+    }
+
+    private long nanosUntilExpiry(FirebaseToken token) {
+        Object exp = token.getClaims().get("exp");
+        if (!(exp instanceof Number)) {
+            return 0; // No usable expiry: do not cache.
+        }
+        long remainingMillis = TimeUnit.SECONDS.toMillis(((Number) exp).longValue()) - clockMillis.getAsLong();
+        return Math.max(0, TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+    }
+
+    private static String hash(String idToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(idToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            logger.error("SHA-256 is not available: {}", e.getMessage(), e);
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.UserSummary;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Pushes a user's display name and profile image into the documents that carry a copy of them:
+ * their posts, the 'fromUser' of reviews they wrote, their recent chat messages, and the inbox entries of the
+ * people they chat with directly.
+ *
+ * Reads trust those copies instead of joining every item against the user profiles, so a profile change
+ * has to be written out to them. That runs here, off the request thread, on a single worker so two quick
+ * edits by the same user are applied in order and the last one wins. A failed refresh is logged and the
+ * copies stay stale until the user's next profile change.
+ */
+@Component
+public class AuthorSnapshotFanout {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorSnapshotFanout.class);
+
+    private final BarterPostService barterPostService;
+    private final ReviewService reviewService;
+    private final ChatService chatService;
+    private final int recentMessagesPerChat;
+    private final ExecutorService executor;
+
+    public AuthorSnapshotFanout(
+            BarterPostService barterPostService,
+            ReviewService reviewService,
+            ChatService chatService,
+            @Value("${barter.author-refresh.recent-messages-per-chat:50}") int recentMessagesPerChat
+    ) {
+        this.barterPostService = barterPostService;
+        this.reviewService = reviewService;
+        this.chatService = chatService;
+        this.recentMessagesPerChat = recentMessagesPerChat;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "author-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules the refresh of every copy of the given user's display data and returns immediately.
+     */
+    public void refreshAsync(UserSummary author) {
+        try {
+            executor.execute(() -> refresh(author));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Skipped author snapshot refresh for user {}: shutting down.", author.getFirebaseUid());
+        }
+    }
+
+    private void refresh(UserSummary author) {
+        String uid = author.getFirebaseUid();
+        try {
+            int posts = barterPostService.refreshAuthorSnapshot(author);
+            int reviews = reviewService.refreshReviewerSnapshot(author);
+            int messages = chatService.refreshSenderSnapshot(author, recentMessagesPerChat);
+            int inboxEntries = chatService.refreshInboxCounterpart(author);
+            logger.info("Refreshed author snapshot for user {}: {} posts, {} reviews, {} messages, {} inbox entries.",
+                    uid, posts, reviews, messages, inboxEntries);
+        } catch (Exception e) {
+            logger.error("Failed to refresh author snapshot for user {}: {}", uid, e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,29 +1,35 @@
 package com.barter.backend.service;
 
 import com.barter.backend.model.BarterPost;
-import com.barter.backend.model.AvailabilityRange; // Make sure this is imported
+import com.barter.backend.model.PostPage;
+import com.barter.backend.model.UserSummary;
 import com.barter.backend.exception.ResourceNotFoundException;
 import com.barter.backend.exception.UnauthorizedAccessException;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.barter.backend.repository.PostQuery;
+import com.barter.backend.repository.PostRepository;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.io.IOException;
 import java.util.stream.Collectors;
 
@@ -31,214 +37,560 @@ import java.util.stream.Collectors;
 public class BarterPostService {
 
     private static final Logger logger = LoggerFactory.getLogger(BarterPostService.class);
-    private static final String COLLECTION_NAME = "barterPosts";
-    private static final String USER_PROFILES_COLLECTION = "user_profiles"; // Added constant for clarity
+    private static final int MIN_FILTERED_LOOKAHEAD = 20; // Extra documents per chunk when in-memory filters may reject some
+    // Deepest post an offset page may reach: (page + 1) * size
+    static final int MAX_OFFSET_WINDOW = 1000;
+    private static final int MAX_SCAN_CHUNKS = 10; // Upper bound on repository round trips for a single page
+    private final PostRepository postRepository;
     private final ImageUploadService imageUploadService;
-
-    private final Firestore firestore = FirestoreClient.getFirestore();
-
-    public BarterPostService(ImageUploadService imageUploadService) {
+    private final PostSearchIndex searchIndex;
+    private final PostAvailabilityIndex availabilityIndex;
+    private final UserSummaryCache userSummaryCache;
+    private final boolean asyncImageUpload; // Create the post first and patch imageUrl when the upload finishes
+    private final double defaultRadiusKm; // Radius of a nearby search that gives coordinates but no radius
+    private final double maxRadiusKm;
+
+    public BarterPostService(PostRepository postRepository, ImageUploadService imageUploadService, PostSearchIndex searchIndex,
+                             PostAvailabilityIndex availabilityIndex, UserSummaryCache userSummaryCache,
+                             @Value("${barter.upload.async-post-images:false}") boolean asyncImageUpload,
+                             @Value("${barter.geo.default-radius-km:25}") double defaultRadiusKm,
+                             @Value("${barter.geo.max-radius-km:200}") double maxRadiusKm) {
+        this.postRepository = postRepository;
         this.imageUploadService = imageUploadService;
+        this.searchIndex = searchIndex;
+        this.availabilityIndex = availabilityIndex;
+        this.userSummaryCache = userSummaryCache;
+        this.asyncImageUpload = asyncImageUpload;
+        this.defaultRadiusKm = defaultRadiusKm;
+        this.maxRadiusKm = maxRadiusKm;
     }
 
     /**
-     * Fetches a page of filtered barter posts from Firestore.
-     * Due to Firestore limitations with current schema (String createdAt, no urgency field),
-     * we will fetch a broader set of data and perform more extensive in-memory filtering and pagination.
+     * Fetches a page of filtered barter posts from the post repository.
+     * Due to Firestore limitations with current schema (no urgency field, no range index on availability),
+     * filters the repository cannot index are applied in memory.
+     * Prefer {@link #getFilteredPostsPage}, whose cost depends only on the page size; this offset-based
+     * variant is kept for clients that jump straight to page N. It scans newest first only until
+     * (page + 1) * size posts matched, so deep pages cost more and pages beyond {@link #MAX_OFFSET_WINDOW}
+     * posts are rejected.
      *
      * @param uploaderId Optional: Filter by uploader's Firebase UID.
      * @param searchTerm Optional: Text to search in title, description, and preferredExchange.
      * @param skillCategories Optional: List of skill categories (tags) to filter by.
      * @param location Optional: Filter by exact location.
-     * @param radius Not used directly in Firestore query, for future geospatial search.
+     * @param radius Optional: Search radius in kilometres around latitude/longitude. Defaults to barter.geo.default-radius-km.
+     * @param latitude Optional: Centre of a nearby search; given together with longitude, results are ordered nearest first.
+     * @param longitude Optional: Centre of a nearby search.
      * @param availabilityFilter Optional: A string representing a date (e.g., "YYYY-MM-DD"), to check if a post is available on that date.
      * @param urgency Optional: Filter by urgency (requires 'urgency' field in Firestore, if not present, this will do nothing).
      * @param status The status of the posts (e.g., "open", "closed"). Defaults to "open".
      * @param page Zero-indexed page number.
      * @param size Number of items per page.
      * @return A list of BarterPost objects for the requested page.
+     * @throws IllegalArgumentException if the page is negative or too deep, or the coordinates or radius are invalid.
      */
     public List<BarterPost> getFilteredPosts(
             String uploaderId,
             String searchTerm,
             List<String> skillCategories,
             String location,
-            Double radius, // Placeholder, not used in Firestore query with current schema
+            Double radius,
+            Double latitude,
+            Double longitude,
             String availabilityFilter,
             String urgency, // Placeholder for future schema change or in-memory check
             String status,
             int page,
             int size
     ) {
-        logger.info("Fetching filtered posts: uploaderId={}, searchTerm={}, skillCategories={}, location={}, availabilityFilter={}, urgency={}, status={}, page={}, size={}",
-                uploaderId, searchTerm, skillCategories, location, availabilityFilter, urgency, status, page, size);
+        return ServiceFutures.join(getFilteredPostsAsync(uploaderId, searchTerm, skillCategories, location, radius,
+                latitude, longitude, availabilityFilter, urgency, status, page, size));
+    }
 
-        Query query = firestore.collection(COLLECTION_NAME);
+    /**
+     * Async variant of {@link #getFilteredPosts}: the repository read and the author lookup are chained
+     * on their futures instead of blocking the calling thread.
+     *
+     * @throws IllegalArgumentException immediately (not through the future) if the page, size, coordinates or
+     * radius are invalid.
+     */
+    public CompletableFuture<List<BarterPost>> getFilteredPostsAsync(
+            String uploaderId,
+            String searchTerm,
+            List<String> skillCategories,
+            String location,
+            Double radius,
+            Double latitude,
+            Double longitude,
+            String availabilityFilter,
+            String urgency,
+            String status,
+            int page,
+            int size
+    ) {
+        logger.info("Fetching filtered posts: uploaderId={}, searchTerm={}, skillCategories={}, location={}, latitude={}, longitude={}, radius={}, availabilityFilter={}, urgency={}, status={}, page={}, size={}",
+                uploaderId, searchTerm, skillCategories, location, latitude, longitude, radius, availabilityFilter, urgency, status, page, size);
 
-        // --- Step 1: Apply direct Firestore filters (exact matches) ---
-        // These are the most efficient filters as Firestore can use indexes.
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Page must not be negative and size must be positive.");
+        }
+        if ((long) (page + 1) * size > MAX_OFFSET_WINDOW) {
+            throw new IllegalArgumentException("Page is too deep for offset paging; use the startAfter cursor instead.");
+        }
+        final LocalDate filterDate = parseAvailabilityFilter(availabilityFilter);
 
-        // Always filter by status, default to 'open' if not provided
-        String effectiveStatus = (status != null && !status.isEmpty()) ? status : "open";
-        query = query.whereEqualTo("status", effectiveStatus);
+        GeoCircle circle = GeoCircle.of(latitude, longitude, radius, defaultRadiusKm, maxRadiusKm);
+        if (circle != null) {
+            return findNearbyAsync(circle, uploaderId, normalizeSearchTerm(searchTerm), skillCategories, location, filterDate, status)
+                    .thenCompose(nearby -> enrichedPage(nearby, page * size, size));
+        }
 
-        if (uploaderId != null && !uploaderId.isEmpty()) {
-            query = query.whereEqualTo("userFirebaseUid", uploaderId);
+        // Search and date queries over open posts are answered from the in-memory indexes.
+        List<BarterPost> indexedResults = searchIndexedPosts(uploaderId, searchTerm, skillCategories, location, filterDate, status);
+        if (indexedResults != null) {
+            return enrichedPage(indexedResults, page * size, size);
         }
 
-        if (location != null && !location.isEmpty()) {
-            query = query.whereEqualTo("location", location);
+        // Scan newest first, like a cursor page holding every post up to the end of the requested one
+        final String lowerCaseSearchTerm = normalizeSearchTerm(searchTerm);
+        int window = (page + 1) * size;
+        int lookahead = (lowerCaseSearchTerm != null || filterDate != null) ? Math.max(size, MIN_FILTERED_LOOKAHEAD) : 0;
+        KeysetScan scan = new KeysetScan(buildPostQuery(uploaderId, skillCategories, location, status),
+                lowerCaseSearchTerm, filterDate, window, window + lookahead, null);
+        return scanChunksAsync(scan).thenCompose(done -> enrichedPage(scan.pagePosts, page * size, size));
+    }
+
+    /**
+     * Fetches one page of filtered barter posts using keyset pagination.
+     * The repository query is limited to size + lookahead documents per round trip, and further chunks
+     * are only pulled while the in-memory filters (search term, availability) have not yet filled the page,
+     * so the number of documents read is proportional to the page rather than the collection.
+     * Search queries over open posts are served from the in-memory {@link PostSearchIndex} instead,
+     * ranked by relevance and paged with an offset cursor; availability queries without a search term are
+     * served the same way from the {@link PostAvailabilityIndex}, newest first. Nearby searches (latitude and
+     * longitude given) read the geohash cells around the point and are ordered nearest first, also with an
+     * offset cursor.
+     *
+     * @param uploaderId Optional: Filter by uploader's Firebase UID.
+     * @param searchTerm Optional: Text to search in title, description, and preferredExchange.
+     * @param skillCategories Optional: List of skill categories (tags) to filter by.
+     * @param location Optional: Filter by exact location.
+     * @param latitude Optional: Centre of a nearby search, given together with longitude.
+     * @param longitude Optional: Centre of a nearby search.
+     * @param radius Optional: Search radius in kilometres. Defaults to barter.geo.default-radius-km.
+     * @param availabilityFilter Optional: A date ("YYYY-MM-DD") the post must be available on.
+     * @param status The status of the posts. Defaults to "open".
+     * @param startAfter Optional: Opaque cursor returned with the previous page. Null for the first page.
+     * @param size Number of items per page.
+     * @return The page of posts and the cursor for the next page (null when there are no more posts).
+     * @throws IllegalArgumentException if the cursor, coordinates or radius are invalid.
+     */
+    public PostPage getFilteredPostsPage(
+            String uploaderId,
+            String searchTerm,
+            List<String> skillCategories,
+            String location,
+            Double latitude,
+            Double longitude,
+            Double radius,
+            String availabilityFilter,
+            String status,
+            String startAfter,
+            int size
+    ) {
+        return ServiceFutures.join(getFilteredPostsPageAsync(uploaderId, searchTerm, skillCategories, location,
+                latitude, longitude, radius, availabilityFilter, status, startAfter, size));
+    }
+
+    /**
+     * Async variant of {@link #getFilteredPostsPage}. Each chunk read is chained on the previous one,
+     * so no thread waits on Firestore while the page is filled.
+     *
+     * @throws IllegalArgumentException immediately (not through the future) if the size, cursor, coordinates
+     * or radius are invalid.
+     */
+    public CompletableFuture<PostPage> getFilteredPostsPageAsync(
+            String uploaderId,
+            String searchTerm,
+            List<String> skillCategories,
+            String location,
+            Double latitude,
+            Double longitude,
+            Double radius,
+            String availabilityFilter,
+            String status,
+            String startAfter,
+            int size
+    ) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
         }
+        logger.info("Fetching filtered post page: uploaderId={}, searchTerm={}, skillCategories={}, location={}, latitude={}, longitude={}, radius={}, availabilityFilter={}, status={}, startAfter={}, size={}",
+                uploaderId, searchTerm, skillCategories, location, latitude, longitude, radius, availabilityFilter, status, startAfter, size);
 
-        // If 'urgency' existed as a field, you would uncomment this:
-        // if (urgency != null && !urgency.isEmpty()) {
-        //     query = query.whereEqualTo("urgency", urgency);
-        // }
+        PageCursor cursor = (startAfter != null && !startAfter.isEmpty()) ? PageCursor.decode(startAfter) : null;
+        final LocalDate filterDate = parseAvailabilityFilter(availabilityFilter);
 
+        GeoCircle circle = GeoCircle.of(latitude, longitude, radius, defaultRadiusKm, maxRadiusKm);
+        if (circle != null) {
+            if (cursor != null && !cursor.isOffset()) {
+                throw new IllegalArgumentException("Pagination cursor is no longer valid. Please restart from the first page.");
+            }
+            int offset = cursor != null ? cursor.getOffset() : 0;
+            return findNearbyAsync(circle, uploaderId, normalizeSearchTerm(searchTerm), skillCategories, location, filterDate, status)
+                    .thenCompose(nearby -> {
+                        String nextCursor = offset + size < nearby.size() ? PageCursor.ofOffset(offset + size).encode() : null;
+                        return enrichedPage(nearby, offset, size).thenApply(pagePosts -> new PostPage(pagePosts, nextCursor));
+                    });
+        }
 
-        if (skillCategories != null && !skillCategories.isEmpty()) {
-            // Firestore's array-contains-any is useful for "OR" logic with tags.
-            // Max 10 elements in the list for arrayContainsAny.
-            if (skillCategories.size() <= 10) {
-                query = query.whereArrayContainsAny("tags", skillCategories);
-            } else {
-                logger.warn("Too many skill categories for Firestore's arrayContainsAny (max 10). Fetching all and filtering in-memory for tags.");
-                // If more than 10, we'll have to rely on in-memory filtering for tags too.
-                // For this scenario, we might remove the Firestore filter and handle it entirely in-memory.
-                // For simplicity, sticking with the 10-limit Firestore filter for now.
+        // A keyset cursor means the previous page came from a repository scan; keep scanning for consistency.
+        if (cursor == null || cursor.isOffset()) {
+            List<BarterPost> indexedResults = searchIndexedPosts(uploaderId, searchTerm, skillCategories, location, filterDate, status);
+            if (indexedResults != null) {
+                int offset = cursor != null ? cursor.getOffset() : 0;
+                String nextCursor = offset + size < indexedResults.size() ? PageCursor.ofOffset(offset + size).encode() : null;
+                return enrichedPage(indexedResults, offset, size)
+                        .thenApply(pagePosts -> new PostPage(pagePosts, nextCursor));
+            }
+            if (cursor != null) {
+                throw new IllegalArgumentException("Pagination cursor is no longer valid. Please restart from the first page.");
             }
         }
 
-        // Order results for consistent pagination and in-memory sorting.
-        // Sorting by 'createdAt' (String) will be lexicographical, not chronological.
-        query = query.orderBy("createdAt", Query.Direction.DESCENDING);
+        final String lowerCaseSearchTerm = normalizeSearchTerm(searchTerm);
+        boolean hasInMemoryFilters = lowerCaseSearchTerm != null || filterDate != null;
+
+        // Without in-memory filters every document lands on the page, so one extra document is enough
+        // to know whether another page exists. With them, read ahead to avoid many tiny round trips.
+        int lookahead = hasInMemoryFilters ? Math.max(size, MIN_FILTERED_LOOKAHEAD) : 1;
+
+        KeysetScan scan = new KeysetScan(buildPostQuery(uploaderId, skillCategories, location, status),
+                lowerCaseSearchTerm, filterDate, size, size + lookahead, cursor);
+        return scanChunksAsync(scan).thenCompose(done -> {
+            String nextCursor = scan.nextCursor();
+            return enrichWithAuthorProfilesAsync(scan.pagePosts).thenApply(ignored -> {
+                logger.info("Built post page of {} posts from {} documents in {} chunk(s). More available: {}",
+                        scan.pagePosts.size(), scan.documentsRead, scan.chunksRead, nextCursor != null);
+                return new PostPage(scan.pagePosts, nextCursor);
+            });
+        });
+    }
+
+    /**
+     * Reads chunks until the page is full, the query is exhausted or the scan budget runs out.
+     */
+    private CompletableFuture<KeysetScan> scanChunksAsync(KeysetScan scan) {
+        if (scan.isDone()) {
+            return CompletableFuture.completedFuture(scan);
+        }
+        return postRepository.findPageAsync(scan.query, scan.afterCreatedAtMillis, scan.afterId, scan.chunkSize)
+                .thenCompose(documents -> {
+                    scan.consume(documents);
+                    return scanChunksAsync(scan);
+                });
+    }
 
-        // --- Step 2: Fetch all documents matching the direct Firestore filters ---
-        List<BarterPost> allFilteredPosts = new ArrayList<>();
-        try {
-            ApiFuture<QuerySnapshot> future = query.get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            List<ApiFuture<DocumentSnapshot>> userProfileFutures = new ArrayList<>();
-            List<String> userUids = new ArrayList<>();
-            List<BarterPost> tempPosts = new ArrayList<>(); // To hold posts before enriching
-
-            // First pass: get posts and collect unique user UIDs
-            for (DocumentSnapshot doc : documents) {
-                try {
-                    BarterPost post = doc.toObject(BarterPost.class);
-                    if (post != null) {
-                        post.setId(doc.getId());
-                        tempPosts.add(post);
-                        userUids.add(post.getUserFirebaseUid());
+    /**
+     * Progress of one keyset page scan, carried from chunk to chunk.
+     */
+    private static final class KeysetScan {
+
+        private final PostQuery query;
+        private final String lowerCaseSearchTerm;
+        private final LocalDate filterDate;
+        private final int size;
+        private final int chunkSize;
+        private final List<BarterPost> pagePosts = new ArrayList<>();
+        private Long afterCreatedAtMillis;
+        private String afterId;
+        private BarterPost lastScanned;
+        private boolean moreAvailable = true;
+        private int chunksRead;
+        private int documentsRead;
+
+        private KeysetScan(PostQuery query, String lowerCaseSearchTerm, LocalDate filterDate, int size, int chunkSize,
+                           PageCursor cursor) {
+            this.query = query;
+            this.lowerCaseSearchTerm = lowerCaseSearchTerm;
+            this.filterDate = filterDate;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.afterCreatedAtMillis = cursor != null ? cursor.getSortMillis() : null;
+            this.afterId = cursor != null ? cursor.getDocumentId() : null;
+        }
+
+        private boolean isDone() {
+            return pagePosts.size() >= size || !moreAvailable || chunksRead >= MAX_SCAN_CHUNKS;
+        }
+
+        private void consume(List<BarterPost> documents) {
+            chunksRead++;
+            documentsRead += documents.size();
+
+            int consumed = 0;
+            for (BarterPost post : documents) {
+                consumed++;
+                lastScanned = post;
+                if (matchesInMemoryFilters(post, lowerCaseSearchTerm, filterDate)) {
+                    pagePosts.add(post);
+                    if (pagePosts.size() == size) {
+                        break;
                     }
-                } catch (Exception e) {
-                    logger.error("Error mapping document {} to BarterPost: {}", doc.getId(), e.getMessage(), e);
                 }
             }
 
-            // Fetch all unique user profiles in parallel
-            // This optimizes Firestore reads by batching
-            for (String uid : userUids.stream().distinct().collect(Collectors.toList())) {
-                userProfileFutures.add(firestore.collection(USER_PROFILES_COLLECTION).document(uid).get());
+            // More documents exist if this chunk was full, or if we stopped before consuming all of it.
+            moreAvailable = documents.size() == chunkSize || consumed < documents.size();
+            if (lastScanned != null) {
+                afterCreatedAtMillis = createdAtMillisOf(lastScanned);
+                afterId = lastScanned.getId();
             }
+        }
 
-            // Create a map of UID to UserProfile data for quick lookup
-            java.util.Map<String, DocumentSnapshot> userProfileMap = new java.util.HashMap<>();
-            for (ApiFuture<DocumentSnapshot> userFuture : userProfileFutures) {
-                DocumentSnapshot userSnapshot = userFuture.get();
-                if (userSnapshot.exists()) {
-                    userProfileMap.put(userSnapshot.getId(), userSnapshot);
-                }
+        /**
+         * The cursor points at the last document scanned, not the last one returned, so documents
+         * rejected by in-memory filters are never read again. If the scan budget ran out before the page
+         * filled, the client gets a short page plus a cursor to keep going.
+         */
+        private String nextCursor() {
+            if (moreAvailable && lastScanned != null) {
+                return PageCursor.of(createdAtMillisOf(lastScanned), lastScanned.getId()).encode();
             }
+            return null;
+        }
+    }
 
-            // Enrich posts with user profile data
-            for (BarterPost post : tempPosts) {
-                DocumentSnapshot userSnapshot = userProfileMap.get(post.getUserFirebaseUid());
-                if (userSnapshot != null) {
-                    post.setDisplayName(userSnapshot.getString("displayName"));
-                    post.setProfileImageUrl(userSnapshot.getString("profileImageUrl"));
-                } else {
-                    logger.warn("User profile not found for UID: {} associated with post {}. Defaulting display name/image.",
-                            post.getUserFirebaseUid(), post.getId());
-                    post.setDisplayName("Unknown User");
-                    post.setProfileImageUrl(null);
-                }
-                allFilteredPosts.add(post);
+    // --- Helpers shared by the offset and cursor based listing paths ---
+
+    /**
+     * Builds the repository query with the direct (indexable) filters applied.
+     */
+    private PostQuery buildPostQuery(String uploaderId, List<String> skillCategories, String location, String status) {
+        // Always filter by status, default to 'open' if not provided
+        String effectiveStatus = (status != null && !status.isEmpty()) ? status : "open";
+
+        // If 'urgency' existed as a field, it would become another PostQuery criterion.
+
+        // Any number of tags: the repository splits sets larger than one query allows
+        return new PostQuery(effectiveStatus,
+                uploaderId != null && !uploaderId.isEmpty() ? uploaderId : null,
+                location != null && !location.isEmpty() ? location : null,
+                skillCategories);
+    }
+
+    /**
+     * Radius search: reads the posts stored in the geohash cells covering the circle, keeps those within the
+     * radius that also pass the remaining filters, and orders them nearest first (newest first at equal distance).
+     * Posts stored without coordinates are not found.
+     */
+    private CompletableFuture<List<BarterPost>> findNearbyAsync(GeoCircle circle, String uploaderId, String lowerCaseSearchTerm,
+                                                                List<String> skillCategories, String location,
+                                                                LocalDate filterDate, String status) {
+        Set<String> cells = circle.coveringCells();
+        return postRepository.findByGeohashPrefixesAsync(buildPostQuery(uploaderId, skillCategories, location, status), cells)
+                .thenApply(candidates -> {
+                    Map<String, Double> distances = new HashMap<>();
+                    List<BarterPost> nearby = new ArrayList<>();
+                    for (BarterPost post : candidates) {
+                        if (post.getLatitude() == null || post.getLongitude() == null
+                                || !matchesInMemoryFilters(post, lowerCaseSearchTerm, filterDate)) {
+                            continue;
+                        }
+                        double distance = circle.distanceTo(post.getLatitude(), post.getLongitude());
+                        if (distance <= circle.getRadiusKm()) {
+                            distances.put(post.getId(), distance);
+                            nearby.add(post);
+                        }
+                    }
+                    nearby.sort(Comparator.comparingDouble((BarterPost post) -> distances.get(post.getId()))
+                            .thenComparing(BarterPost::getCreatedAtMillis, Comparator.nullsLast(Comparator.reverseOrder())));
+                    logger.info("Nearby search read {} posts in {} geohash cells; {} within {} km.",
+                            candidates.size(), cells.size(), nearby.size(), circle.getRadiusKm());
+                    return nearby;
+                });
+    }
+
+    /**
+     * Answers a query over open posts from an in-memory index, applying the remaining filters to its hits:
+     * the search index when there is a search term (relevance order), otherwise the availability index when
+     * there is a date filter (newest first).
+     *
+     * @return The filtered posts, or null if no index can serve this query
+     * (neither a search term nor a date, index still loading, or a status other than "open").
+     */
+    private List<BarterPost> searchIndexedPosts(String uploaderId, String searchTerm, List<String> skillCategories,
+                                                String location, LocalDate filterDate, String status) {
+        String effectiveStatus = (status != null && !status.isEmpty()) ? status : "open";
+        if (!"open".equals(effectiveStatus)) {
+            return null;
+        }
+        if (searchTerm != null && !searchTerm.isBlank()) {
+            if (!searchIndex.isReady()) {
+                return null;
             }
+            List<BarterPost> results = filterIndexedPosts(searchIndex.search(searchTerm), uploaderId, skillCategories, location, filterDate);
+            logger.info("Search index returned {} matching posts for '{}'.", results.size(), searchTerm);
+            return results;
+        }
+        if (filterDate != null && availabilityIndex.isReady()) {
+            // The index only returns posts available on the date; the date check below is then a no-op.
+            List<BarterPost> results = filterIndexedPosts(availabilityIndex.findAvailableOn(filterDate), uploaderId, skillCategories, location, null);
+            logger.info("Availability index returned {} matching posts for {}.", results.size(), filterDate);
+            return results;
+        }
+        return null;
+    }
 
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving filtered posts from Firestore: {}", e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve filtered posts.", e);
+    private static List<BarterPost> filterIndexedPosts(List<BarterPost> posts, String uploaderId, List<String> skillCategories,
+                                                       String location, LocalDate filterDate) {
+        List<BarterPost> results = new ArrayList<>();
+        for (BarterPost post : posts) {
+            if (uploaderId != null && !uploaderId.isEmpty() && !uploaderId.equals(post.getUserFirebaseUid())) {
+                continue;
+            }
+            if (location != null && !location.isEmpty() && !location.equals(post.getLocation())) {
+                continue;
+            }
+            if (skillCategories != null && !skillCategories.isEmpty()
+                    && (post.getTags() == null || post.getTags().stream().noneMatch(skillCategories::contains))) {
+                continue;
+            }
+            if (filterDate != null && !PostFilters.isAvailableOn(post, filterDate)) {
+                continue;
+            }
+            results.add(post);
         }
+        return results;
+    }
 
-        // --- Step 3: Apply in-memory filters (for criteria not directly supported by Firestore) ---
+    /**
+     * Loads every open post into the search and availability indexes once the application has started.
+     * Until this completes, search and date queries fall back to scanning the repository.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        try {
+            List<BarterPost> openPosts = postRepository.findAll(PostQuery.byStatus("open"));
+            searchIndex.rebuild(openPosts);
+            availabilityIndex.rebuild(openPosts);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build post search index. Search will scan the repository instead: {}", e.getMessage(), e);
+        }
+    }
 
-        // Filter by search term (substring search on title, description, preferredExchange)
-        if (searchTerm != null && !searchTerm.isEmpty()) {
-            final String lowerCaseSearchTerm = searchTerm.toLowerCase();
-            allFilteredPosts = allFilteredPosts.stream()
-                    .filter(post ->
-                            (post.getTitle() != null && post.getTitle().toLowerCase().contains(lowerCaseSearchTerm)) ||
-                                    (post.getDescription() != null && post.getDescription().toLowerCase().contains(lowerCaseSearchTerm)) ||
-                                    (post.getPreferredExchange() != null && post.getPreferredExchange().toLowerCase().contains(lowerCaseSearchTerm))
-                    )
-                    .collect(Collectors.toList());
+    /**
+     * Cuts one page out of the full result and enriches only the posts on it.
+     */
+    private CompletableFuture<List<BarterPost>> enrichedPage(List<BarterPost> posts, int start, int size) {
+        if (start >= posts.size()) {
+            return CompletableFuture.completedFuture(new ArrayList<>()); // No posts on this page
         }
+        List<BarterPost> pagePosts = new ArrayList<>(posts.subList(start, Math.min(start + size, posts.size())));
+        return enrichWithAuthorProfilesAsync(pagePosts).thenApply(ignored -> pagePosts);
+    }
 
-        // Filter by availability (complex date range check)
-        if (availabilityFilter != null && !availabilityFilter.isEmpty()) {
-            try {
-                LocalDate filterDate = LocalDate.parse(availabilityFilter); // Assuming "YYYY-MM-DD"
-                allFilteredPosts = allFilteredPosts.stream()
-                        .filter(post -> {
-                            if (post.getAvailability() == null || post.getAvailability().isEmpty()) {
-                                return false; // Post has no availability ranges
-                            }
-                            // Check if the filterDate falls within any of the post's availability ranges
-                            return post.getAvailability().stream().anyMatch(range -> {
-                                LocalDate start = range.parseStartDateForFiltering(); // Or directly parse Instant.parse(range.getStart())...
-                                LocalDate end = range.parseEndDateForFiltering();
-                                return start != null && end != null &&
-                                        !filterDate.isBefore(start) && !filterDate.isAfter(end);
-                            });
-                        })
-                        .collect(Collectors.toList());
-            } catch (DateTimeParseException e) {
-                logger.warn("Invalid availabilityFilter date format: {}. Skipping availability filter.", availabilityFilter);
-                // Continue without applying this filter if the format is bad
-            }
+    private static String normalizeSearchTerm(String searchTerm) {
+        return (searchTerm != null && !searchTerm.isEmpty()) ? searchTerm.toLowerCase() : null;
+    }
+
+    private LocalDate parseAvailabilityFilter(String availabilityFilter) {
+        if (availabilityFilter == null || availabilityFilter.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(availabilityFilter); // Assuming "YYYY-MM-DD"
+        } catch (DateTimeParseException e) {
+            logger.warn("Invalid availabilityFilter date format: {}. Skipping availability filter.", availabilityFilter);
+            return null; // Continue without applying this filter if the format is bad
         }
+    }
 
-        // If 'urgency' is only a client-side filter and not a Firestore field,
-        // you'd add an in-memory filter here:
-        // if (urgency != null && !urgency.isEmpty()) {
-        //     allFilteredPosts = allFilteredPosts.stream()
-        //             .filter(post -> urgency.equalsIgnoreCase(post.getUrgency())) // Assuming getUrgency() exists and returns a String
-        //             .collect(Collectors.toList());
-        // }
+    // Repositories order posts without a readable createdAt as the oldest (epoch 0)
+    private static long createdAtMillisOf(BarterPost post) {
+        Long millis = post.getCreatedAtMillis();
+        return millis == null ? 0L : millis;
+    }
 
+    private static boolean matchesInMemoryFilters(BarterPost post, String lowerCaseSearchTerm, LocalDate filterDate) {
+        if (lowerCaseSearchTerm != null && !PostFilters.matchesSearchTerm(post, lowerCaseSearchTerm)) {
+            return false;
+        }
+        return filterDate == null || PostFilters.isAvailableOn(post, filterDate);
+    }
 
-        // --- Step 4: Apply in-memory pagination ---
-        int start = page * size;
-        int end = Math.min(start + size, allFilteredPosts.size());
+    /**
+     * Fills in displayName/profileImageUrl on posts stored without an author snapshot (written before posts
+     * carried one). Posts that have it are trusted as-is: profile edits are pushed to them by
+     * {@link #refreshAuthorSnapshot}, so the common read path does no profile lookups at all.
+     * Package-private so the listing benchmarks can measure the fallback join on its own.
+     */
+    void enrichWithAuthorProfiles(List<BarterPost> posts) {
+        List<BarterPost> missing = withoutAuthorSnapshot(posts);
+        if (missing.isEmpty()) {
+            return;
+        }
+        Map<String, UserSummary> authors = userSummaryCache.getAll(missing.stream()
+                .map(BarterPost::getUserFirebaseUid)
+                .collect(Collectors.toList()));
+        applyAuthorSummaries(missing, authors);
+    }
 
-        if (start < allFilteredPosts.size()) {
-            // To ensure consistent chronological order if string sorting was insufficient
-            // (e.g., if "2024-01-10T10:00:00" vs "2024-01-09T23:00:00"),
-            // you might want to sort in-memory AFTER filtering if your string format isn't strictly sortable.
-            // However, with ISO_DATE_TIME, it should be mostly fine.
-            // If you need perfect chronological sorting, schema change to long/Timestamp is highly recommended.
-            return allFilteredPosts.subList(start, end);
-        } else {
-            return new ArrayList<>(); // No posts on this page
+    /**
+     * Async variant of {@link #enrichWithAuthorProfiles}; completes once every post carries its author's data.
+     */
+    private CompletableFuture<Void> enrichWithAuthorProfilesAsync(List<BarterPost> posts) {
+        List<BarterPost> missing = withoutAuthorSnapshot(posts);
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
         }
+        return userSummaryCache.getAllAsync(missing.stream()
+                        .map(BarterPost::getUserFirebaseUid)
+                        .collect(Collectors.toList()))
+                .thenAccept(authors -> applyAuthorSummaries(missing, authors));
     }
 
-    // Existing methods (getAllPosts, getPostsByUser, searchPosts, getPostsByType, getPostsByTag, getPostsByLocation)
-    // are now redundant if getFilteredPosts is the primary entry point for fetching lists of posts.
-    // I will remove them to keep the service cleaner and less confusing.
+    private static List<BarterPost> withoutAuthorSnapshot(List<BarterPost> posts) {
+        return posts.stream()
+                .filter(post -> post.getDisplayName() == null)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Pushes an author's current display data onto all of their stored posts and the search index.
+     * Called off the request path after a profile change.
+     *
+     * @return The number of stored posts that were out of date.
+     */
+    public int refreshAuthorSnapshot(UserSummary author) {
+        int updated = postRepository.updateAuthorSnapshot(author.getFirebaseUid(), author);
+        if (updated > 0) {
+            // The index serves search results from its own copies, so they are replaced too.
+            for (BarterPost post : postRepository.findAll(new PostQuery("open", author.getFirebaseUid(), null, null))) {
+                searchIndex.index(post);
+                availabilityIndex.index(post);
+            }
+        }
+        return updated;
+    }
+
+    private void applyAuthorSummaries(List<BarterPost> posts, Map<String, UserSummary> authors) {
+        for (BarterPost post : posts) {
+            applyAuthorSummary(post, authors.getOrDefault(post.getUserFirebaseUid(), UserSummary.unknown(post.getUserFirebaseUid())));
+        }
+    }
+
+    private void applyAuthorSummary(BarterPost post, UserSummary author) {
+        if (author.isFound()) {
+            post.setDisplayName(author.getDisplayName());
+            post.setProfileImageUrl(author.getProfileImageUrl());
+        } else {
+            logger.warn("User profile not found for UID: {} associated with post {}. Defaulting display name/image.",
+                    post.getUserFirebaseUid(), post.getId());
+            post.setDisplayName(UserSummary.UNKNOWN_DISPLAY_NAME);
+            post.setProfileImageUrl(null);
+        }
+    }
 
     // --- IMPORTANT: Removed redundant list-fetching methods ---
     // getAllPosts, getPostsByUser, searchPosts, getPostsByType, getPostsByTag, getPostsByLocation
@@ -246,135 +598,125 @@ public class BarterPostService {
 
     // --- Create Post (updated for consistent createdAt format) ---
     public BarterPost createPost(BarterPost post, MultipartFile image, String userFirebaseUid) {
-        // Ensure createdAt is always set to a consistent ISO_DATE_TIME format for string sorting
-        post.setCreatedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+        // createdAt is always assigned by the server, never taken from the client
+        post.setCreatedAt(null);
+        post.initDefaults();
         post.setUserFirebaseUid(userFirebaseUid);
         post.setStatus("open"); // Explicitly set default status
+        post.materializeAvailability();
+        post.materializeGeohash();
 
-        try {
-            DocumentReference userRef = firestore.collection(USER_PROFILES_COLLECTION).document(userFirebaseUid);
-            ApiFuture<DocumentSnapshot> userSnapshotFuture = userRef.get();
-            DocumentSnapshot userSnapshot = userSnapshotFuture.get();
-
-            if (userSnapshot.exists()) {
-                String displayName = userSnapshot.getString("displayName");
-                String profileImageUrl = userSnapshot.getString("profileImageUrl");
-
-                post.setDisplayName(displayName);
-                post.setProfileImageUrl(profileImageUrl);
-            } else {
-                logger.warn("User profile not found for UID: {}. Post will be created without display name/profile image.", userFirebaseUid);
-                post.setDisplayName("Unknown User");
-                post.setProfileImageUrl(null);
-            }
+        applyAuthorSummary(post, userSummaryCache.get(userFirebaseUid));
 
+        CompletableFuture<UploadedImage> pendingImage = null;
+        post.setImageUrl(null);
+        post.setThumbnailUrl(null);
+        try {
             if (image != null && !image.isEmpty()) {
-                String imageUrl = imageUploadService.uploadImage(image);
-                post.setImageUrl(imageUrl);
-            } else {
-                post.setImageUrl(null);
+                if (asyncImageUpload) {
+                    pendingImage = imageUploadService.uploadImageAsync(image); // Patched by completePendingImage
+                    post.setImageStatus(BarterPost.IMAGE_PENDING);
+                } else {
+                    UploadedImage uploaded = imageUploadService.uploadImage(image);
+                    post.setImageUrl(uploaded.getUrl());
+                    post.setThumbnailUrl(uploaded.getThumbnailUrl());
+                }
             }
         } catch (IOException e) {
             logger.error("Image upload failed for user {}: {}", userFirebaseUid, e.getMessage(), e);
             throw new RuntimeException("Image upload failed", e);
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error fetching user profile for UID {}: {}", userFirebaseUid, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to fetch user profile.", e);
         }
 
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-        post.setId(docRef.getId());
+        postRepository.insert(post); // Sets the generated ID on the post
+        searchIndex.index(post);
+        availabilityIndex.index(post);
+        logger.info("Successfully created post with ID: {} for user: {}", post.getId(), post.getUserFirebaseUid());
+        if (pendingImage != null) {
+            completePendingImage(post, pendingImage);
+        }
+        return post;
+    }
+
+
+    /**
+     * Writes the image URLs onto a post that was created before its image upload finished, as long as the
+     * post still waits for it (imageStatus pending). If the post was deleted, or its image replaced or removed
+     * in the meantime, the uploaded variants are deleted instead. A failed upload marks the post IMAGE_FAILED.
+     */
+    private void completePendingImage(BarterPost post, CompletableFuture<UploadedImage> pendingImage) {
+        pendingImage.whenComplete((uploaded, error) -> {
+            if (error != null) {
+                logger.error("Async image upload failed for post {}: {}", post.getId(), error.getMessage(), error);
+                patchPendingImage(post.getId(), Collections.singletonMap("imageStatus", BarterPost.IMAGE_FAILED));
+                return;
+            }
+            Map<String, Object> imageFields = new HashMap<>();
+            imageFields.put("imageUrl", uploaded.getUrl());
+            imageFields.put("thumbnailUrl", uploaded.getThumbnailUrl());
+            imageFields.put("imageStatus", null);
+            if (patchPendingImage(post.getId(), imageFields)) {
+                logger.info("Attached uploaded image to post {}.", post.getId());
+            } else {
+                discardUpload(uploaded);
+            }
+        });
+    }
 
-        ApiFuture<WriteResult> writeResult = docRef.set(post);
+    /**
+     * Applies the outcome of a pending upload if the post is still waiting for it, and re-indexes the post.
+     *
+     * @return true if the fields were written.
+     */
+    private boolean patchPendingImage(String postId, Map<String, Object> fields) {
         try {
-            writeResult.get();
-            logger.info("Successfully created post with ID: {} for user: {}", post.getId(), post.getUserFirebaseUid());
-            return post;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error creating post for user {}: {}", userFirebaseUid, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to create post.", e);
+            if (!postRepository.updateFieldsIf(postId, "imageStatus", BarterPost.IMAGE_PENDING, fields)) {
+                logger.info("Post {} was deleted or its image changed during the upload; upload result dropped.", postId);
+                return false;
+            }
+            // Re-read so an edit made while the upload was running is not overwritten in the index.
+            postRepository.findById(postId).ifPresent(current -> {
+                searchIndex.index(current);
+                availabilityIndex.index(current);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Failed to apply the image upload result to post {}: {}", postId, e.getMessage(), e);
+            return false;
         }
     }
 
 
     public BarterPost getPostByIdForEdit(String id, String requestingUserUid) throws ResourceNotFoundException, UnauthorizedAccessException {
-        try {
-            DocumentSnapshot doc = firestore.collection(COLLECTION_NAME).document(id).get().get();
-            if (!doc.exists()) {
-                throw new ResourceNotFoundException("BarterPost not found with ID: " + id);
-            }
+        return ServiceFutures.join(getPostByIdForEditAsync(id, requestingUserUid));
+    }
 
-            BarterPost post = doc.toObject(BarterPost.class);
-            if (post == null) {
-                logger.error("Failed to map document {} to BarterPost during getPostByIdForEdit.", id);
-                throw new RuntimeException("Failed to process post data for ID: " + id);
-            }
+    /**
+     * Async variant of {@link #getPostByIdForEdit}. The post's stored author snapshot is returned as-is.
+     * The future fails with ResourceNotFoundException or UnauthorizedAccessException.
+     */
+    public CompletableFuture<BarterPost> getPostByIdForEditAsync(String id, String requestingUserUid) {
+        return postRepository.findByIdAsync(id).thenCompose(found -> {
+            BarterPost post = found.orElseThrow(() -> new ResourceNotFoundException("BarterPost not found with ID: " + id));
 
             if (!post.getUserFirebaseUid().equals(requestingUserUid)) {
                 throw new UnauthorizedAccessException("You are not authorized to view or edit this post.");
             }
 
-            post.setId(doc.getId()); // Ensure ID is set from document snapshot
-
-            // --- ADDED: Fetch user profile for getPostByIdForEdit as well ---
-            DocumentReference userRef = firestore.collection(USER_PROFILES_COLLECTION).document(post.getUserFirebaseUid());
-            ApiFuture<DocumentSnapshot> userSnapshotFuture = userRef.get();
-            DocumentSnapshot userSnapshot = userSnapshotFuture.get();
-
-            if (userSnapshot.exists()) {
-                post.setDisplayName(userSnapshot.getString("displayName"));
-                post.setProfileImageUrl(userSnapshot.getString("profileImageUrl"));
-            } else {
-                logger.warn("User profile not found for UID: {} associated with post {}. Defaulting display name/image for edit.",
-                        post.getUserFirebaseUid(), post.getId());
-                post.setDisplayName("Unknown User");
-                post.setProfileImageUrl(null);
-            }
-            // --- END ADDED ---
-            return post;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving post by ID {} for user {}: {}", id, requestingUserUid, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve post by ID: " + id, e);
-        }
+            return enrichWithAuthorProfilesAsync(List.of(post)).thenApply(ignored -> post);
+        });
     }
 
     public Optional<BarterPost> getPostById(String id) {
-        try {
-            DocumentSnapshot doc = firestore.collection(COLLECTION_NAME).document(id).get().get();
-            if (doc.exists()) {
-                BarterPost post = doc.toObject(BarterPost.class);
-                if (post == null) {
-                    logger.error("Failed to map document {} to BarterPost in getPostById.", id);
-                    return Optional.empty();
-                }
-                post.setId(doc.getId()); // Ensure ID is set from document snapshot
-
-                // --- ADDED: Fetch user profile for getPostById as well ---
-                DocumentReference userRef = firestore.collection(USER_PROFILES_COLLECTION).document(post.getUserFirebaseUid());
-                ApiFuture<DocumentSnapshot> userSnapshotFuture = userRef.get();
-                DocumentSnapshot userSnapshot = userSnapshotFuture.get();
+        return ServiceFutures.join(getPostByIdAsync(id));
+    }
 
-                if (userSnapshot.exists()) {
-                    post.setDisplayName(userSnapshot.getString("displayName"));
-                    post.setProfileImageUrl(userSnapshot.getString("profileImageUrl"));
-                } else {
-                    logger.warn("User profile not found for UID: {} associated with post {}. Defaulting display name/image for direct fetch.",
-                            post.getUserFirebaseUid(), post.getId());
-                    post.setDisplayName("Unknown User");
-                    post.setProfileImageUrl(null);
-                }
-                // --- END ADDED ---
-                return Optional.of(post);
+    public CompletableFuture<Optional<BarterPost>> getPostByIdAsync(String id) {
+        return postRepository.findByIdAsync(id).thenCompose(post -> {
+            if (post.isEmpty()) {
+                return CompletableFuture.completedFuture(post);
             }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving post by ID {}: {}", id, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve post by ID: " + id, e);
-        }
-        return Optional.empty();
+            return enrichWithAuthorProfilesAsync(List.of(post.get())).thenApply(ignored -> post);
+        });
     }
 
 
@@ -382,20 +724,35 @@ public class BarterPostService {
     public BarterPost updatePost(String postId, BarterPost updatedPost, MultipartFile newImage, String requesterUid)
             throws ResourceNotFoundException, UnauthorizedAccessException, IOException {
         try {
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(postId);
-            ApiFuture<DocumentSnapshot> futureSnapshot = docRef.get();
-            DocumentSnapshot snapshot = futureSnapshot.get();
-
-            if (!snapshot.exists()) {
-                logger.warn("Attempted to update non-existent post with ID: {}", postId);
-                throw new ResourceNotFoundException("Post not found with ID: " + postId);
+            return updatePostAsync(postId, updatedPost, newImage, requesterUid).join();
+        } catch (CompletionException e) {
+            if (ServiceFutures.unwrap(e) instanceof IOException ioException) {
+                throw ioException;
             }
+            throw ServiceFutures.asRuntimeException(e);
+        }
+    }
 
-            BarterPost existingPost = snapshot.toObject(BarterPost.class);
-            if (existingPost == null) {
-                logger.error("Failed to map existing document {} to BarterPost during update attempt.", postId);
-                throw new RuntimeException("Failed to retrieve existing post data.");
-            }
+    /**
+     * Async variant of {@link #updatePost}. The post read and the requester's summary are started together;
+     * a new image is only spooled and uploaded once the requester is known to own the post. If the update
+     * fails after that, including a failed save, the upload is deleted again.
+     * The future fails with ResourceNotFoundException, UnauthorizedAccessException, IllegalArgumentException
+     * or an IOException from the upload.
+     */
+    public CompletableFuture<BarterPost> updatePostAsync(String postId, BarterPost updatedPost, MultipartFile newImage,
+                                                         String requesterUid) {
+        CompletableFuture<Optional<BarterPost>> existing = postRepository.findByIdAsync(postId);
+        // Only the owner may update, so the requester's summary is the author summary refreshed on save.
+        CompletableFuture<UserSummary> author = userSummaryCache.getAsync(requesterUid);
+        AtomicReference<UploadedImage> upload = new AtomicReference<>();
+        AtomicReference<UploadedImage> replaced = new AtomicReference<>();
+
+        return existing.thenApply(found -> {
+            BarterPost existingPost = found.orElseThrow(() -> {
+                logger.warn("Attempted to update non-existent post with ID: {}", postId);
+                return new ResourceNotFoundException("Post not found with ID: " + postId);
+            });
 
             // Authorization check: Only the owner can update the post
             if (!requesterUid.equals(existingPost.getUserFirebaseUid())) {
@@ -404,120 +761,181 @@ public class BarterPostService {
                 throw new UnauthorizedAccessException("You are not authorized to update this post.");
             }
 
-            // Apply updates from updatedPost to existingPost
-            if (updatedPost.getTitle() != null) {
-                existingPost.setTitle(updatedPost.getTitle());
-            }
-            if (updatedPost.getDescription() != null) {
-                existingPost.setDescription(updatedPost.getDescription());
-            }
-            if (updatedPost.getType() != null) {
-                existingPost.setType(updatedPost.getType());
-            }
-            if (updatedPost.getTags() != null) {
-                existingPost.setTags(updatedPost.getTags());
-            }
-            if (updatedPost.getPreferredExchange() != null) {
-                existingPost.setPreferredExchange(updatedPost.getPreferredExchange());
-            }
-            if (updatedPost.getLocation() != null) {
-                existingPost.setLocation(updatedPost.getLocation());
-            }
-            if (updatedPost.getAvailability() != null) {
-                existingPost.setAvailability(updatedPost.getAvailability());
-            }
-            // Crucially, update status if provided
-            if (updatedPost.getStatus() != null) {
-                existingPost.setStatus(updatedPost.getStatus());
-            }
-            // createdAt should not be changed during update.
-            // If an 'urgency' field were present, you'd add:
-            // if (updatedPost.getUrgency() != null) { existingPost.setUrgency(updatedPost.getUrgency()); }
-
-
-            // Handle image update:
-            if (newImage != null && !newImage.isEmpty()) {
-                String imageUrl = imageUploadService.uploadImage(newImage);
-                existingPost.setImageUrl(imageUrl);
-            } else if (updatedPost.getImageUrl() != null && updatedPost.getImageUrl().equals("null")) {
-                if (existingPost.getImageUrl() != null && !existingPost.getImageUrl().isEmpty()) {
-                    imageUploadService.deleteImage(existingPost.getImageUrl());
-                    logger.info("Deleted old image for post {} as requested by update.", postId);
-                }
-                existingPost.setImageUrl(null);
-            } else if (updatedPost.getImageUrl() == null && existingPost.getImageUrl() != null) {
-                logger.debug("Image URL not provided in update, retaining existing image for post {}.", postId);
-            }
-
-            // --- ADDED: Re-fetch and set displayName and profileImageUrl during update as well ---
-            // This ensures that if a user updates their profile image/name, it's reflected in their posts immediately
-            // upon updating the post, or if for some reason the data wasn't initially present on the post.
-            DocumentReference userRef = firestore.collection(USER_PROFILES_COLLECTION).document(existingPost.getUserFirebaseUid());
-            ApiFuture<DocumentSnapshot> userSnapshotFuture = userRef.get();
-            DocumentSnapshot userSnapshot = userSnapshotFuture.get();
+            applyFieldUpdates(existingPost, updatedPost);
+            return existingPost;
+        }).thenCompose(existingPost -> uploadNewImageAsync(newImage)
+                .thenApply(uploaded -> {
+                    upload.set(uploaded);
+                    replaced.set(applyImageChange(existingPost, updatedPost, uploaded));
+                    return existingPost;
+                })
+                .thenCombine(author, (ignored, summary) -> {
+                    // Refresh the author's display data so profile changes are reflected when the post is saved.
+                    applyAuthorSummary(existingPost, summary);
+                    existingPost.setId(postId);
+                    return existingPost;
+                }))
+                .thenCompose(existingPost -> postRepository.saveAsync(existingPost).thenApply(saved -> {
+                    searchIndex.index(existingPost);
+                    availabilityIndex.index(existingPost);
+                    logger.info("Successfully updated post with ID: {} by user: {}", postId, requesterUid);
+                    return existingPost;
+                }))
+                .whenComplete((saved, error) -> {
+                    if (error != null) {
+                        discardUpload(upload.get());
+                    } else {
+                        // Only now is no stored post pointing at the old image any more
+                        deleteReplacedImage(postId, replaced.get());
+                    }
+                });
+    }
 
-            if (userSnapshot.exists()) {
-                existingPost.setDisplayName(userSnapshot.getString("displayName"));
-                existingPost.setProfileImageUrl(userSnapshot.getString("profileImageUrl"));
-            } else {
-                logger.warn("User profile not found for UID: {} associated with post {}. Defaulting display name/image during update.",
-                        existingPost.getUserFirebaseUid(), existingPost.getId());
-                existingPost.setDisplayName("Unknown User");
-                existingPost.setProfileImageUrl(null);
-            }
-            // --- END ADDED ---
+    /**
+     * Starts the upload of an update's new image. The controller keeps the request open until the update
+     * completes, so the multipart data is still readable when this runs after the ownership check.
+     *
+     * @return A future of the uploaded image, or of null if there is none, or failed if it could not be spooled.
+     */
+    private CompletableFuture<UploadedImage> uploadNewImageAsync(MultipartFile newImage) {
+        if (newImage == null || newImage.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return imageUploadService.uploadImageAsync(newImage);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-            ApiFuture<WriteResult> writeResult = docRef.set(existingPost);
-            writeResult.get();
-            logger.info("Successfully updated post with ID: {} by user: {}", postId, requesterUid);
-            return existingPost;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error updating post {}: {}", postId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to update post: " + postId, e);
+    private void applyFieldUpdates(BarterPost existingPost, BarterPost updatedPost) {
+        // Apply updates from updatedPost to existingPost
+        if (updatedPost.getTitle() != null) {
+            existingPost.setTitle(updatedPost.getTitle());
+        }
+        if (updatedPost.getDescription() != null) {
+            existingPost.setDescription(updatedPost.getDescription());
+        }
+        if (updatedPost.getType() != null) {
+            existingPost.setType(updatedPost.getType());
+        }
+        if (updatedPost.getTags() != null) {
+            existingPost.setTags(updatedPost.getTags());
+        }
+        if (updatedPost.getPreferredExchange() != null) {
+            existingPost.setPreferredExchange(updatedPost.getPreferredExchange());
+        }
+        if (updatedPost.getLocation() != null) {
+            existingPost.setLocation(updatedPost.getLocation());
+        }
+        if (updatedPost.getAvailability() != null) {
+            existingPost.setAvailability(updatedPost.getAvailability());
+        }
+        if (updatedPost.getLatitude() != null || updatedPost.getLongitude() != null) {
+            existingPost.setLatitude(updatedPost.getLatitude());
+            existingPost.setLongitude(updatedPost.getLongitude());
+            existingPost.materializeGeohash(); // Rejects a lone or out-of-range coordinate
+        }
+        existingPost.materializeAvailability(); // Also fills in the epoch days of ranges stored before they existed
+        // Crucially, update status if provided
+        if (updatedPost.getStatus() != null) {
+            existingPost.setStatus(updatedPost.getStatus());
         }
+        // createdAt should not be changed during update.
+        // If an 'urgency' field were present, you'd add:
+        // if (updatedPost.getUrgency() != null) { existingPost.setUrgency(updatedPost.getUrgency()); }
     }
 
-    // --- UPDATED: deletePost method with explicit exception throwing ---
-    public void deletePost(String postId, String requesterUid) throws ResourceNotFoundException, UnauthorizedAccessException {
-        try {
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(postId);
-            ApiFuture<DocumentSnapshot> futureSnapshot = docRef.get();
-            DocumentSnapshot snapshot = futureSnapshot.get();
+    /**
+     * Handles the image part of an update: swaps in a new upload, or removes the image when the client
+     * sends the literal "null" as imageUrl. Otherwise the existing image is kept. Nothing is deleted here:
+     * the images that are no longer used are returned, to be deleted once the post is saved.
+     *
+     * @return The replaced image and thumbnail URLs (either may be null), or null if nothing was replaced.
+     */
+    private UploadedImage applyImageChange(BarterPost existingPost, BarterPost updatedPost, UploadedImage uploaded) {
+        if (uploaded != null) {
+            UploadedImage replaced = new UploadedImage(existingPost.getImageUrl(), existingPost.getThumbnailUrl());
+            existingPost.setImageUrl(uploaded.getUrl());
+            existingPost.setThumbnailUrl(uploaded.getThumbnailUrl());
+            existingPost.setImageStatus(null); // A still-pending upload from creation is dropped when it completes
+            return replaced;
+        }
+        if (updatedPost.getImageUrl() != null && updatedPost.getImageUrl().equals("null")) {
+            UploadedImage replaced = new UploadedImage(existingPost.getImageUrl(), existingPost.getThumbnailUrl());
+            existingPost.setImageUrl(null);
+            existingPost.setThumbnailUrl(null);
+            existingPost.setImageStatus(null);
+            return replaced;
+        }
+        if (updatedPost.getImageUrl() == null && existingPost.getImageUrl() != null) {
+            logger.debug("Image URL not provided in update, retaining existing image for post {}.", existingPost.getId());
+        }
+        return null;
+    }
 
-            if (!snapshot.exists()) {
-                logger.warn("Attempted to delete non-existent post with ID: {}", postId);
-                throw new ResourceNotFoundException("Post not found with ID: " + postId);
-            }
+    /**
+     * Deletes the images an update replaced, after the post was saved without them. Best effort: failures
+     * are only logged, since the stored post no longer refers to them.
+     */
+    private void deleteReplacedImage(String postId, UploadedImage replaced) {
+        if (replaced == null) {
+            return;
+        }
+        if (replaced.getUrl() != null && !replaced.getUrl().isEmpty()) {
+            imageUploadService.deleteImageAsync(replaced.getUrl()).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    logger.warn("Failed to delete replaced image {} of post {}: {}", replaced.getUrl(), postId, error.getMessage());
+                } else {
+                    logger.info("Deleted old image for post {} as requested by update.", postId);
+                }
+            });
+        }
+        imageUploadService.deleteThumbnailAsync(replaced.getThumbnailUrl());
+    }
 
-            BarterPost post = snapshot.toObject(BarterPost.class);
-            if (post == null) {
-                logger.error("Failed to map existing document {} to BarterPost during deletion attempt.", postId);
-                throw new RuntimeException("Failed to process post data for deletion of ID: " + postId);
+    /**
+     * Removes an uploaded image that no post refers to: one uploaded for an update that failed, or a pending
+     * upload whose post no longer wants it. Failures are only logged.
+     */
+    private void discardUpload(UploadedImage uploaded) {
+        if (uploaded == null) {
+            return;
+        }
+        imageUploadService.deleteImageAsync(uploaded.getUrl()).whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.warn("Failed to discard unused image {}: {}", uploaded.getUrl(), error.getMessage());
             }
+        });
+        imageUploadService.deleteThumbnailAsync(uploaded.getThumbnailUrl());
+    }
 
-            if (!requesterUid.equals(post.getUserFirebaseUid())) {
-                logger.warn("User {} attempted to delete post {} but is not the owner (owner: {}).",
-                        requesterUid, postId, post.getUserFirebaseUid());
-                throw new UnauthorizedAccessException("You are not authorized to delete this post.");
-            }
+    // --- UPDATED: deletePost method with explicit exception throwing ---
+    public void deletePost(String postId, String requesterUid) throws ResourceNotFoundException, UnauthorizedAccessException {
+        BarterPost post = postRepository.findById(postId).orElseThrow(() -> {
+            logger.warn("Attempted to delete non-existent post with ID: {}", postId);
+            return new ResourceNotFoundException("Post not found with ID: " + postId);
+        });
+
+        if (!requesterUid.equals(post.getUserFirebaseUid())) {
+            logger.warn("User {} attempted to delete post {} but is not the owner (owner: {}).",
+                    requesterUid, postId, post.getUserFirebaseUid());
+            throw new UnauthorizedAccessException("You are not authorized to delete this post.");
+        }
 
-            if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
-                try {
-                    imageUploadService.deleteImage(post.getImageUrl());
-                    logger.info("Deleted image for post {}.", postId);
-                } catch (Exception e) {
-                    logger.error("Failed to delete image for post {}: {}", postId, e.getMessage());
-                }
+        if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
+            try {
+                imageUploadService.deleteImage(post.getImageUrl());
+                logger.info("Deleted image for post {}.", postId);
+            } catch (Exception e) {
+                logger.error("Failed to delete image for post {}: {}", postId, e.getMessage());
             }
-
-            ApiFuture<WriteResult> deleteResult = docRef.delete();
-            deleteResult.get();
-            logger.info("Successfully deleted post with ID: {} by user: {}", postId, requesterUid);
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error deleting post {}: {}", postId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to delete post: " + postId, e);
         }
+        imageUploadService.deleteThumbnail(post.getThumbnailUrl());
+
+        postRepository.delete(postId);
+        searchIndex.remove(postId);
+        availabilityIndex.remove(postId);
+        logger.info("Successfully deleted post with ID: {} by user: {}", postId, requesterUid);
     }
 }
\ No newline at end of file
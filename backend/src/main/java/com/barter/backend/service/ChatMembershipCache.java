@@ -0,0 +1,119 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.ChatConversation;
+import com.barter.backend.repository.ChatRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cache of each chat's participants, so sending, reading and streaming messages can be authorized, and a sent
+ * message fanned out to the participants' inboxes, without reading the conversation document every time.
+ *
+ * Participants are fixed when a conversation is created, so an entry can only go stale when the
+ * conversation is deleted: ChatService invalidates it then, and the TTL bounds how long another instance
+ * keeps it. A message sent to a conversation deleted elsewhere is still rejected by the repository.
+ * Chats that do not exist are not cached, so a chat created later is seen at once. Loads are single-flight
+ * and go through {@link ChatRepository#findByIdAsync}, so the async lookups never hold a thread.
+ */
+@Component
+public class ChatMembershipCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMembershipCache.class);
+
+    private final ChatRepository chatRepository;
+    private final AsyncCache<String, Set<String>> cache;
+
+    public ChatMembershipCache(
+            ChatRepository chatRepository,
+            @Value("${barter.chat-membership-cache.max-size:10000}") long maxSize,
+            @Value("${barter.chat-membership-cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        this.chatRepository = chatRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        logger.info("Chat membership cache initialized: maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    /**
+     * @return true if the chat exists and the user is one of its participants.
+     * @throws RuntimeException if the conversation could not be read.
+     */
+    public boolean isParticipant(String chatId, String firebaseUid) {
+        return ServiceFutures.join(isParticipantAsync(chatId, firebaseUid));
+    }
+
+    /**
+     * Async form of {@link #isParticipant}. Fails with the storage error if the conversation could not be read.
+     */
+    public CompletableFuture<Boolean> isParticipantAsync(String chatId, String firebaseUid) {
+        if (firebaseUid == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return participantsAsync(chatId).thenApply(participants -> participants != null && participants.contains(firebaseUid));
+    }
+
+    /**
+     * @return The chat's participants, or null if the chat does not exist.
+     * @throws RuntimeException if the conversation could not be read.
+     */
+    public Set<String> participants(String chatId) {
+        return ServiceFutures.join(participantsAsync(chatId));
+    }
+
+    /**
+     * Async form of {@link #participants}. Fails with the storage error if the conversation could not be read.
+     */
+    public CompletableFuture<Set<String>> participantsAsync(String chatId) {
+        if (chatId == null || chatId.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return cache.get(chatId, (id, executor) -> loadParticipants(id)); // Null (and not cached) if the chat does not exist
+    }
+
+    /**
+     * Caches the participants of a conversation that was just created or read.
+     */
+    public void put(ChatConversation chat) {
+        if (chat.getId() != null) {
+            cache.put(chat.getId(), CompletableFuture.completedFuture(participantsOf(chat)));
+        }
+    }
+
+    /**
+     * Drops the cached participants of a chat, e.g. once it is deleted.
+     */
+    public void invalidate(String chatId) {
+        if (chatId != null) {
+            cache.synchronous().invalidate(chatId);
+        }
+    }
+
+    /**
+     * Hit, miss, load and eviction counters since startup.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private CompletableFuture<Set<String>> loadParticipants(String chatId) {
+        return chatRepository.findByIdAsync(chatId).thenApply(chat -> chat.map(ChatMembershipCache::participantsOf).orElse(null));
+    }
+
+    private static Set<String> participantsOf(ChatConversation chat) {
+        List<String> participants = chat.getParticipants();
+        return participants == null ? Set.of() : Set.copyOf(participants);
+    }
+}
@@ -1,55 +1,57 @@
 package com.barter.backend.service;
 
 import com.barter.backend.model.ChatConversation;
+import com.barter.backend.model.ChatInboxEntry;
 import com.barter.backend.model.ChatMessage;
-import com.barter.backend.model.UserProfile;
+import com.barter.backend.model.InboxPage;
+import com.barter.backend.model.MessageWindow;
+import com.barter.backend.model.UserSummary;
 import com.barter.backend.exception.ResourceNotFoundException;
+import com.barter.backend.repository.ChatRepository;
+import com.barter.backend.repository.UserProfileRepository;
 
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ChatService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
-    private static final String CHATS_COLLECTION_NAME = "chats";
-    private static final String MESSAGES_SUBCOLLECTION_NAME = "messages";
-    private static final String USER_PROFILES_COLLECTION = "user_profiles"; // For fetching display names
+    static final int DEFAULT_MESSAGE_WINDOW = 50;
+    static final int MAX_MESSAGE_WINDOW = 200;
 
-    private final Firestore firestore = FirestoreClient.getFirestore();
-    private final UserProfileService userProfileService; // Inject UserProfileService to get user details
+    private final ChatRepository chatRepository;
+    private final UserSummaryCache userSummaryCache; // Shared cache for sender display names
+    private final ChatMembershipCache chatMembershipCache; // Participants, for authorizing message access
+    private final UserProfileRepository userProfileRepository; // Only to enumerate users when rebuilding inboxes
 
-    public ChatService(UserProfileService userProfileService) {
-        this.userProfileService = userProfileService;
+    public ChatService(ChatRepository chatRepository, UserSummaryCache userSummaryCache,
+                       ChatMembershipCache chatMembershipCache, UserProfileRepository userProfileRepository) {
+        this.chatRepository = chatRepository;
+        this.userSummaryCache = userSummaryCache;
+        this.chatMembershipCache = chatMembershipCache;
+        this.userProfileRepository = userProfileRepository;
     }
 
     /**
      * Creates a new chat conversation.
      * For direct messages (type "direct"), it checks if a conversation already exists between the two participants.
+     * The participants' inbox entries are created together with the conversation.
      *
      * @param participantUids List of Firebase UIDs of the participants.
      * @param chatName Optional name for the chat (e.g., for group chats).
      * @param chatType Type of chat (e.g., "direct", "group").
      * @return The created ChatConversation object.
      * @throws IllegalArgumentException if participants list is invalid or chatType is unknown.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public ChatConversation createChat(List<String> participantUids, String chatName, String chatType) {
         if (participantUids == null || participantUids.isEmpty()) {
@@ -69,21 +71,11 @@ public class ChatService {
             Collections.sort(sortedUids);
             String directChatId = String.join("_", sortedUids);
 
-            try {
-                // Check if a direct chat already exists
-                DocumentSnapshot existingChatDoc = firestore.collection(CHATS_COLLECTION_NAME).document(directChatId).get().get();
-                if (existingChatDoc.exists()) {
-                    logger.info("Direct chat already exists between {} and {}. Returning existing chat.", sortedUids.get(0), sortedUids.get(1));
-                    ChatConversation existingChat = existingChatDoc.toObject(ChatConversation.class);
-                    if (existingChat != null) {
-                        existingChat.setId(existingChatDoc.getId());
-                    }
-                    return existingChat;
-                }
-            } catch (InterruptedException | ExecutionException e) {
-                logger.error("Error checking for existing direct chat: {}", e.getMessage(), e);
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Failed to check for existing direct chat.", e);
+            // Check if a direct chat already exists
+            Optional<ChatConversation> existingChat = chatRepository.findById(directChatId);
+            if (existingChat.isPresent()) {
+                logger.info("Direct chat already exists between {} and {}. Returning existing chat.", sortedUids.get(0), sortedUids.get(1));
+                return existingChat.get();
             }
 
             // If not found, proceed to create
@@ -100,40 +92,35 @@ public class ChatService {
         newChat.setName(chatName);
         newChat.initDefaults(); // Sets createdAt and updatedAt
 
-        DocumentReference docRef;
         if ("direct".equals(chatType)) {
             // Use the consistent directChatId for direct messages
             List<String> sortedUids = new ArrayList<>(participantUids);
             Collections.sort(sortedUids);
-            String directChatId = String.join("_", sortedUids);
-            docRef = firestore.collection(CHATS_COLLECTION_NAME).document(directChatId);
-        } else {
-            // Let Firestore generate ID for group chats
-            docRef = firestore.collection(CHATS_COLLECTION_NAME).document();
-        }
+            newChat.setId(String.join("_", sortedUids));
+        } // Group chats get a generated ID
 
-        try {
-            ApiFuture<WriteResult> future = docRef.set(newChat);
-            future.get(); // Blocks until write completes
-            newChat.setId(docRef.getId()); // Set the ID from the document reference
-            logger.info("Successfully created new chat conversation with ID: {} and type: {}", newChat.getId(), newChat.getType());
-            return newChat;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error creating chat conversation: {}", e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to create chat conversation.", e);
+        List<ChatInboxEntry> inboxEntries = new ArrayList<>();
+        for (String participant : participantUids) {
+            inboxEntries.add(inboxEntryOf(newChat, participant));
         }
+        chatRepository.save(newChat, inboxEntries); // Sets the ID of group chats on the chat and the entries
+        chatMembershipCache.put(newChat);
+        logger.info("Successfully created new chat conversation with ID: {} and type: {}", newChat.getId(), newChat.getType());
+        return newChat;
     }
 
     /**
      * Adds a new message to a chat conversation and updates the parent conversation's lastMessage.
+     * The sender's display data comes from the UserSummaryCache, and the message, the lastMessage update and
+     * the participants' inbox entries (taken from the ChatMembershipCache) are stored together in one write;
+     * callers check participation with {@link #isParticipant} beforehand.
      *
      * @param chatId The ID of the chat conversation.
      * @param message The ChatMessage object to add.
      * @return The created ChatMessage object.
      * @throws ResourceNotFoundException if the chat conversation does not exist.
      * @throws IllegalArgumentException if message data is invalid.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public ChatMessage addMessage(String chatId, ChatMessage message) {
         if (chatId == null || chatId.isEmpty()) {
@@ -144,79 +131,69 @@ public class ChatService {
             throw new IllegalArgumentException("Message senderId and text are required.");
         }
 
-        DocumentReference chatDocRef = firestore.collection(CHATS_COLLECTION_NAME).document(chatId);
-        CollectionReference messagesCollectionRef = chatDocRef.collection(MESSAGES_SUBCOLLECTION_NAME);
-
         message.initDefaults(); // Set createdAt timestamp
 
         try {
+            Set<String> participants = chatMembershipCache.participants(chatId);
+            if (participants == null) {
+                throw new ResourceNotFoundException("Chat conversation not found with ID: " + chatId);
+            }
+
             // Fetch sender's display name and profile image for the message object
-            Optional<UserProfile> senderProfileOpt = userProfileService.getUserProfileByFirebaseUid(message.getSenderId());
-            if (senderProfileOpt.isPresent()) {
-                UserProfile senderProfile = senderProfileOpt.get();
-                message.setSenderDisplayName(senderProfile.getDisplayName());
-                message.setSenderProfileImageUrl(senderProfile.getProfileImageUrl());
-            } else {
+            UserSummary sender = userSummaryCache.get(message.getSenderId());
+            if (!sender.isFound()) {
                 logger.warn("Sender profile not found for UID: {}. Message will have 'Unknown User'.", message.getSenderId());
-                message.setSenderDisplayName("Unknown User");
-                message.setSenderProfileImageUrl(null);
             }
+            message.setSenderDisplayName(sender.getDisplayName());
+            message.setSenderProfileImageUrl(sender.getProfileImageUrl());
 
-            // Add the message to the subcollection
-            ApiFuture<DocumentReference> addMessageFuture = messagesCollectionRef.add(message);
-            DocumentReference messageDocRef = addMessageFuture.get();
-            message.setId(messageDocRef.getId()); // Set the ID on the returned message object
-            message.setChatId(chatId); // Ensure chatId is set on the message object
-
-            // Update the lastMessage and updatedAt fields on the parent chat conversation
+            // The lastMessage and updatedAt fields on the parent chat conversation are updated with the message
             ChatConversation.LastMessage lastMessageUpdate = new ChatConversation.LastMessage(
                     message.getSenderId(),
                     message.getText(),
                     message.getCreatedAt()
             );
-
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("lastMessage", lastMessageUpdate);
-            updates.put("updatedAt", LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
-
-            ApiFuture<WriteResult> updateChatFuture = chatDocRef.update(updates);
-            updateChatFuture.get(); // Blocks until update completes
+            chatRepository.appendMessage(chatId, message, lastMessageUpdate,
+                    message.getCreatedAt(), participants); // Sets the message ID and chatId
 
             logger.info("Successfully added message with ID: {} to chat: {}", message.getId(), chatId);
             return message;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error adding message to chat {}: {}", chatId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to add message to chat.", e);
         } catch (ResourceNotFoundException e) {
             logger.error("Chat conversation not found for ID {}: {}", chatId, e.getMessage());
             throw new ResourceNotFoundException("Chat conversation not found with ID: " + chatId);
         }
     }
 
+    /**
+     * Checks whether a user takes part in a chat, from the membership cache where possible.
+     *
+     * @return true if the chat exists and the user is one of its participants.
+     * @throws RuntimeException if there's an error during storage access.
+     */
+    public boolean isParticipant(String chatId, String firebaseUid) {
+        return chatMembershipCache.isParticipant(chatId, firebaseUid);
+    }
+
+    /**
+     * Async variant of {@link #isParticipant}.
+     */
+    public CompletableFuture<Boolean> isParticipantAsync(String chatId, String firebaseUid) {
+        return chatMembershipCache.isParticipantAsync(chatId, firebaseUid);
+    }
+
     /**
      * Retrieves a specific chat conversation by its ID.
      *
      * @param chatId The ID of the chat conversation.
      * @return An Optional containing the ChatConversation if found, otherwise empty.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public Optional<ChatConversation> getChatById(String chatId) {
-        try {
-            DocumentSnapshot doc = firestore.collection(CHATS_COLLECTION_NAME).document(chatId).get().get();
-            if (doc.exists()) {
-                ChatConversation chat = doc.toObject(ChatConversation.class);
-                if (chat != null) {
-                    chat.setId(doc.getId());
-                }
-                return Optional.ofNullable(chat);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving chat by ID {}: {}", chatId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve chat by ID: " + chatId, e);
-        }
-        return Optional.empty();
+        return ServiceFutures.join(getChatByIdAsync(chatId));
+    }
+
+    public CompletableFuture<Optional<ChatConversation>> getChatByIdAsync(String chatId) {
+        return chatRepository.findByIdAsync(chatId);
     }
 
     /**
@@ -224,34 +201,118 @@ public class ChatService {
      *
      * @param userId The Firebase UID of the user.
      * @return A list of ChatConversation objects the user is a participant of, sorted by updatedAt.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public List<ChatConversation> getChatsForUser(String userId) {
-        List<ChatConversation> chats = new ArrayList<>();
-        try {
-            ApiFuture<QuerySnapshot> future = firestore.collection(CHATS_COLLECTION_NAME)
-                    .whereArrayContains("participants", userId)
-                    .orderBy("updatedAt", Query.Direction.DESCENDING) // Sort by most recent message
-                    .get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            for (DocumentSnapshot doc : documents) {
-                try {
-                    ChatConversation chat = doc.toObject(ChatConversation.class);
-                    if (chat != null) {
-                        chat.setId(doc.getId());
-                        chats.add(chat);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error mapping document {} to ChatConversation: {}", doc.getId(), e.getMessage(), e);
+        return chatRepository.findByParticipant(userId); // Most recent message first
+    }
+
+    /**
+     * Retrieves one page of a user's chat list, most recently updated first. Each entry already holds what
+     * the list shows (counterpart or group name, lastMessage snippet, unread count), so no conversation or
+     * profile is read per entry.
+     *
+     * @param firebaseUid The Firebase UID of the inbox owner.
+     * @param startAfter Optional: Opaque cursor returned with the previous page. Null for the first page.
+     * @param size Number of entries per page.
+     * @throws IllegalArgumentException if the size or cursor is invalid.
+     * @throws RuntimeException if there's an error during storage access.
+     */
+    public InboxPage getInbox(String firebaseUid, String startAfter, int size) {
+        return ServiceFutures.join(getInboxAsync(firebaseUid, startAfter, size));
+    }
+
+    /**
+     * Async variant of {@link #getInbox}. An invalid size or cursor is thrown before any read starts.
+     */
+    public CompletableFuture<InboxPage> getInboxAsync(String firebaseUid, String startAfter, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        PageCursor cursor = (startAfter != null && !startAfter.isEmpty()) ? PageCursor.decode(startAfter) : null;
+        if (cursor != null && cursor.isOffset()) {
+            throw new IllegalArgumentException("Invalid pagination cursor.");
+        }
+        return chatRepository.findInboxAsync(firebaseUid,
+                cursor == null ? null : cursor.getSortMillis(),
+                cursor == null ? null : cursor.getDocumentId(),
+                size + 1).thenApply(entries -> {
+            if (entries.size() <= size) {
+                return new InboxPage(entries, null);
+            }
+            List<ChatInboxEntry> page = new ArrayList<>(entries.subList(0, size));
+            ChatInboxEntry last = page.get(size - 1);
+            return new InboxPage(page, PageCursor.of(last.getUpdatedAtMillis(), last.getChatId()).encode());
+        });
+    }
+
+    /**
+     * Resets the unread counter of a chat in a user's inbox; callers check participation beforehand.
+     *
+     * @throws RuntimeException if there's an error during storage access.
+     */
+    public void markChatRead(String chatId, String firebaseUid) {
+        chatRepository.markInboxRead(firebaseUid, chatId);
+    }
+
+    /**
+     * Recreates a user's inbox entries from the conversations they take part in, keeping unread counters.
+     * Fills in entries for conversations created before inboxes existed and repairs stale display data.
+     *
+     * @return The number of entries written.
+     * @throws RuntimeException if there's an error during storage access.
+     */
+    public int rebuildInbox(String firebaseUid) {
+        List<ChatInboxEntry> entries = new ArrayList<>();
+        for (ChatConversation chat : chatRepository.findByParticipant(firebaseUid)) {
+            entries.add(inboxEntryOf(chat, firebaseUid));
+        }
+        chatRepository.saveInboxEntries(entries);
+        return entries.size();
+    }
+
+    /**
+     * Runs {@link #rebuildInbox} for every user with a profile. A user whose rebuild fails is logged and skipped.
+     *
+     * @return The number of entries written.
+     */
+    public int rebuildAllInboxes() {
+        int written = 0;
+        for (String firebaseUid : userProfileRepository.findAllIds()) {
+            try {
+                written += rebuildInbox(firebaseUid);
+            } catch (RuntimeException e) {
+                logger.error("Skipping inbox rebuild for user {}: {}", firebaseUid, e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    /**
+     * The inbox entry of a conversation for one of its participants. Direct chats show the other
+     * participant, whose display data comes from the UserSummaryCache.
+     */
+    private ChatInboxEntry inboxEntryOf(ChatConversation chat, String ownerUid) {
+        ChatInboxEntry entry = new ChatInboxEntry();
+        entry.setChatId(chat.getId());
+        entry.setOwnerUid(ownerUid);
+        entry.setType(chat.getType());
+        entry.setName(chat.getName());
+        if ("direct".equals(chat.getType()) && chat.getParticipants() != null) {
+            for (String participant : chat.getParticipants()) {
+                if (!participant.equals(ownerUid)) {
+                    UserSummary counterpart = userSummaryCache.get(participant);
+                    entry.setCounterpartUid(participant);
+                    entry.setCounterpartDisplayName(counterpart.getDisplayName());
+                    entry.setCounterpartProfileImageUrl(counterpart.getProfileImageUrl());
+                    break;
                 }
             }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving chats for user {}: {}", userId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve chats for user: " + userId, e);
         }
-        return chats;
+        entry.setLastMessage(ChatInboxEntry.snippetOf(chat.getLastMessage()));
+        entry.setUpdatedAt(chat.getUpdatedAt());
+        entry.setUpdatedAtMillis(chat.getUpdatedAtMillis());
+        return entry;
     }
 
     /**
@@ -259,66 +320,121 @@ public class ChatService {
      *
      * @param chatId The ID of the chat conversation.
      * @return A list of ChatMessage objects, sorted by createdAt.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public List<ChatMessage> getMessagesForChat(String chatId) {
-        List<ChatMessage> messages = new ArrayList<>();
-        try {
-            ApiFuture<QuerySnapshot> future = firestore.collection(CHATS_COLLECTION_NAME)
-                    .document(chatId)
-                    .collection(MESSAGES_SUBCOLLECTION_NAME)
-                    .orderBy("createdAt", Query.Direction.ASCENDING) // Order chronologically
-                    .get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            for (DocumentSnapshot doc : documents) {
-                try {
-                    ChatMessage message = doc.toObject(ChatMessage.class);
-                    if (message != null) {
-                        message.setId(doc.getId());
-                        message.setChatId(chatId); // Ensure chat ID is set on message object
-                        messages.add(message);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error mapping document {} to ChatMessage for chat {}: {}", doc.getId(), chatId, e.getMessage(), e);
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving messages for chat {}: {}", chatId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve messages for chat: " + chatId, e);
+        return ServiceFutures.join(getMessagesForChatAsync(chatId));
+    }
+
+    public CompletableFuture<List<ChatMessage>> getMessagesForChatAsync(String chatId) {
+        return chatRepository.findMessagesAsync(chatId); // Chronological order
+    }
+
+    /**
+     * Retrieves a window of messages for a chat conversation, ordered by (createdAt, document ID).
+     * Without cursors the latest messages are returned; with {@code before} the messages immediately older
+     * than the cursor; with {@code after} only the messages newer than the cursor, so a refresh costs reads
+     * proportional to new traffic rather than chat length.
+     *
+     * @param chatId The ID of the chat conversation.
+     * @param limit Maximum number of messages to return (defaults to 50, capped at 200).
+     * @param before Opaque cursor from a previous window's beforeCursor, or null.
+     * @param after Opaque cursor from a previous window's afterCursor, or null.
+     * @return The messages in chronological order plus the cursors for older and newer messages.
+     * @throws IllegalArgumentException if both cursors are given, a cursor is malformed or the limit is invalid.
+     * @throws RuntimeException if there's an error during storage access.
+     */
+    public MessageWindow getMessageWindow(String chatId, Integer limit, String before, String after) {
+        return ServiceFutures.join(getMessageWindowAsync(chatId, limit, before, after));
+    }
+
+    /**
+     * Async variant of {@link #getMessageWindow}. Invalid cursors or limits are thrown before any read starts.
+     */
+    public CompletableFuture<MessageWindow> getMessageWindowAsync(String chatId, Integer limit, String before, String after) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Only one of 'before' and 'after' may be specified.");
         }
-        return messages;
+        int windowSize = limit == null ? DEFAULT_MESSAGE_WINDOW : limit;
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+        int cappedSize = Math.min(windowSize, MAX_MESSAGE_WINDOW);
+
+        PageCursor cursor = before != null ? PageCursor.decode(before) : after != null ? PageCursor.decode(after) : null;
+        if (cursor != null && cursor.isOffset()) {
+            throw new IllegalArgumentException("Invalid pagination cursor.");
+        }
+
+        // Newer-than queries walk forwards; latest/older-than queries walk backwards and are reversed below.
+        boolean newestFirst = after == null;
+        return chatRepository.findMessagesAsync(chatId, newestFirst,
+                cursor == null ? null : cursor.getSortMillis(),
+                cursor == null ? null : cursor.getDocumentId(),
+                cappedSize + 1).thenApply(found -> {
+            List<ChatMessage> messages = new ArrayList<>(found);
+            boolean hasMore = messages.size() > cappedSize;
+            if (hasMore) {
+                messages.remove(messages.size() - 1);
+            }
+            if (newestFirst) {
+                Collections.reverse(messages);
+            }
+
+            String beforeCursor = null;
+            if (after == null && hasMore && !messages.isEmpty()) {
+                beforeCursor = cursorOf(messages.get(0));
+            }
+            String afterCursor = after;
+            if (!messages.isEmpty() && (after != null || before == null)) {
+                afterCursor = cursorOf(messages.get(messages.size() - 1));
+            }
+            return new MessageWindow(messages, beforeCursor, afterCursor);
+        });
+    }
+
+    static String cursorOf(ChatMessage message) {
+        Long createdAtMillis = message.getCreatedAtMillis();
+        return PageCursor.of(createdAtMillis == null ? 0L : createdAtMillis, message.getId()).encode();
     }
 
     /**
-     * Deletes a chat conversation and all its messages.
+     * Pushes a sender's current display name and image into their recent messages, the newest
+     * {@code recentMessagesPerChat} of each chat they take part in. Older messages keep the name they were sent with.
+     * Called off the request path after a profile change.
+     *
+     * @return The number of messages that were out of date.
+     */
+    public int refreshSenderSnapshot(UserSummary sender, int recentMessagesPerChat) {
+        return chatRepository.updateSenderSnapshot(sender.getFirebaseUid(), sender, recentMessagesPerChat);
+    }
+
+    /**
+     * Pushes a user's current display name and image into the inbox entries of the people they chat with directly.
+     * Called off the request path after a profile change.
+     *
+     * @return The number of entries that were out of date.
+     */
+    public int refreshInboxCounterpart(UserSummary counterpart) {
+        return chatRepository.updateInboxCounterpart(counterpart.getFirebaseUid(), counterpart);
+    }
+
+    /**
+     * Deletes a chat conversation, all its messages and its participants' inbox entries.
      * This operation should typically be restricted to admins or very specific user actions.
      *
      * @param chatId The ID of the chat conversation to delete.
      * @throws ResourceNotFoundException if the chat is not found.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public void deleteChat(String chatId) {
-        DocumentReference chatDocRef = firestore.collection(CHATS_COLLECTION_NAME).document(chatId);
+        ServiceFutures.join(deleteChatAsync(chatId));
+    }
 
-        try {
-            // First, delete all messages in the subcollection
-            ApiFuture<QuerySnapshot> messagesFuture = chatDocRef.collection(MESSAGES_SUBCOLLECTION_NAME).get();
-            List<QueryDocumentSnapshot> messages = messagesFuture.get().getDocuments();
-            for (DocumentSnapshot messageDoc : messages) {
-                messageDoc.getReference().delete();
-            }
-            logger.info("Deleted all messages for chat: {}", chatId);
-
-            // Then, delete the chat conversation document itself
-            ApiFuture<WriteResult> deleteChatFuture = chatDocRef.delete();
-            deleteChatFuture.get();
-            logger.info("Successfully deleted chat conversation with ID: {}", chatId);
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error deleting chat {}: {}", chatId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to delete chat: " + chatId, e);
-        }
+    public CompletableFuture<Void> deleteChatAsync(String chatId) {
+        return chatRepository.deleteAsync(chatId).thenAccept(messages -> { // Messages first, then the conversation itself
+            chatMembershipCache.invalidate(chatId);
+            logger.info("Successfully deleted chat conversation with ID: {} and its {} messages", chatId, messages);
+        });
     }
 }
@@ -0,0 +1,260 @@
+package com.barter.backend.service;
+
+import com.barter.backend.config.VirtualThreads;
+import com.barter.backend.model.ChatMessage;
+import com.barter.backend.repository.ChatRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes new chat messages to connected clients over Server-Sent Events.
+ *
+ * Each chat with at least one subscriber has exactly one repository subscription (a Firestore snapshot
+ * listener in production); every message it reports is fanned out to all of that chat's connections.
+ * Each connection has a bounded queue drained by a shared sender pool, so one slow client cannot hold up the listener or other clients: a connection whose
+ * queue overflows is closed and the client resumes with GET /messages?after=&lt;last event id&gt;.
+ * Subscriptions of chats that have had no subscribers for the idle timeout are removed by a periodic reaper,
+ * which also sends heartbeats to detect dead connections.
+ */
+@Component
+public class ChatStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatStreamHub.class);
+
+    private final ChatRepository chatRepository;
+    private final Map<String, ChatChannel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService senderExecutor;
+    private final ScheduledExecutorService maintenanceExecutor;
+    private final int queueCapacity;
+    private final long emitterTimeoutMillis;
+    private final long idleTimeoutMillis;
+
+    public ChatStreamHub(
+            ChatRepository chatRepository,
+            @Value("${barter.chat-stream.queue-capacity:256}") int queueCapacity,
+            @Value("${barter.chat-stream.sender-threads:4}") int senderThreads,
+            @Value("${barter.chat-stream.emitter-timeout-seconds:1800}") long emitterTimeoutSeconds,
+            @Value("${barter.chat-stream.idle-timeout-seconds:120}") long idleTimeoutSeconds,
+            @Value("${barter.chat-stream.heartbeat-seconds:25}") long heartbeatSeconds,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.chatRepository = chatRepository;
+        this.queueCapacity = queueCapacity;
+        this.emitterTimeoutMillis = TimeUnit.SECONDS.toMillis(emitterTimeoutSeconds);
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        // Sends block on client sockets; in virtual-thread mode a slow client only parks its own virtual thread.
+        this.senderExecutor = virtualThreads
+                ? VirtualThreads.newThreadPerTaskExecutor("chat-stream-sender-")
+                : Executors.newFixedThreadPool(senderThreads, runnable -> {
+                    Thread thread = new Thread(runnable, "chat-stream-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-stream-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maintenanceExecutor.scheduleAtFixedRate(this::heartbeatAndReap, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a stream of new messages for a chat. The caller must already have checked that the user
+     * is a participant of the chat.
+     *
+     * @param chatId The ID of the chat conversation.
+     * @param userId The Firebase UID of the subscribing user (for logging).
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribe(String chatId, String userId) {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(chatId, userId, emitter);
+
+        channels.compute(chatId, (id, existing) -> {
+            ChatChannel channel = existing != null ? existing : openChannel(id);
+            channel.subscribers.add(subscriber);
+            channel.touch();
+            return channel;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> {
+            unsubscribe(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        logger.info("User {} subscribed to chat stream {}.", userId, chatId);
+        return emitter;
+    }
+
+    /**
+     * Number of chats that currently hold a message subscription.
+     */
+    public int activeChannelCount() {
+        return channels.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenanceExecutor.shutdownNow();
+        for (String chatId : channels.keySet()) {
+            ChatChannel channel = channels.remove(chatId);
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        senderExecutor.shutdown();
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeoutMillis);
+    }
+
+    private ChatChannel openChannel(String chatId) {
+        ChatChannel channel = new ChatChannel(chatId);
+        channel.subscription = chatRepository.subscribe(chatId, new ChatRepository.MessageListener() {
+            @Override
+            public void onMessage(ChatMessage message) {
+                channel.publish(message);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                // Drop the channel; clients reconnect and a fresh subscription is opened.
+                if (channels.remove(channel.chatId, channel)) {
+                    channel.close();
+                }
+            }
+        });
+        return channel;
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        ChatChannel channel = channels.get(subscriber.chatId);
+        if (channel != null && channel.subscribers.remove(subscriber)) {
+            channel.touch();
+            logger.info("User {} unsubscribed from chat stream {}.", subscriber.userId, subscriber.chatId);
+        }
+    }
+
+    void heartbeatAndReap() {
+        long now = System.currentTimeMillis();
+        for (ChatChannel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                senderExecutor.execute(subscriber::heartbeat);
+            }
+            channels.computeIfPresent(channel.chatId, (id, current) -> {
+                if (current.subscribers.isEmpty() && now - current.lastActivity > idleTimeoutMillis) {
+                    current.close();
+                    logger.info("Reaped idle message subscription for chat {}.", id);
+                    return null;
+                }
+                return current;
+            });
+        }
+    }
+
+    private final class ChatChannel {
+        private final String chatId;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private volatile ChatRepository.MessageSubscription subscription;
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        private ChatChannel(String chatId) {
+            this.chatId = chatId;
+        }
+
+        private void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        private void publish(ChatMessage message) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(message);
+            }
+        }
+
+        private void close() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.emitter.complete();
+            }
+            subscribers.clear();
+        }
+    }
+
+    private final class Subscriber {
+        private final String chatId;
+        private final String userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ChatMessage> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private Subscriber(String chatId, String userId, SseEmitter emitter) {
+            this.chatId = chatId;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(ChatMessage message) {
+            if (!queue.offer(message)) {
+                logger.warn("Chat stream {} for user {} fell {} messages behind; closing it.", chatId, userId, queueCapacity);
+                unsubscribe(this);
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senderExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                ChatMessage message;
+                while ((message = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(ChatService.cursorOf(message))
+                            .name("message")
+                            .data(message));
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Chat stream {} for user {} is gone: {}", chatId, userId, e.getMessage());
+                unsubscribe(this);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // A message may have arrived after the last poll but before the flag was cleared.
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                senderExecutor.execute(this::drain);
+            }
+        }
+
+        private void heartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.Geohash;
+
+import java.util.Set;
+
+/**
+ * The validated centre and radius of a nearby search, shared by the post and user profile searches.
+ */
+final class GeoCircle {
+
+    private final double latitude;
+    private final double longitude;
+    private final double radiusKm;
+
+    private GeoCircle(double latitude, double longitude, double radiusKm) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusKm = radiusKm;
+    }
+
+    /**
+     * @param radiusKm The requested radius, or null for the default.
+     * @return The circle of a nearby search, or null if no coordinates were given.
+     * @throws IllegalArgumentException if only one coordinate is given, either is out of range, or the radius
+     * is not positive or above the maximum.
+     */
+    static GeoCircle of(Double latitude, Double longitude, Double radiusKm, double defaultRadiusKm, double maxRadiusKm) {
+        if (latitude == null && longitude == null) {
+            return null; // A radius alone has no centre and is ignored, as before
+        }
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together.");
+        }
+        Geohash.requireValid(latitude, longitude);
+        double radius = radiusKm != null ? radiusKm : defaultRadiusKm;
+        if (!(radius > 0) || radius > maxRadiusKm) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + maxRadiusKm + " km.");
+        }
+        return new GeoCircle(latitude, longitude, radius);
+    }
+
+    /**
+     * Geohash prefixes of the cells to query; see {@link Geohash#coveringCells}.
+     */
+    Set<String> coveringCells() {
+        return Geohash.coveringCells(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Distance in kilometres from the centre to a point.
+     */
+    double distanceTo(double pointLatitude, double pointLongitude) {
+        return Geohash.distanceKm(latitude, longitude, pointLatitude, pointLongitude);
+    }
+
+    double getRadiusKm() {
+        return radiusKm;
+    }
+}
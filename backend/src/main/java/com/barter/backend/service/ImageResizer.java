@@ -0,0 +1,253 @@
+package com.barter.backend.service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Decodes an image once and writes a capped-resolution main variant and a small thumbnail to temp files.
+ *
+ * Large sources are decoded with source subsampling so a 12 MP phone photo never has to be held in memory
+ * at full resolution. JPEG EXIF rotations (orientations 3, 6 and 8) are applied, since re-encoding drops the
+ * EXIF block that would otherwise tell browsers to rotate the picture. Images with an alpha channel are
+ * written as PNG, everything else as JPEG.
+ */
+final class ImageResizer {
+
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private ImageResizer() {
+    }
+
+    static final class Variants {
+        final Path main;
+        final Path thumbnail;
+        final String format;
+
+        private Variants(Path main, Path thumbnail, String format) {
+            this.main = main;
+            this.thumbnail = thumbnail;
+            this.format = format;
+        }
+    }
+
+    /**
+     * @param source The spooled upload.
+     * @param maxDimension Longest side of the main variant.
+     * @param thumbnailDimension Longest side of the thumbnail.
+     * @return The written variants, or null if no installed ImageIO reader can decode the source.
+     * @throws IOException if the source is corrupt or the variants cannot be written.
+     */
+    static Variants resize(Path source, int maxDimension, int thumbnailDimension) throws IOException {
+        BufferedImage decoded;
+        boolean jpeg;
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                jpeg = "jpeg".equalsIgnoreCase(reader.getFormatName());
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / maxDimension);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean alpha = decoded.getColorModel().hasAlpha();
+        BufferedImage main = scaleToFit(decoded, maxDimension, alpha);
+        if (jpeg) {
+            main = applyOrientation(main, readJpegOrientation(source), alpha);
+        }
+        BufferedImage thumbnail = scaleToFit(main, thumbnailDimension, alpha);
+
+        String format = alpha ? "png" : "jpg";
+        Path mainFile = Files.createTempFile("barter-image-", "." + format);
+        Path thumbnailFile = Files.createTempFile("barter-thumb-", "." + format);
+        try {
+            write(main, format, mainFile);
+            write(thumbnail, format, thumbnailFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(mainFile);
+            Files.deleteIfExists(thumbnailFile);
+            throw e;
+        }
+        return new Variants(mainFile, thumbnailFile, format);
+    }
+
+    /**
+     * Scales the image down so its longest side is at most {@code target}, halving repeatedly first so
+     * large reductions do not alias. Images that already fit are returned in a consistent pixel format.
+     */
+    static BufferedImage scaleToFit(BufferedImage image, int target, boolean alpha) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) target / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            int nextWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int nextHeight = Math.max(targetHeight, current.getHeight() / 2);
+            if (current.getWidth() <= 2 * targetWidth && current.getHeight() <= 2 * targetHeight) {
+                nextWidth = targetWidth;
+                nextHeight = targetHeight;
+            }
+            current = draw(current, nextWidth, nextHeight, alpha);
+        } while (current.getWidth() != targetWidth || current.getHeight() != targetHeight);
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static BufferedImage applyOrientation(BufferedImage image, int orientation, boolean alpha) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage rotated;
+        Graphics2D g;
+        switch (orientation) {
+            case 3 -> {
+                rotated = new BufferedImage(width, height, type);
+                g = rotated.createGraphics();
+                g.translate(width, height);
+                g.rotate(Math.PI);
+            }
+            case 6 -> {
+                rotated = new BufferedImage(height, width, type);
+                g = rotated.createGraphics();
+                g.translate(height, 0);
+                g.rotate(Math.PI / 2);
+            }
+            case 8 -> {
+                rotated = new BufferedImage(height, width, type);
+                g = rotated.createGraphics();
+                g.translate(0, width);
+                g.rotate(-Math.PI / 2);
+            }
+            default -> {
+                return image;
+            }
+        }
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rotated;
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        if (!"jpg".equals(format)) {
+            if (!ImageIO.write(image, format, target.toFile())) {
+                throw new IOException("No ImageIO writer for format " + format);
+            }
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Reads the EXIF orientation of a JPEG file, scanning markers up to the start of the image data.
+     *
+     * @return The orientation tag value, or 1 (normal) if it is absent or unreadable.
+     */
+    static int readJpegOrientation(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA) {
+                    return 1; // Start of scan or garbage: no more metadata segments.
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return 1;
+                }
+                if (marker == 0xFFE1) {
+                    byte[] segment = new byte[length];
+                    in.readFully(segment);
+                    int orientation = exifOrientation(segment);
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return 1;
+        }
+    }
+
+    private static int exifOrientation(byte[] segment) {
+        // "Exif\0\0" followed by a TIFF header, whose first IFD holds the orientation tag.
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 0;
+        }
+        int tiffStart = 6;
+        ByteBuffer buffer = ByteBuffer.wrap(segment)
+                .order(segment[tiffStart] == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiffStart + buffer.getInt(tiffStart + 4);
+        if (ifd < tiffStart || ifd + 2 > segment.length) {
+            return 0;
+        }
+        int entries = buffer.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > segment.length) {
+                return 0;
+            }
+            if ((buffer.getShort(entry) & 0xFFFF) == EXIF_ORIENTATION_TAG) {
+                return buffer.getShort(entry + 8) & 0xFFFF;
+            }
+        }
+        return 0;
+    }
+}
@@ -1,34 +1,197 @@
 package com.barter.backend.service;
 
+import com.barter.backend.config.VirtualThreads;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.net.MalformedURLException;
 import java.net.URL; // Import URL for parsing
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Uploads images to Cloudinary.
+ *
+ * An upload is first streamed from the request into a temp file, enforcing the size limit while reading,
+ * so the image is never held in heap. It is then decoded once on a bounded processing pool into a
+ * capped-resolution main image and a thumbnail (see {@link ImageResizer}), and both are streamed to
+ * Cloudinary on a dedicated, bounded upload pool. Request threads are never used for decoding or
+ * Cloudinary calls, and when a pool and its queue are full new uploads are rejected instead of piling up.
+ * Every Cloudinary call is timed in {@code barter.cloudinary.calls}, tagged with the operation and outcome.
+ */
 @Service
 public class ImageUploadService {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageUploadService.class);
+    private static final int COPY_BUFFER_SIZE = 8192;
 
     private final Cloudinary cloudinary;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService uploadExecutor;
+    private final ThreadPoolExecutor processingExecutor;
+    private final long maxUploadBytes;
+    private final int maxDimension;
+    private final int thumbnailDimension;
 
-    public ImageUploadService(Cloudinary cloudinary) {
+    public ImageUploadService(
+            Cloudinary cloudinary,
+            MeterRegistry meterRegistry,
+            @Value("${barter.upload.threads:4}") int uploadThreads,
+            @Value("${barter.upload.queue-capacity:32}") int queueCapacity,
+            @Value("${barter.upload.max-bytes:10485760}") long maxUploadBytes,
+            @Value("${barter.image.processing-threads:2}") int processingThreads,
+            @Value("${barter.image.max-dimension:1600}") int maxDimension,
+            @Value("${barter.image.thumbnail-dimension:480}") int thumbnailDimension,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
         this.cloudinary = cloudinary;
+        this.meterRegistry = meterRegistry;
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxDimension = maxDimension;
+        this.thumbnailDimension = thumbnailDimension;
+        // Uploads only wait on Cloudinary, so in virtual-thread mode each gets its own virtual thread; their
+        // number is still capped by the bounded processing pool every upload passes through first.
+        this.uploadExecutor = virtualThreads
+                ? VirtualThreads.newThreadPerTaskExecutor("image-upload-")
+                : boundedExecutor("image-upload", uploadThreads, queueCapacity);
+        this.processingExecutor = boundedExecutor("image-processing", processingThreads, queueCapacity);
     }
 
-    public String uploadImage(MultipartFile file) throws IOException {
+    /**
+     * Uploads an image and its thumbnail and waits for the result.
+     *
+     * @param file The uploaded multipart file.
+     * @return The HTTPS URLs of the uploaded image and thumbnail.
+     * @throws IllegalArgumentException if the file is empty or larger than the configured limit.
+     * @throws IOException if the upload fails or the upload pool is saturated.
+     */
+    public UploadedImage uploadImage(MultipartFile file) throws IOException {
+        try {
+            return uploadImageAsync(file).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while uploading image.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to upload image to Cloudinary.", e.getCause());
+        }
+    }
+
+    /**
+     * Spools the image to a temp file on the calling thread (the multipart data is only valid during the
+     * request), then resizes it on the processing pool and uploads both variants on the upload pool.
+     *
+     * @param file The uploaded multipart file.
+     * @return A future completing with the uploaded image URLs, or exceptionally with an IOException.
+     * @throws IllegalArgumentException if the file is empty or larger than the configured limit.
+     * @throws IOException if the file could not be spooled or the processing pool is saturated.
+     */
+    public CompletableFuture<UploadedImage> uploadImageAsync(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Cannot upload empty file.");
         }
+        Path spooled = spool(file);
+        CompletableFuture<ImageResizer.Variants> resized;
         try {
-            Map<?, ?> result = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
+            resized = CompletableFuture.supplyAsync(() -> resize(spooled), processingExecutor);
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(spooled);
+            logger.warn("Image upload rejected: {} images being processed and {} queued.",
+                    processingExecutor.getActiveCount(), processingExecutor.getQueue().size());
+            throw new IOException("Too many concurrent image uploads; please try again.", e);
+        }
+        return resized
+                .thenCompose(variants -> uploadVariants(spooled, variants))
+                .whenComplete((uploaded, error) -> deleteQuietly(spooled));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        processingExecutor.shutdown();
+        uploadExecutor.shutdown();
+    }
+
+    private ImageResizer.Variants resize(Path spooled) {
+        try {
+            ImageResizer.Variants variants = ImageResizer.resize(spooled, maxDimension, thumbnailDimension);
+            if (variants == null) {
+                logger.warn("Uploaded image format is not supported for resizing; uploading the original.");
+            }
+            return variants;
+        } catch (IOException e) {
+            logger.error("Failed to decode uploaded image: {}", e.getMessage(), e);
+            throw new CompletionException(new IOException("Uploaded file is not a valid image.", e));
+        }
+    }
+
+    /**
+     * Uploads the main image and thumbnail in parallel; without variants the original file is uploaded as-is.
+     */
+    private CompletableFuture<UploadedImage> uploadVariants(Path spooled, ImageResizer.Variants variants) {
+        Path main = variants != null ? variants.main : spooled;
+        try {
+            CompletableFuture<String> mainUrl = CompletableFuture.supplyAsync(() -> uploadQuietly(main), uploadExecutor);
+            CompletableFuture<String> thumbnailUrl = variants != null
+                    ? CompletableFuture.supplyAsync(() -> uploadQuietly(variants.thumbnail), uploadExecutor)
+                    : CompletableFuture.completedFuture(null);
+            return mainUrl.thenCombine(thumbnailUrl, UploadedImage::new)
+                    .whenComplete((uploaded, error) -> deleteVariants(variants));
+        } catch (RejectedExecutionException e) {
+            deleteVariants(variants);
+            throw new CompletionException(new IOException("Too many concurrent image uploads; please try again.", e));
+        }
+    }
+
+    private String uploadQuietly(Path path) {
+        try {
+            return uploadSpooledFile(path);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static void deleteVariants(ImageResizer.Variants variants) {
+        if (variants != null) {
+            deleteQuietly(variants.main);
+            deleteQuietly(variants.thumbnail);
+        }
+    }
+
+    private static ThreadPoolExecutor boundedExecutor(String threadName, int threads, int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private String uploadSpooledFile(Path spooled) throws IOException {
+        try {
+            Map<?, ?> result = timedCloudinaryCall("upload",
+                    () -> cloudinary.uploader().upload(spooled.toFile(), ObjectUtils.emptyMap()));
             String secureUrl = (String) result.get("secure_url"); // return the HTTPS image URL
             logger.info("Image uploaded successfully. URL: {}", secureUrl);
             return secureUrl;
@@ -38,6 +201,79 @@ public class ImageUploadService {
         }
     }
 
+    /**
+     * Runs a Cloudinary API call, recording its latency whether it succeeds or throws.
+     */
+    private Map<?, ?> timedCloudinaryCall(String operation, CloudinaryCall call) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Map<?, ?> result = call.execute();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("barter.cloudinary.calls")
+                    .description("Latency of Cloudinary API calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    @FunctionalInterface
+    private interface CloudinaryCall {
+        Map<?, ?> execute() throws IOException;
+    }
+
+    /**
+     * Copies the upload to a temp file in fixed-size chunks, failing as soon as the size limit is exceeded.
+     */
+    private Path spool(MultipartFile file) throws IOException {
+        Path spooled = Files.createTempFile("barter-upload-", ".tmp");
+        long total = 0;
+        try (InputStream in = file.getInputStream(); OutputStream out = Files.newOutputStream(spooled)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxUploadBytes) {
+                    throw new IllegalArgumentException("Image exceeds the maximum upload size of " + maxUploadBytes + " bytes.");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(spooled);
+            throw e;
+        }
+        return spooled;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temp upload file {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes a thumbnail uploaded alongside an image. Failures are only logged, since a stray
+     * thumbnail is harmless and should never block deleting or replacing the main image.
+     *
+     * @param thumbnailUrl The thumbnail URL, may be null.
+     */
+    public void deleteThumbnail(String thumbnailUrl) {
+        if (thumbnailUrl == null || thumbnailUrl.isEmpty()) {
+            return;
+        }
+        try {
+            deleteImage(thumbnailUrl);
+        } catch (IOException e) {
+            logger.warn("Failed to delete thumbnail {}: {}", thumbnailUrl, e.getMessage());
+        }
+    }
+
     /**
      * Deletes an image from Cloudinary based on its URL.
      * Cloudinary uses the public ID for deletion, which is typically the last segment
@@ -72,7 +308,8 @@ public class ImageUploadService {
             }
 
             logger.info("Attempting to delete image with Cloudinary public ID: {}", publicId);
-            Map<?, ?> result = cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
+            Map<?, ?> result = timedCloudinaryCall("destroy",
+                    () -> cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap()));
 
             String deleteResult = (String) result.get("result");
             if ("ok".equals(deleteResult)) {
@@ -89,4 +326,39 @@ public class ImageUploadService {
             throw new IOException("Failed to delete image from Cloudinary.", e);
         }
     }
-}
\ No newline at end of file
+    /**
+     * Deletes an image on the upload pool, so the caller's thread does not wait on Cloudinary.
+     *
+     * @param imageUrl The full URL of the image to delete, may be null.
+     * @return A future completing once the image is deleted, or exceptionally with an IOException
+     * (also when the upload pool is saturated).
+     */
+    public CompletableFuture<Void> deleteImageAsync(String imageUrl) {
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    deleteImage(imageUrl);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, uploadExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IOException("Upload pool is saturated; image not deleted.", e));
+        }
+    }
+
+    /**
+     * Async variant of {@link #deleteThumbnail}; failures are only logged, so the future always completes normally.
+     */
+    public CompletableFuture<Void> deleteThumbnailAsync(String thumbnailUrl) {
+        if (thumbnailUrl == null || thumbnailUrl.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> deleteThumbnail(thumbnailUrl), uploadExecutor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Skipped deleting thumbnail {}: upload pool is saturated.", thumbnailUrl);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.barter.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor.
+ * A keyset cursor encodes the sort value and document ID of the last document a client has seen,
+ * so the next page can be fetched with Firestore's startAfter() instead of an offset.
+ * An offset cursor is used for result lists that are ranked in memory (e.g. search relevance),
+ * where there is no stable sort key to resume from.
+ */
+public final class PageCursor {
+
+    private static final char SEPARATOR = '\n';
+    private static final String KEYSET_KIND = "k";
+    private static final String OFFSET_KIND = "o";
+
+    private final String sortValue;
+    private final String documentId;
+    private final int offset;
+
+    private PageCursor(String sortValue, String documentId, int offset) {
+        this.sortValue = sortValue;
+        this.documentId = documentId;
+        this.offset = offset;
+    }
+
+    public static PageCursor of(String sortValue, String documentId) {
+        if (sortValue == null || documentId == null || documentId.isEmpty()) {
+            throw new IllegalArgumentException("Cursor sort value and document ID are required.");
+        }
+        return new PageCursor(sortValue, documentId, -1);
+    }
+
+    /**
+     * A keyset cursor over an epoch-millis sort field such as createdAtMillis.
+     */
+    public static PageCursor of(long sortMillis, String documentId) {
+        return of(String.valueOf(sortMillis), documentId);
+    }
+
+    /**
+     * A keyset cursor for results ordered by document ID alone.
+     */
+    public static PageCursor ofDocumentId(String documentId) {
+        return of("", documentId);
+    }
+
+    public static PageCursor ofOffset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Cursor offset must not be negative.");
+        }
+        return new PageCursor(null, null, offset);
+    }
+
+    /**
+     * Decodes a token previously produced by {@link #encode()}.
+     *
+     * @param token The opaque cursor token sent by the client.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("Pagination cursor must not be empty.");
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor.", e);
+        }
+
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        try {
+            if (parts.length == 3 && KEYSET_KIND.equals(parts[0]) && !parts[2].isEmpty()) {
+                return new PageCursor(parts[1], parts[2], -1);
+            }
+            if (parts.length == 2 && OFFSET_KIND.equals(parts[0])) {
+                return ofOffset(Integer.parseInt(parts[1]));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor.", e);
+        }
+        throw new IllegalArgumentException("Invalid pagination cursor.");
+    }
+
+    public String encode() {
+        String raw = isOffset()
+                ? OFFSET_KIND + SEPARATOR + offset
+                : KEYSET_KIND + SEPARATOR + sortValue + SEPARATOR + documentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isOffset() {
+        return offset >= 0;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public String getSortValue() {
+        return sortValue;
+    }
+
+    /**
+     * The sort value of a cursor created with {@link #of(long, String)}.
+     *
+     * @throws IllegalArgumentException if the sort value is not a number, e.g. a cursor issued before
+     *         listings were sorted by epoch millis.
+     */
+    public long getSortMillis() {
+        try {
+            return Long.parseLong(sortValue);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid pagination cursor.", e);
+        }
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+}
@@ -0,0 +1,250 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.AvailabilityRange;
+import com.barter.backend.model.BarterPost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process interval index over the availability ranges of open barter posts, for date-filtered browsing.
+ *
+ * Every availability range of every indexed post is one interval of epoch days. The intervals are kept in an
+ * augmented interval tree: sorted by start day and laid out as an implicit balanced binary tree over arrays,
+ * each node also storing the largest end day below it. A query for a date or a date window then only visits
+ * the subtrees that can contain an overlapping interval, instead of testing every post.
+ *
+ * Like {@link PostSearchIndex}, it holds a snapshot of each open post and is kept current by
+ * {@link BarterPostService} on create/update/delete. Writes only touch the snapshot map; the tree is
+ * rebuilt on the next query after a write, which suits a catalog that is browsed far more than edited.
+ */
+@Component
+public class PostAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostAvailabilityIndex.class);
+
+    private static final Comparator<BarterPost> NEWEST_FIRST = Comparator
+            .comparing(BarterPost::getCreatedAtMillis, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(BarterPost::getId, Comparator.reverseOrder());
+
+    private final Map<String, BarterPost> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile IntervalTree tree; // Null after a write until the next query rebuilds it
+    private volatile boolean ready = false;
+
+    /**
+     * Replaces the whole index content, e.g. after loading all open posts at startup.
+     * Marks the index as ready to serve queries.
+     */
+    public void rebuild(Collection<BarterPost> posts) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            for (BarterPost post : posts) {
+                addUnlocked(post);
+            }
+            tree = IntervalTree.of(documents.values());
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Post availability index rebuilt with {} posts and {} ranges.", documents.size(), tree.size());
+    }
+
+    /**
+     * Adds or re-indexes a post. Posts that are not open are removed from the index instead.
+     */
+    public void index(BarterPost post) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            documents.remove(post.getId());
+            if ("open".equals(post.getStatus())) {
+                addUnlocked(post);
+            }
+            tree = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String postId) {
+        if (postId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (documents.remove(postId) != null) {
+                tree = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Copies of the open posts available on the given date, newest first.
+     */
+    public List<BarterPost> findAvailableOn(LocalDate date) {
+        return findAvailableBetween(date, date);
+    }
+
+    /**
+     * Finds the open posts with at least one availability range overlapping [from, to] (inclusive).
+     *
+     * @return Copies of the matching posts, newest first.
+     */
+    public List<BarterPost> findAvailableBetween(LocalDate from, LocalDate to) {
+        IntervalTree current = currentTree();
+        Set<BarterPost> matches = new LinkedHashSet<>(); // A post with several overlapping ranges is listed once
+        current.collectOverlapping(from.toEpochDay(), to.toEpochDay(), matches);
+
+        List<BarterPost> results = new ArrayList<>(matches.size());
+        for (BarterPost post : matches) {
+            results.add(PostSearchIndex.copyOf(post));
+        }
+        results.sort(NEWEST_FIRST);
+        return results;
+    }
+
+    private IntervalTree currentTree() {
+        IntervalTree current = tree;
+        if (current != null) {
+            return current;
+        }
+        lock.writeLock().lock();
+        try {
+            if (tree == null) {
+                tree = IntervalTree.of(documents.values());
+            }
+            return tree;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addUnlocked(BarterPost post) {
+        BarterPost snapshot = PostSearchIndex.copyOf(post);
+        snapshot.materializeAvailability();
+        documents.put(post.getId(), snapshot);
+    }
+
+    /**
+     * Immutable augmented interval tree. Node i of the implicit tree over [lo, hi) is the middle element;
+     * maxEnd[i] is the largest end day in that node's subtree.
+     */
+    private static final class IntervalTree {
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnd;
+        private final BarterPost[] posts;
+
+        private IntervalTree(long[] starts, long[] ends, BarterPost[] posts) {
+            this.starts = starts;
+            this.ends = ends;
+            this.posts = posts;
+            this.maxEnd = new long[starts.length];
+            computeMaxEnd(0, starts.length);
+        }
+
+        static IntervalTree of(Collection<BarterPost> posts) {
+            List<Interval> intervals = new ArrayList<>();
+            for (BarterPost post : posts) {
+                if (post.getAvailability() == null) {
+                    continue;
+                }
+                for (AvailabilityRange range : post.getAvailability()) {
+                    // Unparseable ranges were never matched by the date filter either
+                    if (range != null && range.getStartEpochDay() != null && range.getEndEpochDay() != null
+                            && range.getStartEpochDay() <= range.getEndEpochDay()) {
+                        intervals.add(new Interval(range.getStartEpochDay(), range.getEndEpochDay(), post));
+                    }
+                }
+            }
+            intervals.sort(Comparator.comparingLong(interval -> interval.start));
+
+            long[] starts = new long[intervals.size()];
+            long[] ends = new long[intervals.size()];
+            BarterPost[] sortedPosts = new BarterPost[intervals.size()];
+            for (int i = 0; i < intervals.size(); i++) {
+                starts[i] = intervals.get(i).start;
+                ends[i] = intervals.get(i).end;
+                sortedPosts[i] = intervals.get(i).post;
+            }
+            return new IntervalTree(starts, ends, sortedPosts);
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        void collectOverlapping(long from, long to, Set<BarterPost> out) {
+            collect(0, starts.length, from, to, out);
+        }
+
+        private long computeMaxEnd(int lo, int hi) {
+            if (lo >= hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            maxEnd[mid] = Math.max(ends[mid], Math.max(computeMaxEnd(lo, mid), computeMaxEnd(mid + 1, hi)));
+            return maxEnd[mid];
+        }
+
+        private void collect(int lo, int hi, long from, long to, Set<BarterPost> out) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] < from) {
+                return; // Every interval in this subtree ends before the window
+            }
+            collect(lo, mid, from, to, out);
+            if (starts[mid] > to) {
+                return; // This interval and everything to its right start after the window
+            }
+            if (ends[mid] >= from) {
+                out.add(posts[mid]);
+            }
+            collect(mid + 1, hi, from, to, out);
+        }
+    }
+
+    private static final class Interval {
+        private final long start;
+        private final long end;
+        private final BarterPost post;
+
+        private Interval(long start, long end, BarterPost post) {
+            this.start = start;
+            this.end = end;
+            this.post = post;
+        }
+    }
+}
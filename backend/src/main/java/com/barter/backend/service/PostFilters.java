@@ -0,0 +1,62 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.AvailabilityRange;
+import com.barter.backend.model.BarterPost;
+
+import java.time.LocalDate;
+
+/**
+ * In-memory filters applied to barter posts after the Firestore query,
+ * for criteria Firestore cannot evaluate with the current schema.
+ */
+public final class PostFilters {
+
+    private PostFilters() {
+    }
+
+    /**
+     * Term search on title, description and preferredExchange, matched exactly as {@link PostSearchIndex}
+     * matches it: every term must appear as a whole word and the last one may be a word prefix.
+     *
+     * @param post The post to test.
+     * @param lowerCaseSearchTerm The search term, already lower-cased by the caller.
+     * @return true if the post's searchable fields contain all of the terms.
+     */
+    public static boolean matchesSearchTerm(BarterPost post, String lowerCaseSearchTerm) {
+        return PostSearchIndex.matches(post, PostSearchIndex.tokenize(lowerCaseSearchTerm));
+    }
+
+    /**
+     * Checks if the given date falls within any of the post's availability ranges.
+     *
+     * @param post The post to test.
+     * @param filterDate The date the post must be available on.
+     * @return true if at least one range covers the date.
+     */
+    public static boolean isAvailableOn(BarterPost post, LocalDate filterDate) {
+        return isAvailableBetween(post, filterDate, filterDate);
+    }
+
+    /**
+     * Checks if any of the post's availability ranges overlaps the given dates (inclusive).
+     * Uses the epoch days materialized when the post was written, so no date strings are parsed.
+     *
+     * @param post The post to test.
+     * @param from First date of the window.
+     * @param to Last date of the window.
+     * @return true if at least one range shares a day with the window.
+     */
+    public static boolean isAvailableBetween(BarterPost post, LocalDate from, LocalDate to) {
+        if (post.getAvailability() == null || post.getAvailability().isEmpty()) {
+            return false; // Post has no availability ranges
+        }
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        for (AvailabilityRange range : post.getAvailability()) {
+            if (range != null && range.overlaps(fromDay, toDay)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,292 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.BarterPost;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over open barter posts for full-text search.
+ *
+ * Title, description and preferredExchange are tokenized once when a post is written. Each term keeps a
+ * postings list (post ID -> field-weighted term frequency), and the terms are kept sorted so the last word
+ * of a query can be matched as a prefix for type-ahead. A search intersects the postings of every query
+ * term and ranks the result by a TF-IDF style score.
+ *
+ * The index holds a snapshot of each indexed post so search results can be filtered further without
+ * going back to Firestore. It is maintained by {@link BarterPostService} on create/update/delete and
+ * rebuilt from Firestore at startup; it only reflects writes made through this instance.
+ */
+@Component
+public class PostSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int PREFERRED_EXCHANGE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private final Map<String, IndexedPost> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready = false;
+
+    /**
+     * Replaces the whole index content, e.g. after loading all open posts at startup.
+     * Marks the index as ready to serve searches.
+     */
+    public void rebuild(Collection<BarterPost> posts) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            for (BarterPost post : posts) {
+                addUnlocked(post);
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Post search index rebuilt with {} posts and {} terms.", documents.size(), postings.size());
+    }
+
+    /**
+     * Adds or re-indexes a post. Posts that are not open are removed from the index instead.
+     */
+    public void index(BarterPost post) {
+        if (post == null || post.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(post.getId());
+            if ("open".equals(post.getStatus())) {
+                addUnlocked(post);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String postId) {
+        if (postId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index. Every query term must match (AND); the last term also matches as a prefix.
+     *
+     * @param searchTerm The raw user query.
+     * @return Copies of the matching posts, most relevant first (newest first on ties).
+     */
+    public List<BarterPost> search(String searchTerm) {
+        List<String> queryTerms = tokenize(searchTerm);
+        if (queryTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            Map<String, Double> scores = null;
+
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                boolean prefix = i == queryTerms.size() - 1;
+                Map<String, Double> termScores = scoreTerm(term, prefix, documentCount);
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Intersect, iterating over the smaller side.
+                    Map<String, Double> smaller = scores.size() <= termScores.size() ? scores : termScores;
+                    Map<String, Double> larger = smaller == scores ? termScores : scores;
+                    Map<String, Double> intersection = new HashMap<>();
+                    for (Map.Entry<String, Double> entry : smaller.entrySet()) {
+                        Double other = larger.get(entry.getKey());
+                        if (other != null) {
+                            intersection.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    scores = intersection;
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+
+            final Map<String, Double> finalScores = scores;
+            List<BarterPost> results = new ArrayList<>(finalScores.size());
+            for (String postId : finalScores.keySet()) {
+                results.add(documents.get(postId).post);
+            }
+            results.sort(Comparator
+                    .comparingDouble((BarterPost post) -> finalScores.get(post.getId())).reversed()
+                    .thenComparing(BarterPost::getCreatedAtMillis, Comparator.nullsLast(Comparator.reverseOrder())));
+
+            List<BarterPost> copies = new ArrayList<>(results.size());
+            for (BarterPost post : results) {
+                copies.add(copyOf(post));
+            }
+            return copies;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lower-case alphanumeric terms.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Whether a post matches a query the way {@link #search} matches it: every query term is a term of the
+     * post's title, description or preferredExchange, and the last one may also be a prefix of one.
+     * Lets the scan that runs while the index is not ready return the same posts the index would.
+     */
+    static boolean matches(BarterPost post, List<String> queryTerms) {
+        if (queryTerms.isEmpty()) {
+            return false;
+        }
+        Set<String> postTerms = new HashSet<>(tokenize(post.getTitle()));
+        postTerms.addAll(tokenize(post.getDescription()));
+        postTerms.addAll(tokenize(post.getPreferredExchange()));
+        int last = queryTerms.size() - 1;
+        for (int i = 0; i < last; i++) {
+            if (!postTerms.contains(queryTerms.get(i))) {
+                return false;
+            }
+        }
+        String prefix = queryTerms.get(last);
+        for (String term : postTerms) {
+            if (term.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // --- Internal helpers; callers must hold the appropriate lock ---
+
+    private Map<String, Double> scoreTerm(String term, boolean prefix, int documentCount) {
+        Map<String, Double> termScores = new HashMap<>();
+        Map<String, Map<String, Integer>> matchingTerms = prefix
+                ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                : (postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of());
+
+        for (Map<String, Integer> postingList : matchingTerms.values()) {
+            double idf = Math.log(1.0 + (double) documentCount / postingList.size());
+            for (Map.Entry<String, Integer> posting : postingList.entrySet()) {
+                // For prefix matches a post may hit several expansions; keep its best one.
+                termScores.merge(posting.getKey(), posting.getValue() * idf, Math::max);
+            }
+        }
+        return termScores;
+    }
+
+    private void addUnlocked(BarterPost post) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        addField(termFrequencies, post.getTitle(), TITLE_WEIGHT);
+        addField(termFrequencies, post.getPreferredExchange(), PREFERRED_EXCHANGE_WEIGHT);
+        addField(termFrequencies, post.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(post.getId(), entry.getValue());
+        }
+        documents.put(post.getId(), new IndexedPost(copyOf(post), new HashSet<>(termFrequencies.keySet())));
+    }
+
+    private void removeUnlocked(String postId) {
+        IndexedPost existing = documents.remove(postId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms) {
+            Map<String, Integer> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(postId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Integer> termFrequencies, String text, int weight) {
+        for (String term : tokenize(text)) {
+            termFrequencies.merge(term, weight, Integer::sum);
+        }
+    }
+
+    static BarterPost copyOf(BarterPost post) {
+        BarterPost copy = new BarterPost(post.getId(), post.getUserFirebaseUid(), post.getTitle(), post.getDescription(),
+                post.getType(), post.getTags(), post.getPreferredExchange(), post.getImageUrl(),
+                post.getLocation(), post.getAvailability(), post.getStatus(), post.getCreatedAt(),
+                post.getDisplayName(), post.getProfileImageUrl());
+        copy.setThumbnailUrl(post.getThumbnailUrl());
+        copy.setCreatedAtMillis(post.getCreatedAtMillis());
+        copy.setLatitude(post.getLatitude());
+        copy.setLongitude(post.getLongitude());
+        copy.setGeohash(post.getGeohash());
+        return copy;
+    }
+
+    private static final class IndexedPost {
+        private final BarterPost post;
+        private final Set<String> terms;
+
+        private IndexedPost(BarterPost post, Set<String> terms) {
+            this.post = post;
+            this.terms = terms;
+        }
+    }
+}
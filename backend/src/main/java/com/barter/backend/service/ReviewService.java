@@ -1,13 +1,15 @@
 package com.barter.backend.service;
 
+import com.barter.backend.model.RatingSummary;
 import com.barter.backend.model.Review;
-import com.barter.backend.model.UserProfile; // Import UserProfile model
+import com.barter.backend.model.ReviewPage;
+import com.barter.backend.model.UserSummary;
 import com.barter.backend.exception.ResourceNotFoundException;
 import com.barter.backend.exception.UnauthorizedAccessException;
+import com.barter.backend.repository.ReviewQuery;
+import com.barter.backend.repository.ReviewRepository;
+import com.barter.backend.repository.UserProfileRepository;
 
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -17,257 +19,135 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Objects;
-import java.math.BigDecimal; // For precise decimal calculations
-import java.math.RoundingMode; // For rounding mode
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ReviewService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReviewService.class);
-    private static final String REVIEWS_COLLECTION_NAME = "reviews";
-    private static final String USER_PROFILES_COLLECTION = "user_profiles"; // Used for fetching display names
 
-    private final Firestore firestore = FirestoreClient.getFirestore();
-    private final UserProfileService userProfileService; // Inject UserProfileService
+    private final ReviewRepository reviewRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final UserSummaryCache userSummaryCache; // Shared cache for reviewer display names
 
-    // Constructor to inject UserProfileService
-    public ReviewService(UserProfileService userProfileService) {
-        this.userProfileService = userProfileService;
+    public ReviewService(ReviewRepository reviewRepository, UserProfileRepository userProfileRepository,
+                         UserSummaryCache userSummaryCache) {
+        this.reviewRepository = reviewRepository;
+        this.userProfileRepository = userProfileRepository;
+        this.userSummaryCache = userSummaryCache;
     }
 
     /**
-     * Retrieves all Review documents from the Firestore collection.
+     * Retrieves one page of all reviews, newest first.
      * Enriches 'fromUser' with displayName.
      *
-     * @return A list of all Review objects.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @param startAfter Optional: Opaque cursor returned with the previous page. Null for the first page.
+     * @param size Number of reviews per page.
+     * @throws IllegalArgumentException immediately (not through the future) if the size or cursor is invalid.
      */
-    public List<Review> getAllReviews() {
-        List<Review> reviews = new ArrayList<>();
-        try {
-            ApiFuture<QuerySnapshot> future = firestore.collection(REVIEWS_COLLECTION_NAME).get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            // Collect unique fromUserFirebaseUid to fetch their display names in batch
-            List<String> fromUserUids = documents.stream()
-                    .map(doc -> doc.getString("fromUserFirebaseUid"))
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .collect(Collectors.toList());
-
-            Map<String, String> fromUserDisplayNames = fetchDisplayNamesForUids(fromUserUids);
-
-            for (DocumentSnapshot doc : documents) {
-                try {
-                    Review review = doc.toObject(Review.class);
-                    if (review != null) {
-                        review.setId(doc.getId());
-                        populateReviewFromUser(review, fromUserDisplayNames); // Populate the nested fromUser object
-                        reviews.add(review);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error mapping document {} to Review: {}", doc.getId(), e.getMessage(), e);
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving all reviews from Firestore: {}", e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve all reviews.", e);
-        }
-        return reviews;
+    public CompletableFuture<ReviewPage> getReviewsPageAsync(String startAfter, int size) {
+        return getPageAsync(ReviewQuery.all(), startAfter, size);
     }
 
     /**
-     * Retrieves a single Review by its Firestore document ID.
+     * Retrieves a single Review by its ID.
      * Enriches 'fromUser' with displayName.
      *
-     * @param id The Firestore document ID of the review.
+     * @param id The ID of the review.
      * @return An Optional containing the Review if found, otherwise empty.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public Optional<Review> getReviewById(String id) {
-        try {
-            DocumentSnapshot doc = firestore.collection(REVIEWS_COLLECTION_NAME).document(id).get().get();
-            if (doc.exists()) {
-                Review review = doc.toObject(Review.class);
-                if (review != null) {
-                    review.setId(doc.getId());
-                    // Fetch display name for single review's fromUser
-                    Map<String, String> fromUserDisplayNames = fetchDisplayNamesForUids(
-                            List.of(review.getFromUserFirebaseUid())
-                    );
-                    populateReviewFromUser(review, fromUserDisplayNames);
-                    return Optional.of(review);
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving review by ID {}: {}", id, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve review by ID: " + id, e);
-        }
-        return Optional.empty();
+        Optional<Review> review = reviewRepository.findById(id);
+        review.ifPresent(found -> withReviewerNames(List.of(found)));
+        return review;
     }
 
     /**
-     * Retrieves a list of Reviews where the `toUserFirebaseUid` matches.
-     * This method now matches the frontend's expected path logic.
+     * Retrieves one page of the reviews a user received, newest first.
      * Enriches 'fromUser' with displayName.
      *
      * @param toUserFirebaseUid The Firebase UID of the user who received the reviews.
-     * @return A list of Review objects.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @see #getReviewsPageAsync
      */
-    public List<Review> getReviewsToUser(String toUserFirebaseUid) { // Renamed from getReviewsReceivedByUser
-        List<Review> reviews = new ArrayList<>();
-        try {
-            ApiFuture<QuerySnapshot> future = firestore.collection(REVIEWS_COLLECTION_NAME)
-                    .whereEqualTo("toUserFirebaseUid", toUserFirebaseUid)
-                    .orderBy("createdAt", com.google.cloud.firestore.Query.Direction.DESCENDING) // Added sorting
-                    .get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            List<String> fromUserUids = documents.stream()
-                    .map(doc -> doc.getString("fromUserFirebaseUid"))
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .collect(Collectors.toList());
-
-            Map<String, String> fromUserDisplayNames = fetchDisplayNamesForUids(fromUserUids);
-
-            for (DocumentSnapshot doc : documents) {
-                try {
-                    Review review = doc.toObject(Review.class);
-                    if (review != null) {
-                        review.setId(doc.getId());
-                        populateReviewFromUser(review, fromUserDisplayNames); // Populate the nested fromUser object
-                        reviews.add(review);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error mapping document {} to Review in getReviewsToUser: {}", doc.getId(), e.getMessage(), e);
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving reviews to user {}: {}", toUserFirebaseUid, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve reviews to user: " + toUserFirebaseUid, e);
-        }
-        return reviews;
+    public CompletableFuture<ReviewPage> getReviewsToUserAsync(String toUserFirebaseUid, String startAfter, int size) {
+        return getPageAsync(ReviewQuery.toUser(toUserFirebaseUid), startAfter, size);
     }
 
     /**
-     * Retrieves a list of Reviews where the `fromUserFirebaseUid` matches.
+     * Retrieves one page of the reviews a user wrote, newest first.
      * Enriches 'fromUser' with displayName.
      *
      * @param fromUserFirebaseUid The Firebase UID of the user who wrote the reviews.
-     * @return A list of Review objects.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @see #getReviewsPageAsync
      */
-    public List<Review> getReviewsWrittenByUser(String fromUserFirebaseUid) {
-        List<Review> reviews = new ArrayList<>();
-        try {
-            ApiFuture<QuerySnapshot> future = firestore.collection(REVIEWS_COLLECTION_NAME)
-                    .whereEqualTo("fromUserFirebaseUid", fromUserFirebaseUid)
-                    .orderBy("createdAt", com.google.cloud.firestore.Query.Direction.DESCENDING) // Added sorting
-                    .get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            // For reviews written by a user, the 'fromUser' will always be the queried user.
-            // We can pre-fetch their display name once.
-            String reviewerDisplayName = null;
-            Map<String, String> fromUserDisplayNames = new HashMap<>(); // To pass to helper
-            try {
-                DocumentSnapshot userSnapshot = firestore.collection(USER_PROFILES_COLLECTION).document(fromUserFirebaseUid).get().get();
-                if (userSnapshot.exists()) {
-                    reviewerDisplayName = userSnapshot.getString("displayName");
-                    fromUserDisplayNames.put(fromUserFirebaseUid, reviewerDisplayName);
-                } else {
-                    logger.warn("Reviewer profile not found for UID: {}.", fromUserFirebaseUid);
-                    fromUserDisplayNames.put(fromUserFirebaseUid, "Unknown User");
-                }
-            } catch (Exception e) {
-                logger.error("Error fetching reviewer display name for {}: {}", fromUserFirebaseUid, e.getMessage());
-                fromUserDisplayNames.put(fromUserFirebaseUid, "Unknown User");
-            }
-
-            for (DocumentSnapshot doc : documents) {
-                try {
-                    Review review = doc.toObject(Review.class);
-                    if (review != null) {
-                        review.setId(doc.getId());
-                        populateReviewFromUser(review, fromUserDisplayNames); // Populate the nested fromUser object
-                        reviews.add(review);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error mapping document {} to Review in getReviewsWrittenByUser: {}", doc.getId(), e.getMessage(), e);
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving reviews written by user {}: {}", fromUserFirebaseUid, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve reviews written by user: " + fromUserFirebaseUid, e);
-        }
-        return reviews;
+    public CompletableFuture<ReviewPage> getReviewsWrittenByUserAsync(String fromUserFirebaseUid, String startAfter, int size) {
+        return getPageAsync(ReviewQuery.writtenBy(fromUserFirebaseUid), startAfter, size);
     }
 
     /**
-     * Retrieves a list of Reviews associated with a specific BarterPost.
+     * Retrieves one page of the reviews associated with a specific BarterPost, newest first.
      * Enriches 'fromUser' with displayName.
      *
      * @param barterPostId The ID of the related BarterPost.
-     * @return A list of Review objects.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @see #getReviewsPageAsync
      */
-    public List<Review> getReviewsForBarterPost(String barterPostId) {
-        List<Review> reviews = new ArrayList<>();
-        try {
-            ApiFuture<QuerySnapshot> future = firestore.collection(REVIEWS_COLLECTION_NAME)
-                    .whereEqualTo("barterPostId", barterPostId)
-                    .orderBy("createdAt", com.google.cloud.firestore.Query.Direction.DESCENDING) // Added sorting
-                    .get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-
-            List<String> fromUserUids = documents.stream()
-                    .map(doc -> doc.getString("fromUserFirebaseUid"))
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .collect(Collectors.toList());
+    public CompletableFuture<ReviewPage> getReviewsForBarterPostAsync(String barterPostId, String startAfter, int size) {
+        return getPageAsync(ReviewQuery.forBarterPost(barterPostId), startAfter, size);
+    }
 
-            Map<String, String> fromUserDisplayNames = fetchDisplayNamesForUids(fromUserUids);
+    /**
+     * Retrieves a user's review count, average rating and reviews per star rating, read from the aggregates
+     * on their profile: the cost does not grow with the number of reviews.
+     *
+     * @param userFirebaseUid The Firebase UID of the reviewed user.
+     * @return The summary; it completes exceptionally with ResourceNotFoundException if the user has no profile.
+     */
+    public CompletableFuture<RatingSummary> getRatingSummaryAsync(String userFirebaseUid) {
+        return reviewRepository.findRatingSummaryAsync(userFirebaseUid).thenApply(summary -> summary.orElseThrow(
+                () -> new ResourceNotFoundException("User profile not found for UID: " + userFirebaseUid)));
+    }
 
-            for (DocumentSnapshot doc : documents) {
-                try {
-                    Review review = doc.toObject(Review.class);
-                    if (review != null) {
-                        review.setId(doc.getId());
-                        populateReviewFromUser(review, fromUserDisplayNames); // Populate the nested fromUser object
-                        reviews.add(review);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error mapping document {} to Review in getReviewsForBarterPost: {}", doc.getId(), e.getMessage(), e);
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error retrieving reviews for barter post {}: {}", barterPostId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to retrieve reviews for barter post: " + barterPostId, e);
+    /**
+     * Reads the page after the cursor plus one review, to know whether another page follows, then resolves
+     * the reviewer names of the page only.
+     */
+    private CompletableFuture<ReviewPage> getPageAsync(ReviewQuery query, String startAfter, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
         }
-        return reviews;
+        PageCursor cursor = (startAfter != null && !startAfter.isEmpty()) ? PageCursor.decode(startAfter) : null;
+        if (cursor != null && cursor.isOffset()) {
+            throw new IllegalArgumentException("Invalid pagination cursor.");
+        }
+        Long afterCreatedAtMillis = cursor != null ? cursor.getSortMillis() : null;
+        String afterId = cursor != null ? cursor.getDocumentId() : null;
+        return reviewRepository.findPageAsync(query, afterCreatedAtMillis, afterId, size + 1)
+                .thenCompose(reviews -> {
+                    if (reviews.size() <= size) {
+                        return withReviewerNamesAsync(reviews).thenApply(page -> new ReviewPage(page, null));
+                    }
+                    List<Review> page = new ArrayList<>(reviews.subList(0, size));
+                    Review last = page.get(size - 1);
+                    long lastMillis = last.getCreatedAtMillis() != null ? last.getCreatedAtMillis() : 0L; // Unreadable dates sort as the oldest
+                    String nextCursor = PageCursor.of(lastMillis, last.getId()).encode();
+                    return withReviewerNamesAsync(page).thenApply(names -> new ReviewPage(names, nextCursor));
+                });
     }
 
     /**
-     * Creates a new Review document in Firestore.
+     * Creates a new Review.
      * Populates 'createdAt' and ensures the 'fromUser' nested object is set for persistence.
-     * ALSO UPDATES THE RECIPIENT USER'S OVERALL RATING.
+     * ALSO UPDATES THE RECIPIENT USER'S OVERALL RATING, atomically with the review write.
      *
      * @param review The Review object to create.
-     * @return The created Review object, with its Firestore document ID and populated 'fromUser'.
+     * @return The created Review object, with its generated ID and populated 'fromUser'.
      * @throws IllegalArgumentException if required fields are missing or invalid.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public Review createReview(Review review) {
         if (review.getFromUserFirebaseUid() == null || review.getFromUserFirebaseUid().isEmpty()) {
@@ -282,105 +162,104 @@ public class ReviewService {
 
         review.initDefaults(); // Set createdAt if missing
 
-        try {
-            // Fetch the display name of the 'fromUser' (the reviewer)
-            DocumentSnapshot fromUserSnapshot = firestore.collection(USER_PROFILES_COLLECTION)
-                    .document(review.getFromUserFirebaseUid()).get().get();
-
-            if (fromUserSnapshot.exists()) {
-                Review.ReviewUser fromUser = new Review.ReviewUser();
-                fromUser.setFirebaseUid(review.getFromUserFirebaseUid());
-                fromUser.setDisplayName(fromUserSnapshot.getString("displayName"));
-                review.setFromUser(fromUser); // Set the nested fromUser object for persistence
-            } else {
-                logger.warn("Reviewer profile not found for UID: {}. Creating review with default 'fromUser' display name.", review.getFromUserFirebaseUid());
-                Review.ReviewUser fromUser = new Review.ReviewUser();
-                fromUser.setFirebaseUid(review.getFromUserFirebaseUid());
-                fromUser.setDisplayName("Unknown User"); // Default if profile not found
-                review.setFromUser(fromUser);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error fetching 'fromUser' profile for review creation: {}", e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to fetch reviewer profile during review creation.", e);
+        // Fetch the display name of the 'fromUser' (the reviewer); "Unknown User" if the profile is missing
+        UserSummary reviewer = userSummaryCache.get(review.getFromUserFirebaseUid());
+        if (!reviewer.isFound()) {
+            logger.warn("Reviewer profile not found for UID: {}. Creating review with default 'fromUser' display name.", review.getFromUserFirebaseUid());
         }
+        review.setFromUser(new Review.ReviewUser(review.getFromUserFirebaseUid(), reviewer.getDisplayName())); // Set the nested fromUser object for persistence
 
-        // Let Firestore generate a document ID automatically
-        DocumentReference docRef = firestore.collection(REVIEWS_COLLECTION_NAME).document();
-        review.setId(docRef.getId()); // Set Firestore generated ID to the POJO's ID field
-
-        ApiFuture<WriteResult> writeResult = docRef.set(review); // Write the POJO to Firestore
-        try {
-            writeResult.get(); // Blocks until the write operation completes
-            logger.info("Successfully created review with ID: {} from user {} to user {}",
-                    review.getId(), review.getFromUserFirebaseUid(), review.getToUserFirebaseUid());
-
-            // --- START: Update recipient's rating ---
-            recalculateAndSaveUserRating(review.getToUserFirebaseUid());
-            // --- END: Update recipient's rating ---
-
-            return review;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error creating review from {} to {}: {}", review.getFromUserFirebaseUid(), review.getToUserFirebaseUid(), e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to create review.", e);
-        }
+        reviewRepository.insert(review); // Sets the generated ID on the review
+        logger.info("Successfully created review with ID: {} from user {} to user {}",
+                review.getId(), review.getFromUserFirebaseUid(), review.getToUserFirebaseUid());
+        return review;
     }
 
     /**
-     * Deletes a Review from Firestore by its ID.
-     * ALSO UPDATES THE RECIPIENT USER'S OVERALL RATING.
+     * Deletes a Review by its ID.
+     * ALSO UPDATES THE RECIPIENT USER'S OVERALL RATING, atomically with the delete.
      *
      * @param id The ID of the review to delete.
      * @throws ResourceNotFoundException if the review is not found.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public void deleteReview(String id) {
-        DocumentReference docRef = firestore.collection(REVIEWS_COLLECTION_NAME).document(id);
-        String toUserFirebaseUid = null; // Store the recipient's UID
+        if (reviewRepository.findById(id).isEmpty()) {
+            logger.warn("Attempted to delete non-existent review with ID: {}", id);
+            throw new ResourceNotFoundException("Review not found with ID: " + id);
+        }
+        if (reviewRepository.delete(id)) {
+            logger.info("Successfully deleted review with ID: {}", id);
+        } else {
+            logger.info("Review {} was already deleted concurrently.", id);
+        }
+    }
 
-        try {
-            ApiFuture<DocumentSnapshot> futureSnapshot = docRef.get();
-            DocumentSnapshot snapshot = futureSnapshot.get();
+    /**
+     * Populates 'fromUser' on reviews stored without it, resolving their reviewer names in one batched lookup.
+     * The stored 'fromUser' snapshot is trusted otherwise; reviewer profile edits are pushed to it by
+     * {@link #refreshReviewerSnapshot}, so reads of current reviews do no profile lookups.
+     */
+    private List<Review> withReviewerNames(List<Review> reviews) {
+        List<Review> missing = withoutReviewerSnapshot(reviews);
+        // Collect unique fromUserFirebaseUid to fetch their display names in batch
+        List<String> fromUserUids = reviewerUids(missing);
+
+        Map<String, String> fromUserDisplayNames = fetchDisplayNamesForUids(fromUserUids);
+        for (Review review : missing) {
+            populateReviewFromUser(review, fromUserDisplayNames); // Populate the nested fromUser object
+        }
+        return reviews;
+    }
 
-            if (!snapshot.exists()) {
-                logger.warn("Attempted to delete non-existent review with ID: {}", id);
-                throw new ResourceNotFoundException("Review not found with ID: " + id);
+    /**
+     * Async variant of {@link #withReviewerNames}.
+     */
+    private CompletableFuture<List<Review>> withReviewerNamesAsync(List<Review> reviews) {
+        List<Review> missing = withoutReviewerSnapshot(reviews);
+        List<String> fromUserUids = reviewerUids(missing);
+        if (fromUserUids.isEmpty()) {
+            return CompletableFuture.completedFuture(reviews);
+        }
+        return userSummaryCache.getAllAsync(fromUserUids).thenApply(summaries -> {
+            Map<String, String> fromUserDisplayNames = new HashMap<>();
+            for (UserSummary summary : summaries.values()) {
+                fromUserDisplayNames.put(summary.getFirebaseUid(), summary.getDisplayName());
             }
-
-            Review reviewToDelete = snapshot.toObject(Review.class); // Convert to Review object
-            if (reviewToDelete == null || reviewToDelete.getToUserFirebaseUid() == null) {
-                logger.error("Failed to convert snapshot to Review object or toUserFirebaseUid is null for review ID: {}", id);
-                throw new RuntimeException("Invalid review data for deletion.");
+            for (Review review : missing) {
+                populateReviewFromUser(review, fromUserDisplayNames);
             }
-            toUserFirebaseUid = reviewToDelete.getToUserFirebaseUid();
-
+            return reviews;
+        });
+    }
 
-            ApiFuture<WriteResult> deleteResult = docRef.delete();
-            deleteResult.get(); // Blocks until deletion completes
-            logger.info("Successfully deleted review with ID: {}", id);
+    private static List<Review> withoutReviewerSnapshot(List<Review> reviews) {
+        return reviews.stream()
+                .filter(review -> review.getFromUser() == null || review.getFromUser().getDisplayName() == null)
+                .collect(Collectors.toList());
+    }
 
-            // --- START: Update recipient's rating ---
-            // Only recalculate if we successfully got the recipient's UID
-            if (toUserFirebaseUid != null) {
-                recalculateAndSaveUserRating(toUserFirebaseUid);
-            }
-            // --- END: Update recipient's rating ---
+    private static List<String> reviewerUids(List<Review> reviews) {
+        return reviews.stream()
+                .map(Review::getFromUserFirebaseUid)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
 
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error deleting review {}: {}", id, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to delete review: " + id, e);
-        } catch (ResourceNotFoundException e) {
-            throw e; // Re-throw custom not found exception
-        } catch (Exception e) {
-            logger.error("Unexpected error during review deletion: {}", e.getMessage(), e);
-            throw new RuntimeException("An unexpected error occurred during review deletion.", e);
-        }
+    /**
+     * Pushes a reviewer's current display name into the 'fromUser' snapshot of every review they wrote.
+     * Called off the request path after a profile change.
+     *
+     * @return The number of reviews that were out of date.
+     */
+    public int refreshReviewerSnapshot(UserSummary reviewer) {
+        return reviewRepository.updateReviewerSnapshot(reviewer.getFirebaseUid(), reviewer);
     }
 
     /**
      * Helper method to fetch display names for a list of Firebase UIDs.
+     * Served from the shared UserSummaryCache; only uncached UIDs are read from storage.
      *
      * @param uids List of Firebase UIDs.
      * @return A map from Firebase UID to display name.
@@ -390,24 +269,8 @@ public class ReviewService {
         if (uids.isEmpty()) {
             return displayNames;
         }
-        try {
-            List<ApiFuture<DocumentSnapshot>> userFutures = uids.stream()
-                    .map(uid -> firestore.collection(USER_PROFILES_COLLECTION).document(uid).get())
-                    .collect(Collectors.toList());
-
-            for (ApiFuture<DocumentSnapshot> userFuture : userFutures) {
-                DocumentSnapshot userSnapshot = userFuture.get();
-                if (userSnapshot.exists()) {
-                    displayNames.put(userSnapshot.getId(), userSnapshot.getString("displayName"));
-                } else {
-                    logger.warn("User profile not found for UID: {}.", userSnapshot.getId());
-                    displayNames.put(userSnapshot.getId(), "Unknown User");
-                }
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error fetching display names for UIDs: {}", e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to fetch user display names.", e);
+        for (UserSummary summary : userSummaryCache.getAll(uids).values()) {
+            displayNames.put(summary.getFirebaseUid(), summary.getDisplayName());
         }
         return displayNames;
     }
@@ -428,41 +291,33 @@ public class ReviewService {
     }
 
     /**
-     * Recalculates the average rating for a specific user based on ALL reviews they have received
-     * and updates their UserProfile document in Firestore.
-     * This is used when a review is created or deleted.
+     * Recomputes a user's reviewCount, totalRatingSum and rating from every review they have received.
+     * Used by the backfill/repair job; regular review writes maintain the aggregates incrementally.
      *
-     * @param userFirebaseUid The Firebase UID of the user whose rating needs to be recalculated.
+     * @param userFirebaseUid The Firebase UID of the user whose aggregates should be rebuilt.
+     * @return true if the profile exists and was updated, false if there is no such profile.
+     * @throws RuntimeException if there's an error during storage access.
      */
-    private void recalculateAndSaveUserRating(String userFirebaseUid) {
-        try {
-            // Fetch all reviews for this user
-            List<Review> reviewsToUser = getReviewsToUser(userFirebaseUid); // Re-use existing method
-
-            double totalRatingSum = 0;
-            int reviewCount = 0;
-
-            for (Review review : reviewsToUser) {
-                totalRatingSum += review.getRating();
-                reviewCount++;
-            }
+    public boolean rebuildRatingAggregate(String userFirebaseUid) {
+        return reviewRepository.rebuildAggregate(userFirebaseUid);
+    }
 
-            double newRating = 0.0;
-            if (reviewCount > 0) {
-                newRating = new BigDecimal(totalRatingSum).divide(new BigDecimal(reviewCount), 2, RoundingMode.HALF_UP).doubleValue();
+    /**
+     * Rebuilds the rating aggregates of every user profile. Failures are logged per user and do not stop the run.
+     *
+     * @return The number of profiles that were updated.
+     */
+    public int rebuildAllRatingAggregates() {
+        int updated = 0;
+        for (String userFirebaseUid : userProfileRepository.findAllIds()) {
+            try {
+                if (rebuildRatingAggregate(userFirebaseUid)) {
+                    updated++;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Skipping rating rebuild for user {}: {}", userFirebaseUid, e.getMessage());
             }
-
-            // Update only the 'rating' field in the user's profile
-            Map<String, Object> updates = new HashMap<>();
-            updates.put("rating", newRating);
-
-            userProfileService.updateUserProfileFields(userFirebaseUid, updates);
-            logger.info("Recalculated and updated rating for user {}: new rating = {} (based on {} reviews)",
-                    userFirebaseUid, newRating, reviewCount);
-
-        } catch (Exception e) {
-            logger.error("Error recalculating and saving rating for user {}: {}", userFirebaseUid, e.getMessage(), e);
-            // Log the error but allow the review creation/deletion to complete if possible
         }
+        return updated;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.barter.backend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers for the synchronous service methods that wait on their async variants,
+ * and for controllers mapping a failed future back to the exception that caused it.
+ */
+public final class ServiceFutures {
+
+    private ServiceFutures() {
+    }
+
+    /**
+     * Strips the CompletionException wrapper added by CompletableFuture stages.
+     */
+    public static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Waits for the future and rethrows its failure the way a blocking call would have thrown it.
+     *
+     * @throws RuntimeException the unwrapped failure, or a RuntimeException wrapping a checked one.
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw asRuntimeException(e);
+        }
+    }
+
+    static RuntimeException asRuntimeException(CompletionException e) {
+        Throwable cause = unwrap(e);
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(cause.getMessage(), cause);
+    }
+}
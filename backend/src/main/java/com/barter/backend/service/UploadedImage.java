@@ -0,0 +1,24 @@
+package com.barter.backend.service;
+
+/**
+ * URLs of an uploaded image: the capped-resolution main image and its thumbnail.
+ * thumbnailUrl is null when the image could not be decoded and was uploaded as-is.
+ */
+public final class UploadedImage {
+
+    private final String url;
+    private final String thumbnailUrl;
+
+    public UploadedImage(String url, String thumbnailUrl) {
+        this.url = url;
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+}
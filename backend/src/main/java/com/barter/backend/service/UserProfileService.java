@@ -1,52 +1,114 @@
 package com.barter.backend.service;
 
+import com.barter.backend.model.NearbyUser;
+import com.barter.backend.model.UserListItem;
+import com.barter.backend.model.UserPage;
 import com.barter.backend.model.UserProfile;
+import com.barter.backend.model.UserSummary;
 import com.barter.backend.exception.ResourceNotFoundException;
-import com.google.api.core.ApiFuture;
-import com.google.cloud.firestore.*;
-import com.google.firebase.cloud.FirestoreClient;
+import com.barter.backend.repository.UserProfileRepository;
+import com.barter.backend.repository.UserQuery;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserProfileService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserProfileService.class);
-    private static final String COLLECTION_NAME = "user_profiles";
-    private final Firestore firestore = FirestoreClient.getFirestore();
+    // Fields a user may change through updateUser; rating aggregates are owned by ReviewService.
+    private static final List<String> EDITABLE_PROFILE_FIELDS =
+            List.of("displayName", "location", "latitude", "longitude", "geohash", "bio", "skillsOffered", "needs",
+                    "profileImageUrl", "thumbnailUrl");
+    private final UserProfileRepository userProfileRepository;
     private final ImageUploadService imageUploadService;
+    private final UserSummaryCache userSummaryCache;
+    private final AuthorSnapshotFanout authorSnapshotFanout;
+    private final double defaultRadiusKm;
+    private final double maxRadiusKm;
 
-    public UserProfileService(ImageUploadService imageUploadService) {
+    public UserProfileService(UserProfileRepository userProfileRepository, ImageUploadService imageUploadService,
+                              UserSummaryCache userSummaryCache, AuthorSnapshotFanout authorSnapshotFanout,
+                              @Value("${barter.geo.default-radius-km:25}") double defaultRadiusKm,
+                              @Value("${barter.geo.max-radius-km:200}") double maxRadiusKm) {
+        this.userProfileRepository = userProfileRepository;
         this.imageUploadService = imageUploadService;
+        this.userSummaryCache = userSummaryCache;
+        this.authorSnapshotFanout = authorSnapshotFanout;
+        this.defaultRadiusKm = defaultRadiusKm;
+        this.maxRadiusKm = maxRadiusKm;
     }
 
-    public List<UserProfile> getAllUsers() {
-        List<UserProfile> users = new ArrayList<>();
-        try {
-            ApiFuture<QuerySnapshot> future = firestore.collection(COLLECTION_NAME).get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            for (QueryDocumentSnapshot doc : documents) {
-                UserProfile user = doc.toObject(UserProfile.class);
-                if (user != null) {
-                    user.setId(doc.getId()); // Ensure ID is set from document snapshot
-                    user.initDefaults(); // Initialize rating fields if they are null from Firestore
-                    users.add(user);
+    /**
+     * Fetches one page of user list items, ordered by Firebase UID, with keyset pagination: only the
+     * page's documents (plus one to detect the next page) are read, and only the list item fields of each.
+     *
+     * @param location Optional: Exact location.
+     * @param skillsOffered Optional: Users offering at least one of these skills.
+     * @param needs Optional: Users needing at least one of these; cannot be combined with skillsOffered.
+     * @param startAfter Optional: Opaque cursor returned with the previous page. Null for the first page.
+     * @param size Number of users per page.
+     * @throws IllegalArgumentException immediately (not through the future) if the size, cursor or filters are invalid.
+     */
+    public CompletableFuture<UserPage> getUsersPageAsync(String location, List<String> skillsOffered, List<String> needs,
+                                                         String startAfter, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        UserQuery query = new UserQuery(location, skillsOffered, needs);
+        PageCursor cursor = (startAfter != null && !startAfter.isEmpty()) ? PageCursor.decode(startAfter) : null;
+        if (cursor != null && cursor.isOffset()) {
+            throw new IllegalArgumentException("Invalid pagination cursor.");
+        }
+        return userProfileRepository.findPageAsync(query, cursor != null ? cursor.getDocumentId() : null, size + 1)
+                .thenApply(users -> {
+                    if (users.size() <= size) {
+                        return new UserPage(users, null);
+                    }
+                    List<UserListItem> page = new ArrayList<>(users.subList(0, size));
+                    return new UserPage(page, PageCursor.ofDocumentId(page.get(size - 1).getFirebaseUid()).encode());
+                });
+    }
+
+    /**
+     * Finds the profiles within a radius of a point, nearest first, as list items with their distance.
+     * Only profiles that stored coordinates are found, and their coordinates are not returned.
+     *
+     * @param radiusKm Optional: Radius in kilometres. Defaults to barter.geo.default-radius-km.
+     * @throws IllegalArgumentException immediately (not through the future) if the coordinates or radius are invalid.
+     */
+    public CompletableFuture<List<NearbyUser>> findUsersNearAsync(Double latitude, Double longitude, Double radiusKm) {
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Latitude and longitude are required.");
+        }
+        GeoCircle circle = GeoCircle.of(latitude, longitude, radiusKm, defaultRadiusKm, maxRadiusKm);
+        return userProfileRepository.findByGeohashPrefixesAsync(circle.coveringCells()).thenApply(candidates -> {
+            Map<String, Double> distances = new HashMap<>();
+            List<UserProfile> nearby = new ArrayList<>();
+            for (UserProfile user : candidates) {
+                if (user.getLatitude() == null || user.getLongitude() == null) {
+                    continue;
+                }
+                double distance = circle.distanceTo(user.getLatitude(), user.getLongitude());
+                if (distance <= circle.getRadiusKm()) {
+                    user.initDefaults(); // Initialize rating fields if they are null in storage
+                    distances.put(user.getFirebaseUid(), distance);
+                    nearby.add(user);
                 }
             }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to fetch all user profiles: {}", e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to fetch users", e);
-        }
-        return users;
+            nearby.sort(Comparator.comparingDouble(user -> distances.get(user.getFirebaseUid())));
+            List<NearbyUser> items = new ArrayList<>(nearby.size());
+            for (UserProfile user : nearby) {
+                items.add(new NearbyUser(user, distances.get(user.getFirebaseUid())));
+            }
+            return items;
+        });
     }
 
     /**
@@ -57,40 +119,37 @@ public class UserProfileService {
      * @return An Optional containing the UserProfile if found, otherwise empty.
      */
     public Optional<UserProfile> getUserProfileByFirebaseUid(String firebaseUid) {
-        try {
-            DocumentSnapshot doc = firestore.collection(COLLECTION_NAME)
-                    .document(firebaseUid) // Document ID is the Firebase UID
-                    .get().get();
-            if (doc.exists()) {
-                UserProfile user = doc.toObject(UserProfile.class);
-                if (user != null) {
-                    user.setId(doc.getId()); // Set Firestore doc ID, which is the firebaseUid
-                    user.initDefaults(); // Initialize rating fields if they are null from Firestore
-                }
-                return Optional.ofNullable(user);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to fetch user profile by Firebase UID {}: {}", firebaseUid, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to fetch user by Firebase UID", e);
-        }
-        return Optional.empty();
+        return ServiceFutures.join(getUserProfileByFirebaseUidAsync(firebaseUid));
+    }
+
+    /**
+     * Async variant of {@link #getUserProfileByFirebaseUid}.
+     */
+    public CompletableFuture<Optional<UserProfile>> getUserProfileByFirebaseUidAsync(String firebaseUid) {
+        return userProfileRepository.findByIdAsync(firebaseUid) // Document ID is the Firebase UID
+                .thenApply(user -> {
+                    user.ifPresent(UserProfile::initDefaults); // Initialize rating fields if they are null in storage
+                    return user;
+                });
     }
 
     public UserProfile createUser(UserProfile user, MultipartFile image) {
         // Ensure creation date is set consistently
-        user.initDefaults(); // Call initDefaults to set createdAt and initialize rating fields
-        if (user.getCreatedAt() == null || user.getCreatedAt().isEmpty()) { // Double-check after initDefaults
-            user.setCreatedAt(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME));
+        if (user.getCreatedAt() != null && user.getCreatedAt().isEmpty()) {
+            user.setCreatedAt(null);
         }
+        user.initDefaults(); // Call initDefaults to set createdAt and initialize rating fields
+        user.materializeGeohash();
 
 
         try {
             if (image != null && !image.isEmpty()) {
-                String imageUrl = imageUploadService.uploadImage(image);
-                user.setProfileImageUrl(imageUrl);
+                UploadedImage uploaded = imageUploadService.uploadImage(image);
+                user.setProfileImageUrl(uploaded.getUrl());
+                user.setThumbnailUrl(uploaded.getThumbnailUrl());
             } else {
                 user.setProfileImageUrl(null); // No image provided on creation
+                user.setThumbnailUrl(null);
             }
         } catch (IOException e) {
             logger.error("Image upload failed during user profile creation for UID {}: {}", user.getFirebaseUid(), e.getMessage(), e);
@@ -102,97 +161,84 @@ public class UserProfileService {
             throw new IllegalArgumentException("Firebase UID must be provided to create a user profile.");
         }
 
-        ApiFuture<WriteResult> future = firestore.collection(COLLECTION_NAME)
-                .document(docId)
-                .set(user); // Use set to create or overwrite
-        try {
-            future.get();
-            user.setId(docId); // Set the ID on the returned object
-            logger.info("Successfully created user profile for Firebase UID: {}", docId);
-            return user;
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to create user profile in Firestore for UID {}: {}", docId, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to create user profile in Firestore", e);
-        }
+        userProfileRepository.save(user); // Create or overwrite
+        userSummaryCache.invalidate(docId); // Drop any cached "Unknown User" placeholder
+        // A profile recreated under an existing UID may still own posts, reviews and messages
+        authorSnapshotFanout.refreshAsync(summaryOf(docId, user));
+        user.setId(docId); // Set the ID on the returned object
+        logger.info("Successfully created user profile for Firebase UID: {}", docId);
+        return user;
     }
 
     public UserProfile updateUser(String firebaseUid, UserProfile updatedProfile, MultipartFile newImage)
             throws ResourceNotFoundException, IOException {
-        try {
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(firebaseUid);
-            ApiFuture<DocumentSnapshot> futureSnapshot = docRef.get();
-            DocumentSnapshot snapshot = futureSnapshot.get();
-
-            if (!snapshot.exists()) {
-                logger.warn("Attempted to update non-existent user profile with Firebase UID: {}", firebaseUid);
-                throw new ResourceNotFoundException("User profile not found with ID: " + firebaseUid);
-            }
+        UserProfile existingProfile = userProfileRepository.findById(firebaseUid).orElseThrow(() -> {
+            logger.warn("Attempted to update non-existent user profile with Firebase UID: {}", firebaseUid);
+            return new ResourceNotFoundException("User profile not found with ID: " + firebaseUid);
+        });
 
-            UserProfile existingProfile = snapshot.toObject(UserProfile.class);
-            if (existingProfile == null) {
-                logger.error("Failed to map existing document {} to UserProfile during update attempt.", firebaseUid);
-                throw new RuntimeException("Failed to retrieve existing user profile data.");
-            }
+        // Apply updates from updatedProfile to existingProfile
+        // Only update fields if they are explicitly provided in the updatedProfile object
+        if (updatedProfile.getDisplayName() != null) {
+            existingProfile.setDisplayName(updatedProfile.getDisplayName());
+        }
+        if (updatedProfile.getLocation() != null) {
+            existingProfile.setLocation(updatedProfile.getLocation());
+        }
+        if (updatedProfile.getLatitude() != null || updatedProfile.getLongitude() != null) {
+            existingProfile.setLatitude(updatedProfile.getLatitude());
+            existingProfile.setLongitude(updatedProfile.getLongitude());
+            existingProfile.materializeGeohash(); // Rejects a lone or out-of-range coordinate
+        }
+        if (updatedProfile.getBio() != null) {
+            existingProfile.setBio(updatedProfile.getBio());
+        }
+        if (updatedProfile.getSkillsOffered() != null) {
+            existingProfile.setSkillsOffered(updatedProfile.getSkillsOffered());
+        }
+        if (updatedProfile.getNeeds() != null) {
+            existingProfile.setNeeds(updatedProfile.getNeeds());
+        }
 
-            // Apply updates from updatedProfile to existingProfile
-            // Only update fields if they are explicitly provided in the updatedProfile object
-            if (updatedProfile.getDisplayName() != null) {
-                existingProfile.setDisplayName(updatedProfile.getDisplayName());
-            }
-            if (updatedProfile.getLocation() != null) {
-                existingProfile.setLocation(updatedProfile.getLocation());
-            }
-            if (updatedProfile.getBio() != null) {
-                existingProfile.setBio(updatedProfile.getBio());
-            }
-            if (updatedProfile.getSkillsOffered() != null) {
-                existingProfile.setSkillsOffered(updatedProfile.getSkillsOffered());
-            }
-            if (updatedProfile.getNeeds() != null) {
-                existingProfile.setNeeds(updatedProfile.getNeeds());
-            }
+        // IMPORTANT: Do NOT update rating, reviewCount, totalRatingSum directly here
+        // These should only be updated by the ReviewService. The write below only touches
+        // EDITABLE_PROFILE_FIELDS so a concurrent review transaction's counters are never overwritten.
 
-            // IMPORTANT: Do NOT update rating, reviewCount, totalRatingSum directly here
-            // These should only be updated by the ReviewService.
-            // If the updatedProfile object *contains* these fields, ensure they are ignored here
-            // or handled carefully to prevent accidental overwrites.
-            // For now, assuming these fields are NOT sent via the general updateUser endpoint.
+        // Handle profile image update. The replaced image and thumbnail are deleted only after the save
+        // below, so a failed save never leaves the stored profile pointing at deleted images.
+        String replacedImageUrl = null;
+        String replacedThumbnailUrl = null;
+        UploadedImage uploaded = null;
+        if (newImage != null && !newImage.isEmpty()) {
+            uploaded = imageUploadService.uploadImage(newImage);
+            replacedImageUrl = existingProfile.getProfileImageUrl();
+            replacedThumbnailUrl = existingProfile.getThumbnailUrl();
+            existingProfile.setProfileImageUrl(uploaded.getUrl());
+            existingProfile.setThumbnailUrl(uploaded.getThumbnailUrl());
+        } else if (updatedProfile.getProfileImageUrl() != null && updatedProfile.getProfileImageUrl().equals("null")) {
+            replacedImageUrl = existingProfile.getProfileImageUrl();
+            replacedThumbnailUrl = existingProfile.getThumbnailUrl();
+            existingProfile.setProfileImageUrl(null);
+            existingProfile.setThumbnailUrl(null);
+        }
 
-            // Handle profile image update:
-            if (newImage != null && !newImage.isEmpty()) {
-                String newImageUrl = imageUploadService.uploadImage(newImage);
-                if (existingProfile.getProfileImageUrl() != null && !existingProfile.getProfileImageUrl().isEmpty()) {
-                    try {
-                        imageUploadService.deleteImage(existingProfile.getProfileImageUrl());
-                        logger.info("Deleted old profile image for user {}.", firebaseUid);
-                    } catch (Exception e) {
-                        logger.warn("Failed to delete old profile image for user {}: {}", firebaseUid, e.getMessage());
-                    }
-                }
-                existingProfile.setProfileImageUrl(newImageUrl);
-            } else if (updatedProfile.getProfileImageUrl() != null && updatedProfile.getProfileImageUrl().equals("null")) {
-                if (existingProfile.getProfileImageUrl() != null && !existingProfile.getProfileImageUrl().isEmpty()) {
-                    try {
-                        imageUploadService.deleteImage(existingProfile.getProfileImageUrl());
-                        logger.info("Removed profile image for user {} as explicitly requested.", firebaseUid);
-                    } catch (Exception e) {
-                        logger.warn("Failed to delete profile image for user {}: {}", firebaseUid, e.getMessage());
-                    }
-                }
-                existingProfile.setProfileImageUrl(null);
+        existingProfile.setFirebaseUid(firebaseUid);
+        try {
+            userProfileRepository.saveFields(existingProfile, EDITABLE_PROFILE_FIELDS);
+        } catch (RuntimeException e) {
+            if (uploaded != null) {
+                deleteImageQuietly(firebaseUid, uploaded.getUrl(), uploaded.getThumbnailUrl()); // Nothing refers to it
             }
-
-            ApiFuture<WriteResult> writeResult = docRef.set(existingProfile); // Overwrite the entire document
-            writeResult.get();
-            existingProfile.setId(firebaseUid); // Ensure the ID is set on the returned object
-            logger.info("Successfully updated user profile for Firebase UID: {}", firebaseUid);
-            return existingProfile; // Return the updated object
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error updating user profile {}: {}", firebaseUid, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to update user profile: " + firebaseUid, e);
+            throw e;
+        }
+        if (replacedImageUrl != null || replacedThumbnailUrl != null) {
+            deleteImageQuietly(firebaseUid, replacedImageUrl, replacedThumbnailUrl);
         }
+        userSummaryCache.invalidate(firebaseUid);
+        authorSnapshotFanout.refreshAsync(summaryOf(firebaseUid, existingProfile)); // Posts, reviews and messages copy the name and image
+        existingProfile.setId(firebaseUid); // Ensure the ID is set on the returned object
+        logger.info("Successfully updated user profile for Firebase UID: {}", firebaseUid);
+        return existingProfile; // Return the updated object
     }
 
     /**
@@ -202,7 +248,7 @@ public class UserProfileService {
      * @param firebaseUid The Firebase UID of the user profile to update.
      * @param updates A map of field names to their new values.
      * @throws ResourceNotFoundException if the user profile does not exist.
-     * @throws RuntimeException if there's an error during Firestore access.
+     * @throws RuntimeException if there's an error during storage access.
      */
     public void updateUserProfileFields(String firebaseUid, Map<String, Object> updates) throws ResourceNotFoundException {
         if (firebaseUid == null || firebaseUid.isEmpty()) {
@@ -213,58 +259,50 @@ public class UserProfileService {
             return; // No operation needed
         }
 
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(firebaseUid);
-        try {
-            ApiFuture<DocumentSnapshot> futureSnapshot = docRef.get();
-            if (!futureSnapshot.get().exists()) {
-                throw new ResourceNotFoundException("User profile not found for UID: " + firebaseUid);
-            }
+        userProfileRepository.updateFields(firebaseUid, updates); // Partial update
+        logger.info("Successfully updated fields for user profile with UID: {}", firebaseUid);
+    }
+
 
-            ApiFuture<WriteResult> writeResult = docRef.update(updates); // Use update for partial updates
-            writeResult.get();
-            logger.info("Successfully updated fields for user profile with UID: {}", firebaseUid);
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error updating user profile fields for UID {}: {}", firebaseUid, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to update user profile fields.", e);
+    /**
+     * Deletes a profile image and its thumbnail that no stored profile refers to any more. Best effort:
+     * failures are only logged.
+     */
+    private void deleteImageQuietly(String firebaseUid, String imageUrl, String thumbnailUrl) {
+        if (imageUrl != null && !imageUrl.isEmpty()) {
+            try {
+                imageUploadService.deleteImage(imageUrl);
+                logger.info("Deleted unused profile image {} of user {}.", imageUrl, firebaseUid);
+            } catch (Exception e) {
+                logger.warn("Failed to delete unused profile image {} of user {}: {}", imageUrl, firebaseUid, e.getMessage());
+            }
         }
+        imageUploadService.deleteThumbnail(thumbnailUrl);
     }
 
+    private static UserSummary summaryOf(String firebaseUid, UserProfile profile) {
+        return new UserSummary(firebaseUid, profile.getDisplayName(), profile.getProfileImageUrl(), true);
+    }
 
     public void deleteUser(String id) throws ResourceNotFoundException {
-        try {
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
-            ApiFuture<DocumentSnapshot> futureSnapshot = docRef.get();
-            DocumentSnapshot snapshot = futureSnapshot.get();
-
-            if (!snapshot.exists()) {
-                logger.warn("Attempted to delete non-existent user profile with ID: {}", id);
-                throw new ResourceNotFoundException("User profile not found with ID: " + id);
-            }
-
-            UserProfile userProfile = snapshot.toObject(UserProfile.class);
-            if (userProfile == null) {
-                logger.error("Failed to map existing document {} to UserProfile during deletion attempt.", id);
-                throw new RuntimeException("Failed to process user profile data for deletion of ID: " + id);
-            }
+        UserProfile userProfile = userProfileRepository.findById(id).orElseThrow(() -> {
+            logger.warn("Attempted to delete non-existent user profile with ID: {}", id);
+            return new ResourceNotFoundException("User profile not found with ID: " + id);
+        });
 
-            // Optional: Delete the profile image from GCS when the profile is deleted
-            if (userProfile.getProfileImageUrl() != null && !userProfile.getProfileImageUrl().isEmpty()) {
-                try {
-                    imageUploadService.deleteImage(userProfile.getProfileImageUrl());
-                    logger.info("Deleted profile image for user {}.", id);
-                } catch (Exception e) {
-                    logger.error("Failed to delete profile image for user {}: {}", id, e.getMessage());
-                }
+        // Optional: Delete the profile image from GCS when the profile is deleted
+        if (userProfile.getProfileImageUrl() != null && !userProfile.getProfileImageUrl().isEmpty()) {
+            try {
+                imageUploadService.deleteImage(userProfile.getProfileImageUrl());
+                logger.info("Deleted profile image for user {}.", id);
+            } catch (Exception e) {
+                logger.error("Failed to delete profile image for user {}: {}", id, e.getMessage());
             }
-
-            ApiFuture<WriteResult> deleteResult = docRef.delete();
-            deleteResult.get();
-            logger.info("Successfully deleted user profile with Firebase UID: {}", id);
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error deleting user profile {}: {}", id, e.getMessage(), e);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Failed to delete user profile: " + id, e);
         }
+        imageUploadService.deleteThumbnail(userProfile.getThumbnailUrl());
+
+        userProfileRepository.delete(id);
+        userSummaryCache.invalidate(id);
+        logger.info("Successfully deleted user profile with Firebase UID: {}", id);
     }
 }
\ No newline at end of file
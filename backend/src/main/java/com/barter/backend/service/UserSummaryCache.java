@@ -0,0 +1,135 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.UserProfileRepository;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Shared cache of user display data (displayName, profileImageUrl) used to enrich posts, reviews and messages.
+ *
+ * Entries are bounded in number and expire after a TTL; UserProfileService invalidates a UID explicitly
+ * whenever that profile is created, updated or deleted. Loads are single-flight: concurrent misses for the
+ * same UID share one read. Missing profiles are cached as {@link UserSummary#unknown(String)}.
+ * Multi-UID misses are loaded together through {@link UserProfileRepository#findSummariesAsync}, so the
+ * async lookups never hold a thread while the profiles are read.
+ */
+@Component
+public class UserSummaryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSummaryCache.class);
+
+    private final AsyncLoadingCache<String, UserSummary> cache;
+
+    public UserSummaryCache(
+            UserProfileRepository userProfileRepository,
+            @Value("${barter.user-cache.max-size:10000}") long maxSize,
+            @Value("${barter.user-cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<String, UserSummary>() {
+                    @Override
+                    public CompletableFuture<UserSummary> asyncLoad(String firebaseUid, Executor executor) {
+                        return userProfileRepository.findSummariesAsync(List.of(firebaseUid))
+                                .thenApply(summaries -> summaries.get(firebaseUid));
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<String, UserSummary>> asyncLoadAll(Set<? extends String> firebaseUids, Executor executor) {
+                        return userProfileRepository.findSummariesAsync(firebaseUids);
+                    }
+                });
+        logger.info("User summary cache initialized: maxSize={}, ttlSeconds={}", maxSize, ttlSeconds);
+    }
+
+    /**
+     * Returns the summary for one user, loading it on a miss.
+     *
+     * @param firebaseUid The Firebase UID of the user.
+     * @return The user's summary, or an "Unknown User" placeholder if the profile does not exist.
+     * @throws RuntimeException if the profile could not be read.
+     */
+    public UserSummary get(String firebaseUid) {
+        try {
+            return getAsync(firebaseUid).join();
+        } catch (CompletionException e) {
+            logger.error("Error loading user summary for UID {}: {}", firebaseUid, e.getCause().getMessage(), e.getCause());
+            throw new RuntimeException("Failed to fetch user profile.", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the summaries for several users. Only the UIDs missing from the cache are loaded.
+     *
+     * @param firebaseUids The Firebase UIDs to resolve. Null entries are ignored.
+     * @return A map from UID to summary containing every requested non-null UID.
+     * @throws RuntimeException if any profile could not be read.
+     */
+    public Map<String, UserSummary> getAll(Collection<String> firebaseUids) {
+        try {
+            return getAllAsync(firebaseUids).join();
+        } catch (CompletionException e) {
+            logger.error("Error loading user summaries: {}", e.getCause().getMessage(), e.getCause());
+            throw new RuntimeException("Failed to fetch user profiles.", e.getCause());
+        }
+    }
+
+    /**
+     * Async form of {@link #get}: completes from the cache or when the profile read finishes.
+     * Fails with the storage error if the profile could not be read.
+     */
+    public CompletableFuture<UserSummary> getAsync(String firebaseUid) {
+        if (firebaseUid == null || firebaseUid.isEmpty()) {
+            return CompletableFuture.completedFuture(UserSummary.unknown(firebaseUid));
+        }
+        return cache.get(firebaseUid);
+    }
+
+    /**
+     * Async form of {@link #getAll}. Only the UIDs missing from the cache are loaded, in one batched read.
+     */
+    public CompletableFuture<Map<String, UserSummary>> getAllAsync(Collection<String> firebaseUids) {
+        return cache.getAll(firebaseUids.stream()
+                .filter(uid -> uid != null && !uid.isEmpty())
+                .distinct()
+                .toList());
+    }
+
+    /**
+     * Drops the cached summary for a user so the next read sees their latest profile.
+     */
+    public void invalidate(String firebaseUid) {
+        if (firebaseUid != null) {
+            cache.synchronous().invalidate(firebaseUid);
+        }
+    }
+
+    /**
+     * Hit, miss, load and eviction counters since startup.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+}
@@ -0,0 +1,23 @@
+package com.barter.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsTest {
+
+	@Test
+	void runsEachTaskOnANewNamedVirtualThread() throws Exception {
+		try (ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("worker-")) {
+			Thread first = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+			Thread second = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+			assertTrue(first.isVirtual());
+			assertEquals("worker-0", first.getName());
+			assertEquals("worker-1", second.getName());
+		}
+	}
+}
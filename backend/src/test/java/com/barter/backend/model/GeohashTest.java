@@ -0,0 +1,55 @@
+package com.barter.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeohashTest {
+
+	@Test
+	void encodesKnownPoint() {
+		assertEquals("u4pruydqq", Geohash.encode(57.64911, 10.40744, 9));
+		assertEquals("u4pru", Geohash.encode(57.64911, 10.40744, 5));
+	}
+
+	@Test
+	void measuresGreatCircleDistance() {
+		// Paris to London, about 344 km
+		assertEquals(344, Geohash.distanceKm(48.8566, 2.3522, 51.5074, -0.1278), 2);
+		assertEquals(0, Geohash.distanceKm(10, 20, 10, 20), 1e-9);
+	}
+
+	@Test
+	void coveringCellsContainEveryPointInsideTheCircle() {
+		Random random = new Random(7);
+		double[][] centres = {{52.52, 13.405}, {-33.87, 151.21}, {0.0, 179.99}, {64.1, -21.9}, {0.0, 0.0}};
+		for (double[] centre : centres) {
+			for (double radiusKm : new double[]{0.5, 5, 25, 150}) {
+				Set<String> cells = Geohash.coveringCells(centre[0], centre[1], radiusKm);
+				assertTrue(cells.size() <= 16, "too many cells for radius " + radiusKm);
+				for (int i = 0; i < 500; i++) {
+					double lat = centre[0] + (random.nextDouble() * 2 - 1) * radiusKm / 111.32;
+					double lon = centre[1] + (random.nextDouble() * 2 - 1) * radiusKm / (111.32 * Math.cos(Math.toRadians(centre[0])));
+					lon = lon > 180 ? lon - 360 : lon < -180 ? lon + 360 : lon;
+					if (Math.abs(lat) > 90 || Geohash.distanceKm(centre[0], centre[1], lat, lon) > radiusKm) {
+						continue;
+					}
+					String hash = Geohash.encode(lat, lon, Geohash.STORED_PRECISION);
+					assertTrue(cells.stream().anyMatch(hash::startsWith),
+							"point " + lat + "," + lon + " not covered for centre " + centre[0] + "," + centre[1] + " radius " + radiusKm);
+				}
+			}
+		}
+	}
+
+	@Test
+	void rejectsInvalidCoordinates() {
+		assertThrows(IllegalArgumentException.class, () -> Geohash.encode(91, 0, 5));
+		assertThrows(IllegalArgumentException.class, () -> Geohash.ofCoordinates(10.0, null));
+		assertThrows(IllegalArgumentException.class, () -> Geohash.coveringCells(10, 10, 0));
+		assertNull(Geohash.ofCoordinates(null, null));
+	}
+}
@@ -0,0 +1,28 @@
+package com.barter.backend.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewRepositoryTest {
+
+	@Test
+	void adjustsHistogramWithoutGoingNegative() {
+		Map<String, Long> seeded = ReviewRepository.adjustHistogram(null, 4, 1);
+		assertEquals(Map.of("1", 0L, "2", 0L, "3", 0L, "4", 1L, "5", 0L), seeded);
+
+		Map<String, Long> removed = ReviewRepository.adjustHistogram(seeded, 2, -1);
+		assertEquals(0L, removed.get("2"));
+		assertEquals(seeded, ReviewRepository.adjustHistogram(seeded, 0, 1)); // Out-of-range ratings are not counted
+		assertEquals(1L, seeded.get("4")); // The input is left unchanged
+	}
+
+	@Test
+	void roundsAverageRatingToTwoDecimals() {
+		assertEquals(0.0, ReviewRepository.averageRating(0, 0));
+		assertEquals(4.33, ReviewRepository.averageRating(3, 13));
+		assertEquals(4.67, ReviewRepository.averageRating(3, 14));
+	}
+}
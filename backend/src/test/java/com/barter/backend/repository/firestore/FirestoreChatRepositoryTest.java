@@ -0,0 +1,128 @@
+package com.barter.backend.repository.firestore;
+
+import com.barter.backend.model.ChatConversation;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FirestoreChatRepositoryTest {
+
+	// Messages still stored under the chat; each page query returns the first PAGE_SIZE of them
+	private final List<QueryDocumentSnapshot> storedMessages = new ArrayList<>();
+	private final List<Integer> pageSizes = new ArrayList<>();
+
+	private final List<DocumentReference> inboxEntries = new ArrayList<>();
+
+	private DocumentReference chatRef;
+	private WriteBatch batch;
+	private BulkWriter writer;
+	private FirestoreChatRepository repository;
+
+	@BeforeEach
+	void setUp() {
+		Firestore firestore = mock(Firestore.class);
+		CollectionReference chats = mock(CollectionReference.class);
+		when(firestore.collection("chats")).thenReturn(chats);
+		chatRef = mock(DocumentReference.class);
+		when(chats.document("chat-1")).thenReturn(chatRef);
+		DocumentSnapshot conversation = mock(DocumentSnapshot.class);
+		when(conversation.exists()).thenReturn(true);
+		when(conversation.getId()).thenReturn("chat-1");
+		when(conversation.toObject(ChatConversation.class)).thenReturn(chat("alice", "bob"));
+		when(chatRef.get()).thenReturn(ApiFutures.immediateFuture(conversation));
+
+		CollectionReference inboxes = mock(CollectionReference.class);
+		when(firestore.collection("inboxes")).thenReturn(inboxes);
+		for (String uid : List.of("alice", "bob")) {
+			DocumentReference inbox = mock(DocumentReference.class);
+			CollectionReference entries = mock(CollectionReference.class);
+			DocumentReference entry = mock(DocumentReference.class);
+			when(inboxes.document(uid)).thenReturn(inbox);
+			when(inbox.collection("entries")).thenReturn(entries);
+			when(entries.document("chat-1")).thenReturn(entry);
+			inboxEntries.add(entry);
+		}
+		batch = mock(WriteBatch.class);
+		when(firestore.batch()).thenReturn(batch);
+		when(batch.commit()).thenReturn(ApiFutures.immediateFuture(List.of()));
+
+		CollectionReference messages = mock(CollectionReference.class, RETURNS_SELF);
+		when(chatRef.collection("messages")).thenReturn(messages);
+		when(messages.get()).thenAnswer(invocation -> {
+			List<QueryDocumentSnapshot> page = List.copyOf(
+					storedMessages.subList(0, Math.min(FirestoreBulkDelete.PAGE_SIZE, storedMessages.size())));
+			pageSizes.add(page.size());
+			QuerySnapshot snapshot = mock(QuerySnapshot.class);
+			when(snapshot.getDocuments()).thenReturn(page);
+			return ApiFutures.immediateFuture(snapshot);
+		});
+
+		writer = mock(BulkWriter.class);
+		when(firestore.bulkWriter()).thenReturn(writer);
+		when(writer.delete(any(DocumentReference.class))).thenAnswer(invocation -> {
+			DocumentReference deleted = invocation.getArgument(0);
+			storedMessages.removeIf(message -> message.getReference() == deleted);
+			return ApiFutures.immediateFuture(null);
+		});
+		repository = new FirestoreChatRepository(firestore, false);
+	}
+
+	@Test
+	void deletesMessagesPageByPageBeforeTheConversation() throws Exception {
+		storeMessages(FirestoreBulkDelete.PAGE_SIZE + 3);
+
+		assertEquals(FirestoreBulkDelete.PAGE_SIZE + 3, repository.delete("chat-1"));
+
+		assertEquals(List.of(FirestoreBulkDelete.PAGE_SIZE, 3), pageSizes); // The short page ends the run
+		assertTrue(storedMessages.isEmpty());
+		verify(batch).delete(chatRef); // Together with both inbox entries
+		for (DocumentReference entry : inboxEntries) {
+			verify(batch).delete(entry);
+		}
+		verify(batch).commit();
+		verify(writer).close();
+	}
+
+	@Test
+	void keepsTheConversationWhenAMessageDeleteFails() throws Exception {
+		storeMessages(3);
+		DocumentReference failing = storedMessages.get(1).getReference();
+		doReturn(ApiFutures.immediateFailedFuture(new IllegalStateException("Retries exhausted"))).when(writer).delete(failing);
+
+		RuntimeException e = assertThrows(RuntimeException.class, () -> repository.delete("chat-1"));
+		assertTrue(e.getMessage().startsWith("Failed to delete messages of chat chat-1"), e.getMessage());
+
+		verify(batch, never()).commit(); // Deleting the chat again finishes the job
+		verify(writer).close();
+	}
+
+	private static ChatConversation chat(String... participants) {
+		ChatConversation chat = new ChatConversation();
+		chat.setParticipants(List.of(participants));
+		return chat;
+	}
+
+	private void storeMessages(int count) {
+		for (int i = 0; i < count; i++) {
+			QueryDocumentSnapshot message = mock(QueryDocumentSnapshot.class);
+			DocumentReference reference = mock(DocumentReference.class);
+			when(message.getReference()).thenReturn(reference);
+			storedMessages.add(message);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.barter.backend.repository.firestore;
+
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.repository.PostQuery;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FirestorePostRepositoryTest {
+
+	private static final List<String> TAGS = IntStream.range(0, 12).mapToObj(i -> "t" + i).collect(Collectors.toList());
+
+	// What each array-contains-any query returns, newest first, keyed by its slice of tags
+	private final Map<List<String>, List<BarterPost>> postsBySlice = new HashMap<>();
+	private final List<List<String>> slicesQueried = new ArrayList<>();
+
+	private FirestorePostRepository repository;
+
+	@BeforeEach
+	void setUp() {
+		Firestore firestore = mock(Firestore.class);
+		CollectionReference posts = mock(CollectionReference.class);
+		when(firestore.collection("barterPosts")).thenReturn(posts);
+		when(posts.whereArrayContainsAny(eq("tags"), anyList())).thenAnswer(invocation -> {
+			List<String> slice = List.copyOf(invocation.getArgument(1));
+			slicesQueried.add(slice);
+			Query query = mock(Query.class, RETURNS_SELF); // Ordering and limits are left to the stored lists
+			QuerySnapshot snapshot = mock(QuerySnapshot.class);
+			List<QueryDocumentSnapshot> documents = postsBySlice.getOrDefault(slice, List.of()).stream()
+					.map(FirestorePostRepositoryTest::document)
+					.collect(Collectors.toList());
+			when(snapshot.getDocuments()).thenReturn(documents);
+			when(query.get()).thenReturn(ApiFutures.immediateFuture(snapshot));
+			return query;
+		});
+		repository = new FirestorePostRepository(firestore, true);
+
+		// p5 has tags from both slices, so both queries return it
+		postsBySlice.put(TAGS.subList(0, 10), List.of(post(5), post(4), post(2), post(1)));
+		postsBySlice.put(TAGS.subList(10, 12), List.of(post(5), post(3), post(0)));
+	}
+
+	@Test
+	void splitsMoreThanTenTagsIntoSlicesAndMergesNewestFirst() {
+		List<BarterPost> all = repository.findAll(new PostQuery(null, null, null, TAGS));
+
+		assertEquals(List.of(TAGS.subList(0, 10), TAGS.subList(10, 12)), slicesQueried);
+		assertEquals(List.of("p5", "p4", "p3", "p2", "p1", "p0"), ids(all));
+	}
+
+	@Test
+	void mergedPageStopsAtTheLimit() {
+		List<BarterPost> page = repository.findPage(new PostQuery(null, null, null, TAGS), null, null, 3);
+
+		assertEquals(List.of("p5", "p4", "p3"), ids(page));
+	}
+
+	private static List<String> ids(List<BarterPost> posts) {
+		return posts.stream().map(BarterPost::getId).collect(Collectors.toList());
+	}
+
+	private static BarterPost post(int i) {
+		BarterPost post = new BarterPost();
+		post.setId("p" + i);
+		post.setCreatedAtMillis(1_704_103_200_000L + i * 60_000L);
+		return post;
+	}
+
+	private static QueryDocumentSnapshot document(BarterPost post) {
+		QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+		when(document.getId()).thenReturn(post.getId());
+		when(document.toObject(BarterPost.class)).thenReturn(post);
+		return document;
+	}
+}
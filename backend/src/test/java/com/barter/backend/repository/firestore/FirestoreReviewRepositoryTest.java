@@ -0,0 +1,122 @@
+package com.barter.backend.repository.firestore;
+
+import com.barter.backend.model.Review;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FirestoreReviewRepositoryTest {
+
+	// Reviews stored for bob before the profile kept any counters
+	private final List<QueryDocumentSnapshot> storedReviews = new ArrayList<>();
+
+	private Transaction transaction;
+	private DocumentReference profileRef;
+	private DocumentReference reviewRef;
+	private FirestoreReviewRepository repository;
+
+	@BeforeEach
+	void setUp() {
+		Firestore firestore = mock(Firestore.class);
+		CollectionReference reviews = mock(CollectionReference.class, RETURNS_SELF);
+		CollectionReference profiles = mock(CollectionReference.class);
+		when(firestore.collection("reviews")).thenReturn(reviews);
+		when(firestore.collection("user_profiles")).thenReturn(profiles);
+
+		reviewRef = mock(DocumentReference.class);
+		when(reviewRef.getId()).thenReturn("review-1");
+		when(reviews.document()).thenReturn(reviewRef);
+		when(reviews.document("review-1")).thenReturn(reviewRef);
+		profileRef = mock(DocumentReference.class);
+		when(profiles.document("bob")).thenReturn(profileRef);
+
+		DocumentSnapshot legacyProfile = mock(DocumentSnapshot.class);
+		when(legacyProfile.exists()).thenReturn(true);
+		when(legacyProfile.getId()).thenReturn("bob");
+		when(legacyProfile.getLong(anyString())).thenReturn(null); // No reviewCount or totalRatingSum
+		QuerySnapshot reviewsOfBob = mock(QuerySnapshot.class);
+		when(reviewsOfBob.getDocuments()).thenReturn(storedReviews);
+
+		transaction = mock(Transaction.class);
+		when(transaction.get(profileRef)).thenReturn(ApiFutures.immediateFuture(legacyProfile));
+		when(transaction.get(reviews)).thenReturn(ApiFutures.immediateFuture(reviewsOfBob));
+		when(firestore.runTransaction(any())).thenAnswer(invocation -> ApiFutures.immediateFuture(
+				invocation.<Transaction.Function<?>>getArgument(0).updateCallback(transaction)));
+		repository = new FirestoreReviewRepository(firestore, false);
+	}
+
+	@Test
+	void seedsLegacyAggregatesBeforeCountingANewReview() {
+		storeReview(5);
+		storeReview(3);
+
+		repository.insert(review(4)); // Seeded from the two stored reviews, then counted once
+
+		assertEquals(Map.of("reviewCount", 3L, "totalRatingSum", 12L, "rating", 4.0,
+				"ratingHistogram", histogram(0, 0, 1, 1, 1)), writtenAggregate());
+	}
+
+	@Test
+	void seedsLegacyAggregatesBeforeRemovingADeletedReview() {
+		storeReview(5);
+		storeReview(3);
+		storeReview(4);
+		DocumentSnapshot removed = mock(DocumentSnapshot.class);
+		when(removed.exists()).thenReturn(true);
+		when(removed.getString("toUserFirebaseUid")).thenReturn("bob");
+		when(removed.getLong("rating")).thenReturn(3L);
+		when(transaction.get(reviewRef)).thenReturn(ApiFutures.immediateFuture(removed));
+
+		assertTrue(repository.delete("review-1")); // Seeded from all three reviews, then the deleted one is removed
+
+		verify(transaction).delete(reviewRef);
+		assertEquals(Map.of("reviewCount", 2L, "totalRatingSum", 9L, "rating", 4.5,
+				"ratingHistogram", histogram(0, 0, 0, 1, 1)), writtenAggregate());
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> writtenAggregate() {
+		ArgumentCaptor<Map<String, Object>> updates = ArgumentCaptor.forClass(Map.class);
+		verify(transaction).update(eq(profileRef), updates.capture());
+		return updates.getValue();
+	}
+
+	private void storeReview(long rating) {
+		QueryDocumentSnapshot stored = mock(QueryDocumentSnapshot.class);
+		when(stored.getLong("rating")).thenReturn(rating);
+		storedReviews.add(stored);
+	}
+
+	private static Map<String, Long> histogram(long... counts) {
+		Map<String, Long> histogram = new HashMap<>();
+		for (int stars = 1; stars <= counts.length; stars++) {
+			histogram.put(String.valueOf(stars), counts[stars - 1]);
+		}
+		return histogram;
+	}
+
+	private static Review review(int rating) {
+		Review review = new Review();
+		review.setFromUserFirebaseUid("alice");
+		review.setToUserFirebaseUid("bob");
+		review.setRating(rating);
+		return review;
+	}
+}
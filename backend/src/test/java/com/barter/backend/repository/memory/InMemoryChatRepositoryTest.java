@@ -0,0 +1,106 @@
+package com.barter.backend.repository.memory;
+
+import com.barter.backend.model.ChatConversation;
+import com.barter.backend.model.ChatInboxEntry;
+import com.barter.backend.model.ChatMessage;
+import com.barter.backend.model.UserSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryChatRepositoryTest {
+
+	private InMemoryChatRepository repository;
+
+	@BeforeEach
+	void setUp() {
+		repository = new InMemoryChatRepository("");
+	}
+
+	@Test
+	void countsUnreadMessagesPerParticipant() {
+		createDirectChat("alice", "bob", "2024-01-01T10:00:00Z");
+
+		send("alice_bob", "alice", "hi", "2024-01-01T10:01:00Z");
+		send("alice_bob", "alice", "x".repeat(500), "2024-01-01T10:02:00Z");
+
+		ChatInboxEntry bob = repository.findInbox("bob", null, null, 10).get(0);
+		assertEquals(2, bob.getUnreadCount());
+		assertEquals("alice", bob.getCounterpartUid());
+		assertEquals("Alice", bob.getCounterpartDisplayName());
+		assertEquals(ChatInboxEntry.SNIPPET_LENGTH, bob.getLastMessage().getText().length());
+		assertEquals(0, repository.findInbox("alice", null, null, 10).get(0).getUnreadCount());
+
+		send("alice_bob", "bob", "hello", "2024-01-01T10:03:00Z");
+		assertEquals(0, repository.findInbox("bob", null, null, 10).get(0).getUnreadCount());
+		assertEquals(1, repository.findInbox("alice", null, null, 10).get(0).getUnreadCount());
+
+		repository.markInboxRead("alice", "alice_bob");
+		assertEquals(0, repository.findInbox("alice", null, null, 10).get(0).getUnreadCount());
+	}
+
+	@Test
+	void pagesInboxMostRecentlyUpdatedFirst() {
+		createDirectChat("alice", "bob", "2024-01-01T10:00:00Z");
+		createDirectChat("alice", "carol", "2024-01-02T10:00:00Z");
+		createDirectChat("alice", "dave", "2024-01-03T10:00:00Z");
+		send("alice_bob", "bob", "bump", "2024-01-04T10:00:00Z");
+
+		List<ChatInboxEntry> first = repository.findInbox("alice", null, null, 2);
+		assertEquals(List.of("alice_bob", "alice_dave"), chatIds(first));
+		ChatInboxEntry last = first.get(1);
+		assertEquals(List.of("alice_carol"), chatIds(repository.findInbox("alice", last.getUpdatedAtMillis(), last.getChatId(), 2)));
+	}
+
+	@Test
+	void refreshesCounterpartAndDropsEntriesOfDeletedChats() {
+		createDirectChat("alice", "bob", "2024-01-01T10:00:00Z");
+
+		UserSummary renamed = new UserSummary("alice", "Alicia", "https://img/alicia.png", true);
+		assertEquals(1, repository.updateInboxCounterpart("alice", renamed));
+		assertEquals(0, repository.updateInboxCounterpart("alice", renamed));
+		assertEquals("Alicia", repository.findInbox("bob", null, null, 10).get(0).getCounterpartDisplayName());
+
+		repository.delete("alice_bob");
+		assertTrue(repository.findInbox("alice", null, null, 10).isEmpty());
+		assertTrue(repository.findInbox("bob", null, null, 10).isEmpty());
+	}
+
+	private void createDirectChat(String first, String second, String createdAt) {
+		ChatConversation chat = new ChatConversation();
+		chat.setId(first + "_" + second);
+		chat.setParticipants(List.of(first, second));
+		chat.setType("direct");
+		chat.setCreatedAt(createdAt);
+		chat.initDefaults();
+		repository.save(chat, List.of(entry(chat, first, second), entry(chat, second, first)));
+	}
+
+	private static ChatInboxEntry entry(ChatConversation chat, String owner, String counterpart) {
+		ChatInboxEntry entry = new ChatInboxEntry();
+		entry.setOwnerUid(owner);
+		entry.setType(chat.getType());
+		entry.setCounterpartUid(counterpart);
+		entry.setCounterpartDisplayName(Character.toUpperCase(counterpart.charAt(0)) + counterpart.substring(1));
+		entry.setUpdatedAt(chat.getUpdatedAt());
+		return entry;
+	}
+
+	private void send(String chatId, String senderId, String text, String createdAt) {
+		ChatMessage message = new ChatMessage();
+		message.setSenderId(senderId);
+		message.setText(text);
+		message.setCreatedAt(createdAt);
+		message.initDefaults();
+		repository.appendMessage(chatId, message, new ChatConversation.LastMessage(senderId, text, createdAt), createdAt,
+				repository.findById(chatId).orElseThrow().getParticipants());
+	}
+
+	private static List<String> chatIds(List<ChatInboxEntry> entries) {
+		return entries.stream().map(ChatInboxEntry::getChatId).collect(Collectors.toList());
+	}
+}
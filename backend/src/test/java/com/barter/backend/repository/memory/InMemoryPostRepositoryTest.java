@@ -0,0 +1,118 @@
+package com.barter.backend.repository.memory;
+
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.repository.PostQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryPostRepositoryTest {
+
+	private InMemoryPostRepository repository;
+
+	@BeforeEach
+	void setUp() {
+		repository = new InMemoryPostRepository("");
+		repository.save(post("a", "alice", "open", "2024-01-01T10:00:00", "music"));
+		repository.save(post("b", "bob", "open", "2024-01-02T10:00:00", "garden"));
+		repository.save(post("c", "alice", "closed", "2024-01-03T10:00:00", "music"));
+		repository.save(post("d", "alice", "open", "2024-01-03T10:00:00", "garden"));
+		repository.save(post("e", "bob", "open", "2024-01-04T10:00:00", "music"));
+	}
+
+	@Test
+	void pagesNewestFirstWithIdTieBreak() {
+		PostQuery open = PostQuery.byStatus("open");
+		List<BarterPost> first = repository.findPage(open, null, null, 2);
+		assertEquals(List.of("e", "d"), ids(first));
+
+		BarterPost last = first.get(1);
+		assertEquals(List.of("b", "a"), ids(repository.findPage(open, last.getCreatedAtMillis(), last.getId(), 5)));
+	}
+
+	@Test
+	void ordersByInstantRatherThanTimestampText() {
+		// 12:00+02:00 is 10:00 UTC: older than "f", although it sorts after it as a string.
+		repository.save(post("f", "carol", "open", "2024-01-05T11:00:00Z", "music"));
+		repository.save(post("g", "carol", "open", "2024-01-05T12:00:00+02:00", "music"));
+		BarterPost stamped = post("h", "carol", "open", null, "music");
+		stamped.initDefaults();
+		repository.save(stamped);
+
+		assertEquals(List.of("h", "f", "g"), ids(repository.findAll(new PostQuery("open", "carol", null, null))));
+		assertEquals(stamped.getCreatedAtMillis(), repository.findById("h").orElseThrow().getCreatedAtMillis());
+	}
+
+	@Test
+	void appliesUploaderAndTagFilters() {
+		assertEquals(List.of("d", "a"), ids(repository.findAll(new PostQuery("open", "alice", null, null))));
+		assertEquals(List.of("e", "a"), ids(repository.findAll(new PostQuery("open", null, null, List.of("music")))));
+	}
+
+	@Test
+	void matchesAnyOfMoreTagsThanOneFirestoreQueryTakes() {
+		List<String> tags = new ArrayList<>();
+		for (int i = 0; i < 14; i++) {
+			tags.add("tag" + i);
+		}
+		tags.add("garden");
+		assertEquals(List.of("d", "b"), ids(repository.findAll(new PostQuery("open", null, null, tags))));
+		assertEquals(List.of("d"), ids(repository.findPage(new PostQuery("open", null, null, tags), null, null, 1)));
+	}
+
+	@Test
+	void reindexesOnUpdateAndReturnsDetachedCopies() {
+		repository.updateFields("e", Map.of("status", "closed"));
+		assertEquals(List.of("d", "b", "a"), ids(repository.findAll(PostQuery.byStatus("open"))));
+
+		BarterPost copy = repository.findById("d").orElseThrow();
+		copy.setTitle("changed");
+		assertNotEquals("changed", repository.findById("d").orElseThrow().getTitle());
+
+		repository.delete("d");
+		assertTrue(repository.findById("d").isEmpty());
+		assertEquals(List.of("b", "a"), ids(repository.findAll(PostQuery.byStatus("open"))));
+	}
+
+	@Test
+	void updatesFieldsOnlyWhenTheExpectedValueIsStored() {
+		BarterPost pending = post("p", "alice", "open", "2024-01-05T10:00:00", "music");
+		pending.setImageStatus(BarterPost.IMAGE_PENDING);
+		repository.save(pending);
+
+		Map<String, Object> image = new HashMap<>();
+		image.put("imageUrl", "https://img/p.png");
+		image.put("imageStatus", null);
+		assertTrue(repository.updateFieldsIf("p", "imageStatus", BarterPost.IMAGE_PENDING, image));
+		BarterPost stored = repository.findById("p").orElseThrow();
+		assertEquals("https://img/p.png", stored.getImageUrl());
+		assertNull(stored.getImageStatus());
+
+		// A second, late result no longer finds the post pending; neither does one for a missing post
+		assertFalse(repository.updateFieldsIf("p", "imageStatus", BarterPost.IMAGE_PENDING, Map.of("imageUrl", "https://img/late.png")));
+		assertEquals("https://img/p.png", repository.findById("p").orElseThrow().getImageUrl());
+		assertFalse(repository.updateFieldsIf("missing", "imageStatus", BarterPost.IMAGE_PENDING, Map.of("imageUrl", "x")));
+	}
+
+	private static List<String> ids(List<BarterPost> posts) {
+		return posts.stream().map(BarterPost::getId).collect(Collectors.toList());
+	}
+
+	private static BarterPost post(String id, String uploader, String status, String createdAt, String tag) {
+		BarterPost post = new BarterPost();
+		post.setId(id);
+		post.setTitle("Post " + id);
+		post.setUserFirebaseUid(uploader);
+		post.setStatus(status);
+		post.setCreatedAt(createdAt);
+		post.setTags(List.of(tag));
+		return post;
+	}
+}
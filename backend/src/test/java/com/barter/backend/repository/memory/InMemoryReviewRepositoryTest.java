@@ -0,0 +1,127 @@
+package com.barter.backend.repository.memory;
+
+import com.barter.backend.model.RatingSummary;
+import com.barter.backend.model.Review;
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.repository.ReviewQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryReviewRepositoryTest {
+
+	private InMemoryUserProfileRepository profiles;
+	private InMemoryReviewRepository repository;
+
+	@BeforeEach
+	void setUp() {
+		profiles = new InMemoryUserProfileRepository("");
+		repository = new InMemoryReviewRepository(profiles, "");
+		UserProfile bob = new UserProfile();
+		bob.setFirebaseUid("bob");
+		bob.initDefaults();
+		profiles.save(bob);
+	}
+
+	@Test
+	void pagesReviewsNewestFirst() {
+		Review oldest = repository.insert(review("alice", "bob", 5, "2024-01-01T10:00:00Z"));
+		Review middle = repository.insert(review("carol", "bob", 4, "2024-01-02T10:00:00Z"));
+		Review newest = repository.insert(review("alice", "dave", 3, "2024-01-03T10:00:00Z"));
+
+		List<Review> first = repository.findPage(ReviewQuery.toUser("bob"), null, null, 1);
+		assertEquals(List.of(middle.getId()), ids(first));
+		Review last = first.get(0);
+		assertEquals(List.of(oldest.getId()), ids(repository.findPage(ReviewQuery.toUser("bob"), last.getCreatedAtMillis(), last.getId(), 5)));
+
+		assertEquals(List.of(newest.getId(), oldest.getId()), ids(repository.findPage(ReviewQuery.writtenBy("alice"), null, null, 5)));
+		assertEquals(3, repository.findPage(ReviewQuery.all(), null, null, 10).size());
+	}
+
+	@Test
+	void keepsStarHistogramWithAggregates() {
+		repository.insert(review("alice", "bob", 5, null));
+		Review removed = repository.insert(review("carol", "bob", 2, null));
+		repository.insert(review("dave", "bob", 5, null));
+		repository.delete(removed.getId());
+
+		RatingSummary summary = repository.findRatingSummary("bob").orElseThrow();
+		assertEquals(2, summary.getReviewCount());
+		assertEquals(5.0, summary.getAverageRating());
+		assertEquals(Map.of("1", 0L, "2", 0L, "3", 0L, "4", 0L, "5", 2L), summary.getHistogram());
+		assertTrue(repository.findRatingSummary("nobody").isEmpty());
+	}
+
+	@Test
+	void seedsHistogramOfProfilesRatedBeforeItExisted() {
+		repository.insert(review("alice", "bob", 4, null));
+		profiles.updateFields("bob", Map.of("reviewCount", 7L)); // Stale counters and no histogram
+		UserProfile legacy = profiles.findById("bob").orElseThrow();
+		legacy.setRatingHistogram(null);
+		profiles.save(legacy);
+
+		repository.insert(review("carol", "bob", 2, null));
+		RatingSummary summary = repository.findRatingSummary("bob").orElseThrow();
+		assertEquals(2, summary.getReviewCount());
+		assertEquals(1L, summary.getHistogram().get("4"));
+		assertEquals(1L, summary.getHistogram().get("2"));
+	}
+
+	@Test
+	void seedsLegacyAggregatesBeforeCountingANewReview() {
+		repository.insert(review("alice", "bob", 5, null));
+		repository.insert(review("carol", "bob", 3, null));
+		clearAggregates("bob");
+
+		repository.insert(review("dave", "bob", 4, null)); // Seeded from the two stored reviews, then counted once
+
+		UserProfile bob = profiles.findById("bob").orElseThrow();
+		assertEquals(3L, bob.getReviewCount());
+		assertEquals(12L, bob.getTotalRatingSum());
+		assertEquals(4.0, bob.getRating());
+		assertEquals(Map.of("1", 0L, "2", 0L, "3", 1L, "4", 1L, "5", 1L), bob.getRatingHistogram());
+	}
+
+	@Test
+	void seedsLegacyAggregatesBeforeRemovingADeletedReview() {
+		repository.insert(review("alice", "bob", 5, null));
+		Review removed = repository.insert(review("carol", "bob", 3, null));
+		repository.insert(review("dave", "bob", 4, null));
+		clearAggregates("bob");
+
+		assertTrue(repository.delete(removed.getId())); // Seeded from all three reviews, then the deleted one is removed
+
+		UserProfile bob = profiles.findById("bob").orElseThrow();
+		assertEquals(2L, bob.getReviewCount());
+		assertEquals(9L, bob.getTotalRatingSum());
+		assertEquals(4.5, bob.getRating());
+		assertEquals(Map.of("1", 0L, "2", 0L, "3", 0L, "4", 1L, "5", 1L), bob.getRatingHistogram());
+	}
+
+	private void clearAggregates(String firebaseUid) {
+		UserProfile legacy = profiles.findById(firebaseUid).orElseThrow(); // As written before the aggregates existed
+		legacy.setReviewCount(null);
+		legacy.setTotalRatingSum(null);
+		legacy.setRatingHistogram(null);
+		profiles.save(legacy);
+	}
+
+	private static List<String> ids(List<Review> reviews) {
+		return reviews.stream().map(Review::getId).collect(Collectors.toList());
+	}
+
+	private static Review review(String from, String to, int rating, String createdAt) {
+		Review review = new Review();
+		review.setFromUserFirebaseUid(from);
+		review.setToUserFirebaseUid(to);
+		review.setRating(rating);
+		review.setCreatedAt(createdAt);
+		review.initDefaults();
+		return review;
+	}
+}
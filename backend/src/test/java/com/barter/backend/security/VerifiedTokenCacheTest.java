@@ -0,0 +1,67 @@
+package com.barter.backend.security;
+
+import com.google.firebase.auth.FirebaseToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+	private static final long START_SECONDS = 1_700_000_000L;
+
+	private final AtomicLong nowMillis = new AtomicLong(TimeUnit.SECONDS.toMillis(START_SECONDS));
+	private final AtomicInteger verifierCalls = new AtomicInteger();
+	private long expSeconds;
+	private VerifiedTokenCache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = new VerifiedTokenCache(idToken -> {
+			verifierCalls.incrementAndGet();
+			return token(idToken, expSeconds);
+		}, 100, nowMillis::get);
+	}
+
+	@Test
+	void servesCachedTokenUntilItsExpClaim() throws Exception {
+		expSeconds = START_SECONDS + 60;
+		FirebaseToken first = cache.verify("token-a");
+		assertSame(first, cache.verify("token-a"));
+		assertEquals(1, verifierCalls.get());
+
+		nowMillis.set(TimeUnit.SECONDS.toMillis(expSeconds) - 1);
+		assertSame(first, cache.verify("token-a"));
+		assertEquals(1, verifierCalls.get());
+
+		nowMillis.set(TimeUnit.SECONDS.toMillis(expSeconds));
+		cache.verify("token-a"); // Expired in the cache, so it is verified again
+		assertEquals(2, verifierCalls.get());
+	}
+
+	@Test
+	void doesNotCacheExpiredTokens() throws Exception {
+		expSeconds = START_SECONDS - 1;
+		cache.verify("token-b");
+		cache.verify("token-b");
+		assertEquals(2, verifierCalls.get());
+		assertEquals(0, cache.estimatedSize());
+	}
+
+	private static FirebaseToken token(String uid, long exp) {
+		try {
+			// FirebaseToken has no public constructor, see LocalIdTokenVerifier
+			Constructor<FirebaseToken> constructor = FirebaseToken.class.getDeclaredConstructor(Map.class);
+			constructor.setAccessible(true);
+			return constructor.newInstance(Map.of("sub", uid, "exp", exp));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.BarterPost;
+import com.barter.backend.model.PostPage;
+import com.barter.backend.repository.memory.InMemoryPostRepository;
+import com.barter.backend.repository.memory.InMemoryUserProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BarterPostServiceTest {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+	private InMemoryPostRepository posts;
+	private BarterPostService service;
+
+	@BeforeEach
+	void setUp() {
+		posts = new InMemoryPostRepository("");
+		// The search index is never rebuilt, so searches fall back to the repository scan
+		service = new BarterPostService(posts, null, new PostSearchIndex(), new PostAvailabilityIndex(),
+				new UserSummaryCache(new InMemoryUserProfileRepository(""), 100, 60), false, 25, 200);
+	}
+
+	@Test
+	void pagesByCursorWithoutRepeatingPosts() {
+		for (int i = 0; i < 5; i++) {
+			posts.save(post("p" + i, "Post " + i, i));
+		}
+
+		PostPage first = page(null, 2);
+		assertEquals(List.of("p4", "p3"), ids(first));
+		PostPage second = page(first.getNextCursor(), 2);
+		assertEquals(List.of("p2", "p1"), ids(second));
+		PostPage last = page(second.getNextCursor(), 2);
+		assertEquals(List.of("p0"), ids(last));
+		assertNull(last.getNextCursor());
+	}
+
+	@Test
+	void returnsShortPageAndCursorWhenScanBudgetRunsOut() {
+		posts.save(post("match", "Guitar lessons", 0)); // Oldest, so the scan reaches it last
+		for (int i = 1; i <= 250; i++) {
+			posts.save(post("filler" + i, "Garden help", i));
+		}
+
+		// size 1 reads chunks of 21 documents; ten chunks cover filler250 down to filler41
+		PostPage first = service.getFilteredPostsPage(null, "guitar", null, null, null, null, null, null, null, null, 1);
+		assertTrue(first.getPosts().isEmpty());
+		assertNotNull(first.getNextCursor());
+		assertEquals("filler41", PageCursor.decode(first.getNextCursor()).getDocumentId());
+
+		PostPage second = service.getFilteredPostsPage(null, "guitar", null, null, null, null, null, null, null, first.getNextCursor(), 1);
+		assertEquals(List.of("match"), ids(second));
+	}
+
+	@Test
+	void rejectsMalformedCursor() {
+		assertThrows(IllegalArgumentException.class, () -> page("garbage", 2));
+	}
+
+	@Test
+	void deletesTheReplacedImageAndThumbnailAfterTheUpdateIsSaved() throws Exception {
+		BarterPost existing = post("p1", "Guitar lessons", 0);
+		existing.setUserFirebaseUid("alice");
+		existing.setImageUrl("https://img/old.jpg");
+		existing.setThumbnailUrl("https://img/old-thumb.jpg");
+		posts.save(existing);
+		ImageUploadService images = mock(ImageUploadService.class);
+		when(images.uploadImageAsync(any())).thenReturn(CompletableFuture.completedFuture(
+				new UploadedImage("https://img/new.jpg", "https://img/new-thumb.jpg")));
+		when(images.deleteImageAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+		when(images.deleteThumbnailAsync(any())).thenReturn(CompletableFuture.completedFuture(null));
+		service = new BarterPostService(posts, images, new PostSearchIndex(), new PostAvailabilityIndex(),
+				new UserSummaryCache(new InMemoryUserProfileRepository(""), 100, 60), false, 25, 200);
+
+		service.updatePost("p1", new BarterPost(),
+				new MockMultipartFile("image", "new.jpg", "image/jpeg", new byte[] {1}), "alice");
+
+		assertEquals("https://img/new.jpg", posts.findById("p1").orElseThrow().getImageUrl());
+		verify(images).deleteImageAsync("https://img/old.jpg");
+		verify(images).deleteThumbnailAsync("https://img/old-thumb.jpg");
+	}
+
+	private PostPage page(String startAfter, int size) {
+		return service.getFilteredPostsPage(null, null, null, null, null, null, null, null, null, startAfter, size);
+	}
+
+	private static List<String> ids(PostPage page) {
+		return page.getPosts().stream().map(BarterPost::getId).collect(Collectors.toList());
+	}
+
+	private static BarterPost post(String id, String title, int minutes) {
+		BarterPost post = new BarterPost();
+		post.setId(id);
+		post.setTitle(title);
+		post.setUserFirebaseUid("alice");
+		post.setDisplayName("Alice"); // Author snapshot present, so no profile lookups
+		post.setStatus("open");
+		post.setCreatedAt(START.plusMinutes(minutes).toString());
+		return post;
+	}
+}
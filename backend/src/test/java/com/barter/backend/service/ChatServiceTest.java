@@ -0,0 +1,126 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.ChatConversation;
+import com.barter.backend.model.ChatInboxEntry;
+import com.barter.backend.model.ChatMessage;
+import com.barter.backend.model.MessageWindow;
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.repository.memory.InMemoryChatRepository;
+import com.barter.backend.repository.memory.InMemoryUserProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatServiceTest {
+
+	private ChatService service;
+
+	@BeforeEach
+	void setUp() {
+		InMemoryUserProfileRepository profiles = new InMemoryUserProfileRepository("");
+		profiles.save(profile("alice", "Alice"));
+		profiles.save(profile("bob", "Bob"));
+		profiles.save(profile("carol", "Carol"));
+		InMemoryChatRepository chats = new InMemoryChatRepository("");
+		service = new ChatService(chats, new UserSummaryCache(profiles, 100, 60),
+				new ChatMembershipCache(chats, 100, 60), profiles);
+	}
+
+	@Test
+	void countsUnreadMessagesForRecipientsAndResetsTheSender() {
+		String chatId = service.createChat(List.of("alice", "bob"), null, "direct").getId();
+
+		service.addMessage(chatId, message("alice", "Hi Bob"));
+		service.addMessage(chatId, message("alice", "Still up for the trade?"));
+		assertEquals(0, entry("alice", chatId).getUnreadCount());
+		assertEquals(2, entry("bob", chatId).getUnreadCount());
+
+		service.addMessage(chatId, message("bob", "Yes")); // Replying counts as having read the chat
+		assertEquals(1, entry("alice", chatId).getUnreadCount());
+		assertEquals(0, entry("bob", chatId).getUnreadCount());
+
+		ChatInboxEntry alice = entry("alice", chatId);
+		assertEquals("Bob", alice.getCounterpartDisplayName());
+		assertEquals("Yes", alice.getLastMessage().getText());
+	}
+
+	@Test
+	void markingAChatReadOnlyResetsThatUsersCounter() {
+		String chatId = service.createChat(List.of("alice", "bob", "carol"), "Garden club", "group").getId();
+		service.addMessage(chatId, message("alice", "Hello all"));
+		service.addMessage(chatId, message("alice", "Who has seeds?"));
+
+		service.markChatRead(chatId, "bob");
+
+		assertEquals(0, entry("bob", chatId).getUnreadCount());
+		assertEquals(2, entry("carol", chatId).getUnreadCount());
+		assertEquals("Garden club", entry("carol", chatId).getName());
+	}
+
+	@Test
+	void storesOnlyASnippetOfLongMessages() {
+		ChatConversation chat = service.createChat(List.of("alice", "bob"), null, "direct");
+
+		service.addMessage(chat.getId(), message("alice", "x".repeat(ChatInboxEntry.SNIPPET_LENGTH + 30)));
+
+		assertEquals(ChatInboxEntry.SNIPPET_LENGTH, entry("bob", chat.getId()).getLastMessage().getText().length());
+	}
+
+	@Test
+	void deletingAChatRevokesMembershipOnceTheDeleteCompletes() {
+		String chatId = service.createChat(List.of("alice", "bob"), null, "direct").getId();
+		service.addMessage(chatId, message("alice", "Hi Bob"));
+		assertTrue(service.isParticipantAsync(chatId, "bob").join());
+
+		service.deleteChatAsync(chatId).join();
+
+		assertFalse(service.isParticipantAsync(chatId, "bob").join());
+		assertTrue(service.getChatByIdAsync(chatId).join().isEmpty());
+	}
+
+	@Test
+	void asyncMessageWindowPagesOlderMessagesByCursor() {
+		String chatId = service.createChat(List.of("alice", "bob"), null, "direct").getId();
+		for (int i = 0; i < 3; i++) {
+			service.addMessage(chatId, message("alice", "m" + i));
+		}
+
+		MessageWindow latest = service.getMessageWindowAsync(chatId, 2, null, null).join();
+		assertEquals(List.of("m1", "m2"), texts(latest));
+		MessageWindow older = service.getMessageWindowAsync(chatId, 2, latest.getBeforeCursor(), null).join();
+		assertEquals(List.of("m0"), texts(older));
+		assertNull(older.getBeforeCursor());
+
+		// Invalid arguments are rejected before anything is read, as with the blocking variant
+		assertThrows(IllegalArgumentException.class,
+				() -> service.getMessageWindowAsync(chatId, 2, latest.getBeforeCursor(), latest.getAfterCursor()));
+	}
+
+	private static List<String> texts(MessageWindow window) {
+		return window.getMessages().stream().map(ChatMessage::getText).toList();
+	}
+
+	private ChatInboxEntry entry(String owner, String chatId) {
+		return service.getInbox(owner, null, 20).getEntries().stream()
+				.filter(entry -> entry.getChatId().equals(chatId))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static ChatMessage message(String senderId, String text) {
+		ChatMessage message = new ChatMessage();
+		message.setSenderId(senderId);
+		message.setText(text);
+		return message;
+	}
+
+	private static UserProfile profile(String uid, String displayName) {
+		UserProfile profile = new UserProfile();
+		profile.setFirebaseUid(uid);
+		profile.setDisplayName(displayName);
+		return profile;
+	}
+}
@@ -0,0 +1,178 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.ChatMessage;
+import com.barter.backend.repository.ChatRepository;
+import com.barter.backend.repository.memory.InMemoryChatRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatStreamHubTest {
+
+	private final Map<String, ChatRepository.MessageListener> listeners = new ConcurrentHashMap<>();
+	private final Set<String> removedListeners = ConcurrentHashMap.newKeySet();
+	private ChatStreamHub hub;
+
+	@AfterEach
+	void tearDown() {
+		if (hub != null) {
+			hub.shutdown();
+		}
+	}
+
+	@Test
+	void fansOutMessagesToEverySubscriberOverOneListener() throws Exception {
+		hub = newHub(8);
+		FakeEmitter alice = (FakeEmitter) hub.subscribe("chat-1", "alice");
+		FakeEmitter bob = (FakeEmitter) hub.subscribe("chat-1", "bob");
+		assertEquals(Set.of("chat-1"), listeners.keySet());
+		assertEquals(1, hub.activeChannelCount());
+
+		publish("chat-1", message("m1"), message("m2"));
+
+		assertEquals(List.of("m1", "m2"), List.of(alice.nextEvent(), alice.nextEvent()));
+		assertEquals(List.of("m1", "m2"), List.of(bob.nextEvent(), bob.nextEvent()));
+	}
+
+	@Test
+	void closesASubscriberWhoseQueueOverflows() throws Exception {
+		hub = newHub(2);
+		FakeEmitter alice = (FakeEmitter) hub.subscribe("chat-1", "alice");
+		alice.gate = new CountDownLatch(1); // Alice's connection stops accepting data
+
+		publish("chat-1", message("m1"));
+		assertTrue(alice.sending.await(5, TimeUnit.SECONDS));
+		publish("chat-1", message("m2"), message("m3")); // Fills the queue
+		assertFalse(alice.completed);
+
+		publish("chat-1", message("m4"));
+		assertTrue(alice.completed);
+
+		alice.gate.countDown();
+		publish("chat-1", message("m5")); // No longer subscribed
+		assertEquals(List.of("m1", "m2", "m3"), List.of(alice.nextEvent(), alice.nextEvent(), alice.nextEvent()));
+		assertNull(alice.events.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void heartbeatsSubscribersAndReapsChannelsWithoutThem() throws Exception {
+		hub = newHub(8);
+		FakeEmitter alice = (FakeEmitter) hub.subscribe("chat-1", "alice");
+		FakeEmitter bob = (FakeEmitter) hub.subscribe("chat-1", "bob");
+
+		hub.heartbeatAndReap();
+		assertEquals("ping", alice.nextEvent());
+		assertEquals("ping", bob.nextEvent());
+
+		bob.completionCallback.run(); // Bob's client disconnects
+		alice.broken = true; // Alice's connection is dead, which the next heartbeat finds out
+		awaitTrue(() -> {
+			hub.heartbeatAndReap();
+			return hub.activeChannelCount() == 0;
+		});
+		assertEquals(Set.of("chat-1"), removedListeners);
+	}
+
+	private ChatStreamHub newHub(int queueCapacity) {
+		ChatRepository chatRepository = new InMemoryChatRepository("") {
+			@Override
+			public MessageSubscription subscribe(String chatId, MessageListener listener) {
+				listeners.put(chatId, listener);
+				return () -> removedListeners.add(chatId);
+			}
+		};
+		// Heartbeats are driven by the tests; channels are idle as soon as their last subscriber leaves
+		return new ChatStreamHub(chatRepository, queueCapacity, 2, 60, 0, 3600, false) {
+			@Override
+			SseEmitter createEmitter() {
+				return new FakeEmitter();
+			}
+		};
+	}
+
+	private void publish(String chatId, ChatMessage... messages) {
+		for (ChatMessage message : messages) {
+			listeners.get(chatId).onMessage(message);
+		}
+	}
+
+	private static ChatMessage message(String id) {
+		ChatMessage message = new ChatMessage();
+		message.setId(id);
+		message.setSenderId("carol");
+		message.setText("Hello " + id);
+		message.setCreatedAt("2024-01-01T10:00:00Z");
+		return message;
+	}
+
+	private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "Timed out");
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * Records what is sent instead of writing to a response: the ID of each message, or "ping" for a heartbeat.
+	 */
+	private static final class FakeEmitter extends SseEmitter {
+		private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+		private final CountDownLatch sending = new CountDownLatch(1);
+		private volatile CountDownLatch gate;
+		private volatile boolean broken;
+		private volatile boolean completed;
+		private volatile Runnable completionCallback;
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (broken) {
+				throw new IOException("Broken pipe");
+			}
+			sending.countDown();
+			CountDownLatch waitFor = gate;
+			if (waitFor != null) {
+				try {
+					waitFor.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			String event = "ping";
+			for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+				if (part.getData() instanceof ChatMessage message) {
+					event = message.getId();
+				}
+			}
+			events.add(event);
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+
+		@Override
+		public void onCompletion(Runnable callback) {
+			completionCallback = callback;
+		}
+
+		private String nextEvent() throws InterruptedException {
+			return events.poll(5, TimeUnit.SECONDS);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.barter.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageResizerTest {
+
+	@Test
+	void capsMainImageAndProducesThumbnail() throws Exception {
+		Path source = Files.createTempFile("resizer-test-", ".jpg");
+		ImageIO.write(new BufferedImage(3000, 1500, BufferedImage.TYPE_INT_RGB), "jpg", source.toFile());
+
+		ImageResizer.Variants variants = ImageResizer.resize(source, 1600, 320);
+		try {
+			assertEquals("jpg", variants.format);
+			BufferedImage main = ImageIO.read(variants.main.toFile());
+			BufferedImage thumbnail = ImageIO.read(variants.thumbnail.toFile());
+			assertEquals(1600, main.getWidth());
+			assertEquals(800, main.getHeight());
+			assertEquals(320, thumbnail.getWidth());
+			assertEquals(160, thumbnail.getHeight());
+		} finally {
+			Files.deleteIfExists(source);
+			Files.deleteIfExists(variants.main);
+			Files.deleteIfExists(variants.thumbnail);
+		}
+	}
+
+	@Test
+	void keepsTransparentImagesAsPngAndDoesNotUpscale() throws Exception {
+		Path source = Files.createTempFile("resizer-test-", ".png");
+		ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_INT_ARGB), "png", source.toFile());
+
+		ImageResizer.Variants variants = ImageResizer.resize(source, 1600, 320);
+		try {
+			assertEquals("png", variants.format);
+			BufferedImage main = ImageIO.read(variants.main.toFile());
+			assertEquals(200, main.getWidth());
+			assertEquals(100, main.getHeight());
+		} finally {
+			Files.deleteIfExists(source);
+			Files.deleteIfExists(variants.main);
+			Files.deleteIfExists(variants.thumbnail);
+		}
+	}
+
+	@Test
+	void returnsNullForUndecodableInput() throws Exception {
+		Path source = Files.createTempFile("resizer-test-", ".bin");
+		Files.writeString(source, "not an image");
+		try {
+			assertNull(ImageResizer.resize(source, 1600, 320));
+			assertEquals(1, ImageResizer.readJpegOrientation(source));
+		} finally {
+			Files.deleteIfExists(source);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.barter.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+	@Test
+	void roundTripsKeysetAndOffsetCursors() {
+		PageCursor keyset = PageCursor.decode(PageCursor.of(1704103200000L, "post-1").encode());
+		assertFalse(keyset.isOffset());
+		assertEquals(1704103200000L, keyset.getSortMillis());
+		assertEquals("post-1", keyset.getDocumentId());
+
+		PageCursor byId = PageCursor.decode(PageCursor.ofDocumentId("user-1").encode());
+		assertEquals("", byId.getSortValue());
+		assertEquals("user-1", byId.getDocumentId());
+
+		PageCursor offset = PageCursor.decode(PageCursor.ofOffset(40).encode());
+		assertTrue(offset.isOffset());
+		assertEquals(40, offset.getOffset());
+	}
+
+	@Test
+	void rejectsMalformedTokens() {
+		for (String token : new String[] {"", "not base64!", encode("x\n1\nid"), encode("k\n1\n"), encode("k\n1"),
+				encode("o\nten"), encode("o\n-1"), encode("o\n1\n2")}) {
+			assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token), token);
+		}
+		assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(null));
+	}
+
+	@Test
+	void rejectsKeysetCursorWithoutNumericSortValue() {
+		PageCursor legacy = PageCursor.decode(PageCursor.of("2024-01-01T10:00:00", "post-1").encode());
+		assertThrows(IllegalArgumentException.class, legacy::getSortMillis);
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,91 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.AvailabilityRange;
+import com.barter.backend.model.BarterPost;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostAvailabilityIndexTest {
+
+	private PostAvailabilityIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PostAvailabilityIndex();
+		index.rebuild(List.of(
+				post("p1", "2024-01-01T10:00:00", range("2024-03-01", "2024-03-10")),
+				post("p2", "2024-01-02T10:00:00", range("2024-03-05", "2024-03-20"), range("2024-03-08", "2024-03-09")),
+				post("p3", "2024-01-03T10:00:00", range("2024-04-01", "2024-04-30")),
+				post("p4", "2024-01-04T10:00:00", range("not a date", "2024-03-05"))
+		));
+	}
+
+	@Test
+	void findsPostsAvailableOnDateNewestFirstAndOnce() {
+		assertEquals(List.of("p2", "p1"), ids(index.findAvailableOn(LocalDate.parse("2024-03-08"))));
+		assertEquals(List.of("p1"), ids(index.findAvailableOn(LocalDate.parse("2024-03-01"))));
+		assertEquals(List.of("p2"), ids(index.findAvailableOn(LocalDate.parse("2024-03-20"))));
+		assertTrue(index.findAvailableOn(LocalDate.parse("2024-03-25")).isEmpty());
+	}
+
+	@Test
+	void findsPostsOverlappingDateWindow() {
+		assertEquals(List.of("p3", "p2"), ids(index.findAvailableBetween(LocalDate.parse("2024-03-15"), LocalDate.parse("2024-04-01"))));
+	}
+
+	@Test
+	void agreesWithLinearDateFilter() {
+		List<BarterPost> posts = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			LocalDate start = LocalDate.parse("2024-01-01").plusDays((i * 37L) % 300);
+			posts.add(post("p" + i, null, range(start.toString(), start.plusDays(i % 45).toString())));
+		}
+		index.rebuild(posts);
+		for (LocalDate day = LocalDate.parse("2023-12-25"); day.isBefore(LocalDate.parse("2025-01-10")); day = day.plusDays(3)) {
+			LocalDate date = day;
+			long expected = posts.stream().filter(post -> PostFilters.isAvailableOn(post, date)).count();
+			assertEquals(expected, index.findAvailableOn(date).size(), "date " + date);
+		}
+	}
+
+	@Test
+	void keepsIndexInSyncWithUpdatesAndDeletes() {
+		LocalDate date = LocalDate.parse("2024-04-10");
+		assertEquals(List.of("p3"), ids(index.findAvailableOn(date)));
+
+		index.index(post("p1", "2024-01-01T10:00:00", range("2024-04-10", "2024-04-12")));
+		assertEquals(List.of("p3", "p1"), ids(index.findAvailableOn(date)));
+
+		BarterPost closed = post("p3", "2024-01-03T10:00:00", range("2024-04-01", "2024-04-30"));
+		closed.setStatus("closed");
+		index.index(closed);
+		index.remove("p1");
+		assertTrue(index.findAvailableOn(date).isEmpty());
+		assertEquals(2, index.size());
+	}
+
+	private static List<String> ids(List<BarterPost> posts) {
+		return posts.stream().map(BarterPost::getId).collect(Collectors.toList());
+	}
+
+	// Clients send availability as ISO instants
+	private static AvailabilityRange range(String startDay, String endDay) {
+		return new AvailabilityRange(startDay + "T00:00:00Z", endDay + "T00:00:00Z");
+	}
+
+	private static BarterPost post(String id, String createdAt, AvailabilityRange... availability) {
+		BarterPost post = new BarterPost();
+		post.setId(id);
+		post.setCreatedAt(createdAt);
+		post.setAvailability(List.of(availability));
+		post.setStatus("open");
+		return post;
+	}
+}
@@ -0,0 +1,84 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.BarterPost;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostSearchIndexTest {
+
+	private PostSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PostSearchIndex();
+		index.rebuild(List.of(
+				post("p1", "Guitar lessons", "Beginner guitar lessons at home", "Baking", "2024-01-01T10:00:00"),
+				post("p2", "Bread baking", "Sourdough and guitar chat", "Guitar strings", "2024-01-02T10:00:00"),
+				post("p3", "Garden help", "Weeding and planting", "Anything", "2024-01-03T10:00:00")
+		));
+	}
+
+	@Test
+	void ranksTitleMatchesAboveDescriptionMatches() {
+		List<String> ids = ids(index.search("guitar"));
+		assertEquals(List.of("p1", "p2"), ids);
+	}
+
+	@Test
+	void requiresAllTermsAndMatchesLastTermAsPrefix() {
+		assertEquals(List.of("p1"), ids(index.search("guitar LESS")));
+		assertEquals(List.of("p3"), ids(index.search("gard")));
+		assertTrue(index.search("guitar garden").isEmpty());
+	}
+
+	@Test
+	void keepsIndexInSyncWithUpdatesAndDeletes() {
+		BarterPost updated = post("p3", "Guitar repair", "Fixing necks", "Cash", "2024-01-03T10:00:00");
+		index.index(updated);
+		assertEquals(List.of("p3"), ids(index.search("repair")));
+		assertTrue(index.search("weeding").isEmpty());
+
+		BarterPost closed = post("p1", "Guitar lessons", "Beginner guitar lessons at home", "Baking", "2024-01-01T10:00:00");
+		closed.setStatus("closed");
+		index.index(closed);
+		index.remove("p2");
+		assertEquals(List.of("p3"), ids(index.search("guitar")));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void scanFilterMatchesTheSamePostsAsTheIndex() {
+		List<BarterPost> posts = List.of(
+				post("p1", "Guitar lessons", "Beginner guitar lessons at home", "Baking", "2024-01-01T10:00:00"),
+				post("p2", "Bread baking", "Sourdough and guitar chat", "Guitar strings", "2024-01-02T10:00:00"),
+				post("p3", "Garden help", "Weeding and planting", "Anything", "2024-01-03T10:00:00"));
+		for (String term : List.of("guitar", "guitar less", "uitar", "bak", "sourdough guitar", "lessons guit", "garden guitar", "!!")) {
+			List<String> scanned = posts.stream()
+					.filter(post -> PostFilters.matchesSearchTerm(post, term.toLowerCase()))
+					.map(BarterPost::getId)
+					.sorted()
+					.collect(Collectors.toList());
+			assertEquals(ids(index.search(term)).stream().sorted().collect(Collectors.toList()), scanned, term);
+		}
+	}
+
+	private static List<String> ids(List<BarterPost> posts) {
+		return posts.stream().map(BarterPost::getId).collect(Collectors.toList());
+	}
+
+	private static BarterPost post(String id, String title, String description, String preferredExchange, String createdAt) {
+		BarterPost post = new BarterPost();
+		post.setId(id);
+		post.setTitle(title);
+		post.setDescription(description);
+		post.setPreferredExchange(preferredExchange);
+		post.setCreatedAt(createdAt);
+		post.setStatus("open");
+		return post;
+	}
+}
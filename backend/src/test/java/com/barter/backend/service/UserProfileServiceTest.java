@@ -0,0 +1,91 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.repository.memory.InMemoryUserProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UserProfileServiceTest {
+
+	private static final MockMultipartFile NEW_IMAGE = new MockMultipartFile("image", "new.jpg", "image/jpeg", new byte[] {1});
+
+	private FlakyProfileRepository profiles;
+	private ImageUploadService images;
+	private UserProfileService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		profiles = new FlakyProfileRepository();
+		UserProfile alice = new UserProfile();
+		alice.setFirebaseUid("alice");
+		alice.setDisplayName("Alice");
+		alice.setProfileImageUrl("https://img/old.jpg");
+		alice.setThumbnailUrl("https://img/old-thumb.jpg");
+		profiles.save(alice);
+
+		images = mock(ImageUploadService.class);
+		when(images.uploadImage(any())).thenReturn(new UploadedImage("https://img/new.jpg", "https://img/new-thumb.jpg"));
+		service = new UserProfileService(profiles, images, new UserSummaryCache(profiles, 100, 60),
+				mock(AuthorSnapshotFanout.class), 25, 200);
+	}
+
+	@Test
+	void deletesTheReplacedImageAfterTheProfileIsSaved() throws Exception {
+		service.updateUser("alice", new UserProfile(), NEW_IMAGE);
+
+		assertEquals("https://img/new.jpg", profiles.findById("alice").orElseThrow().getProfileImageUrl());
+		verify(images).deleteImage("https://img/old.jpg");
+		verify(images).deleteThumbnail("https://img/old-thumb.jpg");
+	}
+
+	@Test
+	void keepsTheOldImageAndDiscardsTheUploadWhenTheSaveFails() throws Exception {
+		profiles.failSaves = true;
+
+		assertThrows(IllegalStateException.class, () -> service.updateUser("alice", new UserProfile(), NEW_IMAGE));
+
+		assertEquals("https://img/old.jpg", profiles.findById("alice").orElseThrow().getProfileImageUrl());
+		verify(images, never()).deleteImage("https://img/old.jpg");
+		verify(images, never()).deleteThumbnail("https://img/old-thumb.jpg");
+		verify(images).deleteImage("https://img/new.jpg");
+		verify(images).deleteThumbnail("https://img/new-thumb.jpg");
+	}
+
+	@Test
+	void removesTheImageOnRequestAfterTheProfileIsSaved() throws Exception {
+		UserProfile update = new UserProfile();
+		update.setProfileImageUrl("null");
+
+		service.updateUser("alice", update, null);
+
+		assertNull(profiles.findById("alice").orElseThrow().getProfileImageUrl());
+		verify(images).deleteImage("https://img/old.jpg");
+		verify(images).deleteThumbnail("https://img/old-thumb.jpg");
+	}
+
+	/**
+	 * Fails partial profile writes on request, as a Firestore outage would.
+	 */
+	private static final class FlakyProfileRepository extends InMemoryUserProfileRepository {
+		private volatile boolean failSaves;
+
+		FlakyProfileRepository() {
+			super("");
+		}
+
+		@Override
+		public void saveFields(UserProfile profile, List<String> fields) {
+			if (failSaves) {
+				throw new IllegalStateException("Firestore unavailable");
+			}
+			super.saveFields(profile, fields);
+		}
+	}
+}
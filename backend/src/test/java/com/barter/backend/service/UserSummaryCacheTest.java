@@ -0,0 +1,134 @@
+package com.barter.backend.service;
+
+import com.barter.backend.model.UserProfile;
+import com.barter.backend.model.UserSummary;
+import com.barter.backend.repository.memory.InMemoryUserProfileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class UserSummaryCacheTest {
+
+	private CountingProfileRepository profiles;
+	private UserSummaryCache cache;
+	private ExecutorService callers;
+
+	@BeforeEach
+	void setUp() {
+		profiles = new CountingProfileRepository();
+		profiles.save(profile("alice", "Alice"));
+		profiles.save(profile("bob", "Bob"));
+		cache = new UserSummaryCache(profiles, 100, 60);
+		callers = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		callers.shutdownNow();
+	}
+
+	@Test
+	void concurrentMissesForTheSameUserShareOneLoad() throws Exception {
+		profiles.release = new CountDownLatch(1);
+
+		List<Future<UserSummary>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			results.add(callers.submit(() -> cache.get("alice")));
+		}
+		// Hold the load until every caller has asked for the user
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (cache.stats().requestCount() < 4 && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		profiles.release.countDown();
+
+		for (Future<UserSummary> result : results) {
+			assertEquals("Alice", result.get(5, TimeUnit.SECONDS).getDisplayName());
+		}
+		assertEquals(1, profiles.loads.size());
+		assertEquals(1, cache.stats().missCount());
+	}
+
+	@Test
+	void loadsOnlyMissingUsersInOneBatch() {
+		cache.get("alice");
+
+		Map<String, UserSummary> summaries = cache.getAll(List.of("alice", "bob", "carol"));
+
+		assertEquals("Bob", summaries.get("bob").getDisplayName());
+		assertFalse(summaries.get("carol").isFound()); // Missing profiles are cached as unknown
+		assertEquals(List.of(Set.of("alice"), Set.of("bob", "carol")), profiles.loads);
+	}
+
+	@Test
+	void servesLatestProfileAfterInvalidation() {
+		assertEquals("Alice", cache.get("alice").getDisplayName());
+
+		profiles.save(profile("alice", "Alicia")); // Written behind the cache's back
+		assertEquals("Alice", cache.get("alice").getDisplayName());
+
+		cache.invalidate("alice");
+		assertEquals("Alicia", cache.get("alice").getDisplayName());
+		assertEquals(2, profiles.loads.size());
+	}
+
+	@Test
+	void profileUpdateInvalidatesTheCachedSummary() throws Exception {
+		assertEquals("Alice", cache.get("alice").getDisplayName());
+
+		UserProfile update = new UserProfile();
+		update.setDisplayName("Alicia");
+		new UserProfileService(profiles, null, cache, mock(AuthorSnapshotFanout.class), 25, 200).updateUser("alice", update, null);
+
+		assertEquals("Alicia", cache.get("alice").getDisplayName());
+	}
+
+	private static UserProfile profile(String uid, String displayName) {
+		UserProfile profile = new UserProfile();
+		profile.setFirebaseUid(uid);
+		profile.setDisplayName(displayName);
+		return profile;
+	}
+
+	/**
+	 * Records the UIDs of every summary load, optionally holding each load until released.
+	 */
+	private static final class CountingProfileRepository extends InMemoryUserProfileRepository {
+		private final List<Set<String>> loads = new ArrayList<>();
+		private volatile CountDownLatch release;
+
+		CountingProfileRepository() {
+			super("");
+		}
+
+		@Override
+		public Map<String, UserSummary> findSummaries(Collection<? extends String> firebaseUids) {
+			CountDownLatch waitFor = release;
+			if (waitFor != null) {
+				try {
+					waitFor.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			synchronized (loads) {
+				loads.add(Set.copyOf(firebaseUids));
+			}
+			return super.findSummaries(firebaseUids);
+		}
+	}
+}
@@ -1,8 +1,65 @@
 // src/api/ChatService.ts
 import axios, { type AxiosRequestConfig } from 'axios';
-import type { ChatConversation, ChatMessage, CreateChatPayload, SendMessagePayload } from '@/types/Chat';
+import type { ChatConversation, ChatMessage, CreateChatPayload, InboxPage, MessageWindow, SendMessagePayload } from '@/types/Chat';
 const BASE_URL = import.meta.env.VITE_BASE_URL;
 
+const STREAM_RETRY_DELAYS_MS = [1000, 2000, 5000, 10000, 30000]; // Backoff between reconnects; the last one repeats
+const CATCH_UP_LIMIT = 200; // Largest message window the backend returns
+
+// One Server-Sent Event: its id is the message cursor and its data a ChatMessage as JSON
+interface StreamEvent {
+    id?: string;
+    event?: string;
+    data: string;
+}
+
+// Reads an event stream until it ends, calling onEvent for each complete event; comment lines (heartbeats) are skipped
+async function readEvents(body: ReadableStream<Uint8Array>, onEvent: (event: StreamEvent) => void): Promise<void> {
+    const reader = body.pipeThrough(new TextDecoderStream()).getReader();
+    let buffer = '';
+    let event: StreamEvent = { data: '' };
+    let hasData = false;
+    for (;;) {
+        const { value, done } = await reader.read();
+        if (done) return;
+        buffer += value;
+        let newline: number;
+        while ((newline = buffer.indexOf('\n')) >= 0) {
+            const line = buffer.slice(0, newline).replace(/\r$/, '');
+            buffer = buffer.slice(newline + 1);
+            if (line === '') {
+                if (hasData) onEvent(event);
+                event = { data: '' };
+                hasData = false;
+                continue;
+            }
+            if (line.startsWith(':')) continue;
+            const colon = line.indexOf(':');
+            const field = colon < 0 ? line : line.slice(0, colon);
+            const fieldValue = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+            if (field === 'data') {
+                event.data = hasData ? `${event.data}\n${fieldValue}` : fieldValue;
+                hasData = true;
+            } else if (field === 'id') {
+                event.id = fieldValue;
+            } else if (field === 'event') {
+                event.event = fieldValue;
+            }
+        }
+    }
+}
+
+// Resolves after the delay, or straight away once the signal is aborted
+function waitFor(delayMs: number, signal: AbortSignal): Promise<void> {
+    return new Promise(resolve => {
+        const timer = setTimeout(resolve, delayMs);
+        signal.addEventListener('abort', () => {
+            clearTimeout(timer);
+            resolve();
+        }, { once: true });
+    });
+}
+
 
 export const chatApi = {
     /**
@@ -38,6 +95,27 @@ export const chatApi = {
         return response.data;
     },
 
+    /**
+     * Retrieves one page of the current user's chat list, most recently updated first.
+     * @param startAfter Cursor from the previous page's nextCursor; omit for the first page.
+     * @param size Number of entries per page (at most 100).
+     * @param config Optional AxiosRequestConfig for headers.
+     * @returns The entries plus the cursor for the next page, if any.
+     */
+    getInbox: async (startAfter?: string, size?: number, config?: AxiosRequestConfig): Promise<InboxPage> => {
+        const response = await axios.get(`${BASE_URL}/chats/inbox`, { params: { startAfter, size }, ...config });
+        return { entries: response.data, nextCursor: response.headers['x-next-cursor'] };
+    },
+
+    /**
+     * Marks a chat as read for the current user, resetting its unread count.
+     * @param chatId The ID of the chat conversation.
+     * @param config Optional AxiosRequestConfig for headers.
+     */
+    markChatRead: async (chatId: string, config?: AxiosRequestConfig): Promise<void> => {
+        await axios.post(`${BASE_URL}/chats/${chatId}/read`, null, config);
+    },
+
     /**
      * Adds a new message to a chat conversation.
      * @param chatId The ID of the chat conversation.
@@ -61,6 +139,90 @@ export const chatApi = {
         return response.data;
     },
 
+    /**
+     * Retrieves a window of messages: the latest ones, or with before/after the ones older/newer than a cursor.
+     * @param chatId The ID of the chat conversation.
+     * @param params limit (at most 200) and at most one of the before/after cursors.
+     * @param config Optional AxiosRequestConfig for headers.
+     * @returns The messages in chronological order plus the cursors for older and newer messages.
+     */
+    getMessageWindow: async (chatId: string, params: { limit?: number; before?: string; after?: string }, config?: AxiosRequestConfig): Promise<MessageWindow> => {
+        const response = await axios.get<ChatMessage[]>(`${BASE_URL}/chats/${chatId}/messages`, { params, ...config });
+        return {
+            messages: response.data,
+            beforeCursor: response.headers['x-before-cursor'],
+            afterCursor: response.headers['x-after-cursor'],
+        };
+    },
+
+    /**
+     * Streams new messages of a chat from GET /chats/{chatId}/stream until the returned function is called.
+     * Uses fetch rather than EventSource, which cannot send the Authorization header. Each event ID is the
+     * message's cursor: on every (re)connect the stream first fetches the messages after the last cursor it
+     * saw, so none sent while it was disconnected are missed. A message may be delivered twice; dedupe by ID.
+     * @param chatId The ID of the chat conversation.
+     * @param after Cursor of the newest message already shown, e.g. a window's afterCursor.
+     * @param getIdToken Returns a current Firebase ID token; called on every (re)connect.
+     * @param onMessage Called for each new message.
+     * @param onError Called when a connection fails or drops; the stream retries with backoff unless access was refused.
+     * @returns A function that closes the stream.
+     */
+    streamMessages: (
+        chatId: string,
+        after: string | undefined,
+        getIdToken: () => Promise<string>,
+        onMessage: (message: ChatMessage) => void,
+        onError?: (error: unknown) => void
+    ): (() => void) => {
+        const controller = new AbortController();
+        let cursor = after;
+
+        const catchUp = async (headers: Record<string, string>) => {
+            for (;;) {
+                const window = await chatApi.getMessageWindow(chatId, { after: cursor, limit: CATCH_UP_LIMIT },
+                    { headers, signal: controller.signal });
+                window.messages.forEach(onMessage);
+                cursor = window.afterCursor ?? cursor;
+                if (window.messages.length < CATCH_UP_LIMIT) return;
+            }
+        };
+
+        const run = async () => {
+            let attempt = 0;
+            while (!controller.signal.aborted) {
+                try {
+                    const headers = { Authorization: `Bearer ${await getIdToken()}` };
+                    const response = await fetch(`${BASE_URL}/chats/${chatId}/stream`, {
+                        headers: { ...headers, Accept: 'text/event-stream' },
+                        signal: controller.signal,
+                    });
+                    if (response.status === 403 || response.status === 404) {
+                        onError?.(new Error(`Message stream refused with status ${response.status}`));
+                        return; // Retrying won't help
+                    }
+                    if (!response.ok || !response.body) {
+                        throw new Error(`Message stream failed with status ${response.status}`);
+                    }
+                    // Subscribed, so later messages arrive on the stream; fetch what was sent before that
+                    await catchUp(headers);
+                    attempt = 0;
+                    await readEvents(response.body, event => {
+                        if (event.event !== 'message') return;
+                        onMessage(JSON.parse(event.data) as ChatMessage);
+                        if (event.id) cursor = event.id;
+                    });
+                } catch (err) {
+                    if (controller.signal.aborted) return;
+                    onError?.(err);
+                }
+                await waitFor(STREAM_RETRY_DELAYS_MS[Math.min(attempt++, STREAM_RETRY_DELAYS_MS.length - 1)], controller.signal);
+            }
+        };
+
+        run();
+        return () => controller.abort();
+    },
+
     /**
      * Deletes a chat conversation.
      * @param chatId The ID of the chat conversation to delete.
@@ -1,7 +1,7 @@
 // src/api/ReviewService.ts
 import axios, { type AxiosRequestConfig } from 'axios';
 import type { BarterPost } from '@/types/BarterPost';
-import type { Review } from '@/types/Review'; // This will now include the nested 'fromUser'
+import type { RatingSummary, Review, ReviewPage } from '@/types/Review'; // This will now include the nested 'fromUser'
 import type { UserProfile } from '@/types/UserProfile';
 const BASE_URL = import.meta.env.VITE_BASE_URL;
 
@@ -16,16 +16,18 @@ interface CreateReviewPayload {
 
 export const reviewApi = {
     /**
-     * Fetches reviews received by a specific user.
+     * Fetches one page of reviews received by a specific user, newest first.
      * @param toUserFirebaseUid The Firebase UID of the user who received the reviews.
+     * @param startAfter Cursor from the previous page's nextCursor; omit for the first page.
      * @param config Optional AxiosRequestConfig for headers (e.g., Authorization).
+     * @returns The reviews plus the cursor for the next page, if any.
      */
-    getReviewsReceivedByUser: async (toUserFirebaseUid: string, config?: AxiosRequestConfig): Promise<Review[]> => {
+    getReviewsReceivedByUser: async (toUserFirebaseUid: string, startAfter?: string, config?: AxiosRequestConfig): Promise<ReviewPage> => {
         const response = await axios.get<Review[]>(`${BASE_URL}/reviews/received`, {
-            params: { toUserId: toUserFirebaseUid }, // Corrected: Changed to 'toUserId'
+            params: { toUserId: toUserFirebaseUid, startAfter }, // Corrected: Changed to 'toUserId'
             ...config
         });
-        return response.data;
+        return { reviews: response.data, nextCursor: response.headers['x-next-cursor'] };
     },
 
     /**
@@ -51,6 +53,16 @@ export const reviewApi = {
         return response.data;
     },
 
+    /**
+     * Fetches a user's review count, average rating and star histogram without loading their reviews.
+     * @param firebaseUid The Firebase UID of the reviewed user.
+     * @param config Optional AxiosRequestConfig for headers (e.g., Authorization).
+     */
+    getRatingSummary: async (firebaseUid: string, config?: AxiosRequestConfig): Promise<RatingSummary> => {
+        const response = await axios.get<RatingSummary>(`${BASE_URL}/reviews/summary/${firebaseUid}`, config);
+        return response.data;
+    },
+
     /**
      * Creates a new review.
      * @param reviewData The review object to create.
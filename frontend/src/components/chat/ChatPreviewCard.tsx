@@ -1,84 +1,26 @@
 // src/components/chat/ChatPreviewCard.tsx
-import  { useEffect, useState } from 'react';
 import { Link } from 'react-router-dom';
 import { Card } from '@/components/ui/card';
 import { Avatar, AvatarFallback, AvatarImage } from '@/components/ui/avatar';
+import { Badge } from '@/components/ui/badge';
 import { formatDistanceToNowStrict } from 'date-fns';
-import type { ChatConversation } from '@/types/Chat';
-import type { UserProfile } from '@/types/UserProfile';
-import { reviewApi } from '@/api/ReviewService'; // Re-using reviewApi for user profiles
+import type { ChatInboxEntry } from '@/types/Chat';
 
 interface ChatPreviewCardProps {
-    chat: ChatConversation;
-    currentUserId: string;
+    entry: ChatInboxEntry; // Carries the counterpart's name and image, so no profile is fetched per row
 }
 
-export function ChatPreviewCard({ chat, currentUserId }: ChatPreviewCardProps) {
-    const [otherParticipant, setOtherParticipant] = useState<UserProfile | null>(null);
-    const [isLoadingParticipant, setIsLoadingParticipant] = useState(true);
+export function ChatPreviewCard({ entry }: ChatPreviewCardProps) {
+    const chatName = entry.type === 'group' ? entry.name : (entry.counterpartDisplayName || 'Direct Message');
+    const chatAvatar = entry.type === 'group' ? null : (entry.counterpartProfileImageUrl || `https://api.dicebear.com/7.x/initials/svg?seed=${chatName}`);
+    const chatFallback = entry.type === 'group' ? entry.name?.charAt(0) || 'G' : entry.counterpartDisplayName?.charAt(0) || '?';
 
-    useEffect(() => {
-        const fetchOtherParticipant = async () => {
-            if (chat.type === 'direct' && chat.participants.length === 2) {
-                const otherUid = chat.participants.find(uid => uid !== currentUserId);
-                if (otherUid) {
-                    try {
-                        const userProfile = await reviewApi.getUserProfile(otherUid);
-                        setOtherParticipant(userProfile);
-                    } catch (error) {
-                        console.error("Failed to fetch other participant profile:", error);
-                        setOtherParticipant({
-                            id: otherUid,
-                            firebaseUid: otherUid,
-                            displayName: 'Unknown User',
-                            email: '',
-                            location: '',
-                            bio: '',
-                            skillsOffered: [],
-                            needs: [],
-                            rating: 0,
-                            profileImageUrl: '',
-                            createdAt: new Date().toISOString(),
-                            });
-
-                    } finally {
-                        setIsLoadingParticipant(false);
-                    }
-                } else {
-                    setIsLoadingParticipant(false);
-                }
-            } else {
-                // For group chats or chats with unusual participant counts,
-                // we might not display a single "other participant"
-                setIsLoadingParticipant(false);
-            }
-        };
-
-        fetchOtherParticipant();
-    }, [chat.participants, chat.type, currentUserId]);
-
-    const chatName = chat.type === 'group' ? chat.name : (otherParticipant?.displayName || 'Direct Message');
-    const chatAvatar = chat.type === 'group' ? null : (otherParticipant?.profileImageUrl || `https://api.dicebear.com/7.x/initials/svg?seed=${chatName}`);
-    const chatFallback = chat.type === 'group' ? chat.name?.charAt(0) || 'G' : otherParticipant?.displayName?.charAt(0) || '?';
-
-    const lastMessageTime = chat.lastMessage?.createdAt
-        ? formatDistanceToNowStrict(new Date(chat.lastMessage.createdAt), { addSuffix: true })
+    const lastMessageTime = entry.lastMessage?.createdAt
+        ? formatDistanceToNowStrict(new Date(entry.lastMessage.createdAt), { addSuffix: true })
         : 'No messages yet';
 
-    if (isLoadingParticipant && chat.type === 'direct') {
-        return (
-            <Card className="flex items-center space-x-4 p-4 animate-pulse bg-neutral-800 border-neutral-700">
-                <div className="h-12 w-12 rounded-full bg-neutral-700"></div>
-                <div className="flex-1 space-y-2">
-                    <div className="h-4 bg-neutral-700 rounded w-3/4"></div>
-                    <div className="h-4 bg-neutral-700 rounded w-1/2"></div>
-                </div>
-            </Card>
-        );
-    }
-
     return (
-        <Link to={`/chats/${chat.id}`} className="block">
+        <Link to={`/chats/${entry.chatId}`} className="block">
             <Card className="flex items-center p-4 rounded-lg shadow-sm hover:shadow-md transition-all duration-200 bg-neutral-900 text-neutral-100 border-neutral-800 hover:bg-neutral-800">
                 <Avatar className="h-12 w-12 border border-neutral-700">
                     <AvatarImage src={chatAvatar || undefined} alt={chatName} />
@@ -89,9 +31,14 @@ export function ChatPreviewCard({ chat, currentUserId }: ChatPreviewCardProps) {
                         <h3 className="font-semibold text-lg truncate">{chatName}</h3>
                         <span className="text-xs text-neutral-400 flex-shrink-0">{lastMessageTime}</span>
                     </div>
-                    <p className="text-sm text-neutral-300 truncate mt-1">
-                        {chat.lastMessage?.text || 'Start a conversation...'}
-                    </p>
+                    <div className="flex justify-between items-center mt-1">
+                        <p className="text-sm text-neutral-300 truncate">
+                            {entry.lastMessage?.text || 'Start a conversation...'}
+                        </p>
+                        {entry.unreadCount > 0 && (
+                            <Badge className="ml-2 flex-shrink-0 bg-teal-600 text-white">{entry.unreadCount}</Badge>
+                        )}
+                    </div>
                 </div>
             </Card>
         </Link>
@@ -21,7 +21,9 @@ export function ListingCard({ listing }: ListingCardProps) {
     const displayName = listing.displayName ?? 'Anonymous';
     const avatarSeed = encodeURIComponent(displayName);
 
-    const postImageUrl = listing.imageUrl && listing.imageUrl !== 'null'
+    const postImageUrl = listing.thumbnailUrl
+        ? listing.thumbnailUrl
+        : listing.imageUrl && listing.imageUrl !== 'null'
         ? listing.imageUrl
         : `https://via.placeholder.com/400x200?text=${encodeURIComponent(listing.title)}`;
 
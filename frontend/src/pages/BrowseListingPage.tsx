@@ -1,5 +1,5 @@
 // src/pages/BrowseListingsPage.tsx
-import { useState, useEffect, useCallback } from 'react';
+import { useState, useEffect, useCallback, useRef } from 'react';
 import axios from 'axios';
 import { useLocation } from 'react-router-dom';
 
@@ -37,6 +37,8 @@ export default function BrowseListingsPage() {
   });
   const [currentPage, setCurrentPage] = useState<number>(1);
   const [totalPages, setTotalPages] = useState<number>(1);
+  // startAfter cursor of every page reached so far (index 0 is the first page, which has none)
+  const pageCursors = useRef<(string | undefined)[]>([undefined]);
   const [isLoading, setIsLoading] = useState<boolean>(true);
   const [error, setError] = useState<string | null>(null);
 
@@ -71,7 +73,8 @@ export default function BrowseListingsPage() {
         params.append('uploaderId', uploaderId);
       }
 
-      params.append('page', String(currentPage - 1));
+      const startAfter = pageCursors.current[currentPage - 1];
+      if (startAfter) params.append('startAfter', startAfter);
       params.append('size', String(ITEMS_PER_PAGE));
 
       const headers: Record<string, string> = {
@@ -87,7 +90,14 @@ export default function BrowseListingsPage() {
       );
 
       setListings(response.data);
-      setTotalPages(Math.ceil(response.data.length / ITEMS_PER_PAGE)); // Temporary
+      // The next page is only reachable through the cursor sent with this one
+      const nextCursor: string | undefined = response.headers['x-next-cursor'];
+      if (nextCursor) {
+        pageCursors.current[currentPage] = nextCursor; // Keeps cursors of later pages already visited
+      } else {
+        pageCursors.current = pageCursors.current.slice(0, currentPage);
+      }
+      setTotalPages(pageCursors.current.length);
     } catch (err) {
       console.error('Error fetching listings:', err);
       if (axios.isAxiosError(err) && err.response && err.response.status === 403) {
@@ -107,11 +117,13 @@ export default function BrowseListingsPage() {
   }, [fetchListings, authLoading]);
 
   const handleSearch = (term: string) => {
+    pageCursors.current = [undefined]; // Cursors belong to the previous query
     setSearchTerm(term);
     setCurrentPage(1);
   };
 
   const handleFilterChange = (newFilters: Partial<FilterOptions>) => {
+    pageCursors.current = [undefined];
     setFilterOptions(prev => ({ ...prev, ...newFilters }));
     setCurrentPage(1);
   };
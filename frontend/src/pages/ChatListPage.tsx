@@ -2,7 +2,8 @@
 import  { useState, useEffect } from 'react';
 import { useAuth } from '@/context/AuthContext';
 import { ChatPreviewCard } from '@/components/chat/ChatPreviewCard';
-import type { ChatConversation } from '@/types/Chat';
+import type { ChatInboxEntry } from '@/types/Chat';
+import { chatApi } from '@/api/ChatService';
 import { Card, CardContent, CardHeader, CardTitle, CardDescription } from '@/components/ui/card';
 import { ScrollArea } from '@/components/ui/scroll-area';
 import { toast } from 'sonner';
@@ -10,14 +11,12 @@ import { Link } from 'react-router-dom';
 import { Button } from '@/components/ui/button';
 import { MessageSquarePlus } from 'lucide-react';
 
-// Import Firebase Firestore functions
-import { getFirestore, collection, query, where, orderBy, onSnapshot } from 'firebase/firestore';
-import { app } from '@/firebase'; // Assuming you export your Firebase app instance
-
 export default function ChatListPage() {
     const { user, loading: authLoading } = useAuth();
-    const [chats, setChats] = useState<ChatConversation[]>([]);
+    const [chats, setChats] = useState<ChatInboxEntry[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | undefined>(undefined); // Absent on the last page
     const [isLoading, setIsLoading] = useState(true);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
     const [error, setError] = useState<string | null>(null);
 
     useEffect(() => {
@@ -30,35 +29,48 @@ export default function ChatListPage() {
         setIsLoading(true);
         setError(null);
 
-        const db = getFirestore(app);
-        const chatsCollectionRef = collection(db, 'chats');
+        let cancelled = false;
+        const fetchInbox = async () => {
+            try {
+                const headers = { Authorization: `Bearer ${await user.getIdToken()}` };
+                // One query over the user's own inbox; entries already carry names and unread counts
+                const page = await chatApi.getInbox(undefined, undefined, { headers });
+                if (cancelled) return;
+                setChats(page.entries);
+                setNextCursor(page.nextCursor);
+            } catch (err) {
+                if (cancelled) return;
+                console.error("Error fetching chats:", err);
+                setError("Failed to load chats. Please try again.");
+                toast.error("Error loading chats", { description: "Could not retrieve your conversations." });
+            } finally {
+                if (!cancelled) setIsLoading(false);
+            }
+        };
 
-        // Query for chats where the current user is a participant
-        const q = query(
-            chatsCollectionRef,
-            where('participants', 'array-contains', user.uid),
-            orderBy('updatedAt', 'desc') // Order by most recent activity
-        );
+        fetchInbox();
+        return () => {
+            cancelled = true;
+        };
+    }, [user, authLoading]);
 
-        // Set up real-time listener
-        const unsubscribe = onSnapshot(q, (snapshot) => {
-            const fetchedChats: ChatConversation[] = [];
-            snapshot.forEach(doc => {
-                const chatData = doc.data() as ChatConversation;
-                fetchedChats.push({ ...chatData, id: doc.id });
-            });
-            setChats(fetchedChats);
-            setIsLoading(false);
-        }, (err) => {
-            console.error("Error fetching real-time chats:", err);
-            setError("Failed to load chats. Please try again.");
-            setIsLoading(false);
-            toast.error("Error loading chats", { description: "Could not retrieve your conversations." });
-        });
+    // Appends the next page of the chat list
+    const handleLoadMore = async () => {
+        if (!user || !nextCursor || isLoadingMore) return;
 
-        // Cleanup listener on component unmount
-        return () => unsubscribe();
-    }, [user, authLoading]);
+        setIsLoadingMore(true);
+        try {
+            const headers = { Authorization: `Bearer ${await user.getIdToken()}` };
+            const page = await chatApi.getInbox(nextCursor, undefined, { headers });
+            setChats(prev => [...prev, ...page.entries]);
+            setNextCursor(page.nextCursor);
+        } catch (err) {
+            console.error("Error fetching more chats:", err);
+            toast.error("Failed to load more chats");
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
 
     if (isLoading) {
         return (
@@ -110,10 +122,17 @@ export default function ChatListPage() {
                     ) : (
                         <ScrollArea className="h-[60vh] pr-4">
                             <div className="space-y-4">
-                                {chats.map(chat => (
-                                    <ChatPreviewCard key={chat.id} chat={chat} currentUserId={user.uid} />
+                                {chats.map(entry => (
+                                    <ChatPreviewCard key={entry.chatId} entry={entry} />
                                 ))}
                             </div>
+                            {nextCursor && (
+                                <div className="text-center mt-4">
+                                    <Button variant="outline" onClick={handleLoadMore} disabled={isLoadingMore}>
+                                        {isLoadingMore ? 'Loading...' : 'Load More'}
+                                    </Button>
+                                </div>
+                            )}
                         </ScrollArea>
                     )}
                 </CardContent>
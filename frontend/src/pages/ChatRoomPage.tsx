@@ -1,21 +1,18 @@
 // src/pages/ChatRoomPage.tsx
 import { useState, useEffect, useRef } from 'react';
+import axios from 'axios';
 import { useParams, useNavigate } from 'react-router-dom';
 import { useAuth } from '@/context/AuthContext';
 import { chatApi } from '@/api/ChatService';
 import { MessageBubble } from '@/components/chat/MessageBubble';
 import { MessageInput } from '@/components/chat/MessageInput';
 import type { ChatConversation, ChatMessage, SendMessagePayload } from '@/types/Chat';
-import type { UserProfile } from '@/types/UserProfile';
-import { reviewApi } from '@/api/ReviewService'; // For fetching user profiles
 import { Card, CardContent, CardHeader, CardTitle, CardDescription } from '@/components/ui/card';
 import { Button } from '@/components/ui/button';
 import { ArrowLeft } from 'lucide-react';
 import { toast } from 'sonner';
 
-// Import Firebase Firestore functions - ENSURE 'doc' IS IMPORTED HERE!
-import { getFirestore, collection, doc, query, orderBy, onSnapshot } from 'firebase/firestore';
-import { app } from '@/firebase'; // Assuming you export your Firebase app instance
+const INITIAL_MESSAGE_LIMIT = 50; // Latest messages shown when the room opens; older ones load on demand
 
 interface ChatRoomPageParams extends Record<string, string | undefined> {
     chatId: string;
@@ -31,11 +28,13 @@ export default function ChatRoomPage() {
     const [isLoadingChat, setIsLoadingChat] = useState(true);
     const [isLoadingMessages, setIsLoadingMessages] = useState(true);
     const [isSendingMessage, setIsSendingMessage] = useState(false);
+    const [olderCursor, setOlderCursor] = useState<string | undefined>(undefined); // Absent when all older messages are shown
+    const [isLoadingOlder, setIsLoadingOlder] = useState(false);
     const [error, setError] = useState<string | null>(null);
 
     const messagesEndRef = useRef<HTMLDivElement>(null);
 
-    // Effect to fetch chat details and set up real-time message listener
+    // Effect to fetch chat details and the latest messages, then stream new messages as they are sent
     useEffect(() => {
         if (authLoading || !user || !chatId) {
             setIsLoadingChat(false);
@@ -44,94 +43,89 @@ export default function ChatRoomPage() {
             return;
         }
 
-        const db = getFirestore(app);
-
-        // Corrected: Use doc() for specific document reference
-        const chatDocRef = doc(db, 'chats', chatId);
-        // Corrected: Use collection() for subcollection, passing parent document reference
-        const messagesCollectionRef = collection(chatDocRef, 'messages');
-
-        // 1. Listen for chat conversation details
-        const unsubscribeChat = onSnapshot(chatDocRef, async (docSnapshot) => {
-            if (docSnapshot.exists()) {
-                const fetchedChat = { ...docSnapshot.data() as ChatConversation, id: docSnapshot.id };
-                // Basic authorization check: ensure current user is a participant
-                if (!fetchedChat.participants.includes(user.uid)) {
+        let cancelled = false;
+        let closeStream: (() => void) | undefined;
+        const getIdToken = () => user.getIdToken();
+
+        const openChat = async () => {
+            try {
+                const headers = { Authorization: `Bearer ${await getIdToken()}` };
+                // The backend checks that the current user is a participant for both requests
+                const [fetchedChat, window] = await Promise.all([
+                    chatApi.getChatById(chatId, { headers }),
+                    chatApi.getMessageWindow(chatId, { limit: INITIAL_MESSAGE_LIMIT }, { headers }),
+                ]);
+                if (cancelled) return;
+                setChat(fetchedChat);
+                setMessages(window.messages);
+                setOlderCursor(window.beforeCursor);
+                chatApi.markChatRead(chatId, { headers })
+                    .catch(err => console.warn("Failed to mark chat as read:", err));
+
+                // Resume from the newest message loaded; a message can arrive both ways, so skip known IDs
+                closeStream = chatApi.streamMessages(chatId, window.afterCursor, getIdToken,
+                    message => setMessages(prev => prev.some(existing => existing.id === message.id) ? prev : [...prev, message]),
+                    err => console.warn("Message stream interrupted:", err));
+            } catch (err: any) {
+                if (cancelled) return;
+                console.error("Error loading chat:", err);
+                if (axios.isAxiosError(err) && err.response?.status === 403) {
                     setError("You are not authorized to view this chat.");
+                    toast.error("Unauthorized Access", { description: "You are not a participant of this chat." });
+                } else if (axios.isAxiosError(err) && err.response?.status === 404) {
+                    setError("Chat not found.");
+                    toast.error("Chat Not Found", { description: "The conversation you are looking for does not exist." });
+                } else {
+                    setError("Failed to load chat. Please try again.");
+                    toast.error("Error loading chat", { description: "Could not retrieve the conversation." });
+                }
+            } finally {
+                if (!cancelled) {
                     setIsLoadingChat(false);
                     setIsLoadingMessages(false);
-                    toast.error("Unauthorized Access", { description: "You are not a participant of this chat." });
-                    return;
                 }
-                setChat(fetchedChat);
-                setIsLoadingChat(false);
-            } else {
-                setError("Chat not found.");
-                setIsLoadingChat(false);
-                setIsLoadingMessages(false);
-                toast.error("Chat Not Found", { description: "The conversation you are looking for does not exist." });
-            }
-        }, (err) => {
-            console.error("Error fetching real-time chat details:", err);
-            setError("Failed to load chat details.");
-            setIsLoadingChat(false);
-            toast.error("Error loading chat", { description: "Could not retrieve conversation details." });
-        });
-
-        // 2. Listen for real-time messages
-        const q = query(messagesCollectionRef, orderBy('createdAt', 'asc')); // Order by timestamp
-        const unsubscribeMessages = onSnapshot(q, async (snapshot) => {
-            const fetchedMessages: ChatMessage[] = [];
-            const senderUids: Set<string> = new Set();
-
-            snapshot.forEach(doc => {
-                const messageData = doc.data() as ChatMessage;
-                fetchedMessages.push({ ...messageData, id: doc.id, chatId: chatId });
-                senderUids.add(messageData.senderId);
-            });
-
-            // Fetch sender display names and profile images in batch
-            const userProfilesMap = new Map<string, UserProfile>();
-            if (senderUids.size > 0) {
-                const profilePromises = Array.from(senderUids).map(uid => reviewApi.getUserProfile(uid));
-                const profiles = await Promise.allSettled(profilePromises);
-
-                profiles.forEach(result => {
-                    if (result.status === 'fulfilled') {
-                        userProfilesMap.set(result.value.firebaseUid, result.value);
-                    } else {
-                        console.warn("Failed to fetch profile for a message sender:", result.reason);
-                    }
-                });
             }
+        };
 
-            // Enrich messages with sender display name and profile image
-            const enrichedMessages = fetchedMessages.map(msg => ({
-                ...msg,
-                senderDisplayName: userProfilesMap.get(msg.senderId)?.displayName || 'Unknown User',
-                senderProfileImageUrl: userProfilesMap.get(msg.senderId)?.profileImageUrl || undefined,
-            }));
+        setIsLoadingChat(true);
+        setIsLoadingMessages(true);
+        openChat();
 
-            setMessages(enrichedMessages);
-            setIsLoadingMessages(false);
-        }, (err) => {
-            console.error("Error fetching real-time messages:", err);
-            setError("Failed to load messages. Please try again.");
-            setIsLoadingMessages(false);
-            toast.error("Error loading messages", { description: "Could not retrieve chat messages." });
-        });
-
-        // Cleanup listeners on component unmount
+        // Close the stream on unmount or when the chat changes; messages received while open were read
         return () => {
-            unsubscribeChat();
-            unsubscribeMessages();
+            cancelled = true;
+            if (closeStream) {
+                closeStream();
+                getIdToken()
+                    .then(idToken => chatApi.markChatRead(chatId, { headers: { Authorization: `Bearer ${idToken}` } }))
+                    .catch(err => console.warn("Failed to mark chat as read:", err));
+            }
         };
-    }, [user, authLoading, chatId, navigate]);
+    }, [user, authLoading, chatId]);
+
+    // Prepends the page of messages before the oldest one shown
+    const handleLoadOlder = async () => {
+        if (!user || !chatId || !olderCursor || isLoadingOlder) return;
 
-    // Scroll to bottom of messages when new messages arrive
+        setIsLoadingOlder(true);
+        try {
+            const headers = { Authorization: `Bearer ${await user.getIdToken()}` };
+            const window = await chatApi.getMessageWindow(chatId, { limit: INITIAL_MESSAGE_LIMIT, before: olderCursor }, { headers });
+            setMessages(prev => [...window.messages, ...prev]);
+            setOlderCursor(window.beforeCursor);
+        } catch (err: any) {
+            console.error('Failed to load older messages:', err);
+            toast.error("Failed to load older messages");
+        } finally {
+            setIsLoadingOlder(false);
+        }
+    };
+
+    // Scroll to bottom of messages when new messages arrive (not when older ones are loaded above)
+    const newestMessageId = messages.length > 0 ? messages[messages.length - 1].id : undefined;
     useEffect(() => {
         messagesEndRef.current?.scrollIntoView({ behavior: "smooth" });
-    }, [messages]);
+    }, [newestMessageId]);
 
     const handleSendMessage = async (text: string) => {
         if (!user || !chatId || !text.trim() || isSendingMessage) return;
@@ -148,7 +142,7 @@ export default function ChatRoomPage() {
 
             // Call backend API to add message
             await chatApi.addMessage(chatId, messagePayload, { headers });
-            // Firestore listener will automatically update the messages state
+            // The message stream delivers the new message to every participant, including the sender
             toast.success("Message sent!");
         } catch (err: any) {
             console.error('Failed to send message:', err);
@@ -209,6 +203,11 @@ export default function ChatRoomPage() {
                     </div>
                 </CardHeader>
                 <CardContent className="flex-1 overflow-y-auto p-4 flex flex-col space-y-4 custom-scrollbar">
+                    {olderCursor && (
+                        <Button variant="ghost" onClick={handleLoadOlder} disabled={isLoadingOlder} className="self-center text-neutral-400 hover:bg-neutral-800 hover:text-neutral-100">
+                            {isLoadingOlder ? 'Loading...' : 'Load earlier messages'}
+                        </Button>
+                    )}
                     {messages.length === 0 ? (
                         <div className="flex-1 flex items-center justify-center text-neutral-400">
                             <p>No messages yet. Start the conversation!</p>
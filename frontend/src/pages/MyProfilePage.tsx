@@ -11,7 +11,7 @@ import { ReviewsList } from '@/components/reputation/ReviewsList';
 import { reviewApi } from '@/api/ReviewService';
 import { chatApi } from '@/api/ChatService'; // Import chatApi
 import type { UserProfile } from '@/types/UserProfile';
-import type { Review } from '@/types/Review';
+import type { RatingSummary, Review } from '@/types/Review';
 import type { ChatConversation } from '@/types/Chat'; // Import ChatConversation type
 import { toast } from 'sonner';
 import { MessageSquare, MessageSquareText } from 'lucide-react'; // Import icons: MessageSquare for general chat, MessageSquareText for the list
@@ -24,8 +24,11 @@ export default function MyProfilePage() {
 
     const [userProfile, setUserProfile] = useState<UserProfile | null>(null);
     const [reviewsReceived, setReviewsReceived] = useState<Review[]>([]);
+    const [reviewsCursor, setReviewsCursor] = useState<string | undefined>(undefined); // Next page of reviews, if any
+    const [ratingSummary, setRatingSummary] = useState<RatingSummary | null>(null);
     const [isLoading, setIsLoading] = useState(true);
     const [isLoadingReviews, setIsLoadingReviews] = useState(true);
+    const [isLoadingMoreReviews, setIsLoadingMoreReviews] = useState(false);
     const [error, setError] = useState<string | null>(null);
     const [reviewsError, setReviewsError] = useState<string | null>(null);
     const [isCreatingChat, setIsCreatingChat] = useState(false);
@@ -98,11 +101,14 @@ export default function MyProfilePage() {
                 const idToken = user ? await user.getIdToken(true) : null;
                 const headers = idToken ? { Authorization: `Bearer ${idToken}` } : {};
 
-                const reviews = await reviewApi.getReviewsReceivedByUser(
-                    targetUserId,
-                    { headers }
-                );
-                setReviewsReceived(reviews);
+                // The summary counts every review, while the list below loads a page at a time
+                const [firstPage, summary] = await Promise.all([
+                    reviewApi.getReviewsReceivedByUser(targetUserId, undefined, { headers }),
+                    reviewApi.getRatingSummary(targetUserId, { headers }),
+                ]);
+                setReviewsReceived(firstPage.reviews);
+                setReviewsCursor(firstPage.nextCursor);
+                setRatingSummary(summary);
             } catch (err: any) {
                 console.error('Error fetching reviews:', err);
                 if (axios.isAxiosError(err) && err.response) {
@@ -125,10 +131,38 @@ export default function MyProfilePage() {
         }
     }, [targetUserId, isLoading, error, userProfile, user, navigate]);
 
+    // Appends the next page of reviews
+    const handleLoadMoreReviews = async () => {
+        if (!targetUserId || !reviewsCursor || isLoadingMoreReviews) return;
+
+        setIsLoadingMoreReviews(true);
+        try {
+            const idToken = user ? await user.getIdToken(true) : null;
+            const headers = idToken ? { Authorization: `Bearer ${idToken}` } : {};
+
+            const nextPage = await reviewApi.getReviewsReceivedByUser(targetUserId, reviewsCursor, { headers });
+            setReviewsReceived(prev => [...prev, ...nextPage.reviews]);
+            setReviewsCursor(nextPage.nextCursor);
+        } catch (err: any) {
+            console.error('Error fetching more reviews:', err);
+            toast.error('Failed to load more reviews. Please try again.');
+        } finally {
+            setIsLoadingMoreReviews(false);
+        }
+    };
+
     // Handle review deletion (if viewing own profile, they can delete reviews they wrote)
-    const handleReviewDeleted = (deletedReviewId: string) => {
+    const handleReviewDeleted = async (deletedReviewId: string) => {
         setReviewsReceived(prev => prev.filter(review => review.id !== deletedReviewId));
         toast.success("Review deleted successfully!");
+        if (!targetUserId) return;
+        try {
+            const idToken = user ? await user.getIdToken(true) : null;
+            const headers = idToken ? { Authorization: `Bearer ${idToken}` } : {};
+            setRatingSummary(await reviewApi.getRatingSummary(targetUserId, { headers }));
+        } catch (err: any) {
+            console.error('Error refreshing rating summary:', err);
+        }
     };
 
     // Handle starting a new chat
@@ -218,7 +252,9 @@ export default function MyProfilePage() {
                     {isViewingOwnProfile && user?.email && (
                         <p className="text-md text-gray-600">Email: {user.email}</p>
                     )}
-                    {userProfile.rating !== undefined && userProfile.rating !== null && (
+                    {ratingSummary ? (
+                        <ReputationDisplay rating={ratingSummary.averageRating} numReviews={ratingSummary.reviewCount} className="mt-2" />
+                    ) : userProfile.rating !== undefined && userProfile.rating !== null && (
                         <ReputationDisplay rating={userProfile.rating} className="mt-2" />
                     )}
                 </div>
@@ -291,6 +327,13 @@ export default function MyProfilePage() {
                         onReviewDeleted={handleReviewDeleted}
                     />
                 )}
+                {!isLoadingReviews && !reviewsError && reviewsCursor && (
+                    <div className="text-center mt-4">
+                        <Button variant="outline" onClick={handleLoadMoreReviews} disabled={isLoadingMoreReviews}>
+                            {isLoadingMoreReviews ? 'Loading...' : 'Load More Reviews'}
+                        </Button>
+                    </div>
+                )}
             </div>
         </div>
     );
@@ -13,6 +13,8 @@ export interface BarterPost {
   tags: string[];
   preferredExchange: string;
   imageUrl?: string | null;
+  thumbnailUrl?: string | null;  // Small variant of imageUrl for cards
+  imageStatus?: 'pending' | 'failed' | null; // Set while the image of a new post uploads, or if that upload failed
   location: string;
   availability: AvailabilityRange[];
   status: string;
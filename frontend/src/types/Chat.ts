@@ -18,6 +18,26 @@ export interface ChatConversation {
     lastMessage?: LastMessage; // Optional: Summary of the last message
 }
 
+// One row of the current user's chat list, as returned by GET /chats/inbox
+export interface ChatInboxEntry {
+    chatId: string;
+    ownerUid: string; // Firebase UID of the user whose chat list this is
+    type: 'direct' | 'group';
+    name?: string; // Group chat name
+    counterpartUid?: string; // Direct chats only: the other participant
+    counterpartDisplayName?: string;
+    counterpartProfileImageUrl?: string;
+    lastMessage?: LastMessage; // Text cut to a short snippet
+    unreadCount: number;
+    updatedAt: string; // ISO_DATE_TIME string
+}
+
+// One page of the chat list; nextCursor is absent on the last page
+export interface InboxPage {
+    entries: ChatInboxEntry[];
+    nextCursor?: string;
+}
+
 // Represents an individual message document in a chat subcollection
 export interface ChatMessage {
     id: string; // Firestore document ID for the message
@@ -29,6 +49,13 @@ export interface ChatMessage {
     senderProfileImageUrl?: string; // Populated from UserProfile for display
 }
 
+// A window of messages in chronological order, with the cursors from X-Before-Cursor and X-After-Cursor
+export interface MessageWindow {
+    messages: ChatMessage[];
+    beforeCursor?: string; // Absent when there are no older messages
+    afterCursor?: string; // Cursor of the newest message in the window
+}
+
 // Payload for creating a new chat conversation
 export interface CreateChatPayload {
     participants: string[];
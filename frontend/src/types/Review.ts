@@ -14,4 +14,17 @@ export interface Review {
         firebaseUid: string;
         displayName: string;
     };
-}
\ No newline at end of file
+}
+// One page of reviews; nextCursor is absent on the last page
+export interface ReviewPage {
+    reviews: Review[];
+    nextCursor?: string;
+}
+
+// Returned by GET /reviews/summary/{firebaseUid}; histogram counts reviews per star, keyed "1" to "5"
+export interface RatingSummary {
+    firebaseUid: string;
+    reviewCount: number;
+    averageRating: number;
+    histogram: Record<string, number>;
+}